@@ -1,11 +1,72 @@
 package com.iogogogo.aspect;
 
+import com.iogogogo.aspect.async.AsyncLogDispatcher;
+import com.iogogogo.aspect.async.AsyncLogDispatcherMetrics;
+import com.iogogogo.aspect.context.RequestSnapshotFilter;
+import com.iogogogo.aspect.context.RequestSnapshotTaskDecorator;
+import com.iogogogo.aspect.core.AspectLogAdvisor;
+import com.iogogogo.aspect.core.AspectLogEventWriter;
+import com.iogogogo.aspect.core.AspectLogPointcut;
+import com.iogogogo.aspect.core.AspectLogSettingsProvider;
+import com.iogogogo.aspect.core.AspectLogSettingsRefresher;
+import com.iogogogo.aspect.core.AspectLogSupport;
+import com.iogogogo.aspect.core.ErrorTraceThrottle;
+import com.iogogogo.aspect.core.HostInfoProvider;
+import com.iogogogo.aspect.core.InetUtils;
+import com.iogogogo.aspect.core.MethodLogDescriptorCache;
+import com.iogogogo.aspect.core.ReactiveAspectLog;
 import com.iogogogo.aspect.core.WebAspectLog;
+import com.iogogogo.aspect.endpoint.AspectLatencyEndpoint;
+import com.iogogogo.aspect.endpoint.AspectLogEndpoint;
+import com.iogogogo.aspect.endpoint.AspectSettingsEndpoint;
+import com.iogogogo.aspect.event.AspectLogEncoder;
+import com.iogogogo.aspect.metrics.HistogramLatencyRecorder;
+import com.iogogogo.aspect.metrics.LatencyRecorder;
+import com.iogogogo.aspect.metrics.MicrometerLatencyRecorder;
+import com.iogogogo.aspect.net.ClientAddressResolver;
 import com.iogogogo.aspect.properties.AspectLogProperties;
 import com.iogogogo.aspect.properties.InetUtilsProperties;
+import com.iogogogo.aspect.render.Redactor;
+import com.iogogogo.aspect.render.SafeRenderers;
+import com.iogogogo.aspect.render.TypeRenderer;
+import com.iogogogo.aspect.render.ValueRenderer;
+import com.iogogogo.aspect.sampling.Sampler;
+import com.iogogogo.aspect.sink.AspectLogSink;
+import com.iogogogo.aspect.sink.MappedFileSink;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Metrics;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.springframework.aop.config.AopConfigUtils;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.config.BeanDefinition;
+import org.springframework.beans.factory.support.BeanDefinitionRegistry;
+import org.springframework.boot.autoconfigure.condition.AnyNestedCondition;
+import org.springframework.boot.actuate.autoconfigure.endpoint.condition.ConditionalOnAvailableEndpoint;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnClass;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnMissingBean;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnNotWebApplication;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
 import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.boot.context.properties.bind.Binder;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.boot.web.servlet.filter.OrderedFilter;
+import org.springframework.context.EnvironmentAware;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Conditional;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.ImportBeanDefinitionRegistrar;
 import org.springframework.context.annotation.Import;
+import org.springframework.context.annotation.Role;
+import org.springframework.core.env.Environment;
+import org.springframework.core.task.TaskDecorator;
+import org.springframework.core.type.AnnotationMetadata;
+import org.springframework.web.filter.reactive.ServerWebExchangeContextFilter;
+
+import java.nio.file.Paths;
+import java.util.List;
+import java.util.stream.Collectors;
 
 /**
  * https://blog.csdn.net/u010675669/article/details/109010042
@@ -16,10 +77,303 @@ import org.springframework.context.annotation.Import;
  * <p>
  * proxyBeanMethods = false ==> 告诉springboot这是一个配置类 == 配置文件
  * <p>
+ * aspect.enable=false 时整个配置类(含嵌套配置)都不生效，不注册切面及其依赖的任何bean
+ * <p>
  * Created by tao.zeng on 2021/6/21.
  */
 @Configuration(proxyBeanMethods = false)
+@ConditionalOnProperty(prefix = "aspect", name = "enable", havingValue = "true", matchIfMissing = true)
 @EnableConfigurationProperties(value = {AspectLogProperties.class, InetUtilsProperties.class})
-@Import({WebAspectLog.class})
 public class AspectLogAutoConfiguration {
+
+    /**
+     * 代替 @Aspect + @annotation 表达式：先按类过滤，只有类上或方法上出现 @AspectLog 的类才逐个方法匹配
+     * <p>
+     * 自动代理创建器会提前实例化Advisor，static避免连带实例化本配置类
+     */
+    @Bean
+    @Role(BeanDefinition.ROLE_INFRASTRUCTURE)
+    @ConditionalOnMissingBean
+    public static AspectLogAdvisor aspectLogAdvisor(AspectLogProperties aspectLogProperties, ObjectProvider<AspectLogSupport> aspectLogSupport) {
+        AspectLogProperties.Pointcut pointcut = aspectLogProperties.getPointcut();
+        return new AspectLogAdvisor(new AspectLogPointcut(pointcut.getIncludes(), pointcut.getExcludes()), aspectLogSupport);
+    }
+
+    @Bean(destroyMethod = "close")
+    @ConditionalOnMissingBean
+    public HostInfoProvider hostInfoProvider(AspectLogProperties aspectLogProperties, InetUtilsProperties inetUtilsProperties) {
+        return new HostInfoProvider(new InetUtils(inetUtilsProperties), inetUtilsProperties, aspectLogProperties.getHost());
+    }
+
+    @Bean
+    @ConditionalOnMissingBean
+    public ClientAddressResolver clientAddressResolver(AspectLogProperties aspectLogProperties, HostInfoProvider hostInfoProvider) {
+        return new ClientAddressResolver(aspectLogProperties.getClientIp().getTrustedProxies(),
+                () -> hostInfoProvider.get().getIpAddress());
+    }
+
+    @Bean
+    @ConditionalOnMissingBean
+    public MethodLogDescriptorCache methodLogDescriptorCache() {
+        return new MethodLogDescriptorCache();
+    }
+
+    @Bean
+    @ConditionalOnMissingBean
+    public AspectLogSettingsProvider aspectLogSettingsProvider(AspectLogProperties aspectLogProperties) {
+        return new AspectLogSettingsProvider(aspectLogProperties);
+    }
+
+    /**
+     * 配置刷新(Spring Cloud EnvironmentChangeEvent)后重新发布快照
+     */
+    @Bean
+    @ConditionalOnMissingBean
+    public AspectLogSettingsRefresher aspectLogSettingsRefresher(AspectLogSettingsProvider aspectLogSettingsProvider, Environment environment) {
+        return new AspectLogSettingsRefresher(aspectLogSettingsProvider, environment);
+    }
+
+    @Bean
+    @ConditionalOnMissingBean
+    public Sampler sampler(AspectLogSettingsProvider aspectLogSettingsProvider) {
+        return new Sampler(aspectLogSettingsProvider);
+    }
+
+    @Bean
+    @ConditionalOnMissingBean
+    public ErrorTraceThrottle errorTraceThrottle(AspectLogProperties aspectLogProperties) {
+        return new ErrorTraceThrottle(aspectLogProperties.getError());
+    }
+
+    @Bean
+    @ConditionalOnMissingBean
+    public AspectLogEncoder aspectLogEncoder(AspectLogProperties aspectLogProperties) {
+        return aspectLogProperties.getFormat().encoder();
+    }
+
+    @Bean
+    @ConditionalOnMissingBean
+    public ValueRenderer valueRenderer(AspectLogProperties aspectLogProperties, ObjectProvider<TypeRenderer> typeRenderers) {
+        AspectLogProperties.Render render = aspectLogProperties.getRender();
+        // 自定义的优先于内置的
+        List<TypeRenderer> renderers = typeRenderers.orderedStream().collect(Collectors.toList());
+        renderers.addAll(SafeRenderers.defaults());
+        AspectLogProperties.Render.Redaction redaction = render.getRedaction();
+        Redactor redactor = redaction.isEnabled()
+                ? new Redactor(redaction.getFieldNames(), redaction.getValuePatterns(), redaction.getMask())
+                : Redactor.none();
+        return new ValueRenderer(render.getMaxChars(), render.getMaxElements(), render.getMaxDepth(), renderers, redactor);
+    }
+
+    @Bean
+    @ConditionalOnMissingBean
+    @ConditionalOnProperty(prefix = "aspect.sink.logger", name = "enabled", havingValue = "true", matchIfMissing = true)
+    public AspectLogEventWriter aspectLogEventWriter(AspectLogEncoder aspectLogEncoder) {
+        return new AspectLogEventWriter(aspectLogEncoder);
+    }
+
+    @Bean(destroyMethod = "close")
+    @ConditionalOnMissingBean
+    @ConditionalOnProperty(prefix = "aspect.sink.file", name = "enabled", havingValue = "true")
+    public MappedFileSink mappedFileSink(AspectLogProperties aspectLogProperties, AspectLogEncoder aspectLogEncoder) {
+        AspectLogProperties.Sink.File file = aspectLogProperties.getSink().getFile();
+        return new MappedFileSink(Paths.get(file.getDirectory()), (int) file.getSegmentSize().toBytes(), file.getMaxSegments(),
+                file.getFlushInterval(), file.getEncoding().encoder(aspectLogEncoder, file.getMaxSummaryChars()));
+    }
+
+    /**
+     * 先于各输出端销毁，关闭时队列中剩余的事件仍能写出
+     */
+    @Bean(destroyMethod = "close")
+    @ConditionalOnMissingBean
+    @ConditionalOnProperty(prefix = "aspect.async", name = "enabled", havingValue = "true")
+    public AsyncLogDispatcher asyncLogDispatcher(AspectLogProperties aspectLogProperties, ObjectProvider<AspectLogSink> aspectLogSinks) {
+        AspectLogProperties.Async async = aspectLogProperties.getAsync();
+        AspectLogSink sink = AspectLogSink.of(aspectLogSinks.orderedStream().collect(Collectors.toList()));
+        return new AsyncLogDispatcher(sink, async.getBufferSize(), async.getBatchSize(),
+                async.getOverflowPolicy(), async.getSampleRate());
+    }
+
+    @Bean
+    @ConditionalOnMissingBean
+    @ConditionalOnProperty(prefix = "aspect.metrics", name = "enabled", havingValue = "true", matchIfMissing = true)
+    public HistogramLatencyRecorder histogramLatencyRecorder() {
+        return new HistogramLatencyRecorder();
+    }
+
+    /**
+     * 只负责注册自动代理创建器，是否使用CGLIB由应用(spring.aop.proxy-target-class)决定，aspect.proxy.expose-proxy=true 时暴露代理
+     */
+    @Configuration(proxyBeanMethods = false)
+    @Import(AutoProxyRegistrar.class)
+    static class AspectLogProxyConfiguration {
+    }
+
+    static class AutoProxyRegistrar implements ImportBeanDefinitionRegistrar, EnvironmentAware {
+
+        private Environment environment;
+
+        @Override
+        public void setEnvironment(Environment environment) {
+            this.environment = environment;
+        }
+
+        @Override
+        public void registerBeanDefinitions(AnnotationMetadata importingClassMetadata, BeanDefinitionRegistry registry) {
+            // 已有(如 AopAutoConfiguration 注册的)时不重复注册；AspectLogAdvisor 为基础设施角色，最基础的创建器即可识别
+            AopConfigUtils.registerAutoProxyCreatorIfNecessary(registry);
+            if (Binder.get(environment).bind("aspect.proxy.expose-proxy", Boolean.class).orElse(false)) {
+                // 设置在同一个创建器定义上，之后被升级为 AspectJ 创建器时仍然保留
+                AopConfigUtils.forceAutoProxyCreatorToExposeProxy(registry);
+            }
+        }
+    }
+
+    @Configuration(proxyBeanMethods = false)
+    @Conditional(NotReactiveCondition.class)
+    static class ServletAspectLogConfiguration {
+
+        @Bean
+        @ConditionalOnMissingBean(AspectLogSupport.class)
+        public WebAspectLog webAspectLog(HostInfoProvider hostInfoProvider, ClientAddressResolver clientAddressResolver,
+                                         ObjectProvider<AspectLogSink> sinks, ValueRenderer renderer,
+                                         MethodLogDescriptorCache descriptors, ObjectProvider<LatencyRecorder> recorders,
+                                         Sampler sampler, AspectLogSettingsProvider settings, ErrorTraceThrottle errorTraceThrottle,
+                                         ObjectProvider<AsyncLogDispatcher> dispatcher, AspectLogProperties aspectLogProperties) {
+            return new WebAspectLog(hostInfoProvider, clientAddressResolver, sinks, renderer, descriptors, recorders,
+                    sampler, settings, errorTraceThrottle, dispatcher, aspectLogProperties.getNested());
+        }
+    }
+
+    @Configuration(proxyBeanMethods = false)
+    @ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.REACTIVE)
+    static class ReactiveAspectLogConfiguration {
+
+        @Bean
+        @ConditionalOnMissingBean(AspectLogSupport.class)
+        public ReactiveAspectLog reactiveAspectLog(HostInfoProvider hostInfoProvider, ClientAddressResolver clientAddressResolver,
+                                                   ObjectProvider<AspectLogSink> sinks, ValueRenderer renderer,
+                                                   MethodLogDescriptorCache descriptors, ObjectProvider<LatencyRecorder> recorders,
+                                                   Sampler sampler, AspectLogSettingsProvider settings, ErrorTraceThrottle errorTraceThrottle,
+                                                   ObjectProvider<AsyncLogDispatcher> dispatcher) {
+            return new ReactiveAspectLog(hostInfoProvider, clientAddressResolver, sinks, renderer, descriptors, recorders,
+                    sampler, settings, errorTraceThrottle, dispatcher);
+        }
+    }
+
+    /**
+     * servlet 应用与非web应用
+     */
+    static class NotReactiveCondition extends AnyNestedCondition {
+
+        NotReactiveCondition() {
+            super(ConfigurationPhase.PARSE_CONFIGURATION);
+        }
+
+        @ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
+        static class Servlet {
+        }
+
+        @ConditionalOnNotWebApplication
+        static class NotWeb {
+        }
+    }
+
+    @Configuration(proxyBeanMethods = false)
+    @ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
+    static class RequestSnapshotConfiguration {
+
+        @Bean
+        @ConditionalOnMissingBean(name = "requestSnapshotFilter")
+        public FilterRegistrationBean<RequestSnapshotFilter> requestSnapshotFilter(ClientAddressResolver clientAddressResolver) {
+            FilterRegistrationBean<RequestSnapshotFilter> registration = new FilterRegistrationBean<>(new RequestSnapshotFilter(clientAddressResolver));
+            // 在包装request的过滤器(ForwardedHeaderFilter等)之后
+            registration.setOrder(OrderedFilter.REQUEST_WRAPPER_FILTER_MAX_ORDER);
+            return registration;
+        }
+
+        /**
+         * 应用已有 TaskDecorator 时不注册，可在其中调用 RequestSnapshotTaskDecorator#decorate
+         */
+        @Bean
+        @ConditionalOnMissingBean(TaskDecorator.class)
+        public RequestSnapshotTaskDecorator requestSnapshotTaskDecorator() {
+            return new RequestSnapshotTaskDecorator();
+        }
+    }
+
+    @Configuration(proxyBeanMethods = false)
+    @ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.REACTIVE)
+    static class ReactiveRequestConfiguration {
+
+        /**
+         * 把 ServerWebExchange 写入 Reactor Context，供 ReactiveAspectLog 读取
+         */
+        @Bean
+        @ConditionalOnMissingBean
+        public ServerWebExchangeContextFilter serverWebExchangeContextFilter() {
+            return new ServerWebExchangeContextFilter();
+        }
+    }
+
+    @Configuration(proxyBeanMethods = false)
+    @ConditionalOnClass(MeterRegistry.class)
+    @ConditionalOnProperty(prefix = "aspect.metrics", name = "enabled", havingValue = "true", matchIfMissing = true)
+    static class MicrometerLatencyConfiguration {
+
+        @Bean
+        @ConditionalOnMissingBean
+        public MicrometerLatencyRecorder micrometerLatencyRecorder(ObjectProvider<MeterRegistry> meterRegistry) {
+            // 通过@EnableAspectLog导入时先于actuator的自动配置解析，不能用@ConditionalOnBean
+            return new MicrometerLatencyRecorder(meterRegistry.getIfAvailable(() -> Metrics.globalRegistry));
+        }
+    }
+
+    @Configuration(proxyBeanMethods = false)
+    @ConditionalOnClass(Endpoint.class)
+    @ConditionalOnProperty(prefix = "aspect.metrics", name = "enabled", havingValue = "true", matchIfMissing = true)
+    static class AspectLatencyEndpointConfiguration {
+
+        @Bean
+        @ConditionalOnMissingBean
+        @ConditionalOnAvailableEndpoint
+        public AspectLatencyEndpoint aspectLatencyEndpoint(HistogramLatencyRecorder histogramLatencyRecorder) {
+            return new AspectLatencyEndpoint(histogramLatencyRecorder);
+        }
+    }
+
+    @Configuration(proxyBeanMethods = false)
+    @ConditionalOnClass(Endpoint.class)
+    static class AspectLogEndpointConfiguration {
+
+        @Bean
+        @ConditionalOnMissingBean
+        @ConditionalOnAvailableEndpoint
+        public AspectLogEndpoint aspectLogEndpoint(MethodLogDescriptorCache methodLogDescriptorCache) {
+            return new AspectLogEndpoint(methodLogDescriptorCache);
+        }
+    }
+
+    @Configuration(proxyBeanMethods = false)
+    @ConditionalOnClass(Endpoint.class)
+    static class AspectSettingsEndpointConfiguration {
+
+        @Bean
+        @ConditionalOnMissingBean
+        @ConditionalOnAvailableEndpoint
+        public AspectSettingsEndpoint aspectSettingsEndpoint(AspectLogSettingsProvider aspectLogSettingsProvider) {
+            return new AspectSettingsEndpoint(aspectLogSettingsProvider);
+        }
+    }
+
+    @Configuration(proxyBeanMethods = false)
+    @ConditionalOnClass(MeterBinder.class)
+    @ConditionalOnProperty(prefix = "aspect.async", name = "enabled", havingValue = "true")
+    static class AsyncLogMetricsConfiguration {
+
+        @Bean
+        public AsyncLogDispatcherMetrics asyncLogDispatcherMetrics(AsyncLogDispatcher asyncLogDispatcher) {
+            return new AsyncLogDispatcherMetrics(asyncLogDispatcher);
+        }
+    }
 }
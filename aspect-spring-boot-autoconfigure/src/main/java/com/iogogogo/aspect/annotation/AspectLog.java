@@ -6,9 +6,52 @@ import java.lang.annotation.RetentionPolicy;
 import java.lang.annotation.Target;
 
 /**
+ * 标注在方法上，或标注在类上(该类及子类的全部public方法，不含 toString/equals/hashCode)，两处都有时以方法上的为准
+ * <p>
  * Created by tao.zeng on 2021/6/21.
  */
-@Target(ElementType.METHOD)
+@Target({ElementType.METHOD, ElementType.TYPE})
 @Retention(RetentionPolicy.RUNTIME)
 public @interface AspectLog {
+
+    /**
+     * 是否输出参数
+     */
+    boolean logArgs() default true;
+
+    /**
+     * 是否输出返回值
+     */
+    boolean logResponse() default true;
+
+    /**
+     * 采样比例 0~1，小于0时使用 aspect.sampling.rate
+     */
+    double sampleRate() default -1;
+
+    /**
+     * 每秒最多输出的记录数，0不限制，小于0时使用 aspect.sampling.rate-limit
+     */
+    int rateLimit() default -1;
+
+    /**
+     * 慢调用阈值(毫秒)，大于0时只输出超过阈值的调用，0关闭，小于0时使用 aspect.slow-threshold
+     */
+    long slowThresholdMs() default -1;
+
+    /**
+     * 标注在参数上，该参数不输出
+     */
+    @Target(ElementType.PARAMETER)
+    @Retention(RetentionPolicy.RUNTIME)
+    @interface Ignore {
+    }
+
+    /**
+     * 标注在参数或字段上，只输出掩码；名为 Sensitive 的其他注解效果相同
+     */
+    @Target({ElementType.PARAMETER, ElementType.FIELD})
+    @Retention(RetentionPolicy.RUNTIME)
+    @interface Mask {
+    }
 }
@@ -6,6 +6,8 @@ import org.springframework.context.annotation.Import;
 import java.lang.annotation.*;
 
 /**
+ * 引入starter后通过 spring.factories 自动配置，不再需要此注解，保留用于兼容
+ * <p>
  * Created by tao.zeng on 2021/6/21.
  */
 @Target(ElementType.TYPE)
@@ -0,0 +1,190 @@
+package com.iogogogo.aspect.async;
+
+import com.iogogogo.aspect.event.AspectLogEvent;
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.Closeable;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.Consumer;
+
+/**
+ * 异步日志输出
+ * <p>
+ * 请求线程只把事件放入 {@link RingBuffer}，由独立的消费线程批量交给输出端；消费线程在第一次发布时才启动
+ */
+@Slf4j
+public class AsyncLogDispatcher implements Closeable {
+
+    private static final long IDLE_PARK_NANOS = TimeUnit.MILLISECONDS.toNanos(10);
+
+    private static final long BLOCK_PARK_NANOS = TimeUnit.MICROSECONDS.toNanos(50);
+
+    private final RingBuffer<AspectLogEvent> buffer;
+
+    private final Consumer<AspectLogEvent> handler;
+
+    private final int batchSize;
+
+    private final OverflowPolicy overflowPolicy;
+
+    private final double sampleRate;
+
+    private final Thread consumer;
+
+    private final LongAdder published = new LongAdder();
+
+    private final LongAdder dropped = new LongAdder();
+
+    private volatile boolean running = true;
+
+    private volatile boolean started;
+
+    private volatile boolean sleeping;
+
+    // 以下统计只由消费线程写
+    private volatile long drainCount;
+
+    private volatile long drainTotalNanos;
+
+    private volatile long drainMaxNanos;
+
+    public AsyncLogDispatcher(Consumer<AspectLogEvent> handler, int bufferSize, int batchSize,
+                              OverflowPolicy overflowPolicy, double sampleRate) {
+        this.buffer = new RingBuffer<>(bufferSize);
+        this.handler = handler;
+        this.batchSize = Math.max(1, batchSize);
+        this.overflowPolicy = overflowPolicy;
+        this.sampleRate = sampleRate;
+        this.consumer = new Thread(this::drainLoop, "aspect-log-dispatcher");
+        this.consumer.setDaemon(true);
+    }
+
+    /**
+     * 关闭之后(或消费线程已退出)发布的事件计入丢弃
+     *
+     * @return 是否成功入队
+     */
+    public boolean publish(AspectLogEvent event) {
+        if (!running) {
+            dropped.increment();
+            return false;
+        }
+        if (!started) {
+            startConsumer();
+        }
+        if (overflowPolicy == OverflowPolicy.BLOCK) {
+            while (!buffer.offer(event)) {
+                if (!running) {
+                    dropped.increment();
+                    return false;
+                }
+                LockSupport.parkNanos(this, BLOCK_PARK_NANOS);
+            }
+        } else {
+            if (overflowPolicy == OverflowPolicy.SAMPLE
+                    && buffer.size() >= buffer.capacity() >> 1
+                    && ThreadLocalRandom.current().nextDouble() >= sampleRate) {
+                dropped.increment();
+                return false;
+            }
+            if (!buffer.offer(event)) {
+                dropped.increment();
+                return false;
+            }
+        }
+        published.increment();
+        if (sleeping) {
+            LockSupport.unpark(consumer);
+        }
+        return true;
+    }
+
+    private synchronized void startConsumer() {
+        if (!started && running) {
+            consumer.start();
+            started = true;
+        }
+    }
+
+    private void drainLoop() {
+        List<AspectLogEvent> batch = new ArrayList<>(batchSize);
+        try {
+            while (running || !buffer.isEmpty()) {
+                if (buffer.drainTo(batch, batchSize) == 0) {
+                    sleeping = true;
+                    if (buffer.isEmpty()) {
+                        LockSupport.parkNanos(this, IDLE_PARK_NANOS);
+                    }
+                    sleeping = false;
+                    continue;
+                }
+                long start = System.nanoTime();
+                for (AspectLogEvent event : batch) {
+                    try {
+                        handler.accept(event);
+                    } catch (Throwable e) {
+                        // 输出端抛出的Error(如 NoClassDefFoundError、StackOverflowError)同样只丢弃这一条
+                        log.warn("Write aspect log event failed", e);
+                    }
+                }
+                batch.clear();
+                long elapsed = System.nanoTime() - start;
+                drainCount++;
+                drainTotalNanos += elapsed;
+                if (elapsed > drainMaxNanos) {
+                    drainMaxNanos = elapsed;
+                }
+            }
+        } finally {
+            // 消费线程意外退出时按已关闭处理，BLOCK 模式的发布方不会一直等待
+            running = false;
+        }
+    }
+
+    @Override
+    public synchronized void close() {
+        running = false;
+        if (!started) {
+            return;
+        }
+        LockSupport.unpark(consumer);
+        try {
+            consumer.join(TimeUnit.SECONDS.toMillis(5));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    public int getQueueDepth() {
+        return buffer.size();
+    }
+
+    public int getCapacity() {
+        return buffer.capacity();
+    }
+
+    public long getPublished() {
+        return published.sum();
+    }
+
+    public long getDropped() {
+        return dropped.sum();
+    }
+
+    public long getDrainCount() {
+        return drainCount;
+    }
+
+    public long getDrainTotalNanos() {
+        return drainTotalNanos;
+    }
+
+    public long getDrainMaxNanos() {
+        return drainMaxNanos;
+    }
+}
@@ -0,0 +1,44 @@
+package com.iogogogo.aspect.async;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.FunctionTimer;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.TimeGauge;
+import io.micrometer.core.instrument.binder.MeterBinder;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * {@link AsyncLogDispatcher} 队列深度、丢弃数、批量输出耗时
+ */
+public class AsyncLogDispatcherMetrics implements MeterBinder {
+
+    private static final String PREFIX = "aspect.log.async";
+
+    private final AsyncLogDispatcher dispatcher;
+
+    public AsyncLogDispatcherMetrics(AsyncLogDispatcher dispatcher) {
+        this.dispatcher = dispatcher;
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        Gauge.builder(PREFIX + ".queue.depth", dispatcher, AsyncLogDispatcher::getQueueDepth)
+                .description("Events waiting in the ring buffer")
+                .register(registry);
+        Gauge.builder(PREFIX + ".queue.capacity", dispatcher, AsyncLogDispatcher::getCapacity)
+                .register(registry);
+        FunctionCounter.builder(PREFIX + ".published", dispatcher, AsyncLogDispatcher::getPublished)
+                .register(registry);
+        FunctionCounter.builder(PREFIX + ".dropped", dispatcher, AsyncLogDispatcher::getDropped)
+                .description("Events rejected by the overflow policy")
+                .register(registry);
+        FunctionTimer.builder(PREFIX + ".drain", dispatcher,
+                AsyncLogDispatcher::getDrainCount, AsyncLogDispatcher::getDrainTotalNanos, TimeUnit.NANOSECONDS)
+                .description("Time to hand one batch to the sink")
+                .register(registry);
+        TimeGauge.builder(PREFIX + ".drain.max", dispatcher, TimeUnit.NANOSECONDS, AsyncLogDispatcher::getDrainMaxNanos)
+                .register(registry);
+    }
+}
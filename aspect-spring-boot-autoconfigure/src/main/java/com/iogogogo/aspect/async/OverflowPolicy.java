@@ -0,0 +1,22 @@
+package com.iogogogo.aspect.async;
+
+/**
+ * 队列满时的处理策略
+ */
+public enum OverflowPolicy {
+
+    /**
+     * 直接丢弃
+     */
+    DROP,
+
+    /**
+     * 阻塞请求线程直到有空位
+     */
+    BLOCK,
+
+    /**
+     * 队列过半后按比例采样，满了再丢弃
+     */
+    SAMPLE
+}
@@ -0,0 +1,89 @@
+package com.iogogogo.aspect.async;
+
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * 有界、预分配的多生产者单消费者环形队列
+ * <p>
+ * 生产者CAS抢占序号后写入槽位，消费者按序号读取并清空槽位；槽位为null说明生产者尚未写完，消费者停在该处等待下一轮
+ */
+public class RingBuffer<E> {
+
+    private final AtomicReferenceArray<E> slots;
+
+    private final int capacity;
+
+    private final int mask;
+
+    /**
+     * 下一个可抢占的生产序号
+     */
+    private final AtomicLong tail = new AtomicLong();
+
+    /**
+     * 下一个待消费序号，只有消费者线程写
+     */
+    private final AtomicLong head = new AtomicLong();
+
+    public RingBuffer(int capacity) {
+        if (capacity < 2) {
+            throw new IllegalArgumentException("capacity must be >= 2: " + capacity);
+        }
+        // 向上取2的幂，用位运算代替取模
+        this.capacity = Integer.highestOneBit(capacity - 1) << 1;
+        this.mask = this.capacity - 1;
+        this.slots = new AtomicReferenceArray<>(this.capacity);
+    }
+
+    public boolean offer(E e) {
+        for (; ; ) {
+            long t = tail.get();
+            if (t - head.get() >= capacity) {
+                return false;
+            }
+            if (tail.compareAndSet(t, t + 1)) {
+                slots.lazySet((int) (t & mask), e);
+                return true;
+            }
+        }
+    }
+
+    /**
+     * 仅允许单个消费者线程调用
+     *
+     * @return 本次取出的元素个数
+     */
+    public int drainTo(List<? super E> batch, int max) {
+        long h = head.get();
+        int n = 0;
+        while (n < max) {
+            int index = (int) (h & mask);
+            E e = slots.get(index);
+            if (e == null) {
+                break;
+            }
+            slots.lazySet(index, null);
+            batch.add(e);
+            h++;
+            n++;
+        }
+        if (n > 0) {
+            head.lazySet(h);
+        }
+        return n;
+    }
+
+    public int size() {
+        return (int) Math.max(0, tail.get() - head.get());
+    }
+
+    public int capacity() {
+        return capacity;
+    }
+
+    public boolean isEmpty() {
+        return size() == 0;
+    }
+}
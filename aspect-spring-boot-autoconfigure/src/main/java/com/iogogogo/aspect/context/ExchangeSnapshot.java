@@ -0,0 +1,72 @@
+package com.iogogogo.aspect.context;
+
+import com.iogogogo.aspect.net.ClientAddressResolver;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.server.reactive.ServerHttpRequest;
+import org.springframework.web.server.ServerWebExchange;
+
+import java.net.InetSocketAddress;
+
+/**
+ * WebFlux 请求信息，从 Reactor Context 中的 {@link ServerWebExchange} 读取
+ * <p>
+ * 只在被采样记录时读取，url、clientIp 在记录时才计算；trace ID 保存在 exchange 的属性中，同一请求内的各次调用共用
+ */
+public final class ExchangeSnapshot implements RequestInfo {
+
+    private static final String TRACE_ID_ATTRIBUTE = ExchangeSnapshot.class.getName() + ".traceId";
+
+    private final ServerWebExchange exchange;
+
+    private final ClientAddressResolver clientAddressResolver;
+
+    public ExchangeSnapshot(ServerWebExchange exchange, ClientAddressResolver clientAddressResolver) {
+        this.exchange = exchange;
+        this.clientAddressResolver = clientAddressResolver;
+    }
+
+    @Override
+    public String getHttpMethod() {
+        return exchange.getRequest().getMethodValue();
+    }
+
+    @Override
+    public String getUrl() {
+        return exchange.getRequest().getURI().toString();
+    }
+
+    @Override
+    public String getClientIp() {
+        ServerHttpRequest request = exchange.getRequest();
+        InetSocketAddress remoteAddress = request.getRemoteAddress();
+        if (remoteAddress == null) {
+            return null;
+        }
+        String remote = remoteAddress.isUnresolved() ? remoteAddress.getHostString() : remoteAddress.getAddress().getHostAddress();
+        HttpHeaders headers = request.getHeaders();
+        return clientAddressResolver.resolve(remote,
+                headers.getFirst(ClientAddressResolver.FORWARDED), headers.getFirst(ClientAddressResolver.X_FORWARDED_FOR));
+    }
+
+    @Override
+    public int getStatus() {
+        Integer status = exchange.getResponse().getRawStatusCode();
+        return status == null ? 0 : status;
+    }
+
+    @Override
+    public String getTraceId() {
+        Object value = exchange.getAttributes().get(TRACE_ID_ATTRIBUTE);
+        if (value instanceof String) {
+            return (String) value;
+        }
+        HttpHeaders headers = exchange.getRequest().getHeaders();
+        String traceId = TraceIds.fromHeaders(headers.getFirst(TraceIds.TRACEPARENT), headers.getFirst(TraceIds.X_REQUEST_ID));
+        if (traceId == null) {
+            traceId = TraceIds.generate();
+        }
+        // 并发首次读取时以先写入的为准
+        Object previous = exchange.getAttributes().putIfAbsent(TRACE_ID_ATTRIBUTE, traceId);
+        return previous instanceof String ? (String) previous : traceId;
+    }
+}
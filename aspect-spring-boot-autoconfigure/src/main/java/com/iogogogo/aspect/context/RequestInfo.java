@@ -0,0 +1,23 @@
+package com.iogogogo.aspect.context;
+
+/**
+ * 切面记录中与请求相关的字段，servlet 与 WebFlux 各有实现
+ */
+public interface RequestInfo {
+
+    String getHttpMethod();
+
+    String getUrl();
+
+    String getClientIp();
+
+    /**
+     * @return 取不到时为0
+     */
+    int getStatus();
+
+    /**
+     * @return 请求头中的 trace ID，没有时生成，同一请求内不变
+     */
+    String getTraceId();
+}
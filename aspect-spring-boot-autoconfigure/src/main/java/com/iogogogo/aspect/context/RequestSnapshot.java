@@ -0,0 +1,163 @@
+package com.iogogogo.aspect.context;
+
+import com.iogogogo.aspect.net.ClientAddressResolver;
+
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+
+/**
+ * 一次请求中切面需要的信息，由 {@link RequestSnapshotFilter} 在 servlet 入口绑定到当前线程
+ * <p>
+ * url、clientIp、traceId 首次读取时才计算；快照被带到其他线程后({@link #detach()})，请求结束时会把这些值连同最终状态码固定下来，
+ * 之后不再访问已被容器回收的 request/response
+ */
+public final class RequestSnapshot implements RequestInfo {
+
+    private static final ThreadLocal<RequestSnapshot> CURRENT = new ThreadLocal<>();
+
+    private final String httpMethod;
+
+    private final ClientAddressResolver clientAddressResolver;
+
+    /**
+     * 由过滤器创建、会收到 {@link #complete()}
+     */
+    private final boolean managed;
+
+    private volatile HttpServletRequest request;
+
+    private volatile HttpServletResponse response;
+
+    private volatile boolean detached;
+
+    private volatile String url;
+
+    private volatile String clientIp;
+
+    private volatile int status;
+
+    private volatile String traceId;
+
+    /**
+     * 不经过过滤器时使用，{@link #detach()} 时立即固定 url、clientIp
+     */
+    public RequestSnapshot(HttpServletRequest request, HttpServletResponse response, ClientAddressResolver clientAddressResolver) {
+        this(request, response, clientAddressResolver, false);
+    }
+
+    RequestSnapshot(HttpServletRequest request, HttpServletResponse response, ClientAddressResolver clientAddressResolver, boolean managed) {
+        this.httpMethod = request.getMethod();
+        this.clientAddressResolver = clientAddressResolver;
+        this.managed = managed;
+        this.request = request;
+        this.response = response;
+    }
+
+    /**
+     * @return 当前线程绑定的快照，没有时为null
+     */
+    public static RequestSnapshot current() {
+        return CURRENT.get();
+    }
+
+    /**
+     * @return 之前绑定的快照，用于 {@link #restore(RequestSnapshot)}
+     */
+    public static RequestSnapshot bind(RequestSnapshot snapshot) {
+        RequestSnapshot previous = CURRENT.get();
+        CURRENT.set(snapshot);
+        return previous;
+    }
+
+    public static void restore(RequestSnapshot previous) {
+        if (previous == null) {
+            CURRENT.remove();
+        } else {
+            CURRENT.set(previous);
+        }
+    }
+
+    @Override
+    public String getHttpMethod() {
+        return httpMethod;
+    }
+
+    @Override
+    public String getUrl() {
+        String value = url;
+        HttpServletRequest current = request;
+        if (value == null && current != null) {
+            value = current.getRequestURL().toString();
+            url = value;
+        }
+        return value;
+    }
+
+    @Override
+    public String getClientIp() {
+        String value = clientIp;
+        HttpServletRequest current = request;
+        if (value == null && current != null) {
+            value = clientAddressResolver.resolve(current.getRemoteAddr(),
+                    current.getHeader(ClientAddressResolver.FORWARDED), current.getHeader(ClientAddressResolver.X_FORWARDED_FOR));
+            clientIp = value;
+        }
+        return value;
+    }
+
+    /**
+     * 并发首次读取时可能各自生成，以最后写入的为准；servlet 请求通常只在一个线程上首次读取
+     */
+    @Override
+    public String getTraceId() {
+        String value = traceId;
+        if (value == null) {
+            HttpServletRequest current = request;
+            if (current != null) {
+                value = TraceIds.fromHeaders(current.getHeader(TraceIds.TRACEPARENT), current.getHeader(TraceIds.X_REQUEST_ID));
+            }
+            if (value == null) {
+                value = TraceIds.generate();
+            }
+            traceId = value;
+        }
+        return value;
+    }
+
+    /**
+     * @return 请求未结束时为当前状态码，结束后为最终状态码，取不到时为0
+     */
+    @Override
+    public int getStatus() {
+        HttpServletResponse current = response;
+        return current != null ? current.getStatus() : status;
+    }
+
+    /**
+     * 快照将被其他线程使用，请求结束时需要固定下来
+     */
+    public RequestSnapshot detach() {
+        this.detached = true;
+        if (!managed) {
+            getUrl();
+            getClientIp();
+            getTraceId();
+        }
+        return this;
+    }
+
+    /**
+     * 请求结束，由 {@link RequestSnapshotFilter} 调用
+     */
+    void complete() {
+        HttpServletResponse current = response;
+        if (detached) {
+            getUrl();
+            getClientIp();
+            getTraceId();
+            this.status = current == null ? 0 : current.getStatus();
+        }
+        this.request = null;
+        this.response = null;
+    }
+}
@@ -0,0 +1,72 @@
+package com.iogogogo.aspect.context;
+
+import com.iogogogo.aspect.net.ClientAddressResolver;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import javax.servlet.AsyncEvent;
+import javax.servlet.AsyncListener;
+import javax.servlet.FilterChain;
+import javax.servlet.ServletException;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.io.IOException;
+
+/**
+ * servlet 入口，为每个请求创建一个 {@link RequestSnapshot} 并绑定到当前线程
+ * <p>
+ * 请求进入 servlet 异步处理时，等异步完成后再结束快照
+ */
+public class RequestSnapshotFilter extends OncePerRequestFilter {
+
+    private final ClientAddressResolver clientAddressResolver;
+
+    public RequestSnapshotFilter(ClientAddressResolver clientAddressResolver) {
+        this.clientAddressResolver = clientAddressResolver;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        RequestSnapshot snapshot = new RequestSnapshot(request, response, clientAddressResolver, true);
+        RequestSnapshot previous = RequestSnapshot.bind(snapshot);
+        try {
+            filterChain.doFilter(request, response);
+        } finally {
+            RequestSnapshot.restore(previous);
+            if (request.isAsyncStarted()) {
+                request.getAsyncContext().addListener(new CompletionListener(snapshot));
+            } else {
+                snapshot.complete();
+            }
+        }
+    }
+
+    private static final class CompletionListener implements AsyncListener {
+
+        private final RequestSnapshot snapshot;
+
+        private CompletionListener(RequestSnapshot snapshot) {
+            this.snapshot = snapshot;
+        }
+
+        @Override
+        public void onComplete(AsyncEvent event) {
+            snapshot.complete();
+        }
+
+        /**
+         * 超时、出错后容器仍会回调 onComplete
+         */
+        @Override
+        public void onTimeout(AsyncEvent event) {
+        }
+
+        @Override
+        public void onError(AsyncEvent event) {
+        }
+
+        @Override
+        public void onStartAsync(AsyncEvent event) {
+        }
+    }
+}
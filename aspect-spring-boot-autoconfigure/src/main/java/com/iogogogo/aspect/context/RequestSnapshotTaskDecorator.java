@@ -0,0 +1,35 @@
+package com.iogogogo.aspect.context;
+
+import org.springframework.core.task.TaskDecorator;
+
+import java.util.concurrent.Executor;
+
+/**
+ * 把提交任务时的 {@link RequestSnapshot} 带到执行线程(线程池、@Async、虚拟线程均适用)
+ * <p>
+ * 应用已有自己的 TaskDecorator 时，可在其中调用 {@link #decorate(Runnable)}；CompletableFuture 可使用 {@link #wrap(Executor)}
+ */
+public class RequestSnapshotTaskDecorator implements TaskDecorator {
+
+    @Override
+    public Runnable decorate(Runnable runnable) {
+        RequestSnapshot snapshot = RequestSnapshot.current();
+        if (snapshot == null) {
+            return runnable;
+        }
+        snapshot.detach();
+        return () -> {
+            RequestSnapshot previous = RequestSnapshot.bind(snapshot);
+            try {
+                runnable.run();
+            } finally {
+                RequestSnapshot.restore(previous);
+            }
+        };
+    }
+
+    public static Executor wrap(Executor executor) {
+        RequestSnapshotTaskDecorator decorator = new RequestSnapshotTaskDecorator();
+        return runnable -> executor.execute(decorator.decorate(runnable));
+    }
+}
@@ -0,0 +1,79 @@
+package com.iogogogo.aspect.context;
+
+import org.slf4j.MDC;
+
+/**
+ * 当前线程上被切面方法的调用层次与 trace ID
+ * <p>
+ * 最外层调用进入时确定 trace ID(MDC中已有的 > 请求的 > 新生成的)并写入 MDC，嵌套调用沿用同一个ID、只增加深度，
+ * 最外层调用结束时恢复 MDC 原来的值。每个线程复用一个实例，进入、退出不创建对象
+ */
+public final class TraceContext {
+
+    /**
+     * 与 Spring Cloud Sleuth 相同，日志pattern中可用 %X{traceId} 输出
+     */
+    public static final String MDC_KEY = "traceId";
+
+    private static final ThreadLocal<TraceContext> CURRENT = ThreadLocal.withInitial(TraceContext::new);
+
+    private String traceId;
+
+    /**
+     * 正在执行的最内层调用的深度，没有调用时为-1
+     */
+    private int depth = -1;
+
+    /**
+     * 进入前MDC中已有trace ID，退出时不移除
+     */
+    private boolean inherited;
+
+    private TraceContext() {
+    }
+
+    public static TraceContext current() {
+        return CURRENT.get();
+    }
+
+    /**
+     * 必须与 {@link #exit()} 成对调用
+     *
+     * @param request 没有请求上下文时为null
+     * @return 本次调用的深度，最外层为0
+     */
+    public int enter(RequestInfo request) {
+        if (depth < 0) {
+            String existing = MDC.get(MDC_KEY);
+            this.inherited = existing != null;
+            if (inherited) {
+                this.traceId = existing;
+            } else {
+                this.traceId = request != null ? request.getTraceId() : TraceIds.generate();
+                MDC.put(MDC_KEY, traceId);
+            }
+        }
+        return ++depth;
+    }
+
+    public void exit() {
+        if (--depth < 0) {
+            if (!inherited) {
+                MDC.remove(MDC_KEY);
+            }
+            this.traceId = null;
+            this.depth = -1;
+        }
+    }
+
+    /**
+     * @return 没有正在执行的调用时为null
+     */
+    public String getTraceId() {
+        return traceId;
+    }
+
+    public int getDepth() {
+        return depth;
+    }
+}
@@ -0,0 +1,157 @@
+package com.iogogogo.aspect.context;
+
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * trace ID 的读取与生成
+ * <p>
+ * 优先取 W3C traceparent 中的 trace-id，其次取 X-Request-Id；都没有时生成32位小写十六进制(与 trace-id 格式相同)。
+ * 生成使用 {@link ThreadLocalRandom} 写入线程内复用的字符数组，只在最后创建一次字符串，
+ * 不使用 UUID.randomUUID()(SecureRandom 在高并发下竞争)
+ */
+public final class TraceIds {
+
+    public static final String TRACEPARENT = "traceparent";
+
+    public static final String X_REQUEST_ID = "X-Request-Id";
+
+    /**
+     * X-Request-Id 超过该长度时忽略，避免客户端写入超长内容
+     */
+    static final int MAX_REQUEST_ID_LENGTH = 128;
+
+    private static final int TRACE_ID_LENGTH = 32;
+
+    private static final char[] HEX = "0123456789abcdef".toCharArray();
+
+    private static final ThreadLocal<char[]> BUFFER = ThreadLocal.withInitial(() -> new char[TRACE_ID_LENGTH]);
+
+    private TraceIds() {
+    }
+
+    /**
+     * @param traceparent traceparent 头，没有时为null
+     * @param requestId   X-Request-Id 头，没有时为null
+     * @return 头部中没有可用的ID时为null
+     */
+    public static String fromHeaders(String traceparent, String requestId) {
+        if (traceparent != null) {
+            String traceId = fromTraceparent(traceparent);
+            if (traceId != null) {
+                return traceId;
+            }
+        }
+        return requestId != null && isValidRequestId(requestId) ? requestId : null;
+    }
+
+    /**
+     * version-traceid-parentid-flags，如 00-4bf92f3577b34da6a3ce929d0e0e4736-00f067aa0ba902b7-01
+     */
+    static String fromTraceparent(String header) {
+        int start = 0;
+        int end = header.length();
+        while (start < end && header.charAt(start) == ' ') {
+            start++;
+        }
+        // 未知版本可能在 flags 之后追加字段，只校验前55个字符
+        if (end - start < 55 || header.charAt(start + 2) != '-' || header.charAt(start + 35) != '-'
+                || header.charAt(start + 52) != '-' || header.regionMatches(start, "ff", 0, 2)) {
+            return null;
+        }
+        if (!isHex(header, start, start + 2)
+                || !isHex(header, start + 3, start + 35) || isZero(header, start + 3, start + 35)
+                || !isHex(header, start + 36, start + 52) || isZero(header, start + 36, start + 52)) {
+            return null;
+        }
+        return header.substring(start + 3, start + 35);
+    }
+
+    /**
+     * 只接受可见ASCII字符，避免换行等内容进入日志
+     */
+    static boolean isValidRequestId(String value) {
+        int length = value.length();
+        if (length == 0 || length > MAX_REQUEST_ID_LENGTH) {
+            return false;
+        }
+        for (int i = 0; i < length; i++) {
+            char c = value.charAt(i);
+            if (c <= ' ' || c >= 0x7F || c == '"') {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    public static String generate() {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        long high = random.nextLong();
+        long low = random.nextLong();
+        if (high == 0 && low == 0) {
+            // 全0的 trace-id 无效
+            low = 1;
+        }
+        char[] buffer = BUFFER.get();
+        hex(high, buffer, 0);
+        hex(low, buffer, 16);
+        return new String(buffer);
+    }
+
+    /**
+     * 以16个十六进制字符写入 out[offset, offset + 16)
+     */
+    public static void hex(long value, char[] out, int offset) {
+        for (int i = offset + 15; i >= offset; i--) {
+            out[i] = HEX[(int) (value & 0xF)];
+            value >>>= 4;
+        }
+    }
+
+    /**
+     * @return s 为32位小写十六进制时返回true，并把高64位、低64位写入 out
+     */
+    public static boolean parseHex(String s, long[] out) {
+        if (s.length() != TRACE_ID_LENGTH) {
+            return false;
+        }
+        long high = 0;
+        long low = 0;
+        for (int i = 0; i < TRACE_ID_LENGTH; i++) {
+            char c = s.charAt(i);
+            int digit = c >= '0' && c <= '9' ? c - '0' : c >= 'a' && c <= 'f' ? c - 'a' + 10 : -1;
+            if (digit < 0) {
+                return false;
+            }
+            if (i < 16) {
+                high = high << 4 | digit;
+            } else {
+                low = low << 4 | digit;
+            }
+        }
+        out[0] = high;
+        out[1] = low;
+        return true;
+    }
+
+    /**
+     * traceparent 要求小写
+     */
+    private static boolean isHex(String s, int start, int end) {
+        for (int i = start; i < end; i++) {
+            char c = s.charAt(i);
+            if (!(c >= '0' && c <= '9' || c >= 'a' && c <= 'f')) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static boolean isZero(String s, int start, int end) {
+        for (int i = start; i < end; i++) {
+            if (s.charAt(i) != '0') {
+                return false;
+            }
+        }
+        return true;
+    }
+}
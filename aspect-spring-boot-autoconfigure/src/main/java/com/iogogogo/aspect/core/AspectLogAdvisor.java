@@ -0,0 +1,42 @@
+package com.iogogogo.aspect.core;
+
+import org.aopalliance.aop.Advice;
+import org.springframework.aop.Pointcut;
+import org.springframework.aop.support.AbstractPointcutAdvisor;
+import org.springframework.beans.factory.ObjectProvider;
+
+/**
+ * {@link AspectLogPointcut} + {@link AspectLogSupport}
+ * <p>
+ * 切面在第一次创建代理时才从容器中取出，与原来 @Aspect 的懒加载一致，不会让切面的依赖提前实例化
+ */
+public class AspectLogAdvisor extends AbstractPointcutAdvisor {
+
+    private final Pointcut pointcut;
+
+    private final transient ObjectProvider<? extends AspectLogSupport> advice;
+
+    private volatile Advice resolved;
+
+    public AspectLogAdvisor(Pointcut pointcut, ObjectProvider<? extends AspectLogSupport> advice) {
+        this.pointcut = pointcut;
+        this.advice = advice;
+        // 显式设置，排序时不必为了取order去实例化切面
+        setOrder(AspectLogSupport.ORDER);
+    }
+
+    @Override
+    public Pointcut getPointcut() {
+        return this.pointcut;
+    }
+
+    @Override
+    public Advice getAdvice() {
+        Advice advice = this.resolved;
+        if (advice == null) {
+            advice = this.advice.getObject();
+            this.resolved = advice;
+        }
+        return advice;
+    }
+}
@@ -0,0 +1,46 @@
+package com.iogogogo.aspect.core;
+
+import com.iogogogo.aspect.event.AspectLogEncoder;
+import com.iogogogo.aspect.event.AspectLogEvent;
+import com.iogogogo.aspect.sink.AspectLogSink;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * 将 {@link AspectLogEvent} 编码为一条记录输出到 {@link WebAspectLog} 的 logger，默认的输出端
+ */
+public class AspectLogEventWriter implements AspectLogSink {
+
+    private static final Logger log = LoggerFactory.getLogger(AspectLogSupport.LOGGER_NAME);
+
+    private static final int MAX_RETAINED_CAPACITY = 16 * 1024;
+
+    private static final ThreadLocal<StringBuilder> BUFFER = ThreadLocal.withInitial(() -> new StringBuilder(512));
+
+    private final AspectLogEncoder encoder;
+
+    public AspectLogEventWriter(AspectLogEncoder encoder) {
+        this.encoder = encoder;
+    }
+
+    @Override
+    public void accept(AspectLogEvent event) {
+        boolean error = event.getOutcome() == AspectLogEvent.Outcome.ERROR;
+        if (error ? !log.isWarnEnabled() : !log.isInfoEnabled()) {
+            return;
+        }
+        StringBuilder sb = BUFFER.get();
+        sb.setLength(0);
+        encoder.encode(event, sb);
+        if (error) {
+            // 堆栈已经过 ErrorTraceThrottle 去重限流
+            log.warn(sb.toString(), event.getTrace());
+        } else {
+            log.info(sb.toString());
+        }
+        // 避免个别超大记录让线程长期持有大数组
+        if (sb.capacity() > MAX_RETAINED_CAPACITY) {
+            BUFFER.remove();
+        }
+    }
+}
@@ -0,0 +1,111 @@
+package com.iogogogo.aspect.core;
+
+import com.iogogogo.aspect.annotation.AspectLog;
+import org.springframework.aop.ClassFilter;
+import org.springframework.aop.support.AopUtils;
+import org.springframework.aop.support.StaticMethodMatcherPointcut;
+import org.springframework.core.annotation.AnnotatedElementUtils;
+import org.springframework.core.annotation.AnnotationUtils;
+import org.springframework.core.annotation.MergedAnnotations;
+import org.springframework.util.AntPathMatcher;
+import org.springframework.util.ClassUtils;
+import org.springframework.util.ReflectionUtils;
+
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * {@link AspectLog} 切点，替代 AspectJ 表达式 {@code @annotation(...)}
+ * <p>
+ * AspectJ 的 {@code @annotation} 无法在类级别排除，创建代理时容器里每个bean的每个方法都要做一次 shadow match；
+ * 这里先用 {@link ClassFilter} 按类名模式与注解是否出现在类上/任一方法上过滤(每个类只判断一次)，只有候选类才逐个方法匹配
+ */
+public class AspectLogPointcut extends StaticMethodMatcherPointcut {
+
+    private final AntPathMatcher matcher = new AntPathMatcher(".");
+
+    private final List<String> includes;
+
+    private final List<String> excludes;
+
+    private final Map<Class<?>, Boolean> candidates = new ConcurrentHashMap<>();
+
+    public AspectLogPointcut(List<String> includes, List<String> excludes) {
+        this.includes = new ArrayList<>(includes);
+        this.excludes = new ArrayList<>(excludes);
+        setClassFilter(this::isCandidate);
+    }
+
+    @Override
+    public boolean matches(Method method, Class<?> targetClass) {
+        if (method.getDeclaringClass() == Object.class) {
+            return false;
+        }
+        Class<?> userClass = ClassUtils.getUserClass(targetClass);
+        Method specificMethod = AopUtils.getMostSpecificMethod(method, userClass);
+        if (AnnotatedElementUtils.hasAnnotation(specificMethod, AspectLog.class)) {
+            return true;
+        }
+        // 类上的注解不包含重写的 toString/equals/hashCode 等 Object 方法，渲染参数、放入集合时会调用它们
+        if (ReflectionUtils.isObjectMethod(method)) {
+            return false;
+        }
+        return Modifier.isPublic(method.getModifiers()) && AnnotatedElementUtils.hasAnnotation(userClass, AspectLog.class);
+    }
+
+    private boolean isCandidate(Class<?> clazz) {
+        Boolean candidate = candidates.get(clazz);
+        if (candidate == null) {
+            candidate = computeCandidate(ClassUtils.getUserClass(clazz));
+            candidates.put(clazz, candidate);
+        }
+        return candidate;
+    }
+
+    private boolean computeCandidate(Class<?> clazz) {
+        // java.*、没有任何可能携带该注解的类直接排除
+        if (!AnnotationUtils.isCandidateClass(clazz, AspectLog.class)) {
+            return false;
+        }
+        String className = clazz.getName();
+        for (String exclude : excludes) {
+            if (matcher.match(exclude, className)) {
+                return false;
+            }
+        }
+        if (!includes.isEmpty() && includes.stream().noneMatch(include -> matcher.match(include, className))) {
+            return false;
+        }
+        if (AnnotatedElementUtils.hasAnnotation(clazz, AspectLog.class)) {
+            return true;
+        }
+        // 自己遍历父类与接口，每个方法只看直接声明的注解(含元注解)，不再为每个方法重复搜索一遍继承层次
+        for (Class<?> current = clazz; current != null && current != Object.class; current = current.getSuperclass()) {
+            if (hasAnnotatedMethod(current)) {
+                return true;
+            }
+        }
+        for (Class<?> ifc : ClassUtils.getAllInterfacesForClassAsSet(clazz)) {
+            if (hasAnnotatedMethod(ifc)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static boolean hasAnnotatedMethod(Class<?> clazz) {
+        if (!AnnotationUtils.isCandidateClass(clazz, AspectLog.class)) {
+            return false;
+        }
+        for (Method method : ReflectionUtils.getDeclaredMethods(clazz)) {
+            if (MergedAnnotations.from(method, MergedAnnotations.SearchStrategy.DIRECT).isPresent(AspectLog.class)) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
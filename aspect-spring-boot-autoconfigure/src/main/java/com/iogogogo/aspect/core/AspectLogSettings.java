@@ -0,0 +1,150 @@
+package com.iogogogo.aspect.core;
+
+import com.iogogogo.aspect.properties.AspectLogProperties;
+import lombok.Getter;
+import lombok.Value;
+
+import java.time.Duration;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * 运行时可调整的配置快照，创建后不再修改
+ * <p>
+ * 由 {@link AspectLogSettingsProvider} 整体替换发布，热路径只读取一个volatile引用；每个方法生效的配置
+ * ({@link MethodSettings})在该方法下一次调用时按新快照重新计算并缓存在 {@link MethodLogDescriptor} 上
+ * <p>
+ * 优先级：按方法的规则 > @AspectLog > 全局配置
+ */
+@Getter
+public final class AspectLogSettings {
+
+    private final boolean enabled;
+
+    private final CaptureLevel level;
+
+    private final double sampleRate;
+
+    private final int rateLimit;
+
+    private final boolean alwaysLogErrors;
+
+    /**
+     * 0表示未开启
+     */
+    private final long alwaysLogSlowerThanNanos;
+
+    /**
+     * 0表示未开启慢调用模式
+     */
+    private final long slowThresholdNanos;
+
+    /**
+     * key 为 类全限定名.方法名 或 类全限定名
+     */
+    private final Map<String, Rule> rules;
+
+    AspectLogSettings(AspectLogProperties properties, Rule global, Map<String, Rule> rules) {
+        AspectLogProperties.Sampling sampling = properties.getSampling();
+        this.enabled = global.enabled != null ? global.enabled : properties.isEnable();
+        this.level = global.level != null ? global.level : properties.getLevel();
+        this.sampleRate = global.sampleRate != null ? global.sampleRate : sampling.getRate();
+        this.rateLimit = sampling.getRateLimit();
+        this.alwaysLogErrors = sampling.isAlwaysLogErrors();
+        this.alwaysLogSlowerThanNanos = nanos(sampling.getAlwaysLogSlowerThan());
+        this.slowThresholdNanos = global.slowThreshold != null ? nanos(global.slowThreshold) : nanos(properties.getSlowThreshold());
+        this.rules = Collections.unmodifiableMap(new LinkedHashMap<>(rules));
+    }
+
+    /**
+     * 计算一个方法生效的配置，每个快照对每个方法只计算一次
+     */
+    MethodSettings resolve(MethodLogDescriptor descriptor) {
+        Rule rule = Rule.NONE;
+        if (!rules.isEmpty()) {
+            // 方法上的规则优先于类上的
+            Rule type = rules.get(descriptor.getClassName());
+            Rule method = rules.get(descriptor.getClassName() + "." + descriptor.getMethodName());
+            rule = type == null ? (method == null ? Rule.NONE : method) : method == null ? type : type.merge(method);
+        }
+        boolean enabled = rule.enabled != null ? rule.enabled : this.enabled;
+        CaptureLevel level = rule.level != null ? rule.level : this.level;
+        double sampleRate = rule.sampleRate != null ? rule.sampleRate
+                : descriptor.getSampleRate() >= 0 ? descriptor.getSampleRate() : this.sampleRate;
+        int rateLimit = descriptor.getRateLimit() >= 0 ? descriptor.getRateLimit() : this.rateLimit;
+        long slowThresholdNanos = rule.slowThreshold != null ? nanos(rule.slowThreshold)
+                : descriptor.getSlowThresholdNanos() >= 0 ? descriptor.getSlowThresholdNanos() : this.slowThresholdNanos;
+        return new MethodSettings(this, enabled, level, sampleRate, rateLimit, slowThresholdNanos);
+    }
+
+    private static long nanos(Duration duration) {
+        return duration == null ? 0 : duration.toNanos();
+    }
+
+    /**
+     * 一个方法生效的配置
+     */
+    @Value
+    public static class MethodSettings {
+
+        /**
+         * 计算时所用的快照，快照被替换后重新计算
+         */
+        AspectLogSettings settings;
+
+        boolean enabled;
+
+        CaptureLevel level;
+
+        double sampleRate;
+
+        /**
+         * 0表示不限流
+         */
+        int rateLimit;
+
+        /**
+         * 0表示未开启慢调用模式
+         */
+        long slowThresholdNanos;
+    }
+
+    /**
+     * 覆盖规则，为null的字段不覆盖
+     */
+    @Value
+    public static class Rule {
+
+        static final Rule NONE = new Rule(null, null, null, null);
+
+        Boolean enabled;
+
+        CaptureLevel level;
+
+        Double sampleRate;
+
+        /**
+         * Duration.ZERO 表示关闭慢调用模式
+         */
+        Duration slowThreshold;
+
+        public static Rule of(AspectLogProperties.MethodOverride override) {
+            return new Rule(override.getEnabled(), override.getLevel(), override.getSampleRate(), override.getSlowThreshold());
+        }
+
+        /**
+         * @return other 中不为null的字段覆盖本规则后的新规则
+         */
+        public Rule merge(Rule other) {
+            return new Rule(other.enabled != null ? other.enabled : enabled,
+                    other.level != null ? other.level : level,
+                    other.sampleRate != null ? other.sampleRate : sampleRate,
+                    other.slowThreshold != null ? other.slowThreshold : slowThreshold);
+        }
+
+        public boolean isEmpty() {
+            return enabled == null && level == null && sampleRate == null && slowThreshold == null;
+        }
+    }
+}
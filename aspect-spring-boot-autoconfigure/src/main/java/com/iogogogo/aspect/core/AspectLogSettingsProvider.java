@@ -0,0 +1,98 @@
+package com.iogogogo.aspect.core;
+
+import com.iogogogo.aspect.properties.AspectLogProperties;
+import lombok.extern.slf4j.Slf4j;
+
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * 发布 {@link AspectLogSettings} 快照
+ * <p>
+ * 快照由两层合成：配置文件(启动时绑定，配置刷新时由 {@link AspectLogSettingsRefresher} 重新绑定)与运行时覆盖
+ * (/actuator/aspectsettings 写入)，运行时覆盖优先，配置刷新后仍然保留，直到被清除。
+ * 修改在锁内合成新快照后整体替换，读取只有一次volatile读
+ */
+@Slf4j
+public class AspectLogSettingsProvider {
+
+    private volatile AspectLogSettings current;
+
+    // 以下字段只在持有锁时读写
+    private AspectLogProperties properties;
+
+    private AspectLogSettings.Rule globalOverride = AspectLogSettings.Rule.NONE;
+
+    private final Map<String, AspectLogSettings.Rule> methodOverrides = new LinkedHashMap<>();
+
+    public AspectLogSettingsProvider(AspectLogProperties properties) {
+        this.properties = properties;
+        this.current = build();
+    }
+
+    /**
+     * 热路径
+     */
+    public AspectLogSettings get() {
+        return current;
+    }
+
+    /**
+     * 配置文件变化后调用
+     */
+    public synchronized AspectLogSettings refresh(AspectLogProperties properties) {
+        this.properties = properties;
+        return publish();
+    }
+
+    /**
+     * @param target 类全限定名.方法名 或 类全限定名，为null时覆盖全局配置
+     * @param rule   为null的字段保持原来的覆盖
+     */
+    public synchronized AspectLogSettings override(String target, AspectLogSettings.Rule rule) {
+        if (target == null) {
+            globalOverride = globalOverride.merge(rule);
+        } else {
+            AspectLogSettings.Rule previous = methodOverrides.get(target);
+            methodOverrides.put(target, previous == null ? rule : previous.merge(rule));
+        }
+        log.info("Aspect log settings override {}: {}", target == null ? "(global)" : target, rule);
+        return publish();
+    }
+
+    /**
+     * @param target 为null时清除全部运行时覆盖
+     */
+    public synchronized AspectLogSettings clear(String target) {
+        if (target == null) {
+            globalOverride = AspectLogSettings.Rule.NONE;
+            methodOverrides.clear();
+        } else {
+            methodOverrides.remove(target);
+        }
+        log.info("Aspect log settings overrides cleared: {}", target == null ? "(all)" : target);
+        return publish();
+    }
+
+    public synchronized AspectLogSettings.Rule getGlobalOverride() {
+        return globalOverride;
+    }
+
+    public synchronized Map<String, AspectLogSettings.Rule> getMethodOverrides() {
+        return Collections.unmodifiableMap(new LinkedHashMap<>(methodOverrides));
+    }
+
+    private AspectLogSettings publish() {
+        AspectLogSettings settings = build();
+        this.current = settings;
+        return settings;
+    }
+
+    private AspectLogSettings build() {
+        Map<String, AspectLogSettings.Rule> rules = new LinkedHashMap<>();
+        properties.getMethods().forEach((target, override) -> rules.put(target, AspectLogSettings.Rule.of(override)));
+        methodOverrides.forEach((target, rule) -> rules.merge(target, rule, AspectLogSettings.Rule::merge));
+        return new AspectLogSettings(properties, globalOverride, rules);
+    }
+}
@@ -0,0 +1,57 @@
+package com.iogogogo.aspect.core;
+
+import com.iogogogo.aspect.properties.AspectLogProperties;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.properties.bind.Binder;
+import org.springframework.context.ApplicationEvent;
+import org.springframework.context.event.GenericApplicationListener;
+import org.springframework.core.ResolvableType;
+import org.springframework.core.env.Environment;
+
+/**
+ * 配置刷新后重新绑定 aspect.* 并发布新快照
+ * <p>
+ * 响应 Spring Cloud 的 EnvironmentChangeEvent(/actuator/refresh、配置中心推送)，按类名识别，不依赖 spring-cloud-context；
+ * 类名只在 {@link #supportsEventType(ResolvableType)} 中比较，事件广播器按事件类型缓存结果，其他事件不会再分发到这里。
+ * 每次从 Environment 绑定一个新的 {@link AspectLogProperties}，不依赖 @ConfigurationProperties bean 的重新绑定顺序。
+ * 没有 Spring Cloud 的应用可在修改 Environment 后调用 {@link #refresh()}
+ */
+@Slf4j
+public class AspectLogSettingsRefresher implements GenericApplicationListener {
+
+    static final String ENVIRONMENT_CHANGE_EVENT = "org.springframework.cloud.context.environment.EnvironmentChangeEvent";
+
+    private static final String PREFIX = "aspect";
+
+    private final AspectLogSettingsProvider provider;
+
+    private final Environment environment;
+
+    public AspectLogSettingsRefresher(AspectLogSettingsProvider provider, Environment environment) {
+        this.provider = provider;
+        this.environment = environment;
+    }
+
+    @Override
+    public boolean supportsEventType(ResolvableType eventType) {
+        Class<?> type = eventType.getRawClass();
+        return type != null && ENVIRONMENT_CHANGE_EVENT.equals(type.getName());
+    }
+
+    @Override
+    public void onApplicationEvent(ApplicationEvent event) {
+        refresh();
+    }
+
+    public void refresh() {
+        try {
+            AspectLogProperties properties = Binder.get(environment).bindOrCreate(PREFIX, AspectLogProperties.class);
+            AspectLogSettings settings = provider.refresh(properties);
+            log.info("Aspect log settings refreshed: enabled={}, level={}, sampleRate={}, rules={}",
+                    settings.isEnabled(), settings.getLevel(), settings.getSampleRate(), settings.getRules().keySet());
+        } catch (Exception e) {
+            // 配置有误时保留当前快照
+            log.warn("Rebind {} properties failed, keep current settings", PREFIX, e);
+        }
+    }
+}
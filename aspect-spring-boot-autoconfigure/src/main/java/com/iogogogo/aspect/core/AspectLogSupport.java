@@ -0,0 +1,197 @@
+package com.iogogogo.aspect.core;
+
+import com.iogogogo.aspect.async.AsyncLogDispatcher;
+import com.iogogogo.aspect.context.RequestInfo;
+import com.iogogogo.aspect.event.AspectLogEvent;
+import com.iogogogo.aspect.metrics.LatencyRecorder;
+import com.iogogogo.aspect.net.ClientAddressResolver;
+import com.iogogogo.aspect.render.ValueRenderer;
+import com.iogogogo.aspect.sampling.Sampler;
+import com.iogogogo.aspect.sink.AspectLogSink;
+import org.aopalliance.intercept.MethodInterceptor;
+import org.aopalliance.intercept.MethodInvocation;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.core.PriorityOrdered;
+
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+/**
+ * servlet 与 WebFlux 切面共用的部分：计时结果记录、事件组装与输出
+ * <p>
+ * 不引用任何 servlet 或 Reactor 的类型；由 {@link AspectLogAdvisor} 织入，不再依赖 AspectJ 表达式
+ */
+public abstract class AspectLogSupport implements MethodInterceptor, PriorityOrdered {
+
+    /**
+     * 沿用原来的logger名，已有的日志级别配置继续生效
+     */
+    static final String LOGGER_NAME = "com.iogogogo.aspect.core.WebAspectLog";
+
+    /**
+     * 保证事务等切面先执行
+     */
+    static final int ORDER = Integer.MAX_VALUE;
+
+    static final Logger log = LoggerFactory.getLogger(LOGGER_NAME);
+
+    private final HostInfoProvider hostInfoProvider;
+
+    protected final ClientAddressResolver clientAddressResolver;
+
+    private final AspectLogSink sink;
+
+    private final ValueRenderer renderer;
+
+    protected final MethodLogDescriptorCache descriptors;
+
+    private final LatencyRecorder[] recorders;
+
+    protected final Sampler sampler;
+
+    protected final AspectLogSettingsProvider settings;
+
+    private final ErrorTraceThrottle errorTraceThrottle;
+
+    /**
+     * 未开启异步输出时为null
+     */
+    private final AsyncLogDispatcher dispatcher;
+
+    protected AspectLogSupport(HostInfoProvider hostInfoProvider, ClientAddressResolver clientAddressResolver,
+                               ObjectProvider<AspectLogSink> sinks, ValueRenderer renderer,
+                               MethodLogDescriptorCache descriptors, ObjectProvider<LatencyRecorder> recorders,
+                               Sampler sampler, AspectLogSettingsProvider settings, ErrorTraceThrottle errorTraceThrottle,
+                               ObjectProvider<AsyncLogDispatcher> dispatcher) {
+        this.hostInfoProvider = hostInfoProvider;
+        this.clientAddressResolver = clientAddressResolver;
+        this.sink = AspectLogSink.of(sinks.orderedStream().collect(Collectors.toList()));
+        this.renderer = renderer;
+        this.descriptors = descriptors;
+        this.recorders = recorders.orderedStream().toArray(LatencyRecorder[]::new);
+        this.sampler = sampler;
+        this.settings = settings;
+        this.errorTraceThrottle = errorTraceThrottle;
+        this.dispatcher = dispatcher.getIfAvailable();
+    }
+
+    /**
+     * 调用结束(同步返回、抛出异常或异步结果完成)时调用
+     *
+     * @param request 没有请求上下文时为null
+     * @param traceId 为null时取 request 的
+     * @param depth   嵌套深度，最外层为0
+     */
+    protected void complete(MethodLogDescriptor descriptor, Object[] args, boolean sampled,
+                            RequestInfo request, String traceId, int depth, long start, Object ret, Throwable error) {
+        complete(descriptor, args, sampled, request, traceId, depth, null, start, ret, error);
+    }
+
+    /**
+     * @param calls 本次调用作为根的调用树，没有时为null
+     */
+    void complete(MethodLogDescriptor descriptor, Object[] args, boolean sampled, RequestInfo request,
+                  String traceId, int depth, CallTree.Node calls, long start, Object ret, Throwable error) {
+        long duration = System.nanoTime() - start;
+        try {
+            AspectLogEvent.Outcome outcome = record(descriptor, request == null ? null : request.getHttpMethod(), duration, error);
+            // 未被采样的失败或慢调用补录；参数一直只持有引用，到这里才决定是否渲染
+            if (sampled || sampler.capture(descriptor, outcome, duration)) {
+                emit(buildEvent(descriptor, args, request, traceId, depth, calls, ret, error, outcome, duration));
+            }
+        } catch (RuntimeException e) {
+            // 记录失败不能改变业务调用的结果：不替换业务异常，也不让成功的调用失败
+            log.warn("Record aspect log of {}.{} failed", descriptor.getClassName(), descriptor.getMethodName(), e);
+        }
+    }
+
+    /**
+     * 记录前的准备出错时只执行业务方法，与 {@link #complete} 一样不让切面的异常传给调用方
+     */
+    static Object proceedUnlogged(MethodInvocation invocation, RuntimeException e) throws Throwable {
+        log.warn("Prepare aspect log of {}.{} failed", invocation.getMethod().getDeclaringClass().getName(),
+                invocation.getMethod().getName(), e);
+        return invocation.proceed();
+    }
+
+    /**
+     * 只更新方法统计与耗时分布，不输出记录，合并到调用树中的内层调用使用
+     */
+    protected AspectLogEvent.Outcome record(MethodLogDescriptor descriptor, String httpMethod, long duration, Throwable error) {
+        AspectLogEvent.Outcome outcome = error == null ? AspectLogEvent.Outcome.SUCCESS : AspectLogEvent.Outcome.ERROR;
+        descriptor.getStats().end(duration, error != null);
+        for (LatencyRecorder recorder : recorders) {
+            recorder.record(descriptor, httpMethod, outcome, duration);
+        }
+        return outcome;
+    }
+
+    private AspectLogEvent buildEvent(MethodLogDescriptor descriptor, Object[] args,
+                                      RequestInfo request, String traceId, int depth, CallTree.Node calls,
+                                      Object ret, Throwable error,
+                                      AspectLogEvent.Outcome outcome, long duration) {
+        AspectLogEvent.AspectLogEventBuilder event = AspectLogEvent.builder()
+                .timestamp(System.currentTimeMillis() - TimeUnit.NANOSECONDS.toMillis(duration))
+                .className(descriptor.getClassName())
+                .methodName(descriptor.getMethodName())
+                .hostIp(hostInfoProvider.get().getIpAddress())
+                .durationNanos(duration)
+                .outcome(outcome)
+                .traceId(traceId != null || request == null ? traceId : request.getTraceId())
+                .depth(depth);
+        if (calls != null && calls.hasChildren()) {
+            event.callTree(calls.render(duration));
+        }
+
+        if (request != null) {
+            // web 记录请求内容
+            event.url(request.getUrl())
+                    .httpMethod(request.getHttpMethod())
+                    .clientIp(request.getClientIp())
+                    .status(request.getStatus());
+        }
+
+        if (error != null) {
+            long fingerprint = errorTraceThrottle.fingerprint(error);
+            event.errorType(error.getClass().getName())
+                    .errorFingerprint(Long.toHexString(fingerprint));
+            if (error.getMessage() != null) {
+                event.errorMessage(renderer.render(error.getMessage()));
+            }
+            if (errorTraceThrottle.tryAcquire(fingerprint)) {
+                event.trace(error);
+            }
+        }
+
+        // 只持有引用，需要时才渲染
+        if (isDetail(descriptor)) {
+            if (descriptor.isLogArgs()) {
+                event.args(renderer.renderArgs(args, descriptor.getArgModes()));
+            }
+            if (descriptor.isLogResponse() && outcome == AspectLogEvent.Outcome.SUCCESS) {
+                event.response(renderer.render(ret));
+            }
+        }
+        return event.build();
+    }
+
+    private boolean isDetail(MethodLogDescriptor descriptor) {
+        CaptureLevel level = descriptor.settings(settings.get()).getLevel();
+        return level == CaptureLevel.DETAIL || level == CaptureLevel.LOGGER && log.isDebugEnabled();
+    }
+
+    private void emit(AspectLogEvent event) {
+        if (dispatcher != null) {
+            dispatcher.publish(event);
+        } else {
+            sink.accept(event);
+        }
+    }
+
+    @Override
+    public int getOrder() {
+        return ORDER;
+    }
+}
@@ -0,0 +1,93 @@
+package com.iogogogo.aspect.core;
+
+import org.springframework.util.ClassUtils;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * 异步返回值(CompletionStage、Mono、Flux)的完成回调
+ * <p>
+ * Reactor 不在 classpath 时不会加载 {@link ReactorSupport}
+ */
+final class AsyncReturns {
+
+    private static final boolean REACTOR_PRESENT = ClassUtils.isPresent("reactor.core.publisher.Mono", AsyncReturns.class.getClassLoader());
+
+    private AsyncReturns() {
+    }
+
+    interface Completion {
+
+        /**
+         * @param value Mono/CompletionStage 的结果，Flux 为null
+         * @param error 失败时的异常，成功或取消时为null
+         */
+        void complete(Object value, Throwable error);
+    }
+
+    static boolean isAsync(Object ret) {
+        return ret instanceof CompletionStage || REACTOR_PRESENT && ReactorSupport.isPublisher(ret);
+    }
+
+    /**
+     * 先用 {@link #isAsync(Object)} 判断
+     *
+     * @return 需要返回给调用方的对象，Mono/Flux 会被包装
+     */
+    static Object onCompletion(Object ret, Completion completion) {
+        Completion once = new Once(completion);
+        if (ret instanceof CompletionStage) {
+            ((CompletionStage<?>) ret).whenComplete((value, error) -> once.complete(value, unwrap(error)));
+            return ret;
+        }
+        return ReactorSupport.onCompletion(ret, once);
+    }
+
+    private static Throwable unwrap(Throwable error) {
+        return error instanceof CompletionException && error.getCause() != null ? error.getCause() : error;
+    }
+
+    /**
+     * 多次订阅或取消与错误先后到达时只记一次
+     */
+    private static final class Once extends AtomicBoolean implements Completion {
+
+        private final Completion delegate;
+
+        private Once(Completion delegate) {
+            this.delegate = delegate;
+        }
+
+        @Override
+        public void complete(Object value, Throwable error) {
+            if (compareAndSet(false, true)) {
+                delegate.complete(value, error);
+            }
+        }
+    }
+
+    private static final class ReactorSupport {
+
+        static boolean isPublisher(Object ret) {
+            return ret instanceof Mono || ret instanceof Flux;
+        }
+
+        static Object onCompletion(Object ret, Completion completion) {
+            if (ret instanceof Mono) {
+                return ((Mono<?>) ret)
+                        .doOnSuccess(value -> completion.complete(value, null))
+                        .doOnError(error -> completion.complete(null, error))
+                        // 取消按完成处理
+                        .doOnCancel(() -> completion.complete(null, null));
+            }
+            return ((Flux<?>) ret)
+                    .doOnComplete(() -> completion.complete(null, null))
+                    .doOnError(error -> completion.complete(null, error))
+                    .doOnCancel(() -> completion.complete(null, null));
+        }
+    }
+}
@@ -0,0 +1,179 @@
+package com.iogogogo.aspect.core;
+
+/**
+ * 当前线程上同步嵌套的被切面调用
+ * <p>
+ * 最外层调用为根，内层调用结束时只把耗时并入树中的节点，不单独输出记录；同一父节点下同一方法的多次调用合并为一个节点并计数，
+ * 节点数超过上限后新出现的方法合并到 "..." 节点。树只在创建它的线程上修改，根结束后不再变化，可交给其他线程输出
+ * <p>
+ * 输出格式为 名称[*次数][!][~] 总耗时/自身耗时(us)[子节点, ...]，! 表示其中有调用抛出异常，~ 表示返回了异步结果(只计同步部分，
+ * 结果完成时另外输出一条记录)，例如
+ * <pre>
+ * GreetingController.hello 1520/210[GreetingService.greet 1310/1080[GreetingRepository.find*12 230/230]]
+ * </pre>
+ */
+final class CallTree {
+
+    private static final ThreadLocal<CallTree> CURRENT = ThreadLocal.withInitial(CallTree::new);
+
+    /**
+     * 正在执行的最内层调用，没有调用时为null
+     */
+    private Node running;
+
+    private int nodes;
+
+    private int maxNodes;
+
+    private CallTree() {
+    }
+
+    static CallTree current() {
+        return CURRENT.get();
+    }
+
+    boolean isActive() {
+        return running != null;
+    }
+
+    Node enterRoot(MethodLogDescriptor descriptor, int maxNodes) {
+        Node root = new Node(descriptor, null);
+        root.count = 1;
+        this.running = root;
+        this.nodes = 1;
+        this.maxNodes = maxNodes;
+        return root;
+    }
+
+    void exitRoot() {
+        this.running = null;
+    }
+
+    /**
+     * 必须与 {@link #exit(Node, long, boolean, boolean)} 成对调用
+     */
+    Node enter(MethodLogDescriptor descriptor) {
+        Node parent = running;
+        Node node = parent.child(descriptor);
+        if (node == null) {
+            if (nodes >= maxNodes) {
+                node = parent.child(null);
+                if (node == null) {
+                    node = parent.add(new Node(null, parent));
+                }
+            } else {
+                node = parent.add(new Node(descriptor, parent));
+                nodes++;
+            }
+        }
+        node.count++;
+        this.running = node;
+        return node;
+    }
+
+    void exit(Node node, long nanos, boolean error, boolean async) {
+        node.totalNanos += nanos;
+        node.error |= error;
+        node.async |= async;
+        node.parent.childNanos += nanos;
+        this.running = node.parent;
+    }
+
+    static final class Node {
+
+        /**
+         * 超出节点上限后合并的节点为null
+         */
+        private final MethodLogDescriptor descriptor;
+
+        private final Node parent;
+
+        private Node firstChild;
+
+        private Node lastChild;
+
+        private Node next;
+
+        private int count;
+
+        private long totalNanos;
+
+        private long childNanos;
+
+        private boolean error;
+
+        private boolean async;
+
+        private Node(MethodLogDescriptor descriptor, Node parent) {
+            this.descriptor = descriptor;
+            this.parent = parent;
+        }
+
+        boolean hasChildren() {
+            return firstChild != null;
+        }
+
+        /**
+         * @return 嵌套深度，根为0
+         */
+        int depth() {
+            int depth = 0;
+            for (Node node = parent; node != null; node = node.parent) {
+                depth++;
+            }
+            return depth;
+        }
+
+        private Node child(MethodLogDescriptor descriptor) {
+            for (Node child = firstChild; child != null; child = child.next) {
+                if (child.descriptor == descriptor) {
+                    return child;
+                }
+            }
+            return null;
+        }
+
+        private Node add(Node child) {
+            if (lastChild == null) {
+                firstChild = child;
+            } else {
+                lastChild.next = child;
+            }
+            lastChild = child;
+            return child;
+        }
+
+        /**
+         * 根的总耗时取记录的耗时(异步返回时计时到结果完成)
+         */
+        String render(long rootNanos) {
+            StringBuilder out = new StringBuilder(128);
+            render(out, rootNanos);
+            return out.toString();
+        }
+
+        private void render(StringBuilder out, long total) {
+            out.append(descriptor == null ? "..." : descriptor.getShortName());
+            if (count > 1) {
+                out.append('*').append(count);
+            }
+            if (error) {
+                out.append('!');
+            }
+            if (async) {
+                out.append('~');
+            }
+            out.append(' ').append(total / 1000).append('/').append(Math.max(0, total - childNanos) / 1000);
+            if (firstChild != null) {
+                out.append('[');
+                for (Node child = firstChild; child != null; child = child.next) {
+                    if (child != firstChild) {
+                        out.append(", ");
+                    }
+                    child.render(out, child.totalNanos);
+                }
+                out.append(']');
+            }
+        }
+    }
+}
@@ -0,0 +1,22 @@
+package com.iogogogo.aspect.core;
+
+/**
+ * 记录中是否带参数与返回值，可在运行时按方法调整
+ */
+public enum CaptureLevel {
+
+    /**
+     * 只记录计时、请求与异常
+     */
+    SUMMARY,
+
+    /**
+     * logger(com.iogogogo.aspect.core.WebAspectLog)开启DEBUG时带参数与返回值
+     */
+    LOGGER,
+
+    /**
+     * 总是带参数与返回值，仍受 @AspectLog(logArgs/logResponse) 与脱敏约束
+     */
+    DETAIL
+}
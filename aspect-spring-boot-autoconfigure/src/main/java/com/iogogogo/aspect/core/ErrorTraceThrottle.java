@@ -0,0 +1,75 @@
+package com.iogogogo.aspect.core;
+
+import com.iogogogo.aspect.properties.AspectLogProperties;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 异常堆栈去重限流
+ * <p>
+ * 按 异常类型 + 栈顶若干帧 计算指纹，同一指纹每个周期只输出一次完整堆栈，所有指纹合计每个周期不超过上限
+ */
+public class ErrorTraceThrottle {
+
+    /**
+     * 指纹表上限，超出后整体清空，避免异常种类失控时无限增长
+     */
+    private static final int MAX_FINGERPRINTS = 4096;
+
+    private final AspectLogProperties.Error properties;
+
+    private final ConcurrentMap<Long, AtomicLong> lastTraceMillis = new ConcurrentHashMap<>();
+
+    private final AtomicLong windowStart = new AtomicLong();
+
+    private final AtomicInteger windowCount = new AtomicInteger();
+
+    public ErrorTraceThrottle(AspectLogProperties.Error properties) {
+        this.properties = properties;
+    }
+
+    public long fingerprint(Throwable throwable) {
+        long h = throwable.getClass().getName().hashCode();
+        StackTraceElement[] frames = throwable.getStackTrace();
+        int n = Math.min(frames.length, properties.getFingerprintFrames());
+        for (int i = 0; i < n; i++) {
+            StackTraceElement frame = frames[i];
+            h = 31 * h + frame.getClassName().hashCode();
+            h = 31 * h + frame.getMethodName().hashCode();
+            h = 31 * h + frame.getLineNumber();
+        }
+        return h;
+    }
+
+    /**
+     * @return 是否输出完整堆栈
+     */
+    public boolean tryAcquire(long fingerprint) {
+        long now = System.currentTimeMillis();
+        long interval = properties.getTraceInterval().toMillis();
+
+        AtomicLong last = lastTraceMillis.get(fingerprint);
+        if (last == null) {
+            if (lastTraceMillis.size() >= MAX_FINGERPRINTS) {
+                lastTraceMillis.clear();
+            }
+            last = lastTraceMillis.computeIfAbsent(fingerprint, k -> new AtomicLong(Long.MIN_VALUE));
+        }
+        long previous = last.get();
+        if (previous != Long.MIN_VALUE && now - previous < interval) {
+            return false;
+        }
+
+        long start = windowStart.get();
+        if (now - start >= interval && windowStart.compareAndSet(start, now)) {
+            windowCount.set(0);
+        }
+        if (windowCount.incrementAndGet() > properties.getMaxTracesPerInterval()) {
+            return false;
+        }
+        return last.compareAndSet(previous, now);
+    }
+}
@@ -0,0 +1,223 @@
+package com.iogogogo.aspect.core;
+
+import com.iogogogo.aspect.properties.AspectLogProperties;
+import com.iogogogo.aspect.properties.InetUtilsProperties;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.SmartLifecycle;
+
+import java.io.Closeable;
+import java.net.InetAddress;
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 本机信息缓存
+ * <p>
+ * 第一次 {@link #get()} 时才启动后台线程枚举网卡，完成之前返回默认主机信息(default-hostname/default-ip-address)，请求线程不做任何网卡与DNS操作。
+ * 之后后台线程定时比对网卡快照，选中的地址变化时立即发布新IP，主机名(反向DNS)通过 {@link InetUtils} 的解析线程池异步解析后再发布。
+ * 每次发布的都是新建的 HostInfo，发布后不再修改，请求线程只读取volatile引用
+ * <p>
+ * 没有被调用过的应用不会枚举网卡、不会创建线程；{@link #start()} 之前被调用时等到启动后再初始化。
+ * 开启 resolveHostnameOnStartup 时在 {@link #start()} 中提前初始化，并最多等待 timeoutSeconds
+ */
+@Slf4j
+public class HostInfoProvider implements SmartLifecycle, Closeable {
+
+    private final InetUtils inetUtils;
+
+    private final InetUtilsProperties inetUtilsProperties;
+
+    private final AspectLogProperties.Host properties;
+
+    private volatile InetUtils.HostInfo hostInfo;
+
+    /**
+     * 是否已被调用过(或要求启动时初始化)，之后每次启动都会开始刷新
+     */
+    private volatile boolean requested;
+
+    private volatile ScheduledExecutorService scheduler;
+
+    private volatile boolean running;
+
+    /**
+     * 每次发起解析时递增，旧地址的解析结果晚到时丢弃
+     */
+    private volatile int generation;
+
+    // 以下字段只在刷新线程中读写
+    private NetworkSnapshot snapshot;
+
+    private InetAddress address;
+
+    private long resolvedNanos;
+
+    private CompletableFuture<?> pending;
+
+    public HostInfoProvider(InetUtils inetUtils, InetUtilsProperties inetUtilsProperties, AspectLogProperties.Host properties) {
+        this.inetUtils = inetUtils;
+        this.inetUtilsProperties = inetUtilsProperties;
+        this.properties = properties;
+        this.hostInfo = addressOnly(null);
+    }
+
+    /**
+     * 热路径，无锁无IO
+     */
+    public InetUtils.HostInfo get() {
+        if (!requested) {
+            request();
+        }
+        return this.hostInfo;
+    }
+
+    private synchronized void request() {
+        if (!this.requested) {
+            this.requested = true;
+            if (this.running) {
+                startRefresh();
+            }
+        }
+    }
+
+    @Override
+    public synchronized void start() {
+        if (this.running) {
+            return;
+        }
+        this.running = true;
+        if (properties.isResolveHostnameOnStartup()) {
+            this.requested = true;
+        } else if (!this.requested) {
+            return;
+        }
+        CompletableFuture<?> initialized = startRefresh();
+
+        if (properties.isResolveHostnameOnStartup()) {
+            // 只在启动阶段等待，最多等 timeoutSeconds，超时后仍由后台发布
+            try {
+                initialized.get(inetUtilsProperties.getTimeoutSeconds(), TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                // 保留中断状态，交给启动线程处理
+                Thread.currentThread().interrupt();
+            } catch (Exception e) {
+                log.info("Hostname not resolved within {}s, continue with {}", inetUtilsProperties.getTimeoutSeconds(), hostInfo.getIpAddress());
+            }
+        }
+    }
+
+    /**
+     * 持有锁时调用，初始化与之后的检查都在同一个刷新线程上按顺序执行
+     *
+     * @return 初始化并解析完主机名时完成
+     */
+    private CompletableFuture<?> startRefresh() {
+        this.scheduler = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread thread = new Thread(r);
+            thread.setName("aspect-host-info");
+            thread.setDaemon(true);
+            return thread;
+        });
+        CompletableFuture<?> initialized = CompletableFuture.supplyAsync(this::initialize, scheduler)
+                .thenCompose(resolved -> resolved);
+        long period = properties.getNicCheckInterval().toMillis();
+        this.scheduler.scheduleWithFixedDelay(this::check, period, period, TimeUnit.MILLISECONDS);
+        return initialized;
+    }
+
+    /**
+     * 第一次启动刷新时执行；停止后再启动时沿用已有的快照与地址，只重新解析
+     */
+    private CompletableFuture<?> initialize() {
+        if (this.snapshot == null) {
+            try {
+                this.snapshot = NetworkSnapshot.take();
+            } catch (Exception e) {
+                log.warn("Enumerate network interfaces failed", e);
+            }
+            this.address = inetUtils.findFirstNonLoopbackInterfaceAddress();
+            this.hostInfo = addressOnly(address);
+        }
+        return resolve();
+    }
+
+    @Override
+    public synchronized void stop() {
+        this.running = false;
+        if (this.scheduler != null) {
+            this.scheduler.shutdownNow();
+            this.scheduler = null;
+        }
+    }
+
+    @Override
+    public boolean isRunning() {
+        return this.running;
+    }
+
+    /**
+     * 先于web服务器启动，晚于web服务器停止
+     */
+    @Override
+    public int getPhase() {
+        return 0;
+    }
+
+    @Override
+    public void close() {
+        stop();
+        this.inetUtils.close();
+    }
+
+    private void check() {
+        try {
+            NetworkSnapshot current = NetworkSnapshot.take();
+            if (!current.equals(snapshot)) {
+                log.debug("Network interfaces changed: {}", current.diff(snapshot));
+                this.snapshot = current;
+                InetAddress selected = inetUtils.findFirstNonLoopbackInterfaceAddress();
+                if (!Objects.equals(selected, address)) {
+                    log.info("Network address changed: {} -> {}", address, selected);
+                    this.address = selected;
+                    // 先作废旧地址上还没完成的解析，再发布新IP
+                    this.generation++;
+                    this.hostInfo = addressOnly(selected);
+                    resolve();
+                    return;
+                }
+            }
+            boolean expired = System.nanoTime() - resolvedNanos >= properties.getRefreshInterval().toNanos();
+            if (expired && (pending == null || pending.isDone())) {
+                resolve();
+            }
+        } catch (Exception e) {
+            log.warn("Refresh host info failed", e);
+        }
+    }
+
+    private CompletableFuture<?> resolve() {
+        int current = ++this.generation;
+        CompletableFuture<InetUtils.HostInfo> future = address == null
+                ? inetUtils.findFirstNonLoopbackHostInfoAsync()
+                : inetUtils.convertAddressAsync(address);
+        this.resolvedNanos = System.nanoTime();
+        this.pending = future.whenComplete((info, e) -> {
+            if (e != null) {
+                log.debug("Resolve hostname failed, keep {}", hostInfo.getIpAddress(), e);
+            } else if (current == generation) {
+                this.hostInfo = info;
+            }
+        });
+        return this.pending;
+    }
+
+    private InetUtils.HostInfo addressOnly(InetAddress address) {
+        if (address == null) {
+            return new InetUtils.HostInfo(inetUtilsProperties.getDefaultHostname(), inetUtilsProperties.getDefaultIpAddress());
+        }
+        return InetUtils.HostInfo.of(address.getHostAddress(), address);
+    }
+}
@@ -1,5 +1,8 @@
 package com.iogogogo.aspect.core;
 
+import com.iogogogo.aspect.net.InetAddressParser;
+import com.iogogogo.aspect.net.NetworkMatcher;
+import com.iogogogo.aspect.net.PatternList;
 import com.iogogogo.aspect.properties.InetUtilsProperties;
 import lombok.extern.slf4j.Slf4j;
 import org.apache.commons.logging.Log;
@@ -13,13 +16,16 @@ import java.net.Inet4Address;
 import java.net.InetAddress;
 import java.net.NetworkInterface;
 import java.net.UnknownHostException;
-import java.nio.ByteBuffer;
 import java.util.Enumeration;
 import java.util.List;
-import java.util.concurrent.ExecutorService;
-import java.util.concurrent.Executors;
-import java.util.concurrent.Future;
+import java.util.Objects;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
 
 /**
  * spring-cloud-commons
@@ -30,21 +36,37 @@ import java.util.concurrent.TimeUnit;
  */
 public class InetUtils implements Closeable {
 
-    // TODO: maybe shutdown the thread pool if it isn't being used?
-    private final ExecutorService executorService;
+    /**
+     * 反向DNS线程数上限，空闲后线程自动退出
+     */
+    private static final int RESOLVER_THREADS = 2;
+
+    /**
+     * 排队上限，DNS卡住时新的解析直接失败，不会无限堆积
+     */
+    private static final int RESOLVER_QUEUE = 16;
+
+    private final ThreadPoolExecutor executorService;
 
     private final InetUtilsProperties properties;
 
     private final Log log = LogFactory.getLog(InetUtils.class);
 
+    private volatile Filters filters;
+
     public InetUtils(final InetUtilsProperties properties) {
         this.properties = properties;
-        this.executorService = Executors.newSingleThreadExecutor(r -> {
+        AtomicInteger threads = new AtomicInteger();
+        this.executorService = new ThreadPoolExecutor(RESOLVER_THREADS, RESOLVER_THREADS, 60, TimeUnit.SECONDS,
+                new ArrayBlockingQueue<>(RESOLVER_QUEUE), r -> {
             Thread thread = new Thread(r);
-            thread.setName(InetUtilsProperties.PREFIX);
+            thread.setName(InetUtilsProperties.PREFIX + "-" + threads.incrementAndGet());
             thread.setDaemon(true);
             return thread;
         });
+        this.executorService.allowCoreThreadTimeOut(true);
+        // 启动时编译一次，正则写错时尽早失败
+        filters();
     }
 
     @Override
@@ -57,20 +79,38 @@ public class InetUtils implements Closeable {
         if (address != null) {
             return convertAddress(address);
         }
-        InetUtils.HostInfo hostInfo = new InetUtils.HostInfo();
-        hostInfo.setHostname(this.properties.getDefaultHostname());
-        hostInfo.setIpAddress(this.properties.getDefaultIpAddress());
-        return hostInfo;
+        return new InetUtils.HostInfo(this.properties.getDefaultHostname(), this.properties.getDefaultIpAddress());
     }
 
     public InetAddress findFirstNonLoopbackAddress() {
+        InetAddress result = findFirstNonLoopbackInterfaceAddress();
+        if (result != null) {
+            return result;
+        }
+
+        try {
+            return InetAddress.getLocalHost();
+        } catch (UnknownHostException e) {
+            this.log.warn("Unable to retrieve localhost");
+        }
+
+        return null;
+    }
+
+    /**
+     * 仅枚举网卡，不回退到 {@link InetAddress#getLocalHost()}，不会触发DNS
+     */
+    public InetAddress findFirstNonLoopbackInterfaceAddress() {
         InetAddress result = null;
+        Filters filters = filters();
         try {
             int lowest = Integer.MAX_VALUE;
             for (Enumeration<NetworkInterface> nics = NetworkInterface.getNetworkInterfaces(); nics.hasMoreElements(); ) {
                 NetworkInterface ifc = nics.nextElement();
                 if (ifc.isUp()) {
-                    this.log.trace("Testing interface: " + ifc.getDisplayName());
+                    if (this.log.isTraceEnabled()) {
+                        this.log.trace("Testing interface: " + ifc.getDisplayName());
+                    }
                     if (ifc.getIndex() < lowest || result == null) {
                         lowest = ifc.getIndex();
                     } else {
@@ -78,15 +118,17 @@ public class InetUtils implements Closeable {
                     }
 
                     // @formatter:off
-                    if (!ignoreInterface(ifc.getDisplayName())) {
+                    if (!ignoreInterface(ifc.getDisplayName(), filters)) {
                         for (Enumeration<InetAddress> addrs = ifc
                                 .getInetAddresses(); addrs.hasMoreElements(); ) {
                             InetAddress address = addrs.nextElement();
                             if (address instanceof Inet4Address
                                     && !address.isLoopbackAddress()
-                                    && isPreferredAddress(address)) {
-                                this.log.trace("Found non-loopback interface: "
-                                        + ifc.getDisplayName());
+                                    && isPreferredAddress(address, filters)) {
+                                if (this.log.isTraceEnabled()) {
+                                    this.log.trace("Found non-loopback interface: "
+                                            + ifc.getDisplayName());
+                                }
                                 result = address;
                             }
                         }
@@ -97,133 +139,301 @@ public class InetUtils implements Closeable {
         } catch (IOException ex) {
             this.log.error("Cannot get first non-loopback address", ex);
         }
-
-        if (result != null) {
-            return result;
-        }
-
-        try {
-            return InetAddress.getLocalHost();
-        } catch (UnknownHostException e) {
-            this.log.warn("Unable to retrieve localhost");
-        }
-
-        return null;
+        return result;
     }
 
     // For testing.
     boolean isPreferredAddress(InetAddress address) {
+        return isPreferredAddress(address, filters());
+    }
 
+    private boolean isPreferredAddress(InetAddress address, Filters filters) {
         if (this.properties.isUseOnlySiteLocalInterfaces()) {
             final boolean siteLocalAddress = address.isSiteLocalAddress();
-            if (!siteLocalAddress) {
+            if (!siteLocalAddress && this.log.isTraceEnabled()) {
                 this.log.trace("Ignoring address: " + address.getHostAddress());
             }
             return siteLocalAddress;
         }
-        final List<String> preferredNetworks = this.properties.getPreferredNetworks();
-        if (preferredNetworks.isEmpty()) {
+        if (filters.preferredNetworks.isEmpty() || filters.preferredNetworks.matches(address)) {
             return true;
         }
-        for (String regex : preferredNetworks) {
-            final String hostAddress = address.getHostAddress();
-            if (hostAddress.matches(regex) || hostAddress.startsWith(regex)) {
-                return true;
-            }
+        if (this.log.isTraceEnabled()) {
+            this.log.trace("Ignoring address: " + address.getHostAddress());
         }
-        this.log.trace("Ignoring address: " + address.getHostAddress());
         return false;
     }
 
     // For testing
     boolean ignoreInterface(String interfaceName) {
-        for (String regex : this.properties.getIgnoredInterfaces()) {
-            if (interfaceName.matches(regex)) {
+        return ignoreInterface(interfaceName, filters());
+    }
+
+    private boolean ignoreInterface(String interfaceName, Filters filters) {
+        if (filters.ignoredInterfaces.matches(interfaceName)) {
+            if (this.log.isTraceEnabled()) {
                 this.log.trace("Ignoring interface: " + interfaceName);
-                return true;
             }
+            return true;
         }
         return false;
     }
 
-    public InetUtils.HostInfo convertAddress(final InetAddress address) {
-        InetUtils.HostInfo hostInfo = new InetUtils.HostInfo();
-        Future<String> result = this.executorService.submit(address::getHostName);
+    /**
+     * 属性重新绑定时列表会整体替换，按引用 + hashCode 判断是否需要重新编译
+     */
+    private Filters filters() {
+        List<String> ignoredInterfaces = this.properties.getIgnoredInterfaces();
+        List<String> preferredNetworks = this.properties.getPreferredNetworks();
+        Filters current = this.filters;
+        if (current == null || !current.compiledFrom(ignoredInterfaces, preferredNetworks)) {
+            current = new Filters(ignoredInterfaces, preferredNetworks);
+            this.filters = current;
+        }
+        return current;
+    }
 
+    public InetUtils.HostInfo convertAddress(final InetAddress address) {
         String hostname;
         try {
-            hostname = result.get(this.properties.getTimeoutSeconds(), TimeUnit.SECONDS);
+            hostname = resolveHostname(address).get(this.properties.getTimeoutSeconds(), TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            hostname = "localhost";
         } catch (Exception e) {
             this.log.info("Cannot determine local hostname");
             hostname = "localhost";
         }
-        hostInfo.setHostname(hostname);
-        hostInfo.setIpAddress(address.getHostAddress());
-        return hostInfo;
+        return InetUtils.HostInfo.of(hostname, address);
+    }
+
+    /**
+     * 在解析线程池中做反向DNS，调用方不阻塞；线程池已满或已关闭时返回失败的future
+     */
+    public CompletableFuture<InetUtils.HostInfo> convertAddressAsync(final InetAddress address) {
+        return resolveHostname(address).thenApply(hostname -> InetUtils.HostInfo.of(hostname, address));
+    }
+
+    /**
+     * 同 {@link #findFirstNonLoopbackHostInfo()}，网卡枚举与 {@link InetAddress#getLocalHost()} 都在解析线程池中执行
+     */
+    public CompletableFuture<InetUtils.HostInfo> findFirstNonLoopbackHostInfoAsync() {
+        return submit(() -> {
+            InetAddress address = findFirstNonLoopbackAddress();
+            if (address == null) {
+                return new InetUtils.HostInfo(this.properties.getDefaultHostname(), this.properties.getDefaultIpAddress());
+            }
+            return InetUtils.HostInfo.of(address.getHostName(), address);
+        });
+    }
+
+    private CompletableFuture<String> resolveHostname(InetAddress address) {
+        return submit(address::getHostName);
+    }
+
+    private <T> CompletableFuture<T> submit(Supplier<T> task) {
+        try {
+            return CompletableFuture.supplyAsync(task, this.executorService);
+        } catch (RejectedExecutionException e) {
+            CompletableFuture<T> future = new CompletableFuture<>();
+            future.completeExceptionally(e);
+            return future;
+        }
+    }
+
+    /**
+     * 由 ignoredInterfaces、preferredNetworks 编译出的匹配器，构建后只读
+     */
+    private static final class Filters {
+
+        private final List<String> ignoredInterfacesSource;
+
+        private final int ignoredInterfacesHash;
+
+        private final List<String> preferredNetworksSource;
+
+        private final int preferredNetworksHash;
+
+        private final PatternList ignoredInterfaces;
+
+        private final NetworkMatcher preferredNetworks;
+
+        private Filters(List<String> ignoredInterfaces, List<String> preferredNetworks) {
+            this.ignoredInterfacesSource = ignoredInterfaces;
+            this.ignoredInterfacesHash = ignoredInterfaces.hashCode();
+            this.preferredNetworksSource = preferredNetworks;
+            this.preferredNetworksHash = preferredNetworks.hashCode();
+            this.ignoredInterfaces = PatternList.regex(ignoredInterfaces);
+            this.preferredNetworks = new NetworkMatcher(preferredNetworks);
+        }
+
+        private boolean compiledFrom(List<String> ignoredInterfaces, List<String> preferredNetworks) {
+            return ignoredInterfacesSource == ignoredInterfaces && ignoredInterfacesHash == ignoredInterfaces.hashCode()
+                    && preferredNetworksSource == preferredNetworks && preferredNetworksHash == preferredNetworks.hashCode();
+        }
     }
 
     /**
-     * Host information pojo.
+     * Host information, immutable.
+     * <p>
+     * IP字面量在创建时解析一次，IPv4 存为一个int，IPv6 存为两个long，不经过DNS；相等与hashCode只比较解析后的地址，
+     * 同一地址反向解析前后的两个快照相等。不是IP字面量时按字符串比较
      */
-    public static class HostInfo {
+    public static final class HostInfo {
 
         /**
          * Should override the host info.
          */
-        public boolean override;
+        private final boolean override;
+
+        private final String ipAddress;
+
+        private final String hostname;
+
+        /**
+         * {@link InetAddressParser#V4} / {@link InetAddressParser#V6}，不是IP字面量时为 {@link InetAddressParser#INVALID}
+         */
+        private final int kind;
 
-        private String ipAddress;
+        private final int ipv4;
 
-        private String hostname;
+        private final long high;
+
+        private final long low;
 
         public HostInfo(String hostname) {
+            this(hostname, null, false);
+        }
+
+        public HostInfo(String hostname, String ipAddress) {
+            this(hostname, ipAddress, false);
+        }
+
+        public HostInfo(String hostname, String ipAddress, boolean override) {
+            // 与原来的 getIpAddressAsInt 一致：没有IP时取主机名，但只接受字面量
+            this(hostname, ipAddress, override, packed(ipAddress != null ? ipAddress : hostname));
+        }
+
+        private HostInfo(String hostname, String ipAddress, boolean override, long[] packed) {
             this.hostname = hostname;
+            this.ipAddress = ipAddress;
+            this.override = override;
+            this.kind = (int) packed[2];
+            this.ipv4 = kind == InetAddressParser.V4 ? (int) packed[0] : 0;
+            this.high = kind == InetAddressParser.V6 ? packed[0] : 0;
+            this.low = kind == InetAddressParser.V6 ? packed[1] : 0;
         }
 
-        public HostInfo() {
+        /**
+         * 地址取自 {@link InetAddress#getAddress()}，不解析字符串
+         */
+        public static HostInfo of(String hostname, InetAddress address) {
+            long[] packed = new long[3];
+            packed[2] = InetAddressParser.fromBytes(address.getAddress(), packed);
+            return new HostInfo(hostname, address.getHostAddress(), false, packed);
+        }
+
+        /**
+         * @return 地址在前两位，类型在最后一位
+         */
+        private static long[] packed(String literal) {
+            long[] packed = new long[3];
+            packed[2] = literal == null ? InetAddressParser.INVALID : InetAddressParser.parse(literal, packed);
+            return packed;
         }
 
+        /**
+         * IPv4 为地址本身，IPv6 为高32位(同 {@code ByteBuffer.wrap(address.getAddress()).getInt()})
+         *
+         * @throws IllegalArgumentException 不是IP字面量，不再回退到DNS
+         */
         public int getIpAddressAsInt() {
-            InetAddress inetAddress = null;
-            String host = this.ipAddress;
-            if (host == null) {
-                host = this.hostname;
+            if (kind == InetAddressParser.V4) {
+                return ipv4;
             }
-            try {
-                inetAddress = InetAddress.getByName(host);
-            } catch (final UnknownHostException e) {
-                throw new IllegalArgumentException(e);
+            if (kind == InetAddressParser.V6) {
+                return (int) (high >>> 32);
             }
-            return ByteBuffer.wrap(inetAddress.getAddress()).getInt();
+            throw new IllegalArgumentException("Not an IP literal: " + (ipAddress != null ? ipAddress : hostname));
         }
 
-        public boolean isOverride() {
-            return this.override;
+        public boolean isIpv4() {
+            return kind == InetAddressParser.V4;
         }
 
-        public void setOverride(boolean override) {
-            this.override = override;
+        public boolean isIpv6() {
+            return kind == InetAddressParser.V6;
         }
 
-        public String getIpAddress() {
-            return this.ipAddress;
+        /**
+         * IPv6 高64位，其他为0
+         */
+        public long getIpv6High() {
+            return high;
         }
 
-        public void setIpAddress(String ipAddress) {
-            this.ipAddress = ipAddress;
+        /**
+         * IPv6 低64位，其他为0
+         */
+        public long getIpv6Low() {
+            return low;
+        }
+
+        public boolean isOverride() {
+            return this.override;
+        }
+
+        public String getIpAddress() {
+            return this.ipAddress;
         }
 
         public String getHostname() {
             return this.hostname;
         }
 
-        public void setHostname(String hostname) {
-            this.hostname = hostname;
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (!(o instanceof HostInfo)) {
+                return false;
+            }
+            HostInfo other = (HostInfo) o;
+            if (kind != other.kind) {
+                return false;
+            }
+            if (kind == InetAddressParser.INVALID) {
+                return Objects.equals(ipAddress, other.ipAddress) && Objects.equals(hostname, other.hostname);
+            }
+            return ipv4 == other.ipv4 && high == other.high && low == other.low;
+        }
+
+        @Override
+        public int hashCode() {
+            if (kind == InetAddressParser.V4) {
+                return ipv4;
+            }
+            if (kind == InetAddressParser.V6) {
+                return Long.hashCode(high) * 31 + Long.hashCode(low);
+            }
+            return Objects.hash(ipAddress, hostname);
+        }
+
+        @Override
+        public String toString() {
+            return "HostInfo(hostname=" + hostname + ", ipAddress=" + ipAddress + ")";
         }
     }
 
 
+    /**
+     * 无条件信任转发头，且回环地址时会调用 InetAddress.getLocalHost()
+     *
+     * @deprecated 使用 {@link com.iogogogo.aspect.net.ClientAddressResolver}
+     */
     @Slf4j
+    @Deprecated
     public static class XInetAddress {
         /**
          * 获取IP地址 * <p>
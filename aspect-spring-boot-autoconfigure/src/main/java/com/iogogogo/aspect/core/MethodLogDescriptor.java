@@ -0,0 +1,131 @@
+package com.iogogogo.aspect.core;
+
+import com.iogogogo.aspect.annotation.AspectLog;
+import com.iogogogo.aspect.metrics.MethodStats;
+import com.iogogogo.aspect.render.Redactor;
+import com.iogogogo.aspect.render.ValueRenderer;
+import com.iogogogo.aspect.sampling.TokenBucket;
+import lombok.AccessLevel;
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.aop.support.AopUtils;
+import org.springframework.core.annotation.AnnotatedElementUtils;
+import org.springframework.util.ClassUtils;
+
+import java.lang.annotation.Annotation;
+import java.lang.reflect.Method;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 方法级别的预计算信息，首次调用时创建，之后热路径不再反射、不再拼接字符串
+ */
+@Getter
+public class MethodLogDescriptor {
+
+    private final Method method;
+
+    /**
+     * 目标类(非代理类)，同一方法被多个子类继承时各有一份
+     */
+    private final Class<?> targetClass;
+
+    private final String className;
+
+    private final String methodName;
+
+    /**
+     * com.example.Foo.index()
+     */
+    private final String displayName;
+
+    /**
+     * Foo.index，用于调用树
+     */
+    private final String shortName;
+
+    private final boolean logArgs;
+
+    private final boolean logResponse;
+
+    /**
+     * 每个参数的输出方式(ValueRenderer.ARG_*)，null表示全部输出
+     */
+    private final byte[] argModes;
+
+    /**
+     * 小于0表示使用全局配置
+     */
+    private final double sampleRate;
+
+    /**
+     * 小于0表示使用全局配置
+     */
+    private final int rateLimit;
+
+    /**
+     * 小于0表示使用全局配置
+     */
+    private final long slowThresholdNanos;
+
+    @Setter
+    private volatile TokenBucket rateLimiter;
+
+    private final MethodStats stats = new MethodStats();
+
+    @Getter(AccessLevel.NONE)
+    private volatile AspectLogSettings.MethodSettings settings;
+
+    MethodLogDescriptor(Method method, Class<?> targetClass) {
+        this.method = method;
+        this.targetClass = targetClass;
+        this.className = targetClass.getName();
+        this.methodName = method.getName();
+        this.displayName = className + "." + methodName + "()";
+        this.shortName = ClassUtils.getShortName(targetClass) + "." + methodName;
+
+        // 接口或父类上的方法换成目标类中的实现，方法上的注解优先于类上的
+        Method specificMethod = AopUtils.getMostSpecificMethod(method, targetClass);
+        AspectLog annotation = AnnotatedElementUtils.findMergedAnnotation(specificMethod, AspectLog.class);
+        if (annotation == null) {
+            annotation = AnnotatedElementUtils.findMergedAnnotation(targetClass, AspectLog.class);
+        }
+        this.logArgs = annotation == null || annotation.logArgs();
+        this.logResponse = annotation == null || annotation.logResponse();
+        this.sampleRate = annotation == null ? -1 : annotation.sampleRate();
+        this.rateLimit = annotation == null ? -1 : annotation.rateLimit();
+        this.slowThresholdNanos = annotation == null || annotation.slowThresholdMs() < 0
+                ? -1 : TimeUnit.MILLISECONDS.toNanos(annotation.slowThresholdMs());
+        this.argModes = argModes(specificMethod);
+    }
+
+    /**
+     * 快照未变化时直接返回缓存，并发重新计算时结果相同
+     */
+    public AspectLogSettings.MethodSettings settings(AspectLogSettings current) {
+        AspectLogSettings.MethodSettings cached = this.settings;
+        if (cached == null || cached.getSettings() != current) {
+            cached = current.resolve(this);
+            this.settings = cached;
+        }
+        return cached;
+    }
+
+    private static byte[] argModes(Method method) {
+        Annotation[][] parameterAnnotations = method.getParameterAnnotations();
+        byte[] modes = new byte[parameterAnnotations.length];
+        boolean any = false;
+        for (int i = 0; i < parameterAnnotations.length; i++) {
+            for (Annotation annotation : parameterAnnotations[i]) {
+                if (annotation instanceof AspectLog.Ignore) {
+                    modes[i] = ValueRenderer.ARG_IGNORE;
+                    break;
+                }
+            }
+            if (modes[i] == ValueRenderer.ARG_LOG && Redactor.isMasked(parameterAnnotations[i])) {
+                modes[i] = ValueRenderer.ARG_MASK;
+            }
+            any |= modes[i] != ValueRenderer.ARG_LOG;
+        }
+        return any ? modes : null;
+    }
+}
@@ -0,0 +1,56 @@
+package com.iogogogo.aspect.core;
+
+import org.aopalliance.intercept.MethodInvocation;
+import org.springframework.aop.support.AopUtils;
+import org.springframework.core.MethodClassKey;
+import org.springframework.util.ClassUtils;
+
+import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * (Method, 目标类) -> {@link MethodLogDescriptor}
+ * <p>
+ * 绝大多数方法只对应一个目标类，按 Method 查找后比较目标类即可，不需要创建组合key；
+ * 类级别注解使父类方法被多个子类共用时，其余目标类放到第二张表
+ */
+public class MethodLogDescriptorCache {
+
+    private final ConcurrentMap<Method, MethodLogDescriptor> descriptors = new ConcurrentHashMap<>();
+
+    private final ConcurrentMap<MethodClassKey, MethodLogDescriptor> inherited = new ConcurrentHashMap<>();
+
+    public MethodLogDescriptor get(MethodInvocation invocation) {
+        Method method = invocation.getMethod();
+        Object target = invocation.getThis();
+        return get(method, target == null ? method.getDeclaringClass() : ClassUtils.getUserClass(AopUtils.getTargetClass(target)));
+    }
+
+    public MethodLogDescriptor get(Method method, Class<?> targetClass) {
+        // 先get，避免computeIfAbsent在已存在时也加锁
+        MethodLogDescriptor descriptor = descriptors.get(method);
+        if (descriptor == null) {
+            descriptor = descriptors.computeIfAbsent(method, m -> new MethodLogDescriptor(m, targetClass));
+        }
+        if (descriptor.getTargetClass() == targetClass) {
+            return descriptor;
+        }
+        MethodClassKey key = new MethodClassKey(method, targetClass);
+        descriptor = inherited.get(key);
+        if (descriptor == null) {
+            descriptor = inherited.computeIfAbsent(key, k -> new MethodLogDescriptor(method, targetClass));
+        }
+        return descriptor;
+    }
+
+    public Collection<MethodLogDescriptor> all() {
+        List<MethodLogDescriptor> all = new ArrayList<>(descriptors.values());
+        all.addAll(inherited.values());
+        return Collections.unmodifiableList(all);
+    }
+}
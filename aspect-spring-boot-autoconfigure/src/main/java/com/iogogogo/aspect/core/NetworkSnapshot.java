@@ -0,0 +1,72 @@
+package com.iogogogo.aspect.core;
+
+import java.net.InetAddress;
+import java.net.NetworkInterface;
+import java.net.SocketException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Enumeration;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.TreeMap;
+
+/**
+ * 某一时刻已启用网卡及其地址，只做枚举不做DNS，用于判断网络是否发生变化
+ */
+final class NetworkSnapshot {
+
+    private final Map<String, List<InetAddress>> interfaces;
+
+    private NetworkSnapshot(Map<String, List<InetAddress>> interfaces) {
+        this.interfaces = interfaces;
+    }
+
+    static NetworkSnapshot take() throws SocketException {
+        Map<String, List<InetAddress>> interfaces = new TreeMap<>();
+        Enumeration<NetworkInterface> nics = NetworkInterface.getNetworkInterfaces();
+        while (nics != null && nics.hasMoreElements()) {
+            NetworkInterface nic = nics.nextElement();
+            if (nic.isUp()) {
+                List<InetAddress> addresses = new ArrayList<>(2);
+                for (Enumeration<InetAddress> it = nic.getInetAddresses(); it.hasMoreElements(); ) {
+                    addresses.add(it.nextElement());
+                }
+                interfaces.put(nic.getName(), addresses);
+            }
+        }
+        return new NetworkSnapshot(Collections.unmodifiableMap(interfaces));
+    }
+
+    /**
+     * @return 新增(+)、移除(-)、地址变化(~)的网卡名，用于日志
+     */
+    String diff(NetworkSnapshot previous) {
+        Map<String, List<InetAddress>> before = previous == null ? Collections.emptyMap() : previous.interfaces;
+        StringBuilder sb = new StringBuilder();
+        for (Map.Entry<String, List<InetAddress>> e : interfaces.entrySet()) {
+            List<InetAddress> old = before.get(e.getKey());
+            if (old == null) {
+                sb.append(" +").append(e.getKey());
+            } else if (!old.equals(e.getValue())) {
+                sb.append(" ~").append(e.getKey());
+            }
+        }
+        for (String name : before.keySet()) {
+            if (!interfaces.containsKey(name)) {
+                sb.append(" -").append(name);
+            }
+        }
+        return sb.toString().trim();
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        return this == o || o instanceof NetworkSnapshot && interfaces.equals(((NetworkSnapshot) o).interfaces);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hashCode(interfaces);
+    }
+}
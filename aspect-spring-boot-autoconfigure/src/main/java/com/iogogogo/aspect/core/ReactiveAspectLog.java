@@ -0,0 +1,96 @@
+package com.iogogogo.aspect.core;
+
+import com.iogogogo.aspect.async.AsyncLogDispatcher;
+import com.iogogogo.aspect.context.ExchangeSnapshot;
+import com.iogogogo.aspect.context.RequestInfo;
+import com.iogogogo.aspect.metrics.LatencyRecorder;
+import com.iogogogo.aspect.net.ClientAddressResolver;
+import com.iogogogo.aspect.render.ValueRenderer;
+import com.iogogogo.aspect.sampling.Sampler;
+import com.iogogogo.aspect.sink.AspectLogSink;
+import org.aopalliance.intercept.MethodInvocation;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.web.filter.reactive.ServerWebExchangeContextFilter;
+import org.springframework.web.server.ServerWebExchange;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.util.context.ContextView;
+
+/**
+ * WebFlux 应用的切面
+ * <p>
+ * Mono/Flux 从订阅开始计时到终止信号，在终止信号上记录，不阻塞事件循环线程；请求信息取自订阅时 Reactor Context 中的
+ * {@link ServerWebExchange}(由 {@link ServerWebExchangeContextFilter} 写入)。同步返回值没有 Context，只记录计时与异常
+ * <p>
+ * 事件循环线程上不使用 MDC，trace ID 保存在 exchange 中，同一请求的各条记录相同；不记录嵌套深度
+ */
+public class ReactiveAspectLog extends AspectLogSupport {
+
+    public ReactiveAspectLog(HostInfoProvider hostInfoProvider, ClientAddressResolver clientAddressResolver,
+                             ObjectProvider<AspectLogSink> sinks, ValueRenderer renderer,
+                             MethodLogDescriptorCache descriptors, ObjectProvider<LatencyRecorder> recorders,
+                             Sampler sampler, AspectLogSettingsProvider settings, ErrorTraceThrottle errorTraceThrottle,
+                             ObjectProvider<AsyncLogDispatcher> dispatcher) {
+        super(hostInfoProvider, clientAddressResolver, sinks, renderer, descriptors, recorders, sampler, settings, errorTraceThrottle, dispatcher);
+    }
+
+    @Override
+    @SuppressWarnings({"rawtypes", "unchecked"})
+    public Object invoke(MethodInvocation invocation) throws Throwable {
+        MethodLogDescriptor descriptor;
+        boolean sampled;
+        try {
+            descriptor = descriptors.get(invocation);
+            AspectLogSettings.MethodSettings method = descriptor.settings(settings.get());
+            if (!method.isEnabled()) {
+                return invocation.proceed();
+            }
+            sampled = sampler.sample(descriptor, method);
+        } catch (RuntimeException e) {
+            return proceedUnlogged(invocation, e);
+        }
+
+        Object[] args = invocation.getArguments();
+        descriptor.getStats().begin();
+        long start = System.nanoTime();
+        Object ret;
+        try {
+            ret = invocation.proceed();
+        } catch (Throwable throwable) {
+            complete(descriptor, args, sampled, null, null, 0, start, null, throwable);
+            throw throwable;
+        }
+        if (ret instanceof Mono || ret instanceof Flux) {
+            // 每次订阅各完成一次，执行中的调用数改为按订阅计
+            descriptor.getStats().abandon();
+        }
+        // Mono/Flux 从订阅时开始计时，不含组装到订阅之间的等待，重新订阅时重新计时
+        if (ret instanceof Mono) {
+            return Mono.deferContextual(context -> {
+                descriptor.getStats().begin();
+                long subscribed = System.nanoTime();
+                return (Mono) AsyncReturns.onCompletion(ret, (value, error) ->
+                        complete(descriptor, args, sampled, request(context), null, 0, subscribed, value, error));
+            });
+        }
+        if (ret instanceof Flux) {
+            return Flux.deferContextual(context -> {
+                descriptor.getStats().begin();
+                long subscribed = System.nanoTime();
+                return (Flux) AsyncReturns.onCompletion(ret, (value, error) ->
+                        complete(descriptor, args, sampled, request(context), null, 0, subscribed, value, error));
+            });
+        }
+        if (AsyncReturns.isAsync(ret)) {
+            return AsyncReturns.onCompletion(ret, (value, error) ->
+                    complete(descriptor, args, sampled, null, null, 0, start, value, error));
+        }
+        complete(descriptor, args, sampled, null, null, 0, start, ret, null);
+        return ret;
+    }
+
+    private RequestInfo request(ContextView context) {
+        Object exchange = context.getOrDefault(ServerWebExchangeContextFilter.EXCHANGE_CONTEXT_ATTRIBUTE, null);
+        return exchange instanceof ServerWebExchange ? new ExchangeSnapshot((ServerWebExchange) exchange, clientAddressResolver) : null;
+    }
+}
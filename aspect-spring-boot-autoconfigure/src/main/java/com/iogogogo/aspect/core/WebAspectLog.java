@@ -1,73 +1,182 @@
 package com.iogogogo.aspect.core;
 
-import com.iogogogo.aspect.properties.InetUtilsProperties;
-import lombok.extern.slf4j.Slf4j;
-import org.aspectj.lang.ProceedingJoinPoint;
-import org.aspectj.lang.annotation.Around;
-import org.aspectj.lang.annotation.Aspect;
-import org.aspectj.lang.annotation.Pointcut;
-import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
-import org.springframework.context.annotation.Configuration;
-import org.springframework.context.annotation.EnableAspectJAutoProxy;
-import org.springframework.core.PriorityOrdered;
+import com.iogogogo.aspect.async.AsyncLogDispatcher;
+import com.iogogogo.aspect.context.RequestSnapshot;
+import com.iogogogo.aspect.context.TraceContext;
+import com.iogogogo.aspect.metrics.LatencyRecorder;
+import com.iogogogo.aspect.net.ClientAddressResolver;
+import com.iogogogo.aspect.properties.AspectLogProperties;
+import com.iogogogo.aspect.render.ValueRenderer;
+import com.iogogogo.aspect.sampling.Sampler;
+import com.iogogogo.aspect.sink.AspectLogSink;
+import org.aopalliance.intercept.MethodInvocation;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.web.context.request.RequestAttributes;
 import org.springframework.web.context.request.RequestContextHolder;
 import org.springframework.web.context.request.ServletRequestAttributes;
 
-import javax.servlet.http.HttpServletRequest;
-import java.util.Arrays;
-import java.util.Optional;
-
 /**
+ * 每次调用只输出一条结构化记录
+ * <p>
+ * 调用期间 trace ID 写入 MDC(key 为 {@link TraceContext#MDC_KEY})，记录中带 trace ID 与嵌套深度
+ * <p>
+ * 默认同步嵌套的被切面调用不单独输出，合并为最外层记录中的调用树，见 {@link CallTree}
+ * <p>
+ * servlet 应用与非web应用使用，WebFlux 应用见 {@link ReactiveAspectLog}
+ * <p>
  * Created by tao.zeng on 2021/6/21.
  */
-@Slf4j
-@Aspect
-@Configuration(proxyBeanMethods = false)
-@EnableAspectJAutoProxy(exposeProxy = true, proxyTargetClass = true)
-@ConditionalOnProperty(prefix = "aspect", name = "enable", havingValue = "true", matchIfMissing = true)
-public class WebAspectLog implements PriorityOrdered {
+public class WebAspectLog extends AspectLogSupport {
 
-    private final InetUtils inetUtils;
+    private final boolean collapseNested;
 
-    public WebAspectLog(InetUtilsProperties inetUtilsProperties) {
-        inetUtils = new InetUtils(inetUtilsProperties);
-    }
+    private final int maxCallTreeNodes;
 
-    @Pointcut("@annotation(com.iogogogo.aspect.annotation.AspectLog)")
-    public void webLog() {
+    public WebAspectLog(HostInfoProvider hostInfoProvider, ClientAddressResolver clientAddressResolver,
+                        ObjectProvider<AspectLogSink> sinks, ValueRenderer renderer,
+                        MethodLogDescriptorCache descriptors, ObjectProvider<LatencyRecorder> recorders,
+                        Sampler sampler, AspectLogSettingsProvider settings, ErrorTraceThrottle errorTraceThrottle,
+                        ObjectProvider<AsyncLogDispatcher> dispatcher, AspectLogProperties.Nested nested) {
+        super(hostInfoProvider, clientAddressResolver, sinks, renderer, descriptors, recorders, sampler, settings, errorTraceThrottle, dispatcher);
+        this.collapseNested = nested.isCollapse();
+        this.maxCallTreeNodes = nested.getMaxNodes();
     }
 
-    @Around("webLog()")
-    public Object doAround(ProceedingJoinPoint joinPoint) {
-        ServletRequestAttributes attributes = (ServletRequestAttributes) RequestContextHolder.getRequestAttributes();
-        InetUtils.HostInfo hostInfo = inetUtils.findFirstNonLoopbackHostInfo();
-        log.debug("ARGS : " + Arrays.toString(joinPoint.getArgs()));
-
-        log.info("CLASS_METHOD : {}.{}()", joinPoint.getSignature().getDeclaringTypeName(), joinPoint.getSignature().getName());
-
-        // 环绕通知前
-        Optional.ofNullable(attributes).ifPresent(x -> {
-            HttpServletRequest request = x.getRequest();
-            // web 记录请求内容
-            log.info("IP : {}", hostInfo.getIpAddress());
-            log.info("URL : {}", request.getRequestURL().toString());
-            log.info("HTTP_METHOD : {}", request.getMethod());
-        });
-
-        // 环绕通知后
+    @Override
+    public Object invoke(MethodInvocation invocation) throws Throwable {
+        MethodLogDescriptor descriptor;
+        AspectLogSettings.MethodSettings method;
+        CallTree calls;
+        try {
+            descriptor = descriptors.get(invocation);
+            method = descriptor.settings(settings.get());
+            calls = collapseNested ? CallTree.current() : null;
+        } catch (RuntimeException e) {
+            return proceedUnlogged(invocation, e);
+        }
+        // 运行时关闭的方法直接执行
+        if (!method.isEnabled()) {
+            return invocation.proceed();
+        }
+        if (calls != null && calls.isActive()) {
+            return invokeNested(invocation, descriptor, calls);
+        }
+        boolean sampled;
+        RequestSnapshot request;
+        TraceContext trace;
+        int depth;
+        try {
+            // 采样在读取请求、渲染参数之前完成，未命中的调用只剩计时
+            sampled = sampler.sample(descriptor, method);
+            // 在调用线程上取请求快照，异步执行时由 TaskDecorator 带过来
+            request = currentRequest();
+            // 整个调用期间 trace ID 都在 MDC 中，嵌套调用沿用外层的；enter 抛出异常时深度不变，不需要 exit
+            trace = TraceContext.current();
+            depth = trace.enter(request);
+        } catch (RuntimeException e) {
+            return proceedUnlogged(invocation, e);
+        }
+        String traceId = trace.getTraceId();
         try {
-            Object ret = joinPoint.proceed();
-            log.debug("RESPONSE : {}", ret);
+            CallTree.Node root = calls == null ? null : calls.enterRoot(descriptor, maxCallTreeNodes);
+            Object[] args = invocation.getArguments();
+            // 之后的每条路径都以 complete() 或 abandon() 结束
+            descriptor.getStats().begin();
+            long start = System.nanoTime();
+            Object ret;
+            try {
+                ret = invocation.proceed();
+            } catch (Throwable throwable) {
+                if (calls != null) {
+                    calls.exitRoot();
+                }
+                complete(descriptor, args, sampled, request, traceId, depth, root, start, null, throwable);
+                // 原样抛出，交给Spring的异常处理
+                throw throwable;
+            }
+            if (calls != null) {
+                // 同步的内层调用都已结束，树不再变化
+                calls.exitRoot();
+            }
+            if (AsyncReturns.isAsync(ret)) {
+                // 计时到异步结果完成
+                try {
+                    RequestSnapshot detached = request == null ? null : request.detach();
+                    return AsyncReturns.onCompletion(ret, (value, error) ->
+                            complete(descriptor, args, sampled, detached, traceId, depth, root, start, value, error));
+                } catch (RuntimeException e) {
+                    return abandon(descriptor, ret, e);
+                }
+            }
+            complete(descriptor, args, sampled, request, traceId, depth, root, start, ret, null);
             return ret;
+        } finally {
+            trace.exit();
+        }
+    }
+
+    /**
+     * 外层调用执行中的同步调用只计入调用树与方法统计，不采样、不读取请求、不输出记录
+     */
+    private Object invokeNested(MethodInvocation invocation, MethodLogDescriptor descriptor, CallTree calls) throws Throwable {
+        CallTree.Node node = calls.enter(descriptor);
+        descriptor.getStats().begin();
+        long start = System.nanoTime();
+        Object ret;
+        try {
+            ret = invocation.proceed();
         } catch (Throwable throwable) {
-            throwable.printStackTrace();
+            long duration = System.nanoTime() - start;
+            calls.exit(node, duration, true, false);
+            record(descriptor, httpMethod(), duration, throwable);
+            throw throwable;
+        }
+        boolean async = AsyncReturns.isAsync(ret);
+        calls.exit(node, System.nanoTime() - start, false, async);
+        if (async) {
+            // 结果在其他线程上完成，外层记录可能已经输出，单独输出一条记录
+            try {
+                TraceContext trace = TraceContext.current();
+                String traceId = trace.getTraceId();
+                int depth = node.depth();
+                RequestSnapshot request = RequestSnapshot.current();
+                RequestSnapshot detached = request == null ? null : request.detach();
+                Object[] args = invocation.getArguments();
+                boolean sampled = sampler.sample(descriptor);
+                return AsyncReturns.onCompletion(ret, (value, error) ->
+                        complete(descriptor, args, sampled, detached, traceId, depth, null, start, value, error));
+            } catch (RuntimeException e) {
+                return abandon(descriptor, ret, e);
+            }
         }
-        return null;
+        record(descriptor, httpMethod(), System.nanoTime() - start, null);
+        return ret;
     }
 
-    @Override
-    public int getOrder() {
-        //保证事务等切面先执行
-        return Integer.MAX_VALUE;
+    /**
+     * 业务方法已经返回，挂接完成回调失败时原样返回结果，这次调用不再计时
+     */
+    private static Object abandon(MethodLogDescriptor descriptor, Object ret, RuntimeException e) {
+        descriptor.getStats().abandon();
+        log.warn("Record aspect log of {}.{} failed", descriptor.getClassName(), descriptor.getMethodName(), e);
+        return ret;
+    }
+
+    private static String httpMethod() {
+        RequestSnapshot request = RequestSnapshot.current();
+        return request == null ? null : request.getHttpMethod();
+    }
+
+    private RequestSnapshot currentRequest() {
+        RequestSnapshot request = RequestSnapshot.current();
+        if (request == null) {
+            // 未经过 RequestSnapshotFilter(例如过滤器被禁用)
+            RequestAttributes attributes = RequestContextHolder.getRequestAttributes();
+            if (attributes instanceof ServletRequestAttributes) {
+                ServletRequestAttributes servlet = (ServletRequestAttributes) attributes;
+                request = new RequestSnapshot(servlet.getRequest(), servlet.getResponse(), clientAddressResolver);
+            }
+        }
+        return request;
     }
 }
@@ -0,0 +1,56 @@
+package com.iogogogo.aspect.endpoint;
+
+import com.iogogogo.aspect.metrics.HistogramLatencyRecorder;
+import com.iogogogo.aspect.metrics.LatencyHistogram;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+/**
+ * /actuator/aspectlatency
+ * <p>
+ * 每个切面方法的耗时分布，单位毫秒
+ */
+@Endpoint(id = "aspectlatency")
+public class AspectLatencyEndpoint {
+
+    private final HistogramLatencyRecorder recorder;
+
+    public AspectLatencyEndpoint(HistogramLatencyRecorder recorder) {
+        this.recorder = recorder;
+    }
+
+    @ReadOperation
+    public List<Map<String, Object>> latency() {
+        return recorder.snapshot().stream()
+                .sorted(Comparator.comparing(HistogramLatencyRecorder.Entry::getClassName)
+                        .thenComparing(HistogramLatencyRecorder.Entry::getMethodName))
+                .map(AspectLatencyEndpoint::toMap)
+                .collect(Collectors.toList());
+    }
+
+    private static Map<String, Object> toMap(HistogramLatencyRecorder.Entry entry) {
+        LatencyHistogram.Snapshot snapshot = entry.getSnapshot();
+        Map<String, Object> map = new LinkedHashMap<>();
+        map.put("class", entry.getClassName());
+        map.put("method", entry.getMethodName());
+        map.put("httpMethod", entry.getHttpMethod());
+        map.put("outcome", entry.getOutcome());
+        map.put("count", snapshot.getCount());
+        map.put("mean", millis(snapshot.getMeanNanos()));
+        map.put("p50", millis(snapshot.getP50Nanos()));
+        map.put("p90", millis(snapshot.getP90Nanos()));
+        map.put("p99", millis(snapshot.getP99Nanos()));
+        map.put("max", millis(snapshot.getMaxNanos()));
+        return map;
+    }
+
+    private static double millis(long nanos) {
+        return nanos / 1_000_000.0;
+    }
+}
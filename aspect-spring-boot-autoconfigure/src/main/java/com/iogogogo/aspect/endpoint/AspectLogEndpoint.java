@@ -0,0 +1,99 @@
+package com.iogogogo.aspect.endpoint;
+
+import com.iogogogo.aspect.core.MethodLogDescriptor;
+import com.iogogogo.aspect.core.MethodLogDescriptorCache;
+import com.iogogogo.aspect.metrics.MethodStats;
+import org.springframework.boot.actuate.endpoint.annotation.DeleteOperation;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.lang.Nullable;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+/**
+ * /actuator/aspectlog
+ * <p>
+ * 每个切面方法当前窗口的调用数、执行中的调用数、错误数、耗时(毫秒)与最近一次错误时间；
+ * GET ?top=N 返回平均耗时最高的N个方法，DELETE 读取后开始新窗口
+ */
+@Endpoint(id = "aspectlog")
+public class AspectLogEndpoint {
+
+    private final MethodLogDescriptorCache descriptors;
+
+    public AspectLogEndpoint(MethodLogDescriptorCache descriptors) {
+        this.descriptors = descriptors;
+    }
+
+    @ReadOperation
+    public List<Map<String, Object>> stats(@Nullable Integer top) {
+        List<Entry> entries = snapshot(false);
+        if (top != null) {
+            return entries.stream()
+                    .sorted(Comparator.comparingLong((Entry e) -> e.stats.getMeanNanos()).reversed())
+                    .limit(Math.max(0, top))
+                    .map(AspectLogEndpoint::toMap)
+                    .collect(Collectors.toList());
+        }
+        return entries.stream()
+                .sorted(Comparator.comparing((Entry e) -> e.descriptor.getClassName())
+                        .thenComparing(e -> e.descriptor.getMethodName()))
+                .map(AspectLogEndpoint::toMap)
+                .collect(Collectors.toList());
+    }
+
+    /**
+     * @return 被重置的窗口
+     */
+    @DeleteOperation
+    public List<Map<String, Object>> reset() {
+        return snapshot(true).stream()
+                .map(AspectLogEndpoint::toMap)
+                .collect(Collectors.toList());
+    }
+
+    private List<Entry> snapshot(boolean reset) {
+        List<Entry> entries = new ArrayList<>();
+        for (MethodLogDescriptor descriptor : descriptors.all()) {
+            entries.add(new Entry(descriptor, descriptor.getStats().snapshot(reset)));
+        }
+        return entries;
+    }
+
+    private static Map<String, Object> toMap(Entry entry) {
+        MethodStats.Snapshot stats = entry.stats;
+        Map<String, Object> map = new LinkedHashMap<>();
+        map.put("class", entry.descriptor.getClassName());
+        map.put("method", entry.descriptor.getMethodName());
+        map.put("windowStart", stats.getWindowStartMillis());
+        map.put("count", stats.getInvocations());
+        map.put("inFlight", stats.getInFlight());
+        map.put("errors", stats.getErrors());
+        map.put("total", millis(stats.getTotalNanos()));
+        map.put("mean", millis(stats.getMeanNanos()));
+        map.put("max", millis(stats.getMaxNanos()));
+        map.put("lastError", stats.getLastErrorMillis() == 0 ? null : stats.getLastErrorMillis());
+        return map;
+    }
+
+    private static double millis(long nanos) {
+        return nanos / 1_000_000.0;
+    }
+
+    private static final class Entry {
+
+        private final MethodLogDescriptor descriptor;
+
+        private final MethodStats.Snapshot stats;
+
+        private Entry(MethodLogDescriptor descriptor, MethodStats.Snapshot stats) {
+            this.descriptor = descriptor;
+            this.stats = stats;
+        }
+    }
+}
@@ -0,0 +1,102 @@
+package com.iogogogo.aspect.endpoint;
+
+import com.iogogogo.aspect.core.AspectLogSettings;
+import com.iogogogo.aspect.core.AspectLogSettingsProvider;
+import com.iogogogo.aspect.core.CaptureLevel;
+import org.springframework.boot.actuate.endpoint.InvalidEndpointRequestException;
+import org.springframework.boot.actuate.endpoint.annotation.DeleteOperation;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.boot.actuate.endpoint.annotation.WriteOperation;
+import org.springframework.lang.Nullable;
+
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * /actuator/aspectsettings
+ * <p>
+ * GET 当前生效的配置与运行时覆盖；POST 覆盖全局或某个类、方法的开关、level、采样率、慢调用阈值，下一次调用即生效；
+ * DELETE 清除运行时覆盖(指定 target 时只清除该项)，恢复为配置文件中的值
+ * <pre>
+ * POST {"target":"com.example.GreetingController.hello","level":"DETAIL","sampleRate":1}
+ * </pre>
+ */
+@Endpoint(id = "aspectsettings")
+public class AspectSettingsEndpoint {
+
+    private final AspectLogSettingsProvider provider;
+
+    public AspectSettingsEndpoint(AspectLogSettingsProvider provider) {
+        this.provider = provider;
+    }
+
+    @ReadOperation
+    public Map<String, Object> settings() {
+        AspectLogSettings settings = provider.get();
+        Map<String, Object> map = new LinkedHashMap<>();
+        map.put("enabled", settings.isEnabled());
+        map.put("level", settings.getLevel());
+        map.put("sampleRate", settings.getSampleRate());
+        map.put("rateLimit", settings.getRateLimit());
+        map.put("slowThresholdMs", millis(settings.getSlowThresholdNanos()));
+        map.put("alwaysLogErrors", settings.isAlwaysLogErrors());
+        map.put("alwaysLogSlowerThanMs", millis(settings.getAlwaysLogSlowerThanNanos()));
+        map.put("rules", toMap(settings.getRules()));
+
+        Map<String, Object> overrides = new LinkedHashMap<>();
+        AspectLogSettings.Rule global = provider.getGlobalOverride();
+        overrides.put("global", global.isEmpty() ? null : toMap(global));
+        overrides.put("methods", toMap(provider.getMethodOverrides()));
+        map.put("overrides", overrides);
+        return map;
+    }
+
+    /**
+     * @param target          类全限定名.方法名 或 类全限定名，为空时修改全局配置
+     * @param slowThresholdMs 0表示关闭慢调用模式
+     */
+    @WriteOperation
+    public Map<String, Object> update(@Nullable String target, @Nullable Boolean enabled, @Nullable CaptureLevel level,
+                                      @Nullable Double sampleRate, @Nullable Long slowThresholdMs) {
+        if (sampleRate != null && (sampleRate < 0 || sampleRate > 1)) {
+            throw new InvalidEndpointRequestException("sampleRate must be between 0 and 1", "Invalid sampleRate");
+        }
+        if (slowThresholdMs != null && slowThresholdMs < 0) {
+            throw new InvalidEndpointRequestException("slowThresholdMs must be >= 0", "Invalid slowThresholdMs");
+        }
+        AspectLogSettings.Rule rule = new AspectLogSettings.Rule(enabled, level, sampleRate,
+                slowThresholdMs == null ? null : Duration.ofMillis(slowThresholdMs));
+        if (rule.isEmpty()) {
+            throw new InvalidEndpointRequestException("Nothing to update", "No setting given");
+        }
+        provider.override(target == null || target.isEmpty() ? null : target, rule);
+        return settings();
+    }
+
+    @DeleteOperation
+    public Map<String, Object> clear(@Nullable String target) {
+        provider.clear(target == null || target.isEmpty() ? null : target);
+        return settings();
+    }
+
+    private static Map<String, Object> toMap(Map<String, AspectLogSettings.Rule> rules) {
+        Map<String, Object> map = new LinkedHashMap<>();
+        rules.forEach((target, rule) -> map.put(target, toMap(rule)));
+        return map;
+    }
+
+    private static Map<String, Object> toMap(AspectLogSettings.Rule rule) {
+        Map<String, Object> map = new LinkedHashMap<>();
+        map.put("enabled", rule.getEnabled());
+        map.put("level", rule.getLevel());
+        map.put("sampleRate", rule.getSampleRate());
+        map.put("slowThresholdMs", rule.getSlowThreshold() == null ? null : rule.getSlowThreshold().toMillis());
+        return map;
+    }
+
+    private static Long millis(long nanos) {
+        return nanos <= 0 ? null : nanos / 1_000_000;
+    }
+}
@@ -0,0 +1,11 @@
+package com.iogogogo.aspect.event;
+
+/**
+ * 将一次调用编码为一条日志记录
+ * <p>
+ * 实现类直接往调用方提供的 {@link StringBuilder} 追加内容，不应产生中间字符串
+ */
+public interface AspectLogEncoder {
+
+    void encode(AspectLogEvent event, StringBuilder out);
+}
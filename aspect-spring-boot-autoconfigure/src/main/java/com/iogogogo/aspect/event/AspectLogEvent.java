@@ -0,0 +1,87 @@
+package com.iogogogo.aspect.event;
+
+import lombok.Builder;
+import lombok.Value;
+
+/**
+ * 一次切面调用的不可变快照，请求线程采集，可交给其他线程输出
+ */
+@Value
+@Builder
+public class AspectLogEvent {
+
+    /**
+     * 调用开始时间(epoch millis)
+     */
+    long timestamp;
+
+    String className;
+
+    String methodName;
+
+    /**
+     * 本机IP
+     */
+    String hostIp;
+
+    String url;
+
+    String httpMethod;
+
+    String clientIp;
+
+    /**
+     * HTTP状态码，非web调用为0
+     */
+    int status;
+
+    long durationNanos;
+
+    Outcome outcome;
+
+    /**
+     * 取自请求头，没有时生成，见 TraceIds
+     */
+    String traceId;
+
+    /**
+     * 被切面方法的嵌套深度，最外层为0
+     */
+    int depth;
+
+    /**
+     * 同步嵌套调用合并成的调用树，没有嵌套调用时为null，格式见 CallTree
+     */
+    String callTree;
+
+    /**
+     * 异常类名，成功时为null
+     */
+    String errorType;
+
+    String errorMessage;
+
+    /**
+     * 异常指纹(类型+栈顶帧)，用于聚合同类异常
+     */
+    String errorFingerprint;
+
+    /**
+     * 需要输出完整堆栈时不为null，见 ErrorTraceThrottle
+     */
+    Throwable trace;
+
+    /**
+     * 参数，未开启详细记录时为null，见 CaptureLevel
+     */
+    String args;
+
+    /**
+     * 返回值，未开启详细记录时为null
+     */
+    String response;
+
+    public enum Outcome {
+        SUCCESS, ERROR
+    }
+}
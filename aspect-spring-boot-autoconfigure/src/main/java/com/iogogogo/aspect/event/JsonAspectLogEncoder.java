@@ -0,0 +1,78 @@
+package com.iogogogo.aspect.event;
+
+/**
+ * 流式JSON编码，字段为null时省略
+ * <p>
+ * {"ts":1624288929008,"class":"com.example.Foo","method":"index","url":"http://127.0.0.1:8080/api/index",...}
+ */
+public class JsonAspectLogEncoder implements AspectLogEncoder {
+
+    private static final char[] HEX = "0123456789abcdef".toCharArray();
+
+    @Override
+    public void encode(AspectLogEvent event, StringBuilder out) {
+        out.append("{\"ts\":").append(event.getTimestamp());
+        string(out, "class", event.getClassName());
+        string(out, "method", event.getMethodName());
+        string(out, "host", event.getHostIp());
+        string(out, "url", event.getUrl());
+        string(out, "httpMethod", event.getHttpMethod());
+        string(out, "clientIp", event.getClientIp());
+        if (event.getStatus() > 0) {
+            out.append(",\"status\":").append(event.getStatus());
+        }
+        out.append(",\"durationUs\":").append(event.getDurationNanos() / 1000);
+        if (event.getOutcome() != null) {
+            string(out, "outcome", event.getOutcome().name());
+        }
+        string(out, "traceId", event.getTraceId());
+        if (event.getDepth() > 0) {
+            out.append(",\"depth\":").append(event.getDepth());
+        }
+        string(out, "callTree", event.getCallTree());
+        string(out, "error", event.getErrorType());
+        string(out, "errorMessage", event.getErrorMessage());
+        string(out, "fingerprint", event.getErrorFingerprint());
+        string(out, "args", event.getArgs());
+        string(out, "response", event.getResponse());
+        out.append('}');
+    }
+
+    private static void string(StringBuilder out, String name, String value) {
+        if (value == null) {
+            return;
+        }
+        out.append(",\"").append(name).append("\":\"");
+        escape(out, value);
+        out.append('"');
+    }
+
+    static void escape(StringBuilder out, CharSequence value) {
+        for (int i = 0, len = value.length(); i < len; i++) {
+            char c = value.charAt(i);
+            switch (c) {
+                case '"':
+                    out.append("\\\"");
+                    break;
+                case '\\':
+                    out.append("\\\\");
+                    break;
+                case '\n':
+                    out.append("\\n");
+                    break;
+                case '\r':
+                    out.append("\\r");
+                    break;
+                case '\t':
+                    out.append("\\t");
+                    break;
+                default:
+                    if (c < 0x20) {
+                        out.append("\\u00").append(HEX[c >> 4]).append(HEX[c & 0xF]);
+                    } else {
+                        out.append(c);
+                    }
+            }
+        }
+    }
+}
@@ -0,0 +1,64 @@
+package com.iogogogo.aspect.event;
+
+/**
+ * key=value 编码，值中含空白或引号时加双引号
+ * <p>
+ * class=com.example.Foo method=index url=http://127.0.0.1:8080/api/index http_method=GET ... outcome=SUCCESS
+ */
+public class KeyValueAspectLogEncoder implements AspectLogEncoder {
+
+    @Override
+    public void encode(AspectLogEvent event, StringBuilder out) {
+        out.append("ts=").append(event.getTimestamp());
+        pair(out, "class", event.getClassName());
+        pair(out, "method", event.getMethodName());
+        pair(out, "host", event.getHostIp());
+        pair(out, "url", event.getUrl());
+        pair(out, "http_method", event.getHttpMethod());
+        pair(out, "client_ip", event.getClientIp());
+        if (event.getStatus() > 0) {
+            out.append(" status=").append(event.getStatus());
+        }
+        out.append(" duration_us=").append(event.getDurationNanos() / 1000);
+        if (event.getOutcome() != null) {
+            pair(out, "outcome", event.getOutcome().name());
+        }
+        pair(out, "trace_id", event.getTraceId());
+        if (event.getDepth() > 0) {
+            out.append(" depth=").append(event.getDepth());
+        }
+        pair(out, "call_tree", event.getCallTree());
+        pair(out, "error", event.getErrorType());
+        pair(out, "error_message", event.getErrorMessage());
+        pair(out, "fingerprint", event.getErrorFingerprint());
+        pair(out, "args", event.getArgs());
+        pair(out, "response", event.getResponse());
+    }
+
+    private static void pair(StringBuilder out, String name, String value) {
+        if (value == null) {
+            return;
+        }
+        out.append(' ').append(name).append('=');
+        if (needsQuote(value)) {
+            out.append('"');
+            JsonAspectLogEncoder.escape(out, value);
+            out.append('"');
+        } else {
+            out.append(value);
+        }
+    }
+
+    private static boolean needsQuote(String value) {
+        if (value.isEmpty()) {
+            return true;
+        }
+        for (int i = 0, len = value.length(); i < len; i++) {
+            char c = value.charAt(i);
+            if (c <= ' ' || c == '"' || c == '=') {
+                return true;
+            }
+        }
+        return false;
+    }
+}
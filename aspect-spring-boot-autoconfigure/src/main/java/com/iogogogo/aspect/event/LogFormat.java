@@ -0,0 +1,23 @@
+package com.iogogogo.aspect.event;
+
+/**
+ * 内置日志格式
+ */
+public enum LogFormat {
+
+    JSON {
+        @Override
+        public AspectLogEncoder encoder() {
+            return new JsonAspectLogEncoder();
+        }
+    },
+
+    KEY_VALUE {
+        @Override
+        public AspectLogEncoder encoder() {
+            return new KeyValueAspectLogEncoder();
+        }
+    };
+
+    public abstract AspectLogEncoder encoder();
+}
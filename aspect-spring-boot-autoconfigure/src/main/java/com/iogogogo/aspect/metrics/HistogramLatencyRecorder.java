@@ -0,0 +1,64 @@
+package com.iogogogo.aspect.metrics;
+
+import com.iogogogo.aspect.core.MethodLogDescriptor;
+import com.iogogogo.aspect.event.AspectLogEvent;
+import lombok.Value;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * 内置直方图，不依赖Micrometer
+ */
+public class HistogramLatencyRecorder implements LatencyRecorder {
+
+    private final ConcurrentMap<MethodLogDescriptor, AtomicReferenceArray<LatencyHistogram>> histograms = new ConcurrentHashMap<>();
+
+    @Override
+    public void record(MethodLogDescriptor descriptor, String httpMethod, AspectLogEvent.Outcome outcome, long nanos) {
+        AtomicReferenceArray<LatencyHistogram> slots = histograms.get(descriptor);
+        if (slots == null) {
+            slots = histograms.computeIfAbsent(descriptor, d -> new AtomicReferenceArray<>(SLOTS));
+        }
+        int slot = LatencyRecorder.slot(httpMethod, outcome);
+        LatencyHistogram histogram = slots.get(slot);
+        if (histogram == null) {
+            slots.compareAndSet(slot, null, new LatencyHistogram());
+            histogram = slots.get(slot);
+        }
+        histogram.record(nanos);
+    }
+
+    public List<Entry> snapshot() {
+        List<Entry> entries = new ArrayList<>();
+        for (Map.Entry<MethodLogDescriptor, AtomicReferenceArray<LatencyHistogram>> e : histograms.entrySet()) {
+            AtomicReferenceArray<LatencyHistogram> slots = e.getValue();
+            for (int i = 0; i < slots.length(); i++) {
+                LatencyHistogram histogram = slots.get(i);
+                if (histogram != null) {
+                    entries.add(new Entry(e.getKey().getClassName(), e.getKey().getMethodName(),
+                            LatencyRecorder.httpMethod(i), LatencyRecorder.outcome(i), histogram.snapshot()));
+                }
+            }
+        }
+        return entries;
+    }
+
+    @Value
+    public static class Entry {
+
+        String className;
+
+        String methodName;
+
+        String httpMethod;
+
+        AspectLogEvent.Outcome outcome;
+
+        LatencyHistogram.Snapshot snapshot;
+    }
+}
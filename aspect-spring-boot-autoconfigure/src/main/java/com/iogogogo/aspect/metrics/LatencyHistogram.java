@@ -0,0 +1,112 @@
+package com.iogogogo.aspect.metrics;
+
+import lombok.Value;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 无锁对数-线性直方图(HDR风格)
+ * <p>
+ * 每个2的幂区间再均分为32个子桶，相对误差约3%，记录范围到2^41ns(约36分钟)，更大的值计入最后一个桶
+ */
+public class LatencyHistogram {
+
+    private static final int SUB_BITS = 5;
+
+    private static final int SUB_COUNT = 1 << SUB_BITS;
+
+    private static final int MAX_SHIFT = 36;
+
+    private static final int BUCKETS = (MAX_SHIFT + 2) << SUB_BITS;
+
+    private final AtomicLongArray counts = new AtomicLongArray(BUCKETS);
+
+    private final LongAdder count = new LongAdder();
+
+    private final LongAdder totalNanos = new LongAdder();
+
+    private final AtomicLong maxNanos = new AtomicLong();
+
+    public void record(long nanos) {
+        if (nanos < 0) {
+            nanos = 0;
+        }
+        counts.incrementAndGet(index(nanos));
+        count.increment();
+        totalNanos.add(nanos);
+        long max = maxNanos.get();
+        while (nanos > max && !maxNanos.compareAndSet(max, nanos)) {
+            max = maxNanos.get();
+        }
+    }
+
+    public Snapshot snapshot() {
+        long[] copy = new long[BUCKETS];
+        long total = 0;
+        for (int i = 0; i < BUCKETS; i++) {
+            copy[i] = counts.get(i);
+            total += copy[i];
+        }
+        long max = maxNanos.get();
+        long n = count.sum();
+        return new Snapshot(n, n == 0 ? 0 : totalNanos.sum() / n,
+                percentile(copy, total, 0.5, max), percentile(copy, total, 0.9, max),
+                percentile(copy, total, 0.99, max), max);
+    }
+
+    static int index(long nanos) {
+        if (nanos < SUB_COUNT) {
+            return (int) nanos;
+        }
+        int shift = 63 - Long.numberOfLeadingZeros(nanos) - SUB_BITS;
+        if (shift > MAX_SHIFT) {
+            return BUCKETS - 1;
+        }
+        return ((shift + 1) << SUB_BITS) + (int) ((nanos >>> shift) - SUB_COUNT);
+    }
+
+    /**
+     * 桶内最大值
+     */
+    static long highestEquivalentValue(int index) {
+        if (index < SUB_COUNT << 1) {
+            return index;
+        }
+        int shift = (index >> SUB_BITS) - 1;
+        long sub = (index & (SUB_COUNT - 1)) + SUB_COUNT;
+        return ((sub + 1) << shift) - 1;
+    }
+
+    private static long percentile(long[] counts, long total, double p, long max) {
+        if (total == 0) {
+            return 0;
+        }
+        long target = Math.max(1, (long) Math.ceil(p * total));
+        long cumulative = 0;
+        for (int i = 0; i < counts.length; i++) {
+            cumulative += counts[i];
+            if (cumulative >= target) {
+                return Math.min(highestEquivalentValue(i), max);
+            }
+        }
+        return max;
+    }
+
+    @Value
+    public static class Snapshot {
+
+        long count;
+
+        long meanNanos;
+
+        long p50Nanos;
+
+        long p90Nanos;
+
+        long p99Nanos;
+
+        long maxNanos;
+    }
+}
@@ -0,0 +1,40 @@
+package com.iogogogo.aspect.metrics;
+
+import com.iogogogo.aspect.core.MethodLogDescriptor;
+import com.iogogogo.aspect.event.AspectLogEvent;
+import org.springframework.http.HttpMethod;
+
+/**
+ * 记录一次调用的耗时，按 类、方法、HTTP方法、结果 区分
+ * <p>
+ * 在请求线程上调用，实现类预热后不应再分配对象
+ */
+public interface LatencyRecorder {
+
+    /**
+     * HttpMethod个数 + 非web调用
+     */
+    int HTTP_METHODS = HttpMethod.values().length + 1;
+
+    int SLOTS = HTTP_METHODS * AspectLogEvent.Outcome.values().length;
+
+    /**
+     * @param httpMethod 非web调用为null
+     */
+    void record(MethodLogDescriptor descriptor, String httpMethod, AspectLogEvent.Outcome outcome, long nanos);
+
+    static int slot(String httpMethod, AspectLogEvent.Outcome outcome) {
+        HttpMethod resolved = httpMethod == null ? null : HttpMethod.resolve(httpMethod);
+        int method = resolved == null ? HTTP_METHODS - 1 : resolved.ordinal();
+        return outcome.ordinal() * HTTP_METHODS + method;
+    }
+
+    static String httpMethod(int slot) {
+        int method = slot % HTTP_METHODS;
+        return method == HTTP_METHODS - 1 ? null : HttpMethod.values()[method].name();
+    }
+
+    static AspectLogEvent.Outcome outcome(int slot) {
+        return AspectLogEvent.Outcome.values()[slot / HTTP_METHODS];
+    }
+}
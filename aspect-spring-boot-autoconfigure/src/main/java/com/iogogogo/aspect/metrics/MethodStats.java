@@ -0,0 +1,107 @@
+package com.iogogogo.aspect.metrics;
+
+import lombok.Value;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 单个方法的实时统计，每个 MethodLogDescriptor 一份
+ * <p>
+ * 计数均为 {@link LongAdder}，多核并发时各线程落在不同的cell上；最大值只在变大时CAS，预热后几乎只读。
+ * 调用数、错误数、耗时按窗口累计，{@link #snapshot(boolean)} 可在读取的同时开始新窗口；执行中的调用数不随窗口重置
+ * <p>
+ * 返回异步结果(CompletionStage、Mono、Flux)的调用到结果完成或取消时才结束，从不订阅、永远不完成的结果会一直计入执行中
+ */
+public class MethodStats {
+
+    private final LongAdder inFlight = new LongAdder();
+
+    private final LongAdder invocations = new LongAdder();
+
+    private final LongAdder errors = new LongAdder();
+
+    private final LongAdder totalNanos = new LongAdder();
+
+    private final AtomicLong maxNanos = new AtomicLong();
+
+    private volatile long lastErrorMillis;
+
+    private volatile long windowStartMillis = System.currentTimeMillis();
+
+    public void begin() {
+        inFlight.increment();
+    }
+
+    /**
+     * 撤销一次 {@link #begin()}，调用已返回但之后不会调用 {@link #end(long, boolean)}
+     */
+    public void abandon() {
+        inFlight.decrement();
+    }
+
+    /**
+     * 与 {@link #begin()} 成对调用
+     */
+    public void end(long nanos, boolean error) {
+        inFlight.decrement();
+        invocations.increment();
+        totalNanos.add(nanos);
+        if (error) {
+            errors.increment();
+            lastErrorMillis = System.currentTimeMillis();
+        }
+        long max = maxNanos.get();
+        while (nanos > max && !maxNanos.compareAndSet(max, nanos)) {
+            max = maxNanos.get();
+        }
+    }
+
+    /**
+     * @param reset 是否同时开始新窗口，窗口边界上并发完成的调用可能计入任一窗口
+     */
+    public Snapshot snapshot(boolean reset) {
+        long start = windowStartMillis;
+        long count;
+        long errorCount;
+        long total;
+        long max;
+        if (reset) {
+            windowStartMillis = System.currentTimeMillis();
+            count = invocations.sumThenReset();
+            errorCount = errors.sumThenReset();
+            total = totalNanos.sumThenReset();
+            max = maxNanos.getAndSet(0);
+        } else {
+            count = invocations.sum();
+            errorCount = errors.sum();
+            total = totalNanos.sum();
+            max = maxNanos.get();
+        }
+        return new Snapshot(start, count, Math.max(0, inFlight.sum()), errorCount, total,
+                count == 0 ? 0 : total / count, max, lastErrorMillis);
+    }
+
+    @Value
+    public static class Snapshot {
+
+        long windowStartMillis;
+
+        long invocations;
+
+        long inFlight;
+
+        long errors;
+
+        long totalNanos;
+
+        long meanNanos;
+
+        long maxNanos;
+
+        /**
+         * 没有出现过错误时为0
+         */
+        long lastErrorMillis;
+    }
+}
@@ -0,0 +1,51 @@
+package com.iogogogo.aspect.metrics;
+
+import com.iogogogo.aspect.core.MethodLogDescriptor;
+import com.iogogogo.aspect.event.AspectLogEvent;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * Micrometer Timer: aspect.log.invocation{class, method, http.method, outcome}
+ * <p>
+ * Timer按槽位缓存，热路径不构造Tags
+ */
+public class MicrometerLatencyRecorder implements LatencyRecorder {
+
+    public static final String METRIC_NAME = "aspect.log.invocation";
+
+    private final MeterRegistry registry;
+
+    private final ConcurrentMap<MethodLogDescriptor, AtomicReferenceArray<Timer>> timers = new ConcurrentHashMap<>();
+
+    public MicrometerLatencyRecorder(MeterRegistry registry) {
+        this.registry = registry;
+    }
+
+    @Override
+    public void record(MethodLogDescriptor descriptor, String httpMethod, AspectLogEvent.Outcome outcome, long nanos) {
+        AtomicReferenceArray<Timer> slots = timers.get(descriptor);
+        if (slots == null) {
+            slots = timers.computeIfAbsent(descriptor, d -> new AtomicReferenceArray<>(SLOTS));
+        }
+        int slot = LatencyRecorder.slot(httpMethod, outcome);
+        Timer timer = slots.get(slot);
+        if (timer == null) {
+            // 注册是幂等的，并发时拿到的是同一个Timer
+            String method = LatencyRecorder.httpMethod(slot);
+            timer = Timer.builder(METRIC_NAME)
+                    .tag("class", descriptor.getClassName())
+                    .tag("method", descriptor.getMethodName())
+                    .tag("http.method", method == null ? "NONE" : method)
+                    .tag("outcome", outcome.name())
+                    .register(registry);
+            slots.set(slot, timer);
+        }
+        timer.record(nanos, TimeUnit.NANOSECONDS);
+    }
+}
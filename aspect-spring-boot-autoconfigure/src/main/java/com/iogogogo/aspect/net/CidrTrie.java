@@ -0,0 +1,85 @@
+package com.iogogogo.aspect.net;
+
+import java.util.Collection;
+
+/**
+ * 按地址位构建的二叉前缀树，IPv4、IPv6各一棵，构建后只读
+ * <p>
+ * 匹配时从高位逐位向下走，遇到终止节点即命中，最多32/128步
+ */
+public class CidrTrie {
+
+    private final Node v4 = new Node();
+
+    private final Node v6 = new Node();
+
+    private boolean empty = true;
+
+    /**
+     * @param cidrs 10.0.0.0/8、::1、fc00::/7，不带前缀长度时为单个地址
+     * @throws IllegalArgumentException 格式不正确
+     */
+    public CidrTrie(Collection<String> cidrs) {
+        long[] address = new long[2];
+        for (String cidr : cidrs) {
+            String value = cidr.trim();
+            int slash = value.indexOf('/');
+            int end = slash < 0 ? value.length() : slash;
+            int kind = InetAddressParser.parse(value, 0, end, address);
+            if (kind == InetAddressParser.INVALID) {
+                throw new IllegalArgumentException("Invalid CIDR: " + cidr);
+            }
+            int max = kind == InetAddressParser.V4 ? 32 : 128;
+            int prefix = slash < 0 ? max : Integer.parseInt(value.substring(slash + 1));
+            if (prefix < 0 || prefix > max) {
+                throw new IllegalArgumentException("Invalid CIDR prefix: " + cidr);
+            }
+            Node node = kind == InetAddressParser.V4 ? v4 : v6;
+            for (int i = 0; i < prefix && !node.terminal; i++) {
+                int bit = bit(kind, address, i);
+                if (node.children[bit] == null) {
+                    node.children[bit] = new Node();
+                }
+                node = node.children[bit];
+            }
+            node.terminal = true;
+            empty = false;
+        }
+    }
+
+    public boolean isEmpty() {
+        return empty;
+    }
+
+    public boolean contains(int kind, long[] address) {
+        if (kind == InetAddressParser.INVALID) {
+            return false;
+        }
+        Node node = kind == InetAddressParser.V4 ? v4 : v6;
+        int max = kind == InetAddressParser.V4 ? 32 : 128;
+        for (int i = 0; node != null; i++) {
+            if (node.terminal) {
+                return true;
+            }
+            if (i == max) {
+                return false;
+            }
+            node = node.children[bit(kind, address, i)];
+        }
+        return false;
+    }
+
+    private static int bit(int kind, long[] address, int i) {
+        if (kind == InetAddressParser.V4) {
+            return (int) (address[0] >>> (31 - i)) & 1;
+        }
+        return i < 64 ? (int) (address[0] >>> (63 - i)) & 1 : (int) (address[1] >>> (127 - i)) & 1;
+    }
+
+    private static class Node {
+
+        private final Node[] children = new Node[2];
+
+        private boolean terminal;
+    }
+}
@@ -0,0 +1,167 @@
+package com.iogogogo.aspect.net;
+
+import java.util.Collection;
+import java.util.function.Supplier;
+
+/**
+ * 客户端IP解析
+ * <p>
+ * 只有直连地址属于可信代理时才读取 Forwarded / X-Forwarded-For，并从右向左跳过可信代理，第一个不可信的地址即客户端地址；
+ * 链路上全是可信代理时取最左边的地址。头部按字符下标解析，只在返回结果时截取一次字符串
+ * <p>
+ * 客户端地址为回环地址时返回本机地址(取自缓存，不调用 InetAddress.getLocalHost())
+ */
+public class ClientAddressResolver {
+
+    public static final String FORWARDED = "Forwarded";
+
+    public static final String X_FORWARDED_FOR = "X-Forwarded-For";
+
+    private static final ThreadLocal<long[]> SCRATCH = ThreadLocal.withInitial(() -> new long[2]);
+
+    private final CidrTrie trustedProxies;
+
+    private final Supplier<String> localAddress;
+
+    public ClientAddressResolver(Collection<String> trustedProxies, Supplier<String> localAddress) {
+        this.trustedProxies = new CidrTrie(trustedProxies);
+        this.localAddress = localAddress;
+    }
+
+    /**
+     * 不依赖 servlet / WebFlux 的请求类型，由调用方取出直连地址与两个转发头
+     *
+     * @param remoteAddr    直连地址
+     * @param forwarded     Forwarded 头，没有时为null
+     * @param xForwardedFor X-Forwarded-For 头，没有时为null
+     */
+    public String resolve(String remoteAddr, String forwarded, String xForwardedFor) {
+        if (remoteAddr == null) {
+            return "";
+        }
+        long[] address = SCRATCH.get();
+        int kind = InetAddressParser.parse(remoteAddr, address);
+        if (isTrusted(kind, address)) {
+            String client = forwarded != null
+                    ? walk(forwarded, true, address)
+                    : walk(xForwardedFor, false, address);
+            if (client != null) {
+                return localIfLoopback(client, InetAddressParser.parse(client, address), address);
+            }
+        }
+        return localIfLoopback(remoteAddr, kind, address);
+    }
+
+    private boolean isTrusted(int kind, long[] address) {
+        return !trustedProxies.isEmpty() && trustedProxies.contains(kind, address);
+    }
+
+    private String localIfLoopback(String client, int kind, long[] address) {
+        return InetAddressParser.isLoopback(kind, address) ? localAddress.get() : client;
+    }
+
+    /**
+     * 从右向左遍历逗号分隔的各跳
+     *
+     * @param forwarded true为RFC 7239 Forwarded，取每个元素中的 for= 参数
+     * @return null表示头部中没有可用地址
+     */
+    private String walk(String header, boolean forwarded, long[] address) {
+        if (header == null) {
+            return null;
+        }
+        int lastStart = -1;
+        int lastEnd = -1;
+        int end = header.length();
+        while (end > 0) {
+            int comma = header.lastIndexOf(',', end - 1);
+            int start = comma + 1;
+            long range = forwarded ? forParameter(header, start, end) : pack(start, end);
+            if (range >= 0) {
+                range = normalize(header, start(range), end(range));
+                int s = start(range);
+                int e = end(range);
+                if (s < e) {
+                    int kind = InetAddressParser.parse(header, s, e, address);
+                    if (kind == InetAddressParser.INVALID) {
+                        // unknown 无法继续判断，取其右侧最近的一跳(没有则为直连地址)
+                        if (e - s == 7 && header.regionMatches(true, s, "unknown", 0, 7)) {
+                            return lastStart >= 0 ? header.substring(lastStart, lastEnd) : null;
+                        }
+                        return header.substring(s, e);
+                    }
+                    if (!trustedProxies.contains(kind, address)) {
+                        return header.substring(s, e);
+                    }
+                    lastStart = s;
+                    lastEnd = e;
+                }
+            }
+            end = comma;
+        }
+        return lastStart >= 0 ? header.substring(lastStart, lastEnd) : null;
+    }
+
+    /**
+     * 在 Forwarded 的一个元素中查找 for= 参数
+     */
+    private static long forParameter(String header, int start, int end) {
+        int i = start;
+        while (i < end) {
+            int semicolon = header.indexOf(';', i);
+            int pairEnd = semicolon < 0 || semicolon > end ? end : semicolon;
+            int s = skipSpaces(header, i, pairEnd);
+            if (pairEnd - s > 4 && header.regionMatches(true, s, "for=", 0, 4)) {
+                return pack(s + 4, pairEnd);
+            }
+            i = pairEnd + 1;
+        }
+        return -1;
+    }
+
+    /**
+     * 去掉空白、引号、IPv6方括号和端口
+     */
+    private static long normalize(String header, int start, int end) {
+        start = skipSpaces(header, start, end);
+        while (end > start && header.charAt(end - 1) == ' ') {
+            end--;
+        }
+        if (end - start >= 2 && header.charAt(start) == '"' && header.charAt(end - 1) == '"') {
+            start++;
+            end--;
+        }
+        if (start < end && header.charAt(start) == '[') {
+            int bracket = header.indexOf(']', start);
+            return bracket < 0 || bracket > end ? pack(start, start) : pack(start + 1, bracket);
+        }
+        // 只有一个冒号时是 IPv4:port
+        int colon = header.indexOf(':', start);
+        if (colon >= 0 && colon < end) {
+            int next = header.indexOf(':', colon + 1);
+            if (next < 0 || next >= end) {
+                end = colon;
+            }
+        }
+        return pack(start, end);
+    }
+
+    private static int skipSpaces(String s, int start, int end) {
+        while (start < end && s.charAt(start) == ' ') {
+            start++;
+        }
+        return start;
+    }
+
+    private static long pack(int start, int end) {
+        return ((long) start << 32) | end;
+    }
+
+    private static int start(long range) {
+        return (int) (range >>> 32);
+    }
+
+    private static int end(long range) {
+        return (int) range;
+    }
+}
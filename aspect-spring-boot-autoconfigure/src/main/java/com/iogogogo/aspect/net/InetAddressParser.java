@@ -0,0 +1,230 @@
+package com.iogogogo.aspect.net;
+
+/**
+ * IP字面量解析，直接读取字符区间，不创建中间对象，不走DNS
+ * <p>
+ * IPv4 结果放在 out[0] 的低32位；IPv6 结果为 out[0](高64位)、out[1](低64位)；IPv4映射的IPv6地址(::ffff:a.b.c.d)按IPv4返回
+ */
+public final class InetAddressParser {
+
+    public static final int INVALID = 0;
+
+    public static final int V4 = 4;
+
+    public static final int V6 = 6;
+
+    private InetAddressParser() {
+    }
+
+    public static int parse(CharSequence s, long[] out) {
+        return parse(s, 0, s.length(), out);
+    }
+
+    /**
+     * @return {@link #INVALID} / {@link #V4} / {@link #V6}
+     */
+    public static int parse(CharSequence s, int start, int end, long[] out) {
+        if (start >= end) {
+            return INVALID;
+        }
+        for (int i = start; i < end; i++) {
+            if (s.charAt(i) == ':') {
+                return parseV6(s, start, end, out);
+            }
+        }
+        long v4 = parseV4(s, start, end);
+        if (v4 < 0) {
+            return INVALID;
+        }
+        out[0] = v4;
+        return V4;
+    }
+
+    /**
+     * 每段最多3位十进制数字
+     *
+     * @return 地址(无符号32位)，非法时为-1
+     */
+    public static long parseV4(CharSequence s, int start, int end) {
+        long result = 0;
+        int octets = 0;
+        int value = -1;
+        int digits = 0;
+        for (int i = start; i < end; i++) {
+            char c = s.charAt(i);
+            if (c >= '0' && c <= '9') {
+                value = value < 0 ? c - '0' : value * 10 + (c - '0');
+                if (value > 255 || ++digits > 3) {
+                    return -1;
+                }
+            } else if (c == '.') {
+                if (value < 0 || octets == 3) {
+                    return -1;
+                }
+                result = (result << 8) | value;
+                octets++;
+                value = -1;
+                digits = 0;
+            } else {
+                return -1;
+            }
+        }
+        if (value < 0 || octets != 3) {
+            return -1;
+        }
+        return (result << 8) | value;
+    }
+
+    private static int parseV6(CharSequence s, int start, int end, long[] out) {
+        // 去掉 zone id，如 fe80::1%eth0
+        for (int i = start; i < end; i++) {
+            if (s.charAt(i) == '%') {
+                end = i;
+                break;
+            }
+        }
+        // 压缩位置(::)之前、之后的分组分别累加，最后把前半部分左移补齐
+        long headHi = 0, headLo = 0, tailHi = 0, tailLo = 0;
+        int headGroups = 0, tailGroups = 0;
+        boolean compressed = false;
+        int i = start;
+        if (end - start >= 2 && s.charAt(start) == ':' && s.charAt(start + 1) == ':') {
+            compressed = true;
+            i += 2;
+        } else if (s.charAt(start) == ':') {
+            return InetAddressParser.INVALID;
+        }
+        while (i < end) {
+            int groupStart = i;
+            int value = 0;
+            int digit;
+            while (i < end && (digit = hexDigit(s.charAt(i))) >= 0) {
+                value = (value << 4) | digit;
+                i++;
+            }
+            int digits = i - groupStart;
+            if (i < end && s.charAt(i) == '.') {
+                // 末尾内嵌IPv4，占两个分组
+                long v4 = parseV4(s, groupStart, end);
+                if (v4 < 0) {
+                    return INVALID;
+                }
+                if (compressed) {
+                    tailHi = (tailHi << 32) | (tailLo >>> 32);
+                    tailLo = (tailLo << 32) | v4;
+                    tailGroups += 2;
+                } else {
+                    headHi = (headHi << 32) | (headLo >>> 32);
+                    headLo = (headLo << 32) | v4;
+                    headGroups += 2;
+                }
+                i = end;
+                break;
+            }
+            if (digits == 0 || digits > 4) {
+                return INVALID;
+            }
+            if (compressed) {
+                tailHi = (tailHi << 16) | (tailLo >>> 48);
+                tailLo = (tailLo << 16) | value;
+                tailGroups++;
+            } else {
+                headHi = (headHi << 16) | (headLo >>> 48);
+                headLo = (headLo << 16) | value;
+                headGroups++;
+            }
+            if (i == end) {
+                break;
+            }
+            if (s.charAt(i) != ':') {
+                return INVALID;
+            }
+            i++;
+            if (i < end && s.charAt(i) == ':') {
+                if (compressed) {
+                    return INVALID;
+                }
+                compressed = true;
+                i++;
+            } else if (i == end) {
+                return INVALID;
+            }
+        }
+        int groups = headGroups + tailGroups;
+        if (groups > 8 || (!compressed && groups != 8) || (compressed && groups == 8)) {
+            return INVALID;
+        }
+        // 前半部分左移到高位
+        int shift = (8 - headGroups) * 16;
+        long hi, lo;
+        if (shift >= 128) {
+            hi = 0;
+            lo = 0;
+        } else if (shift >= 64) {
+            hi = headLo << (shift - 64);
+            lo = 0;
+        } else if (shift == 0) {
+            hi = headHi;
+            lo = headLo;
+        } else {
+            hi = (headHi << shift) | (headLo >>> (64 - shift));
+            lo = headLo << shift;
+        }
+        hi |= tailHi;
+        lo |= tailLo;
+        if (hi == 0 && (lo >>> 32) == 0xFFFFL) {
+            out[0] = lo & 0xFFFFFFFFL;
+            return V4;
+        }
+        out[0] = hi;
+        out[1] = lo;
+        return V6;
+    }
+
+    /**
+     * 只接受ASCII的 0-9a-fA-F，{@link Character#digit(char, int)} 会把全角等其他数字也当作十六进制数字
+     */
+    private static int hexDigit(char c) {
+        if (c >= '0' && c <= '9') {
+            return c - '0';
+        }
+        if (c >= 'a' && c <= 'f') {
+            return c - 'a' + 10;
+        }
+        if (c >= 'A' && c <= 'F') {
+            return c - 'A' + 10;
+        }
+        return -1;
+    }
+
+    /**
+     * 转换 {@link java.net.InetAddress#getAddress()} 的结果，结果布局同字符串解析
+     */
+    public static int fromBytes(byte[] raw, long[] out) {
+        if (raw.length == 4) {
+            out[0] = readLong(raw, 0, 4);
+            return V4;
+        }
+        if (raw.length == 16) {
+            out[0] = readLong(raw, 0, 8);
+            out[1] = readLong(raw, 8, 16);
+            return V6;
+        }
+        return INVALID;
+    }
+
+    private static long readLong(byte[] raw, int start, int end) {
+        long value = 0;
+        for (int i = start; i < end; i++) {
+            value = (value << 8) | (raw[i] & 0xFF);
+        }
+        return value;
+    }
+
+    public static boolean isLoopback(int kind, long[] address) {
+        if (kind == V4) {
+            return (address[0] >>> 24) == 127;
+        }
+        return kind == V6 && address[0] == 0 && address[1] == 1;
+    }
+}
@@ -0,0 +1,57 @@
+package com.iogogogo.aspect.net;
+
+import java.net.InetAddress;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * preferredNetworks 匹配
+ * <p>
+ * 带前缀长度的条目(10.0.0.0/8、fd00::/8)放入 {@link CidrTrie}，直接按地址字节匹配；其余条目按 {@link PatternList#regexOrPrefix(Collection)} 匹配地址字符串
+ */
+public final class NetworkMatcher {
+
+    private final CidrTrie networks;
+
+    private final PatternList patterns;
+
+    public NetworkMatcher(Collection<String> preferredNetworks) {
+        List<String> cidrs = new ArrayList<>();
+        List<String> expressions = new ArrayList<>();
+        for (String network : preferredNetworks) {
+            (isCidr(network) ? cidrs : expressions).add(network);
+        }
+        this.networks = new CidrTrie(cidrs);
+        this.patterns = PatternList.regexOrPrefix(expressions);
+    }
+
+    public boolean isEmpty() {
+        return networks.isEmpty() && patterns.isEmpty();
+    }
+
+    public boolean matches(InetAddress address) {
+        if (!networks.isEmpty()) {
+            long[] value = new long[2];
+            if (networks.contains(InetAddressParser.fromBytes(address.getAddress(), value), value)) {
+                return true;
+            }
+        }
+        return !patterns.isEmpty() && patterns.matches(address.getHostAddress());
+    }
+
+    private static boolean isCidr(String value) {
+        int slash = value.indexOf('/');
+        if (slash <= 0 || slash == value.length() - 1 || value.length() - slash > 4) {
+            return false;
+        }
+        for (int i = slash + 1; i < value.length(); i++) {
+            if (!Character.isDigit(value.charAt(i))) {
+                return false;
+            }
+        }
+        int kind = InetAddressParser.parse(value, 0, slash, new long[2]);
+        return kind != InetAddressParser.INVALID
+                && Integer.parseInt(value.substring(slash + 1)) <= (kind == InetAddressParser.V4 ? 32 : 128);
+    }
+}
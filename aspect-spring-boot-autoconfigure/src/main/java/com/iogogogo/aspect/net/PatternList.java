@@ -0,0 +1,139 @@
+package com.iogogogo.aspect.net;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.regex.Pattern;
+
+/**
+ * 预编译的正则列表，构建后只读
+ * <p>
+ * 纯字面量按 equals 匹配，字面量 + ".*" 按 startsWith 匹配，其余才编译为 {@link Pattern}，匹配结果与逐个 {@link String#matches(String)} 一致
+ */
+public final class PatternList {
+
+    private static final String META = "\\^$.|?*+()[]{}";
+
+    private static final int REGEX = 0;
+
+    private static final int LITERAL = 1;
+
+    private static final int WILDCARD = 2;
+
+    private final Set<String> exact;
+
+    private final String[] prefixes;
+
+    private final Pattern[] patterns;
+
+    private PatternList(Set<String> exact, Set<String> prefixes, List<Pattern> patterns) {
+        this.exact = exact;
+        this.prefixes = prefixes.toArray(new String[0]);
+        this.patterns = patterns.toArray(new Pattern[0]);
+    }
+
+    /**
+     * 任一正则 matches 即命中
+     *
+     * @throws java.util.regex.PatternSyntaxException 正则不合法
+     */
+    public static PatternList regex(Collection<String> expressions) {
+        return compile(expressions, false);
+    }
+
+    /**
+     * 任一正则 matches，或者原样作为前缀 startsWith 即命中(preferredNetworks 的原有语义)
+     */
+    public static PatternList regexOrPrefix(Collection<String> expressions) {
+        return compile(expressions, true);
+    }
+
+    private static PatternList compile(Collection<String> expressions, boolean rawPrefix) {
+        Set<String> exact = new HashSet<>();
+        Set<String> prefixes = new LinkedHashSet<>();
+        List<Pattern> patterns = new ArrayList<>();
+        for (String expression : expressions) {
+            if (rawPrefix) {
+                prefixes.add(expression);
+            }
+            StringBuilder literal = new StringBuilder(expression.length());
+            int kind = literal(expression, literal);
+            if (kind == WILDCARD) {
+                prefixes.add(literal.toString());
+            } else if (kind == LITERAL) {
+                // 没有转义时原样前缀已经覆盖了相等
+                if (!rawPrefix || !expression.contentEquals(literal)) {
+                    exact.add(literal.toString());
+                }
+            } else {
+                patterns.add(Pattern.compile(expression));
+            }
+        }
+        return new PatternList(exact, prefixes, patterns);
+    }
+
+    public boolean isEmpty() {
+        return exact.isEmpty() && prefixes.length == 0 && patterns.length == 0;
+    }
+
+    public boolean matches(String value) {
+        if (exact.contains(value)) {
+            return true;
+        }
+        for (String prefix : prefixes) {
+            if (value.startsWith(prefix)) {
+                return true;
+            }
+        }
+        for (Pattern pattern : patterns) {
+            if (pattern.matcher(value).matches()) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * 识别 [^]literal[$] 与 [^]literal.*[$]，literal 中允许用反斜杠转义元字符
+     *
+     * @return {@link #REGEX} 表示只能按正则处理
+     */
+    private static int literal(String expression, StringBuilder out) {
+        int start = expression.startsWith("^") ? 1 : 0;
+        int end = expression.length();
+        if (end > start && expression.charAt(end - 1) == '$' && !escaped(expression, end - 1)) {
+            end--;
+        }
+        int kind = LITERAL;
+        if (end - start >= 2 && expression.startsWith(".*", end - 2) && !escaped(expression, end - 2)) {
+            end -= 2;
+            kind = WILDCARD;
+        }
+        for (int i = start; i < end; i++) {
+            char c = expression.charAt(i);
+            if (c == '\\') {
+                if (i + 1 >= end || META.indexOf(expression.charAt(i + 1)) < 0) {
+                    // \d、\s 之类的字符类
+                    return REGEX;
+                }
+                out.append(expression.charAt(++i));
+            } else if (META.indexOf(c) >= 0) {
+                return REGEX;
+            } else {
+                out.append(c);
+            }
+        }
+        return kind;
+    }
+
+    private static boolean escaped(String s, int index) {
+        int backslashes = 0;
+        for (int i = index - 1; i >= 0 && s.charAt(i) == '\\'; i--) {
+            backslashes++;
+        }
+        return (backslashes & 1) == 1;
+    }
+}
@@ -1,7 +1,19 @@
 package com.iogogogo.aspect.properties;
 
+import com.iogogogo.aspect.async.OverflowPolicy;
+import com.iogogogo.aspect.core.CaptureLevel;
+import com.iogogogo.aspect.event.LogFormat;
+import com.iogogogo.aspect.sink.RecordEncoding;
 import lombok.Data;
 import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.util.unit.DataSize;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
 
 /**
  * Created by tao.zeng on 2021/6/21.
@@ -10,6 +22,353 @@ import org.springframework.boot.context.properties.ConfigurationProperties;
 @ConfigurationProperties(prefix = "aspect")
 public class AspectLogProperties {
 
-    private boolean enable;
+    /**
+     * 启动时为false不注册切面，之后无法在运行时开启，需要重启；启动时为true时，运行时改为false(配置刷新或 /actuator/aspectsettings)只暂停记录，可再次开启
+     */
+    private boolean enable = true;
+
+    /**
+     * 记录中是否带参数与返回值，可通过 aspect.methods 按方法覆盖
+     */
+    private CaptureLevel level = CaptureLevel.LOGGER;
+
+    /**
+     * 日志记录格式，容器中存在 AspectLogEncoder 时忽略
+     */
+    private LogFormat format = LogFormat.JSON;
+
+    /**
+     * 慢调用阈值，设置后只输出超过阈值的调用(失败调用按 aspect.sampling.always-log-errors)，可通过 @AspectLog(slowThresholdMs) 按方法覆盖；
+     * 与 level、sampling、methods 一样可在运行时调整
+     */
+    private Duration slowThreshold;
+
+    /**
+     * 本机信息缓存
+     */
+    private final Host host = new Host();
+
+    /**
+     * 异步输出
+     */
+    private final Async async = new Async();
+
+    /**
+     * 参数、返回值输出上限
+     */
+    private final Render render = new Render();
+
+    /**
+     * 耗时统计
+     */
+    private final Metrics metrics = new Metrics();
+
+    /**
+     * 采样与限流，可通过 @AspectLog 按方法覆盖
+     */
+    private final Sampling sampling = new Sampling();
+
+    /**
+     * 异常堆栈输出策略
+     */
+    private final Error error = new Error();
+
+    /**
+     * 客户端IP解析
+     */
+    private final ClientIp clientIp = new ClientIp();
+
+    /**
+     * 切点候选类范围
+     */
+    private final Pointcut pointcut = new Pointcut();
+
+    /**
+     * 嵌套调用
+     */
+    private final Nested nested = new Nested();
+
+    /**
+     * 自动代理
+     */
+    private final Proxy proxy = new Proxy();
+
+    /**
+     * 按方法覆盖，key 为 类全限定名.方法名 或 类全限定名(含.的key需写成 aspect.methods[com.example.Foo.index].level)，
+     * 优先于 @AspectLog 与全局配置，配置刷新后生效
+     */
+    private Map<String, MethodOverride> methods = new LinkedHashMap<>();
+
+    /**
+     * 输出端
+     */
+    private final Sink sink = new Sink();
+
+    @Data
+    public static class Host {
+
+        /**
+         * 本机信息(含反向DNS)完整刷新间隔
+         */
+        private Duration refreshInterval = Duration.ofMinutes(5);
+
+        /**
+         * 网卡快照比对间隔，选中的地址变化时立即发布新IP并重新解析主机名
+         */
+        private Duration nicCheckInterval = Duration.ofSeconds(30);
+
+        /**
+         * 启动时是否枚举网卡并等待主机名解析(最多 spring.cloud.inetutils.timeout-seconds)；为false时推迟到第一次使用，由后台线程枚举网卡与解析主机名，完成前使用默认主机信息
+         */
+        private boolean resolveHostnameOnStartup = false;
+    }
+
+    @Data
+    public static class Async {
+
+        /**
+         * 是否开启异步输出，开启后请求线程只采集事件，由独立线程批量输出
+         */
+        private boolean enabled = false;
+
+        /**
+         * 环形队列容量，向上取2的幂
+         */
+        private int bufferSize = 8192;
+
+        /**
+         * 每批最多输出的事件数
+         */
+        private int batchSize = 256;
+
+        /**
+         * 队列满时的处理策略
+         */
+        private OverflowPolicy overflowPolicy = OverflowPolicy.DROP;
+
+        /**
+         * SAMPLE策略下队列过半后保留事件的比例
+         */
+        private double sampleRate = 0.1;
+    }
+
+    @Data
+    public static class Render {
+
+        /**
+         * 单个参数或返回值最多输出的字符数
+         */
+        private int maxChars = 1024;
+
+        /**
+         * 数组、集合、Map最多输出的元素个数
+         */
+        private int maxElements = 20;
+
+        /**
+         * 最大嵌套深度
+         */
+        private int maxDepth = 3;
+
+        /**
+         * 参数、返回值、异常消息的脱敏
+         */
+        private final Redaction redaction = new Redaction();
+
+        @Data
+        public static class Redaction {
+
+            /**
+             * 关闭后只有 @AspectLog.Mask / @Sensitive 生效
+             */
+            private boolean enabled = true;
+
+            /**
+             * 敏感字段名，忽略大小写与 _ -，以其结尾的名字(如 newPassword)同样脱敏；同时用于Map的key与文本中的 key=value、"key":"value"
+             */
+            private List<String> fieldNames = new ArrayList<>(Arrays.asList("password", "passwd", "pwd", "secret",
+                    "token", "authorization", "apiKey", "credential", "credentials", "privateKey"));
+
+            /**
+             * 值的正则，匹配的部分替换为掩码，如 (?i)bearer\s+[\w.-]+
+             */
+            private List<String> valuePatterns = new ArrayList<>();
+
+            private String mask = "******";
+        }
+    }
+
+    @Data
+    public static class Metrics {
+
+        /**
+         * 是否记录每个方法的耗时分布，存在Micrometer时同时记录Timer
+         */
+        private boolean enabled = true;
+    }
+
+    @Data
+    public static class Sampling {
+
+        /**
+         * 采样比例 0~1
+         */
+        private double rate = 1.0;
+
+        /**
+         * 每个方法每秒最多输出的记录数，0不限制
+         */
+        private int rateLimit = 0;
+
+        /**
+         * 未被采样的失败调用仍然输出
+         */
+        private boolean alwaysLogErrors = true;
+
+        /**
+         * 未被采样但耗时超过该值的调用仍然输出，为空不启用
+         */
+        private Duration alwaysLogSlowerThan;
+    }
+
+    @Data
+    public static class Error {
+
+        /**
+         * 统计周期，同一指纹每个周期最多输出一次完整堆栈
+         */
+        private Duration traceInterval = Duration.ofMinutes(1);
+
+        /**
+         * 每个周期最多输出的完整堆栈数(所有指纹合计)
+         */
+        private int maxTracesPerInterval = 10;
+
+        /**
+         * 计算指纹使用的栈顶帧数
+         */
+        private int fingerprintFrames = 5;
+    }
+
+    @Data
+    public static class ClientIp {
+
+        /**
+         * 可信代理(CIDR或单个地址)，直连地址属于可信代理时才读取 Forwarded / X-Forwarded-For，为空时不信任任何转发头
+         */
+        private List<String> trustedProxies = new ArrayList<>(Arrays.asList(
+                "10.0.0.0/8", "172.16.0.0/12", "192.168.0.0/16", "169.254.0.0/16", "127.0.0.0/8",
+                "::1", "fc00::/7", "fe80::/10"));
+    }
+
+    @Data
+    public static class Pointcut {
+
+        /**
+         * 候选类的全限定名模式(以.分隔的Ant风格，如 com.example.**、**.*Controller)，为空时不限制
+         */
+        private List<String> includes = new ArrayList<>();
+
+        /**
+         * 排除的类名模式，优先于 includes
+         */
+        private List<String> excludes = new ArrayList<>();
+    }
+
+    @Data
+    public static class MethodOverride {
+
+        /**
+         * 为null时沿用全局配置，下同
+         */
+        private Boolean enabled;
+
+        private CaptureLevel level;
+
+        private Double sampleRate;
+
+        /**
+         * 0表示关闭慢调用模式
+         */
+        private Duration slowThreshold;
+    }
+
+    @Data
+    public static class Proxy {
+
+        /**
+         * 是否暴露代理供 AopContext.currentProxy() 使用(早先版本固定暴露)；是否使用CGLIB由 spring.aop.proxy-target-class 决定
+         */
+        private boolean exposeProxy = false;
+    }
+
+    @Data
+    public static class Nested {
+
+        /**
+         * 同步嵌套的被切面调用合并到最外层调用的记录中(callTree)，不单独输出；关闭后每层调用各输出一条记录
+         */
+        private boolean collapse = true;
+
+        /**
+         * 一棵调用树的节点上限，超出后新出现的方法合并为 "..." 节点
+         */
+        private int maxNodes = 64;
+    }
+
+    @Data
+    public static class Sink {
+
+        /**
+         * 输出到 com.iogogogo.aspect.core.WebAspectLog 的logger
+         */
+        private final Logger logger = new Logger();
+
+        /**
+         * 内存映射的滚动段文件，不经过日志框架
+         */
+        private final File file = new File();
+
+        @Data
+        public static class Logger {
+
+            private boolean enabled = true;
+        }
+
+        @Data
+        public static class File {
+
+            private boolean enabled = false;
+
+            /**
+             * 段文件目录
+             */
+            private String directory = "logs/aspect";
+
+            /**
+             * 单个段文件大小，创建时即按此大小映射
+             */
+            private DataSize segmentSize = DataSize.ofMegabytes(64);
+
+            /**
+             * 最多保留的段文件个数
+             */
+            private int maxSegments = 16;
+
+            /**
+             * 后台落盘间隔
+             */
+            private Duration flushInterval = Duration.ofSeconds(1);
+
+            /**
+             * 记录编码，BINARY 体积更小，需要用 SegmentReader 还原
+             */
+            private RecordEncoding encoding = RecordEncoding.TEXT;
 
+            /**
+             * BINARY 编码时异常消息、参数、返回值的最大字符数
+             */
+            private int maxSummaryChars = 256;
+        }
+    }
 }
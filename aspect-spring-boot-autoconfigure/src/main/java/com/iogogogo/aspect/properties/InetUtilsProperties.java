@@ -53,6 +53,7 @@ public class InetUtilsProperties {
 
     /**
      * List of Java regular expressions for network addresses that will be preferred.
+     * Entries with a prefix length (e.g. 10.0.0.0/8) are matched as CIDR blocks.
      */
     private List<String> preferredNetworks = new ArrayList<>();
 
@@ -0,0 +1,374 @@
+package com.iogogogo.aspect.render;
+
+import com.iogogogo.aspect.annotation.AspectLog;
+import org.springframework.util.ClassUtils;
+
+import java.lang.annotation.Annotation;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.AnnotatedElement;
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * 敏感信息脱敏
+ * <p>
+ * 三种规则：字段名(忽略大小写与 _ -，以配置的名字结尾即可)、字段或参数上的 {@link AspectLog.Mask} / 任意名为 Sensitive 的注解、值的正则。
+ * 每个类第一次输出时编译一次输出计划：JDK以外的类型一律按字段逐个输出(字段值经 MethodHandle 读取)，
+ * 敏感字段只输出掩码，不调用可能泄露或无界的 toString()；字段无法枚举的类型只输出类名与identityHashCode。
+ * JDK类型的 toString() 与字符串参数的输出在缓冲区中原地查找 key=value / "key":"value" 并匹配值正则，不生成中间字符串
+ */
+public class Redactor {
+
+    public static final String DEFAULT_MASK = "******";
+
+    private static final String SENSITIVE = "Sensitive";
+
+    private static final String CGLIB_FIELD_PREFIX = "CGLIB$";
+
+    private static final Object NO_PLAN = new Object();
+
+    /**
+     * 字段无法枚举的类型，只输出类名与identityHashCode
+     */
+    static final Plan OPAQUE = new Plan(null, new String[0], new boolean[0], new MethodHandle[0]);
+
+    private static final Redactor NONE = new Redactor(Collections.emptyList(), Collections.emptyList(), DEFAULT_MASK);
+
+    /**
+     * 归一化后的字段名(小写，去掉 _ -)
+     */
+    private final char[][] names;
+
+    private final Pattern[] valuePatterns;
+
+    private final String mask;
+
+    private final boolean enabled;
+
+    /**
+     * 值为 {@link Plan} 或 {@link #NO_PLAN}
+     */
+    private final ConcurrentMap<Class<?>, Object> plans = new ConcurrentHashMap<>();
+
+    public Redactor(Collection<String> fieldNames, Collection<String> valuePatterns, String mask) {
+        List<char[]> normalized = new ArrayList<>();
+        for (String name : fieldNames) {
+            normalized.add(normalize(name).toCharArray());
+        }
+        this.names = normalized.toArray(new char[0][]);
+        this.valuePatterns = valuePatterns.stream().map(Pattern::compile).toArray(Pattern[]::new);
+        this.mask = mask;
+        this.enabled = names.length > 0 || this.valuePatterns.length > 0;
+    }
+
+    /**
+     * 不脱敏，只有 {@link AspectLog.Mask} 生效
+     */
+    public static Redactor none() {
+        return NONE;
+    }
+
+    public String getMask() {
+        return mask;
+    }
+
+    public boolean isSensitiveName(CharSequence name) {
+        return isSensitiveName(name, 0, name.length());
+    }
+
+    /**
+     * 以某个敏感字段名结尾(如 newPassword、id_token)，按字符从后往前比较，不截取字符串
+     */
+    public boolean isSensitiveName(CharSequence text, int start, int end) {
+        for (char[] name : names) {
+            int n = name.length;
+            for (int i = end - 1; i >= start && n > 0; i--) {
+                char c = text.charAt(i);
+                if (c == '_' || c == '-') {
+                    continue;
+                }
+                if (Character.toLowerCase(c) != name[n - 1]) {
+                    break;
+                }
+                n--;
+            }
+            if (n == 0 && name.length > 0) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * 标注了 {@link AspectLog.Mask} 或名为 Sensitive 的注解
+     */
+    public static boolean isMasked(Annotation[] annotations) {
+        for (Annotation annotation : annotations) {
+            Class<? extends Annotation> type = annotation.annotationType();
+            if (type == AspectLog.Mask.class || SENSITIVE.equals(type.getSimpleName())) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * @return null表示JDK等由 ValueRenderer 自行处理的类型，{@link #OPAQUE} 表示字段无法枚举
+     */
+    Plan plan(Class<?> type) {
+        Object plan = plans.computeIfAbsent(type, t -> {
+            Plan compiled = compile(t);
+            return compiled == null ? NO_PLAN : compiled;
+        });
+        return plan == NO_PLAN ? null : (Plan) plan;
+    }
+
+    /**
+     * 对 out 中 from 之后新追加的文本做脱敏，原地替换
+     */
+    void maskText(StringBuilder out, int from) {
+        if (!enabled || from >= out.length()) {
+            return;
+        }
+        int[] ranges = null;
+        int count = 0;
+        if (names.length > 0) {
+            for (int i = from; i < out.length(); i++) {
+                char c = out.charAt(i);
+                if ((c == '=' || c == ':') && isSensitiveKey(out, from, i)) {
+                    int start = i + 1;
+                    while (start < out.length() && out.charAt(start) == ' ') {
+                        start++;
+                    }
+                    int end;
+                    if (start < out.length() && out.charAt(start) == '"') {
+                        start++;
+                        end = indexOf(out, '"', start);
+                    } else {
+                        end = start;
+                        while (end < out.length() && !isValueEnd(out.charAt(end))) {
+                            end++;
+                        }
+                    }
+                    if (end > start) {
+                        ranges = add(ranges, count++, start, end);
+                    }
+                    i = end;
+                }
+            }
+        }
+        for (Pattern pattern : valuePatterns) {
+            Matcher matcher = pattern.matcher(out).region(from, out.length());
+            while (matcher.find()) {
+                if (matcher.end() > matcher.start()) {
+                    ranges = add(ranges, count++, matcher.start(), matcher.end());
+                }
+            }
+        }
+        replace(out, ranges, count);
+    }
+
+    /**
+     * key=value、key: value、"key":"value" 中分隔符前的key
+     */
+    private boolean isSensitiveKey(StringBuilder out, int from, int separator) {
+        int end = separator;
+        while (end > from && out.charAt(end - 1) == ' ') {
+            end--;
+        }
+        if (end > from && out.charAt(end - 1) == '"') {
+            end--;
+        }
+        int start = end;
+        while (start > from && isKeyChar(out.charAt(start - 1))) {
+            start--;
+        }
+        return start < end && isSensitiveName(out, start, end);
+    }
+
+    private static boolean isKeyChar(char c) {
+        return Character.isLetterOrDigit(c) || c == '_' || c == '-';
+    }
+
+    /**
+     * 不在空格处结束，Authorization: Bearer xxx 整体替换
+     */
+    private static boolean isValueEnd(char c) {
+        return c == ',' || c == '&' || c == ';' || c == ')' || c == '}' || c == ']' || c == '"'
+                || c == '\n' || c == '\r' || c == '\t';
+    }
+
+    private static int indexOf(StringBuilder out, char c, int from) {
+        for (int i = from, n = out.length(); i < n; i++) {
+            if (out.charAt(i) == c) {
+                return i;
+            }
+        }
+        return out.length();
+    }
+
+    private static int[] add(int[] ranges, int index, int start, int end) {
+        if (ranges == null) {
+            ranges = new int[8];
+        } else if (ranges.length < (index + 1) * 2) {
+            int[] grown = new int[ranges.length * 2];
+            System.arraycopy(ranges, 0, grown, 0, ranges.length);
+            ranges = grown;
+        }
+        ranges[index * 2] = start;
+        ranges[index * 2 + 1] = end;
+        return ranges;
+    }
+
+    /**
+     * 从后往前替换，前面的下标不受影响；重叠的区间合并
+     */
+    private void replace(StringBuilder out, int[] ranges, int count) {
+        if (count == 0) {
+            return;
+        }
+        if (count > 1) {
+            sort(ranges, count);
+        }
+        int end = ranges[(count - 1) * 2 + 1];
+        int start = ranges[(count - 1) * 2];
+        for (int i = count - 2; i >= 0; i--) {
+            if (ranges[i * 2 + 1] >= start) {
+                start = Math.min(start, ranges[i * 2]);
+                end = Math.max(end, ranges[i * 2 + 1]);
+            } else {
+                out.replace(start, end, mask);
+                start = ranges[i * 2];
+                end = ranges[i * 2 + 1];
+            }
+        }
+        out.replace(start, end, mask);
+    }
+
+    /**
+     * 按起点插入排序，区间通常只有一两个
+     */
+    private static void sort(int[] ranges, int count) {
+        for (int i = 1; i < count; i++) {
+            int start = ranges[i * 2];
+            int end = ranges[i * 2 + 1];
+            int j = i - 1;
+            while (j >= 0 && ranges[j * 2] > start) {
+                ranges[(j + 1) * 2] = ranges[j * 2];
+                ranges[(j + 1) * 2 + 1] = ranges[j * 2 + 1];
+                j--;
+            }
+            ranges[(j + 1) * 2] = start;
+            ranges[(j + 1) * 2 + 1] = end;
+        }
+    }
+
+    private Plan compile(Class<?> type) {
+        if (!isPlannable(type)) {
+            return null;
+        }
+        List<Field> fields = new ArrayList<>();
+        try {
+            for (Class<?> c = type; c != null && c != Object.class && isPlannable(c); c = c.getSuperclass()) {
+                for (Field field : c.getDeclaredFields()) {
+                    // CGLIB代理类自身的回调字段不输出
+                    if (!Modifier.isStatic(field.getModifiers()) && !field.isSynthetic() && !field.getName().startsWith(CGLIB_FIELD_PREFIX)) {
+                        fields.add(field);
+                    }
+                }
+            }
+        } catch (RuntimeException | LinkageError e) {
+            // 字段类型缺失等，不回退到 toString()
+            return OPAQUE;
+        }
+        String[] fieldNames = new String[fields.size()];
+        boolean[] masked = new boolean[fields.size()];
+        MethodHandle[] getters = new MethodHandle[fields.size()];
+        MethodHandles.Lookup lookup = MethodHandles.lookup();
+        for (int i = 0; i < fieldNames.length; i++) {
+            Field field = fields.get(i);
+            fieldNames[i] = field.getName();
+            masked[i] = isMasked(field) || isSensitiveName(field.getName());
+            if (!masked[i]) {
+                try {
+                    field.setAccessible(true);
+                    getters[i] = lookup.unreflectGetter(field).asType(MethodType.methodType(Object.class, Object.class));
+                } catch (RuntimeException | IllegalAccessException e) {
+                    // 无法读取的字段不输出值，也不回退到 toString()
+                    getters[i] = null;
+                }
+            }
+        }
+        return new Plan(ClassUtils.getUserClass(type).getSimpleName(), fieldNames, masked, getters);
+    }
+
+    private static boolean isMasked(AnnotatedElement element) {
+        return isMasked(element.getAnnotations());
+    }
+
+    /**
+     * JDK类型、数组、枚举、集合等由 ValueRenderer 自行处理
+     */
+    private static boolean isPlannable(Class<?> type) {
+        if (type.isPrimitive() || type.isArray() || type.isEnum() || type.isInterface()) {
+            return false;
+        }
+        if (CharSequence.class.isAssignableFrom(type) || Number.class.isAssignableFrom(type)
+                || Collection.class.isAssignableFrom(type) || Map.class.isAssignableFrom(type)) {
+            return false;
+        }
+        String name = type.getName();
+        return !name.startsWith("java.") && !name.startsWith("javax.") && !name.startsWith("sun.");
+    }
+
+    private static String normalize(String name) {
+        StringBuilder sb = new StringBuilder(name.length());
+        for (int i = 0; i < name.length(); i++) {
+            char c = name.charAt(i);
+            if (c != '_' && c != '-') {
+                sb.append(c);
+            }
+        }
+        return sb.toString().toLowerCase(Locale.ROOT);
+    }
+
+    /**
+     * 一个类型的字段输出计划，编译后只读
+     */
+    static final class Plan {
+
+        final String simpleName;
+
+        final String[] fieldNames;
+
+        final boolean[] masked;
+
+        /**
+         * 已脱敏或无法读取的字段为null
+         */
+        final MethodHandle[] getters;
+
+        private Plan(String simpleName, String[] fieldNames, boolean[] masked, MethodHandle[] getters) {
+            this.simpleName = simpleName;
+            this.fieldNames = fieldNames;
+            this.masked = masked;
+            this.getters = getters;
+        }
+
+        Object get(int index, Object target) throws Throwable {
+            return getters[index].invokeExact(target);
+        }
+    }
+}
@@ -0,0 +1,126 @@
+package com.iogogogo.aspect.render;
+
+import org.springframework.core.io.InputStreamSource;
+import org.springframework.util.ClassUtils;
+import org.springframework.web.multipart.MultipartFile;
+
+import javax.servlet.ServletRequest;
+import javax.servlet.ServletResponse;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpSession;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.Reader;
+import java.io.Writer;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * 内置的安全输出
+ */
+public final class SafeRenderers {
+
+    private static final boolean SERVLET_PRESENT = ClassUtils.isPresent("javax.servlet.ServletRequest", SafeRenderers.class.getClassLoader());
+
+    private static final boolean MULTIPART_PRESENT = ClassUtils.isPresent("org.springframework.web.multipart.MultipartFile", SafeRenderers.class.getClassLoader());
+
+    private SafeRenderers() {
+    }
+
+    public static List<TypeRenderer> defaults() {
+        List<TypeRenderer> renderers = new ArrayList<>();
+        renderers.add(new BinaryRenderer());
+        renderers.add(new StreamRenderer());
+        if (SERVLET_PRESENT) {
+            renderers.add(new ServletRenderer());
+        }
+        if (MULTIPART_PRESENT) {
+            renderers.add(new MultipartFileRenderer());
+        }
+        return Collections.unmodifiableList(renderers);
+    }
+
+    /**
+     * byte[]、ByteBuffer 只输出长度
+     */
+    static class BinaryRenderer implements TypeRenderer {
+
+        @Override
+        public boolean supports(Object value) {
+            return value instanceof byte[] || value instanceof ByteBuffer;
+        }
+
+        @Override
+        public void render(Object value, StringBuilder out) {
+            if (value instanceof byte[]) {
+                out.append("byte[").append(((byte[]) value).length).append(']');
+            } else {
+                out.append("ByteBuffer[").append(((ByteBuffer) value).remaining()).append(']');
+            }
+        }
+    }
+
+    /**
+     * 流只输出类型，不读取内容
+     */
+    static class StreamRenderer implements TypeRenderer {
+
+        @Override
+        public boolean supports(Object value) {
+            return value instanceof InputStream || value instanceof OutputStream
+                    || value instanceof Reader || value instanceof Writer;
+        }
+
+        @Override
+        public void render(Object value, StringBuilder out) {
+            out.append(value.getClass().getSimpleName());
+        }
+    }
+
+    static class ServletRenderer implements TypeRenderer {
+
+        @Override
+        public boolean supports(Object value) {
+            return value instanceof ServletRequest || value instanceof ServletResponse || value instanceof HttpSession;
+        }
+
+        @Override
+        public void render(Object value, StringBuilder out) {
+            if (value instanceof HttpServletRequest) {
+                HttpServletRequest request = (HttpServletRequest) value;
+                out.append("HttpServletRequest[").append(request.getMethod()).append(' ').append(request.getRequestURI()).append(']');
+            } else if (value instanceof HttpSession) {
+                out.append("HttpSession");
+            } else {
+                out.append(value instanceof ServletRequest ? "ServletRequest" : "ServletResponse");
+            }
+        }
+    }
+
+    /**
+     * 上传文件只输出元信息，Resource 等其他 InputStreamSource 输出描述
+     */
+    static class MultipartFileRenderer implements TypeRenderer {
+
+        @Override
+        public boolean supports(Object value) {
+            return value instanceof InputStreamSource;
+        }
+
+        @Override
+        public void render(Object value, StringBuilder out) {
+            if (value instanceof MultipartFile) {
+                MultipartFile file = (MultipartFile) value;
+                out.append("MultipartFile[name=").append(file.getName())
+                        .append(", filename=").append(file.getOriginalFilename())
+                        .append(", size=").append(file.getSize())
+                        .append(", contentType=").append(file.getContentType())
+                        .append(']');
+            } else {
+                out.append(value.getClass().getSimpleName()).append('[').append(value).append(']');
+            }
+        }
+    }
+}
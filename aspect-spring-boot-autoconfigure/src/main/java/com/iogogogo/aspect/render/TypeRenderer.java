@@ -0,0 +1,11 @@
+package com.iogogogo.aspect.render;
+
+/**
+ * 特定类型的安全输出，避免对请求、文件、流等对象调用 toString()；输出超出剩余长度时由 {@link ValueRenderer} 截断
+ */
+public interface TypeRenderer {
+
+    boolean supports(Object value);
+
+    void render(Object value, StringBuilder out);
+}
@@ -0,0 +1,287 @@
+package com.iogogogo.aspect.render;
+
+import java.lang.reflect.Array;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 参数、返回值的有界输出
+ * <p>
+ * 总字符数、集合元素个数、嵌套深度均有上限，超出部分以截断标记代替；敏感字段、Map中的敏感key与匹配的文本由 {@link Redactor} 替换为掩码。
+ * 应用自己的类型按字段输出，不调用其 toString()，只有JDK类型使用 toString()
+ */
+public class ValueRenderer {
+
+    static final String TRUNCATED = "...";
+
+    static final String IGNORED = "(ignored)";
+
+    /**
+     * 参数的输出方式，见 {@link #renderArgs(Object[], byte[])}
+     */
+    public static final byte ARG_LOG = 0;
+
+    public static final byte ARG_IGNORE = 1;
+
+    public static final byte ARG_MASK = 2;
+
+    private static final int MAX_RETAINED_CAPACITY = 16 * 1024;
+
+    private static final ThreadLocal<StringBuilder> BUFFER = ThreadLocal.withInitial(() -> new StringBuilder(256));
+
+    private final int maxChars;
+
+    private final int maxElements;
+
+    private final int maxDepth;
+
+    private final List<TypeRenderer> typeRenderers;
+
+    private final Redactor redactor;
+
+    public ValueRenderer(int maxChars, int maxElements, int maxDepth, List<TypeRenderer> typeRenderers) {
+        this(maxChars, maxElements, maxDepth, typeRenderers, Redactor.none());
+    }
+
+    public ValueRenderer(int maxChars, int maxElements, int maxDepth, List<TypeRenderer> typeRenderers, Redactor redactor) {
+        this.maxChars = maxChars;
+        this.maxElements = maxElements;
+        this.maxDepth = maxDepth;
+        this.typeRenderers = typeRenderers;
+        this.redactor = redactor;
+    }
+
+    /**
+     * 格式同 {@link java.util.Arrays#toString(Object[])}
+     */
+    public String renderArgs(Object[] args) {
+        return render((Object) args);
+    }
+
+    /**
+     * @param modes {@link #ARG_IGNORE} 的参数输出为 {@link #IGNORED}，{@link #ARG_MASK} 的参数输出为掩码，null表示全部输出
+     */
+    public String renderArgs(Object[] args, byte[] modes) {
+        if (modes == null) {
+            return renderArgs(args);
+        }
+        StringBuilder sb = BUFFER.get();
+        sb.setLength(0);
+        int limit = maxChars;
+        sb.append('[');
+        int i = 0;
+        for (; i < args.length && i < maxElements && sb.length() < limit; i++) {
+            if (i > 0) {
+                sb.append(", ");
+            }
+            byte mode = i < modes.length ? modes[i] : ARG_LOG;
+            if (mode == ARG_IGNORE) {
+                sb.append(IGNORED);
+            } else if (mode == ARG_MASK) {
+                sb.append(redactor.getMask());
+            } else {
+                write(args[i], sb, 1, limit);
+            }
+        }
+        moreMarker(sb, args.length - i);
+        sb.append(']');
+        return release(sb);
+    }
+
+    public String render(Object value) {
+        StringBuilder sb = BUFFER.get();
+        sb.setLength(0);
+        render(value, sb);
+        return release(sb);
+    }
+
+    private static String release(StringBuilder sb) {
+        String result = sb.toString();
+        if (sb.capacity() > MAX_RETAINED_CAPACITY) {
+            BUFFER.remove();
+        }
+        return result;
+    }
+
+    /**
+     * 超出上限后只会再追加截断标记，不会继续输出内容
+     */
+    public void render(Object value, StringBuilder out) {
+        write(value, out, 0, out.length() + maxChars);
+    }
+
+    private void write(Object value, StringBuilder out, int depth, int limit) {
+        if (value == null) {
+            out.append("null");
+            return;
+        }
+        if (value instanceof CharSequence) {
+            int from = out.length();
+            appendBounded((CharSequence) value, out, limit);
+            redactor.maskText(out, from);
+            return;
+        }
+        if (value instanceof Number || value instanceof Boolean || value instanceof Character || value instanceof Enum) {
+            out.append(value);
+            return;
+        }
+        for (TypeRenderer renderer : typeRenderers) {
+            if (renderer.supports(value)) {
+                int from = out.length();
+                renderer.render(value, out);
+                truncate(out, from, limit);
+                return;
+            }
+        }
+        if (value.getClass().isArray()) {
+            writeArray(value, out, depth, limit);
+        } else if (value instanceof Collection) {
+            writeCollection((Collection<?>) value, out, depth, limit);
+        } else if (value instanceof Map) {
+            writeMap((Map<?, ?>) value, out, depth, limit);
+        } else {
+            Redactor.Plan plan = redactor.plan(value.getClass());
+            if (plan == Redactor.OPAQUE) {
+                out.append(value.getClass().getName()).append('@').append(Integer.toHexString(System.identityHashCode(value)));
+                return;
+            }
+            if (plan != null) {
+                writeFields(value, plan, out, depth, limit);
+                return;
+            }
+            // JDK类型
+            int from = out.length();
+            String text;
+            try {
+                text = value.toString();
+            } catch (Exception e) {
+                text = value.getClass().getName() + "(toString failed)";
+            }
+            appendBounded(text, out, limit);
+            redactor.maskText(out, from);
+        }
+    }
+
+    /**
+     * 格式同Lombok的toString
+     */
+    private void writeFields(Object value, Redactor.Plan plan, StringBuilder out, int depth, int limit) {
+        out.append(plan.simpleName).append('(');
+        if (depth >= maxDepth) {
+            out.append(TRUNCATED).append(')');
+            return;
+        }
+        int i = 0;
+        for (; i < plan.fieldNames.length && out.length() < limit; i++) {
+            if (i > 0) {
+                out.append(", ");
+            }
+            out.append(plan.fieldNames[i]).append('=');
+            if (plan.masked[i]) {
+                out.append(redactor.getMask());
+            } else if (plan.getters[i] == null) {
+                out.append("(unreadable)");
+            } else {
+                Object field;
+                try {
+                    field = plan.get(i, value);
+                } catch (Throwable e) {
+                    out.append("(unreadable)");
+                    continue;
+                }
+                write(field == value ? "(this)" : field, out, depth + 1, limit);
+            }
+        }
+        moreMarker(out, plan.fieldNames.length - i);
+        out.append(')');
+    }
+
+    private void writeArray(Object array, StringBuilder out, int depth, int limit) {
+        if (depth >= maxDepth) {
+            out.append('[').append(TRUNCATED).append(']');
+            return;
+        }
+        int length = Array.getLength(array);
+        out.append('[');
+        int i = 0;
+        for (; i < length && i < maxElements && out.length() < limit; i++) {
+            if (i > 0) {
+                out.append(", ");
+            }
+            write(Array.get(array, i), out, depth + 1, limit);
+        }
+        moreMarker(out, length - i);
+        out.append(']');
+    }
+
+    private void writeCollection(Collection<?> collection, StringBuilder out, int depth, int limit) {
+        if (depth >= maxDepth) {
+            out.append('[').append(TRUNCATED).append(']');
+            return;
+        }
+        out.append('[');
+        int i = 0;
+        for (Iterator<?> it = collection.iterator(); it.hasNext() && i < maxElements && out.length() < limit; i++) {
+            if (i > 0) {
+                out.append(", ");
+            }
+            Object e = it.next();
+            write(e == collection ? "(this Collection)" : e, out, depth + 1, limit);
+        }
+        moreMarker(out, collection.size() - i);
+        out.append(']');
+    }
+
+    private void writeMap(Map<?, ?> map, StringBuilder out, int depth, int limit) {
+        if (depth >= maxDepth) {
+            out.append('{').append(TRUNCATED).append('}');
+            return;
+        }
+        out.append('{');
+        int i = 0;
+        for (Iterator<? extends Map.Entry<?, ?>> it = map.entrySet().iterator(); it.hasNext() && i < maxElements && out.length() < limit; i++) {
+            if (i > 0) {
+                out.append(", ");
+            }
+            Map.Entry<?, ?> e = it.next();
+            write(e.getKey(), out, depth + 1, limit);
+            out.append('=');
+            if (e.getKey() instanceof CharSequence && redactor.isSensitiveName((CharSequence) e.getKey())) {
+                out.append(redactor.getMask());
+            } else {
+                write(e.getValue() == map ? "(this Map)" : e.getValue(), out, depth + 1, limit);
+            }
+        }
+        moreMarker(out, map.size() - i);
+        out.append('}');
+    }
+
+    private static void moreMarker(StringBuilder out, int remaining) {
+        if (remaining > 0) {
+            out.append(", ...(+").append(remaining).append(')');
+        }
+    }
+
+    /**
+     * TypeRenderer 的输出超出上限时截断
+     */
+    private static void truncate(StringBuilder out, int from, int limit) {
+        if (out.length() > limit) {
+            int chars = out.length() - from;
+            out.setLength(Math.max(from, limit));
+            out.append(TRUNCATED).append("(").append(chars).append(" chars)");
+        }
+    }
+
+    private static void appendBounded(CharSequence text, StringBuilder out, int limit) {
+        int room = limit - out.length();
+        if (text.length() <= room) {
+            out.append(text);
+        } else {
+            out.append(text, 0, Math.max(0, room)).append(TRUNCATED)
+                    .append("(").append(text.length()).append(" chars)");
+        }
+    }
+}
@@ -0,0 +1,71 @@
+package com.iogogogo.aspect.sampling;
+
+import com.iogogogo.aspect.core.AspectLogSettings;
+import com.iogogogo.aspect.core.AspectLogSettingsProvider;
+import com.iogogogo.aspect.core.MethodLogDescriptor;
+import com.iogogogo.aspect.event.AspectLogEvent;
+
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * 是否输出本次调用
+ * <p>
+ * {@link #sample} 在调用前判断，只用到随机数和令牌桶；未命中的调用在结束后再由 {@link #capture} 判断是否因失败或慢而补录
+ * <p>
+ * 开启慢调用阈值后不再采样，只按耗时补录。采样率、阈值取自当前的 {@link AspectLogSettings} 快照，运行时调整后下一次调用即生效
+ */
+public class Sampler {
+
+    private final AspectLogSettingsProvider settings;
+
+    public Sampler(AspectLogSettingsProvider settings) {
+        this.settings = settings;
+    }
+
+    public boolean sample(MethodLogDescriptor descriptor) {
+        return sample(descriptor, descriptor.settings(settings.get()));
+    }
+
+    /**
+     * @param method 调用方已取得的该方法生效的配置
+     */
+    public boolean sample(MethodLogDescriptor descriptor, AspectLogSettings.MethodSettings method) {
+        if (method.getSlowThresholdNanos() > 0) {
+            return false;
+        }
+        double rate = method.getSampleRate();
+        if (rate < 1.0 && (rate <= 0 || ThreadLocalRandom.current().nextDouble() >= rate)) {
+            return false;
+        }
+        int rateLimit = method.getRateLimit();
+        if (rateLimit <= 0) {
+            return true;
+        }
+        TokenBucket bucket = descriptor.getRateLimiter();
+        if (bucket == null || bucket.getPermitsPerSecond() != rateLimit) {
+            // 并发时可能重复创建，最多多放行一秒的令牌
+            bucket = new TokenBucket(rateLimit);
+            descriptor.setRateLimiter(bucket);
+        }
+        return bucket.tryAcquire();
+    }
+
+    public boolean capture(MethodLogDescriptor descriptor, AspectLogEvent.Outcome outcome, long durationNanos) {
+        AspectLogSettings current = settings.get();
+        if (outcome == AspectLogEvent.Outcome.ERROR && current.isAlwaysLogErrors()) {
+            return true;
+        }
+        long slow = descriptor.settings(current).getSlowThresholdNanos();
+        if (slow <= 0) {
+            slow = current.getAlwaysLogSlowerThanNanos();
+        }
+        return slow > 0 && durationNanos >= slow;
+    }
+
+    /**
+     * @return 0表示未开启慢调用模式
+     */
+    public long slowThresholdNanos(MethodLogDescriptor descriptor) {
+        return descriptor.settings(settings.get()).getSlowThresholdNanos();
+    }
+}
@@ -0,0 +1,47 @@
+package com.iogogogo.aspect.sampling;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 无锁令牌桶(GCRA)，桶容量为1秒的令牌数
+ * <p>
+ * 只维护一个"理论到达时间"，每次放行把它推后一个间隔，超出突发容量即拒绝
+ */
+public class TokenBucket {
+
+    private final int permitsPerSecond;
+
+    private final long intervalNanos;
+
+    private final long burstNanos;
+
+    private final AtomicLong theoreticalArrival = new AtomicLong(System.nanoTime());
+
+    public TokenBucket(int permitsPerSecond) {
+        if (permitsPerSecond <= 0) {
+            throw new IllegalArgumentException("permitsPerSecond must be > 0: " + permitsPerSecond);
+        }
+        this.permitsPerSecond = permitsPerSecond;
+        this.intervalNanos = TimeUnit.SECONDS.toNanos(1) / permitsPerSecond;
+        this.burstNanos = TimeUnit.SECONDS.toNanos(1);
+    }
+
+    public boolean tryAcquire() {
+        long now = System.nanoTime();
+        for (; ; ) {
+            long tat = theoreticalArrival.get();
+            long next = Math.max(tat, now) + intervalNanos;
+            if (next - now > burstNanos) {
+                return false;
+            }
+            if (theoreticalArrival.compareAndSet(tat, next)) {
+                return true;
+            }
+        }
+    }
+
+    public int getPermitsPerSecond() {
+        return permitsPerSecond;
+    }
+}
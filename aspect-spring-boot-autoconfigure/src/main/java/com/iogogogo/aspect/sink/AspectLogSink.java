@@ -0,0 +1,65 @@
+package com.iogogogo.aspect.sink;
+
+import com.iogogogo.aspect.event.AspectLogEvent;
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.Closeable;
+import java.util.List;
+import java.util.function.Consumer;
+
+/**
+ * 调用记录的输出端
+ * <p>
+ * 容器中的全部 AspectLogSink 都会收到每条记录；开启异步输出时由 AsyncLogDispatcher 的消费线程调用，否则在业务线程上调用，
+ * 实现类应保证线程安全且不抛出异常
+ */
+public interface AspectLogSink extends Consumer<AspectLogEvent>, Closeable {
+
+    @Override
+    void accept(AspectLogEvent event);
+
+    /**
+     * 把缓冲中的内容写出，默认无缓冲
+     */
+    default void flush() {
+    }
+
+    @Override
+    default void close() {
+    }
+
+    /**
+     * 按顺序依次输出，单个输出端失败不影响其他输出端；只有一个输出端时同样包装，异常不会传到业务调用
+     */
+    static AspectLogSink of(List<? extends AspectLogSink> sinks) {
+        return new Composite(sinks.toArray(new AspectLogSink[0]));
+    }
+
+    @Slf4j
+    final class Composite implements AspectLogSink {
+
+        private final AspectLogSink[] sinks;
+
+        private Composite(AspectLogSink[] sinks) {
+            this.sinks = sinks;
+        }
+
+        @Override
+        public void accept(AspectLogEvent event) {
+            for (AspectLogSink sink : sinks) {
+                try {
+                    sink.accept(event);
+                } catch (RuntimeException e) {
+                    log.warn("Write aspect log event to {} failed", sink.getClass().getSimpleName(), e);
+                }
+            }
+        }
+
+        @Override
+        public void flush() {
+            for (AspectLogSink sink : sinks) {
+                sink.flush();
+            }
+        }
+    }
+}
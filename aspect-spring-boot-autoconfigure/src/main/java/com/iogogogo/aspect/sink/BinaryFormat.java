@@ -0,0 +1,98 @@
+package com.iogogogo.aspect.sink;
+
+import java.nio.ByteBuffer;
+
+/**
+ * 二进制记录格式，编码、解码共用
+ * <pre>
+ * varint flags | zigzag varint 时间戳与段创建时间之差(ms) | varint 耗时(us) | 按flags位序出现的可选字段
+ * </pre>
+ * 字符串字段以 varint 头开始，低2位为标记：{@link #REF} 高位为字典序号；{@link #DEFINE} 高位为UTF-8字节数，后跟 varint 序号与内容；
+ * {@link #INLINE} 高位为UTF-8字节数，后跟内容。字典只在一个段内有效，序号可以被重新定义，以最后一次定义为准
+ */
+final class BinaryFormat {
+
+    static final int REF = 0;
+
+    static final int DEFINE = 1;
+
+    static final int INLINE = 2;
+
+    static final int CLASS = 1;
+
+    static final int METHOD = 1 << 1;
+
+    static final int HOST = 1 << 2;
+
+    static final int ERROR = 1 << 3;
+
+    static final int URL = 1 << 4;
+
+    static final int HTTP_METHOD = 1 << 5;
+
+    static final int CLIENT_IP = 1 << 6;
+
+    static final int STATUS = 1 << 7;
+
+    static final int ERROR_TYPE = 1 << 8;
+
+    static final int ERROR_MESSAGE = 1 << 9;
+
+    static final int FINGERPRINT = 1 << 10;
+
+    static final int ARGS = 1 << 11;
+
+    static final int RESPONSE = 1 << 12;
+
+    /**
+     * 客户端IP为IPv4，以4字节大端存储
+     */
+    static final int CLIENT_IP_V4 = 1 << 13;
+
+    static final int NO_OUTCOME = 1 << 14;
+
+    static final int TRACE_ID = 1 << 15;
+
+    /**
+     * trace ID 为32位小写十六进制，以两个 long 大端存储
+     */
+    static final int TRACE_ID_HEX = 1 << 16;
+
+    static final int DEPTH = 1 << 17;
+
+    static final int CALL_TREE = 1 << 18;
+
+    private BinaryFormat() {
+    }
+
+    static ByteBuffer putVarint(ByteBuffer buffer, long value) {
+        if (buffer.remaining() < 10) {
+            buffer = Segments.grow(buffer, 10);
+        }
+        while ((value & ~0x7FL) != 0) {
+            buffer.put((byte) ((value & 0x7F) | 0x80));
+            value >>>= 7;
+        }
+        return buffer.put((byte) value);
+    }
+
+    static long getVarint(ByteBuffer buffer) {
+        long value = 0;
+        for (int shift = 0; shift < 64; shift += 7) {
+            byte b = buffer.get();
+            value |= (long) (b & 0x7F) << shift;
+            if (b >= 0) {
+                return value;
+            }
+        }
+        throw new IllegalStateException("Malformed varint");
+    }
+
+    static long zigzag(long value) {
+        return (value << 1) ^ (value >> 63);
+    }
+
+    static long unzigzag(long value) {
+        return (value >>> 1) ^ -(value & 1);
+    }
+}
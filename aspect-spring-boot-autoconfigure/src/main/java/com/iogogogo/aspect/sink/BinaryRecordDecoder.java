@@ -0,0 +1,109 @@
+package com.iogogogo.aspect.sink;
+
+import com.iogogogo.aspect.context.TraceIds;
+import com.iogogogo.aspect.event.AspectLogEvent;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * {@link BinaryRecordEncoder} 的逆过程，每个段新建一个实例，按写入顺序解码
+ */
+class BinaryRecordDecoder {
+
+    private final long baseMillis;
+
+    private final Map<Long, String> dictionary = new HashMap<>();
+
+    BinaryRecordDecoder(long baseMillis) {
+        this.baseMillis = baseMillis;
+    }
+
+    AspectLogEvent decode(ByteBuffer record) {
+        int flags = (int) BinaryFormat.getVarint(record);
+        AspectLogEvent.AspectLogEventBuilder builder = AspectLogEvent.builder()
+                .timestamp(baseMillis + BinaryFormat.unzigzag(BinaryFormat.getVarint(record)))
+                .durationNanos(BinaryFormat.getVarint(record) * 1000);
+        if ((flags & BinaryFormat.NO_OUTCOME) == 0) {
+            builder.outcome((flags & BinaryFormat.ERROR) != 0 ? AspectLogEvent.Outcome.ERROR : AspectLogEvent.Outcome.SUCCESS);
+        }
+        if ((flags & BinaryFormat.CLASS) != 0) {
+            builder.className(string(record));
+        }
+        if ((flags & BinaryFormat.METHOD) != 0) {
+            builder.methodName(string(record));
+        }
+        if ((flags & BinaryFormat.HOST) != 0) {
+            builder.hostIp(string(record));
+        }
+        if ((flags & BinaryFormat.URL) != 0) {
+            builder.url(string(record));
+        }
+        if ((flags & BinaryFormat.HTTP_METHOD) != 0) {
+            builder.httpMethod(string(record));
+        }
+        if ((flags & BinaryFormat.CLIENT_IP_V4) != 0) {
+            int ip = record.getInt();
+            builder.clientIp((ip >>> 24) + "." + (ip >>> 16 & 0xFF) + "." + (ip >>> 8 & 0xFF) + "." + (ip & 0xFF));
+        } else if ((flags & BinaryFormat.CLIENT_IP) != 0) {
+            builder.clientIp(string(record));
+        }
+        if ((flags & BinaryFormat.STATUS) != 0) {
+            builder.status((int) BinaryFormat.getVarint(record));
+        }
+        if ((flags & BinaryFormat.ERROR_TYPE) != 0) {
+            builder.errorType(string(record));
+        }
+        if ((flags & BinaryFormat.ERROR_MESSAGE) != 0) {
+            builder.errorMessage(string(record));
+        }
+        if ((flags & BinaryFormat.FINGERPRINT) != 0) {
+            builder.errorFingerprint(string(record));
+        }
+        if ((flags & BinaryFormat.ARGS) != 0) {
+            builder.args(string(record));
+        }
+        if ((flags & BinaryFormat.RESPONSE) != 0) {
+            builder.response(string(record));
+        }
+        if ((flags & BinaryFormat.TRACE_ID_HEX) != 0) {
+            char[] hex = new char[32];
+            TraceIds.hex(record.getLong(), hex, 0);
+            TraceIds.hex(record.getLong(), hex, 16);
+            builder.traceId(new String(hex));
+        } else if ((flags & BinaryFormat.TRACE_ID) != 0) {
+            builder.traceId(string(record));
+        }
+        if ((flags & BinaryFormat.DEPTH) != 0) {
+            builder.depth((int) BinaryFormat.getVarint(record));
+        }
+        if ((flags & BinaryFormat.CALL_TREE) != 0) {
+            builder.callTree(string(record));
+        }
+        return builder.build();
+    }
+
+    private String string(ByteBuffer record) {
+        long header = BinaryFormat.getVarint(record);
+        int tag = (int) (header & 3);
+        if (tag == BinaryFormat.REF) {
+            String value = dictionary.get(header >>> 2);
+            if (value == null) {
+                throw new IllegalStateException("Undefined dictionary entry " + (header >>> 2));
+            }
+            return value;
+        }
+        long id = tag == BinaryFormat.DEFINE ? BinaryFormat.getVarint(record) : -1;
+        int length = (int) (header >>> 2);
+        ByteBuffer bytes = record.slice();
+        bytes.limit(length);
+        String value = StandardCharsets.UTF_8.decode(bytes).toString();
+        record.position(record.position() + length);
+        if (id >= 0) {
+            dictionary.put(id, value);
+        }
+        return value;
+    }
+}
@@ -0,0 +1,182 @@
+package com.iogogogo.aspect.sink;
+
+import com.iogogogo.aspect.context.TraceIds;
+import com.iogogogo.aspect.event.AspectLogEvent;
+import com.iogogogo.aspect.net.InetAddressParser;
+
+import java.nio.ByteBuffer;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * 紧凑二进制编码，格式见 {@link BinaryFormat}
+ * <p>
+ * 类名、方法名、本机IP、URL、HTTP方法、异常类型与指纹放入段内字典，第一次出现时定义，之后只写序号；时间戳存与段创建时间的差值，
+ * 耗时存微秒，均为 varint；IPv4 客户端地址存4字节，十六进制 trace ID 存16字节；异常消息、参数、返回值截断到 maxSummaryChars 后内联。
+ * 字典随段重置，每个段都可以单独解码，保留策略删除旧段后不影响剩余的段。可用 {@link SegmentReader} 还原为JSON
+ * <p>
+ * 有状态，只能由 {@link MappedFileSink} 在持有写入锁时调用
+ */
+public class BinaryRecordEncoder implements RecordEncoder {
+
+    /**
+     * 字典上限，超出后新出现的字符串直接内联
+     */
+    private static final int MAX_ENTRIES = 4096;
+
+    /**
+     * 超过该长度的字符串(例如带查询参数的URL)不放入字典
+     */
+    private static final int MAX_INTERNED_CHARS = 256;
+
+    private static final String TRUNCATED = "...";
+
+    private final int maxSummaryChars;
+
+    private final Map<String, Integer> dictionary = new HashMap<>();
+
+    private final long[] address = new long[2];
+
+    private final long[] traceId = new long[2];
+
+    private long baseMillis;
+
+    public BinaryRecordEncoder(int maxSummaryChars) {
+        this.maxSummaryChars = Math.max(0, maxSummaryChars);
+    }
+
+    @Override
+    public byte type() {
+        return Segments.BINARY;
+    }
+
+    @Override
+    public boolean isStateful() {
+        return true;
+    }
+
+    @Override
+    public void reset(long baseMillis) {
+        this.baseMillis = baseMillis;
+        dictionary.clear();
+    }
+
+    @Override
+    public ByteBuffer encode(AspectLogEvent event, ByteBuffer buffer) {
+        int flags = 0;
+        flags |= event.getClassName() != null ? BinaryFormat.CLASS : 0;
+        flags |= event.getMethodName() != null ? BinaryFormat.METHOD : 0;
+        flags |= event.getHostIp() != null ? BinaryFormat.HOST : 0;
+        flags |= event.getOutcome() == null ? BinaryFormat.NO_OUTCOME : event.getOutcome() == AspectLogEvent.Outcome.ERROR ? BinaryFormat.ERROR : 0;
+        flags |= event.getUrl() != null ? BinaryFormat.URL : 0;
+        flags |= event.getHttpMethod() != null ? BinaryFormat.HTTP_METHOD : 0;
+        if (event.getClientIp() != null) {
+            String clientIp = event.getClientIp();
+            // 只压缩点分十进制写法，IPv4映射的IPv6写法保持原样
+            boolean v4 = clientIp.indexOf(':') < 0 && InetAddressParser.parse(clientIp, address) == InetAddressParser.V4;
+            flags |= v4 ? BinaryFormat.CLIENT_IP | BinaryFormat.CLIENT_IP_V4 : BinaryFormat.CLIENT_IP;
+        }
+        flags |= event.getStatus() > 0 ? BinaryFormat.STATUS : 0;
+        flags |= event.getErrorType() != null ? BinaryFormat.ERROR_TYPE : 0;
+        flags |= event.getErrorMessage() != null ? BinaryFormat.ERROR_MESSAGE : 0;
+        flags |= event.getErrorFingerprint() != null ? BinaryFormat.FINGERPRINT : 0;
+        flags |= event.getArgs() != null ? BinaryFormat.ARGS : 0;
+        flags |= event.getResponse() != null ? BinaryFormat.RESPONSE : 0;
+        if (event.getTraceId() != null) {
+            flags |= TraceIds.parseHex(event.getTraceId(), traceId) ? BinaryFormat.TRACE_ID | BinaryFormat.TRACE_ID_HEX : BinaryFormat.TRACE_ID;
+        }
+        flags |= event.getDepth() > 0 ? BinaryFormat.DEPTH : 0;
+        flags |= event.getCallTree() != null ? BinaryFormat.CALL_TREE : 0;
+
+        buffer = BinaryFormat.putVarint(buffer, flags);
+        buffer = BinaryFormat.putVarint(buffer, BinaryFormat.zigzag(event.getTimestamp() - baseMillis));
+        buffer = BinaryFormat.putVarint(buffer, Math.max(0, event.getDurationNanos() / 1000));
+        if ((flags & BinaryFormat.CLASS) != 0) {
+            buffer = interned(event.getClassName(), buffer);
+        }
+        if ((flags & BinaryFormat.METHOD) != 0) {
+            buffer = interned(event.getMethodName(), buffer);
+        }
+        if ((flags & BinaryFormat.HOST) != 0) {
+            buffer = interned(event.getHostIp(), buffer);
+        }
+        if ((flags & BinaryFormat.URL) != 0) {
+            buffer = interned(event.getUrl(), buffer);
+        }
+        if ((flags & BinaryFormat.HTTP_METHOD) != 0) {
+            buffer = interned(event.getHttpMethod(), buffer);
+        }
+        if ((flags & BinaryFormat.CLIENT_IP_V4) != 0) {
+            if (buffer.remaining() < 4) {
+                buffer = Segments.grow(buffer, 4);
+            }
+            buffer.putInt((int) address[0]);
+        } else if ((flags & BinaryFormat.CLIENT_IP) != 0) {
+            buffer = inline(event.getClientIp(), Integer.MAX_VALUE, buffer);
+        }
+        if ((flags & BinaryFormat.STATUS) != 0) {
+            buffer = BinaryFormat.putVarint(buffer, event.getStatus());
+        }
+        if ((flags & BinaryFormat.ERROR_TYPE) != 0) {
+            buffer = interned(event.getErrorType(), buffer);
+        }
+        if ((flags & BinaryFormat.ERROR_MESSAGE) != 0) {
+            buffer = inline(event.getErrorMessage(), maxSummaryChars, buffer);
+        }
+        if ((flags & BinaryFormat.FINGERPRINT) != 0) {
+            buffer = interned(event.getErrorFingerprint(), buffer);
+        }
+        if ((flags & BinaryFormat.ARGS) != 0) {
+            buffer = inline(event.getArgs(), maxSummaryChars, buffer);
+        }
+        if ((flags & BinaryFormat.RESPONSE) != 0) {
+            buffer = inline(event.getResponse(), maxSummaryChars, buffer);
+        }
+        if ((flags & BinaryFormat.TRACE_ID_HEX) != 0) {
+            if (buffer.remaining() < 16) {
+                buffer = Segments.grow(buffer, 16);
+            }
+            buffer.putLong(traceId[0]).putLong(traceId[1]);
+        } else if ((flags & BinaryFormat.TRACE_ID) != 0) {
+            // 每次调用各不相同，不放入字典
+            buffer = inline(event.getTraceId(), Integer.MAX_VALUE, buffer);
+        }
+        if ((flags & BinaryFormat.DEPTH) != 0) {
+            buffer = BinaryFormat.putVarint(buffer, event.getDepth());
+        }
+        if ((flags & BinaryFormat.CALL_TREE) != 0) {
+            // 节点数有上限，不截断
+            buffer = inline(event.getCallTree(), Integer.MAX_VALUE, buffer);
+        }
+        return buffer;
+    }
+
+    private ByteBuffer interned(String value, ByteBuffer buffer) {
+        Integer id = dictionary.get(value);
+        if (id != null) {
+            return BinaryFormat.putVarint(buffer, (long) id << 2 | BinaryFormat.REF);
+        }
+        if (dictionary.size() >= MAX_ENTRIES || value.length() > MAX_INTERNED_CHARS) {
+            return inline(value, Integer.MAX_VALUE, buffer);
+        }
+        id = dictionary.size();
+        dictionary.put(value, id);
+        int length = Segments.utf8Length(value, 0, value.length());
+        buffer = BinaryFormat.putVarint(buffer, (long) length << 2 | BinaryFormat.DEFINE);
+        buffer = BinaryFormat.putVarint(buffer, id);
+        return Segments.utf8(value, buffer);
+    }
+
+    private static ByteBuffer inline(String value, int maxChars, ByteBuffer buffer) {
+        boolean truncated = value.length() > maxChars;
+        int end = truncated ? maxChars : value.length();
+        // 不从代理对中间截断
+        if (truncated && end > 0 && Character.isHighSurrogate(value.charAt(end - 1))) {
+            end--;
+        }
+        int length = Segments.utf8Length(value, 0, end) + (truncated ? TRUNCATED.length() : 0);
+        buffer = BinaryFormat.putVarint(buffer, (long) length << 2 | BinaryFormat.INLINE);
+        buffer = Segments.utf8(value, 0, end, buffer);
+        return truncated ? Segments.utf8(TRUNCATED, buffer) : buffer;
+    }
+}
@@ -0,0 +1,294 @@
+package com.iogogogo.aspect.sink;
+
+import com.iogogogo.aspect.event.AspectLogEvent;
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 写入内存映射的固定大小滚动段文件，不经过日志框架
+ * <p>
+ * 编码在调用线程的缓冲区中完成，加锁后只做一次内存拷贝并移动写入位置(有状态的编码器在锁内编码)；由后台线程定时 force，写满的段交给后台线程落盘后滚动到下一个段，
+ * 超过保留个数时删除最旧的段。段文件格式见 {@link Segments}，可用 {@link SegmentReader} 读取
+ * <p>
+ * 第一次写入时才创建文件与后台线程
+ */
+@Slf4j
+public class MappedFileSink implements AspectLogSink {
+
+    private static final String PREFIX = "aspect-";
+
+    private static final int MAX_RETAINED_CAPACITY = 64 * 1024;
+
+    private final Path directory;
+
+    private final int segmentSize;
+
+    private final int maxSegments;
+
+    private final Duration flushInterval;
+
+    private final RecordEncoder encoder;
+
+    private final ThreadLocal<ByteBuffer> buffers = ThreadLocal.withInitial(() -> ByteBuffer.allocate(1024));
+
+    private final LongAdder written = new LongAdder();
+
+    private final LongAdder dropped = new LongAdder();
+
+    /**
+     * 只在持有锁时修改
+     */
+    private volatile MappedByteBuffer current;
+
+    private volatile boolean dirty;
+
+    private volatile boolean closed;
+
+    private long sequence = -1;
+
+    private long createdMillis;
+
+    private ScheduledExecutorService flusher;
+
+    private boolean failed;
+
+    public MappedFileSink(Path directory, int segmentSize, int maxSegments, Duration flushInterval, RecordEncoder encoder) {
+        if (segmentSize <= Segments.HEADER_SIZE + 4) {
+            throw new IllegalArgumentException("segmentSize too small: " + segmentSize);
+        }
+        this.directory = directory;
+        this.segmentSize = segmentSize;
+        this.maxSegments = Math.max(1, maxSegments);
+        this.flushInterval = flushInterval;
+        this.encoder = encoder;
+    }
+
+    @Override
+    public void accept(AspectLogEvent event) {
+        if (closed) {
+            dropped.increment();
+            return;
+        }
+        boolean appended;
+        if (encoder.isStateful()) {
+            synchronized (this) {
+                appended = appendStateful(event);
+            }
+        } else {
+            ByteBuffer record = encode(event);
+            appended = fits(record) && append(record);
+        }
+        if (appended) {
+            written.increment();
+        } else {
+            dropped.increment();
+        }
+    }
+
+    private ByteBuffer encode(AspectLogEvent event) {
+        ByteBuffer buffer = buffers.get();
+        buffer.clear();
+        ByteBuffer record = encoder.encode(event, buffer);
+        if (record != buffer) {
+            if (record.capacity() > MAX_RETAINED_CAPACITY) {
+                buffers.remove();
+            } else {
+                buffers.set(record);
+            }
+        }
+        record.flip();
+        return record;
+    }
+
+    private boolean fits(ByteBuffer record) {
+        int length = record.remaining();
+        return length > 0 && length + 4 <= segmentSize - Segments.HEADER_SIZE;
+    }
+
+    private synchronized boolean append(ByteBuffer record) {
+        if (closed) {
+            return false;
+        }
+        MappedByteBuffer segment = this.current;
+        if (segment == null || segment.remaining() < record.remaining() + 4) {
+            segment = rollQuietly();
+        }
+        if (segment == null) {
+            return false;
+        }
+        write(segment, record);
+        return true;
+    }
+
+    /**
+     * 编码结果依赖段内状态，只能在持有锁时编码；放不下时先滚动，再在新段上重新编码
+     */
+    private boolean appendStateful(AspectLogEvent event) {
+        if (closed) {
+            return false;
+        }
+        MappedByteBuffer segment = this.current;
+        if (segment == null && (segment = rollQuietly()) == null) {
+            return false;
+        }
+        ByteBuffer record = encode(event);
+        if (fits(record) && segment.remaining() < record.remaining() + 4 && (segment = rollQuietly()) != null) {
+            record = encode(event);
+        }
+        if (segment == null || !fits(record) || segment.remaining() < record.remaining() + 4) {
+            // 已经编码进状态的内容没有写入，之后的记录不能再引用
+            encoder.reset(createdMillis);
+            return false;
+        }
+        write(segment, record);
+        return true;
+    }
+
+    private void write(MappedByteBuffer segment, ByteBuffer record) {
+        int length = record.remaining();
+        int position = segment.position();
+        segment.position(position + 4);
+        segment.put(record);
+        // 内容写完后再写长度
+        segment.putInt(position, length);
+        dirty = true;
+    }
+
+    /**
+     * @return 打开失败时为null
+     */
+    private MappedByteBuffer rollQuietly() {
+        try {
+            MappedByteBuffer segment = roll();
+            failed = false;
+            return segment;
+        } catch (IOException e) {
+            if (!failed) {
+                // 只输出一次，之后每条记录都会重试滚动
+                failed = true;
+                log.warn("Open aspect log segment in {} failed", directory, e);
+            }
+            return null;
+        }
+    }
+
+    private MappedByteBuffer roll() throws IOException {
+        MappedByteBuffer previous = this.current;
+        if (sequence < 0) {
+            Files.createDirectories(directory);
+            sequence = lastSequence();
+            long period = flushInterval.toMillis();
+            flusher = Executors.newSingleThreadScheduledExecutor(r -> {
+                Thread thread = new Thread(r, "aspect-log-sink-flush");
+                thread.setDaemon(true);
+                return thread;
+            });
+            flusher.scheduleWithFixedDelay(this::flush, period, period, TimeUnit.MILLISECONDS);
+        }
+        Path file = directory.resolve(String.format("%s%010d%s", PREFIX, ++sequence, Segments.SUFFIX));
+        MappedByteBuffer segment;
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE_NEW, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            // 映射在通道关闭后仍然有效
+            segment = channel.map(FileChannel.MapMode.READ_WRITE, 0, segmentSize);
+        }
+        long created = System.currentTimeMillis();
+        Segments.writeHeader(segment, encoder.type(), created);
+        encoder.reset(created);
+        this.createdMillis = created;
+        this.current = segment;
+        if (previous != null) {
+            // 写满的段在后台落盘，不阻塞写入线程
+            flusher.execute(previous::force);
+        }
+        flusher.execute(this::deleteExpired);
+        return segment;
+    }
+
+    private long lastSequence() throws IOException {
+        long last = 0;
+        for (Path file : segments()) {
+            String name = file.getFileName().toString();
+            try {
+                last = Math.max(last, Long.parseLong(name.substring(PREFIX.length(), name.length() - Segments.SUFFIX.length())));
+            } catch (NumberFormatException ignored) {
+                // 不是本类创建的文件
+            }
+        }
+        return last;
+    }
+
+    private List<Path> segments() throws IOException {
+        List<Path> files = new ArrayList<>();
+        try (DirectoryStream<Path> stream = Files.newDirectoryStream(directory, PREFIX + "*" + Segments.SUFFIX)) {
+            for (Path file : stream) {
+                files.add(file);
+            }
+        }
+        // 序号定长，按名称排序即按创建顺序
+        Collections.sort(files);
+        return files;
+    }
+
+    private void deleteExpired() {
+        try {
+            List<Path> files = segments();
+            for (int i = 0; i < files.size() - maxSegments; i++) {
+                Files.deleteIfExists(files.get(i));
+            }
+        } catch (IOException e) {
+            log.debug("Delete expired aspect log segments failed", e);
+        }
+    }
+
+    @Override
+    public void flush() {
+        MappedByteBuffer segment = this.current;
+        if (dirty && segment != null) {
+            dirty = false;
+            segment.force();
+        }
+    }
+
+    @Override
+    public void close() {
+        synchronized (this) {
+            if (closed) {
+                return;
+            }
+            closed = true;
+        }
+        if (flusher != null) {
+            flusher.shutdown();
+            try {
+                flusher.awaitTermination(5, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        flush();
+    }
+
+    public long getWritten() {
+        return written.sum();
+    }
+
+    public long getDropped() {
+        return dropped.sum();
+    }
+}
@@ -0,0 +1,38 @@
+package com.iogogogo.aspect.sink;
+
+import com.iogogogo.aspect.event.AspectLogEvent;
+
+import java.nio.ByteBuffer;
+
+/**
+ * 文件类输出端的记录编码
+ */
+public interface RecordEncoder {
+
+    /**
+     * 写入段文件头，读取时据此选择解码方式，见 {@link Segments}
+     */
+    byte type();
+
+    /**
+     * 从 buffer 当前位置开始写入一条记录
+     *
+     * @return 写入后的缓冲区，空间不足时返回扩容后的新缓冲区
+     */
+    ByteBuffer encode(AspectLogEvent event, ByteBuffer buffer);
+
+    /**
+     * 编码结果依赖之前写入的记录(如字典)时返回true，输出端会在持有写入锁时编码，保证编码顺序与写入顺序一致
+     */
+    default boolean isStateful() {
+        return false;
+    }
+
+    /**
+     * 开始一个新段，或者上一条编码结果没有写入时调用，之后的记录不能再引用之前的状态
+     *
+     * @param baseMillis 当前段文件头中的创建时间
+     */
+    default void reset(long baseMillis) {
+    }
+}
@@ -0,0 +1,28 @@
+package com.iogogogo.aspect.sink;
+
+import com.iogogogo.aspect.event.AspectLogEncoder;
+
+/**
+ * 段文件的记录编码
+ */
+public enum RecordEncoding {
+
+    /**
+     * 沿用 aspect.format 的文本格式
+     */
+    TEXT {
+        @Override
+        public RecordEncoder encoder(AspectLogEncoder text, int maxSummaryChars) {
+            return new TextRecordEncoder(text);
+        }
+    },
+
+    BINARY {
+        @Override
+        public RecordEncoder encoder(AspectLogEncoder text, int maxSummaryChars) {
+            return new BinaryRecordEncoder(maxSummaryChars);
+        }
+    };
+
+    public abstract RecordEncoder encoder(AspectLogEncoder text, int maxSummaryChars);
+}
@@ -0,0 +1,101 @@
+package com.iogogogo.aspect.sink;
+
+import com.iogogogo.aspect.event.JsonAspectLogEncoder;
+
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.function.Consumer;
+
+/**
+ * 段文件读取工具，每条记录输出一行，只依赖JDK；二进制段还原为JSON
+ * <pre>
+ * java -cp aspect-spring-boot-autoconfigure.jar com.iogogogo.aspect.sink.SegmentReader logs/aspect [more files or dirs]
+ * </pre>
+ * 参数为目录时按文件名顺序读取其中的全部段文件；正在写入的段也可以读取，只会读到已写完的记录
+ */
+public final class SegmentReader {
+
+    private static final JsonAspectLogEncoder JSON = new JsonAspectLogEncoder();
+
+    private SegmentReader() {
+    }
+
+    public static void main(String[] args) throws IOException {
+        if (args.length == 0) {
+            System.err.println("Usage: SegmentReader <segment file or directory>...");
+            System.exit(1);
+        }
+        PrintStream out = System.out;
+        for (String arg : args) {
+            for (Path file : files(Paths.get(arg))) {
+                read(file, out::println);
+            }
+        }
+        out.flush();
+    }
+
+    public static void read(Path file, Consumer<String> out) throws IOException {
+        MappedByteBuffer buffer;
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+        }
+        if (buffer.remaining() < Segments.HEADER_SIZE || buffer.getInt() != Segments.MAGIC) {
+            throw new IOException("Not an aspect log segment: " + file);
+        }
+        byte version = buffer.get();
+        byte type = buffer.get();
+        if (version != Segments.VERSION) {
+            throw new IOException("Unsupported segment version " + version + ": " + file);
+        }
+        if (type != Segments.TEXT && type != Segments.BINARY) {
+            throw new IOException("Unsupported record type " + type + ": " + file);
+        }
+        buffer.position(8);
+        BinaryRecordDecoder decoder = type == Segments.BINARY ? new BinaryRecordDecoder(buffer.getLong()) : null;
+        StringBuilder json = new StringBuilder(512);
+        buffer.position(Segments.HEADER_SIZE);
+        while (buffer.remaining() >= 4) {
+            int length = buffer.getInt();
+            if (length <= 0 || length > buffer.remaining()) {
+                break;
+            }
+            ByteBuffer record = buffer.slice();
+            record.limit(length);
+            if (decoder == null) {
+                out.accept(StandardCharsets.UTF_8.decode(record).toString());
+            } else {
+                json.setLength(0);
+                JSON.encode(decoder.decode(record), json);
+                out.accept(json.toString());
+            }
+            buffer.position(buffer.position() + length);
+        }
+    }
+
+    private static List<Path> files(Path path) throws IOException {
+        List<Path> files = new ArrayList<>();
+        if (Files.isDirectory(path)) {
+            try (DirectoryStream<Path> stream = Files.newDirectoryStream(path, "*" + Segments.SUFFIX)) {
+                for (Path file : stream) {
+                    files.add(file);
+                }
+            }
+            Collections.sort(files);
+        } else {
+            files.add(path);
+        }
+        return files;
+    }
+}
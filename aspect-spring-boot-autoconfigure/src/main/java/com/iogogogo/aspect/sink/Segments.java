@@ -0,0 +1,115 @@
+package com.iogogogo.aspect.sink;
+
+import java.nio.ByteBuffer;
+
+/**
+ * 段文件格式
+ * <pre>
+ * 文件头(16字节)：magic "ASPL"(4) | version(1) | 记录类型(1) | 保留(2) | 创建时间 epoch millis(8)
+ * 记录：长度(4，大端) | 内容
+ * </pre>
+ * 文件创建时即为固定大小，未写入部分全为0，读到长度为0即结束；长度在内容写完之后才写入，进程中途退出时不会读到半条记录
+ */
+public final class Segments {
+
+    public static final int MAGIC = 0x4153504C;
+
+    public static final byte VERSION = 1;
+
+    public static final int HEADER_SIZE = 16;
+
+    public static final String SUFFIX = ".seg";
+
+    /**
+     * 每条记录为一行文本(JSON / KEY_VALUE)
+     */
+    public static final byte TEXT = 1;
+
+    /**
+     * 紧凑二进制，见 {@link BinaryRecordEncoder}
+     */
+    public static final byte BINARY = 2;
+
+    private Segments() {
+    }
+
+    static void writeHeader(ByteBuffer buffer, byte type, long createdMillis) {
+        buffer.putInt(MAGIC)
+                .put(VERSION)
+                .put(type)
+                .putShort((short) 0)
+                .putLong(createdMillis);
+    }
+
+    /**
+     * UTF-8 编码写入堆缓冲区；CharsetEncoder 对 StringBuilder 只能逐字符走慢路径，这里直接写数组
+     * <p>
+     * 不成对的代理字符写为 '?'
+     */
+    static ByteBuffer utf8(CharSequence text, ByteBuffer buffer) {
+        return utf8(text, 0, text.length(), buffer);
+    }
+
+    static ByteBuffer utf8(CharSequence text, int start, int end, ByteBuffer buffer) {
+        int length = end - start;
+        if (buffer.remaining() < length * 3) {
+            buffer = grow(buffer, length * 3);
+        }
+        byte[] array = buffer.array();
+        int p = buffer.arrayOffset() + buffer.position();
+        for (int i = start; i < end; i++) {
+            char c = text.charAt(i);
+            if (c < 0x80) {
+                array[p++] = (byte) c;
+            } else if (c < 0x800) {
+                array[p++] = (byte) (0xC0 | (c >> 6));
+                array[p++] = (byte) (0x80 | (c & 0x3F));
+            } else if (Character.isHighSurrogate(c) && i + 1 < end && Character.isLowSurrogate(text.charAt(i + 1))) {
+                int cp = Character.toCodePoint(c, text.charAt(++i));
+                array[p++] = (byte) (0xF0 | (cp >> 18));
+                array[p++] = (byte) (0x80 | ((cp >> 12) & 0x3F));
+                array[p++] = (byte) (0x80 | ((cp >> 6) & 0x3F));
+                array[p++] = (byte) (0x80 | (cp & 0x3F));
+            } else if (Character.isSurrogate(c)) {
+                array[p++] = '?';
+            } else {
+                array[p++] = (byte) (0xE0 | (c >> 12));
+                array[p++] = (byte) (0x80 | ((c >> 6) & 0x3F));
+                array[p++] = (byte) (0x80 | (c & 0x3F));
+            }
+        }
+        buffer.position(p - buffer.arrayOffset());
+        return buffer;
+    }
+
+    /**
+     * 与 {@link #utf8(CharSequence, int, int, ByteBuffer)} 写入的字节数一致
+     */
+    static int utf8Length(CharSequence text, int start, int end) {
+        int bytes = 0;
+        for (int i = start; i < end; i++) {
+            char c = text.charAt(i);
+            if (c < 0x80) {
+                bytes++;
+            } else if (c < 0x800) {
+                bytes += 2;
+            } else if (Character.isHighSurrogate(c) && i + 1 < end && Character.isLowSurrogate(text.charAt(i + 1))) {
+                bytes += 4;
+                i++;
+            } else if (Character.isSurrogate(c)) {
+                bytes++;
+            } else {
+                bytes += 3;
+            }
+        }
+        return bytes;
+    }
+
+    static ByteBuffer grow(ByteBuffer buffer, int minimum) {
+        int capacity = Math.max(buffer.capacity() << 1, buffer.position() + minimum);
+        ByteBuffer grown = ByteBuffer.allocate(capacity);
+        buffer.flip();
+        grown.put(buffer);
+        return grown;
+    }
+}
@@ -0,0 +1,39 @@
+package com.iogogogo.aspect.sink;
+
+import com.iogogogo.aspect.event.AspectLogEncoder;
+import com.iogogogo.aspect.event.AspectLogEvent;
+
+import java.nio.ByteBuffer;
+
+/**
+ * 沿用 {@link AspectLogEncoder} 的文本格式，UTF-8 编码后直接写入字节缓冲区，不生成中间字符串
+ */
+public class TextRecordEncoder implements RecordEncoder {
+
+    private static final int MAX_RETAINED_CAPACITY = 16 * 1024;
+
+    private static final ThreadLocal<StringBuilder> TEXT = ThreadLocal.withInitial(() -> new StringBuilder(512));
+
+    private final AspectLogEncoder encoder;
+
+    public TextRecordEncoder(AspectLogEncoder encoder) {
+        this.encoder = encoder;
+    }
+
+    @Override
+    public byte type() {
+        return Segments.TEXT;
+    }
+
+    @Override
+    public ByteBuffer encode(AspectLogEvent event, ByteBuffer buffer) {
+        StringBuilder sb = TEXT.get();
+        sb.setLength(0);
+        encoder.encode(event, sb);
+        buffer = Segments.utf8(sb, buffer);
+        if (sb.capacity() > MAX_RETAINED_CAPACITY) {
+            TEXT.remove();
+        }
+        return buffer;
+    }
+}
@@ -0,0 +1,55 @@
+package com.iogogogo.aspect;
+
+import com.iogogogo.aspect.core.AspectLogAdvisor;
+import com.iogogogo.aspect.core.AspectLogSettingsProvider;
+import com.iogogogo.aspect.core.AspectLogSupport;
+import com.iogogogo.aspect.core.HostInfoProvider;
+import com.iogogogo.aspect.net.ClientAddressResolver;
+import org.junit.jupiter.api.Test;
+import org.springframework.aop.config.AopConfigUtils;
+import org.springframework.aop.framework.ProxyConfig;
+import org.springframework.boot.autoconfigure.AutoConfigurations;
+import org.springframework.boot.test.context.runner.ApplicationContextRunner;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class AspectLogAutoConfigurationTests {
+
+    private final ApplicationContextRunner contextRunner = new ApplicationContextRunner()
+            .withConfiguration(AutoConfigurations.of(AspectLogAutoConfiguration.class));
+
+    @Test
+    void registersAspectByDefault() {
+        contextRunner.run(context -> {
+            assertThat(context).hasNotFailed();
+            assertThat(context).hasSingleBean(AspectLogAdvisor.class);
+            assertThat(context).hasSingleBean(AspectLogSupport.class);
+            assertThat(context).hasSingleBean(AspectLogSettingsProvider.class);
+        });
+    }
+
+    @Test
+    void doesNotExposeProxyByDefault() {
+        contextRunner.run(context -> assertThat(context.getBean(AopConfigUtils.AUTO_PROXY_CREATOR_BEAN_NAME, ProxyConfig.class)
+                .isExposeProxy()).isFalse());
+    }
+
+    @Test
+    void exposesProxyWhenConfigured() {
+        contextRunner.withPropertyValues("aspect.proxy.expose-proxy=true")
+                .run(context -> assertThat(context.getBean(AopConfigUtils.AUTO_PROXY_CREATOR_BEAN_NAME, ProxyConfig.class)
+                        .isExposeProxy()).isTrue());
+    }
+
+    @Test
+    void disabledRegistersNothing() {
+        contextRunner.withPropertyValues("aspect.enable=false").run(context -> {
+            assertThat(context).hasNotFailed();
+            assertThat(context).doesNotHaveBean(AspectLogAdvisor.class);
+            assertThat(context).doesNotHaveBean(AspectLogSupport.class);
+            assertThat(context).doesNotHaveBean(HostInfoProvider.class);
+            assertThat(context).doesNotHaveBean(ClientAddressResolver.class);
+            assertThat(context).doesNotHaveBean(AspectLogSettingsProvider.class);
+        });
+    }
+}
@@ -0,0 +1,242 @@
+package com.iogogogo.aspect.async;
+
+import com.iogogogo.aspect.event.AspectLogEvent;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class AsyncLogDispatcherTests {
+
+    private static final int PRODUCERS = 4;
+
+    /**
+     * 只由消费线程写，close() 中 join 之后读取
+     */
+    private final List<AspectLogEvent> handled = new ArrayList<>();
+
+    private final CountDownLatch entered = new CountDownLatch(1);
+
+    private final CountDownLatch release = new CountDownLatch(1);
+
+    private AsyncLogDispatcher dispatcher;
+
+    @AfterEach
+    void close() {
+        release.countDown();
+        if (dispatcher != null) {
+            dispatcher.close();
+        }
+    }
+
+    @Test
+    void multipleProducersWithoutOverflow() throws InterruptedException {
+        int perProducer = 20_000;
+        dispatcher = new AsyncLogDispatcher(handled::add, PRODUCERS * perProducer, 64, OverflowPolicy.DROP, 1);
+
+        AtomicInteger accepted = publishConcurrently(perProducer);
+        dispatcher.close();
+
+        int total = PRODUCERS * perProducer;
+        assertThat(accepted.get()).isEqualTo(total);
+        assertThat(dispatcher.getPublished()).isEqualTo(total);
+        assertThat(dispatcher.getDropped()).isZero();
+        assertThat(handled).hasSize(total);
+        assertThat(handled.stream().mapToLong(AspectLogEvent::getTimestamp).distinct().count()).isEqualTo(total);
+        assertThat(dispatcher.getQueueDepth()).isZero();
+    }
+
+    @Test
+    void dropCountsEveryRejectedEvent() throws InterruptedException {
+        dispatcher = new AsyncLogDispatcher(blockingHandler(), 16, 1, OverflowPolicy.DROP, 1);
+        stallConsumer();
+
+        int perProducer = 100;
+        AtomicInteger accepted = publishConcurrently(perProducer);
+
+        int attempts = PRODUCERS * perProducer;
+        assertThat(accepted.get()).isEqualTo(dispatcher.getCapacity());
+        assertThat(dispatcher.getDropped()).isEqualTo(attempts - dispatcher.getCapacity());
+        assertThat(dispatcher.getPublished()).isEqualTo(1 + dispatcher.getCapacity());
+
+        release.countDown();
+        dispatcher.close();
+        assertThat(handled).hasSize(1 + dispatcher.getCapacity());
+    }
+
+    @Test
+    void sampleKeepsHalfTheBufferForSampledEvents() {
+        dispatcher = new AsyncLogDispatcher(blockingHandler(), 16, 1, OverflowPolicy.SAMPLE, 0);
+        stallConsumer();
+
+        int accepted = 0;
+        for (int i = 0; i < 100; i++) {
+            if (dispatcher.publish(event(i))) {
+                accepted++;
+            }
+        }
+        // 过半后采样率为0，全部丢弃
+        assertThat(accepted).isEqualTo(dispatcher.getCapacity() / 2);
+        assertThat(dispatcher.getDropped()).isEqualTo(100 - accepted);
+    }
+
+    @Test
+    void blockWaitsForSpaceInsteadOfDropping() throws InterruptedException {
+        dispatcher = new AsyncLogDispatcher(blockingHandler(), 4, 1, OverflowPolicy.BLOCK, 1);
+        stallConsumer();
+        releaseLater(100);
+
+        int perProducer = 50;
+        AtomicInteger accepted = publishConcurrently(perProducer);
+        dispatcher.close();
+
+        assertThat(accepted.get()).isEqualTo(PRODUCERS * perProducer);
+        assertThat(dispatcher.getDropped()).isZero();
+        assertThat(handled).hasSize(1 + PRODUCERS * perProducer);
+    }
+
+    @Test
+    void closeDrainsPublishedEvents() {
+        dispatcher = new AsyncLogDispatcher(blockingHandler(), 256, 8, OverflowPolicy.DROP, 1);
+        stallConsumer();
+        for (int i = 1; i <= 200; i++) {
+            assertThat(dispatcher.publish(event(i))).isTrue();
+        }
+        // close() 开始等待时消费线程仍停在第一条上
+        releaseLater(100);
+
+        dispatcher.close();
+
+        assertThat(handled).hasSize(201);
+        assertThat(handled).extracting(AspectLogEvent::getTimestamp).isSorted();
+        assertThat(dispatcher.getQueueDepth()).isZero();
+    }
+
+    @Test
+    void failingHandlerDoesNotStopConsumer() {
+        AtomicInteger calls = new AtomicInteger();
+        dispatcher = new AsyncLogDispatcher(event -> {
+            if (calls.incrementAndGet() % 2 == 0) {
+                throw new IllegalStateException("sink failed");
+            }
+            handled.add(event);
+        }, 16, 4, OverflowPolicy.BLOCK, 1);
+        for (int i = 0; i < 10; i++) {
+            dispatcher.publish(event(i));
+        }
+        dispatcher.close();
+
+        assertThat(calls.get()).isEqualTo(10);
+        assertThat(handled).hasSize(5);
+    }
+
+    @Test
+    void errorFromHandlerDoesNotStopConsumer() {
+        AtomicInteger calls = new AtomicInteger();
+        dispatcher = new AsyncLogDispatcher(event -> {
+            if (calls.incrementAndGet() % 2 == 0) {
+                throw new NoClassDefFoundError("sink");
+            }
+            handled.add(event);
+        }, 4, 1, OverflowPolicy.BLOCK, 1);
+        // 容量只有4，消费线程停止后 BLOCK 发布会一直等待
+        for (int i = 0; i < 20; i++) {
+            assertThat(dispatcher.publish(event(i))).isTrue();
+        }
+        dispatcher.close();
+
+        assertThat(calls.get()).isEqualTo(20);
+        assertThat(handled).hasSize(10);
+    }
+
+    @Test
+    void publishAfterCloseIsDropped() {
+        dispatcher = new AsyncLogDispatcher(handled::add, 16, 4, OverflowPolicy.DROP, 1);
+        assertThat(dispatcher.publish(event(1))).isTrue();
+        dispatcher.close();
+
+        assertThat(dispatcher.publish(event(2))).isFalse();
+        assertThat(dispatcher.getPublished()).isEqualTo(1);
+        assertThat(dispatcher.getDropped()).isEqualTo(1);
+        assertThat(dispatcher.getQueueDepth()).isZero();
+        assertThat(handled).extracting(AspectLogEvent::getTimestamp).containsExactly(1L);
+    }
+
+    @Test
+    void closeWithoutPublishing() {
+        dispatcher = new AsyncLogDispatcher(handled::add, 16, 4, OverflowPolicy.DROP, 1);
+        dispatcher.close();
+        assertThat(dispatcher.getPublished()).isZero();
+    }
+
+    /**
+     * 第一条事件进入输出端后阻塞，直到 release
+     */
+    private Consumer<AspectLogEvent> blockingHandler() {
+        return event -> {
+            handled.add(event);
+            entered.countDown();
+            RingBufferTests.await(release);
+        };
+    }
+
+    /**
+     * 发布一条事件并等待消费线程阻塞在它上面，之后队列只进不出
+     */
+    private void stallConsumer() {
+        assertThat(dispatcher.publish(event(0))).isTrue();
+        try {
+            assertThat(entered.await(10, TimeUnit.SECONDS)).isTrue();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private void releaseLater(long millis) {
+        Thread thread = new Thread(() -> {
+            try {
+                Thread.sleep(millis);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            release.countDown();
+        });
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    private AtomicInteger publishConcurrently(int perProducer) throws InterruptedException {
+        AtomicInteger accepted = new AtomicInteger();
+        CountDownLatch start = new CountDownLatch(1);
+        List<Thread> producers = new ArrayList<>();
+        for (int p = 0; p < PRODUCERS; p++) {
+            long base = (p + 1) * 1_000_000L;
+            Thread thread = new Thread(() -> {
+                RingBufferTests.await(start);
+                for (int i = 0; i < perProducer; i++) {
+                    if (dispatcher.publish(event(base + i))) {
+                        accepted.incrementAndGet();
+                    }
+                }
+            });
+            thread.start();
+            producers.add(thread);
+        }
+        start.countDown();
+        for (Thread thread : producers) {
+            thread.join();
+        }
+        return accepted;
+    }
+
+    private static AspectLogEvent event(long id) {
+        return AspectLogEvent.builder().timestamp(id).build();
+    }
+}
@@ -0,0 +1,154 @@
+package com.iogogogo.aspect.async;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatIllegalArgumentException;
+
+class RingBufferTests {
+
+    private static final int PRODUCERS = 4;
+
+    @Test
+    void roundsCapacityUpToPowerOfTwo() {
+        assertThat(new RingBuffer<>(2).capacity()).isEqualTo(2);
+        assertThat(new RingBuffer<>(5).capacity()).isEqualTo(8);
+        assertThat(new RingBuffer<>(8).capacity()).isEqualTo(8);
+        assertThat(new RingBuffer<>(1000).capacity()).isEqualTo(1024);
+        assertThatIllegalArgumentException().isThrownBy(() -> new RingBuffer<>(1));
+    }
+
+    @Test
+    void rejectsWhenFullAndWrapsAround() {
+        RingBuffer<Integer> buffer = new RingBuffer<>(4);
+        List<Integer> batch = new ArrayList<>();
+        int next = 0;
+        for (int round = 0; round < 5; round++) {
+            for (int i = 0; i < 4; i++) {
+                assertThat(buffer.offer(next++)).isTrue();
+            }
+            assertThat(buffer.offer(-1)).isFalse();
+            assertThat(buffer.size()).isEqualTo(4);
+
+            batch.clear();
+            assertThat(buffer.drainTo(batch, 3)).isEqualTo(3);
+            assertThat(buffer.drainTo(batch, 10)).isEqualTo(1);
+            assertThat(batch).containsExactly(next - 4, next - 3, next - 2, next - 1);
+            assertThat(buffer.isEmpty()).isTrue();
+            assertThat(buffer.drainTo(batch, 10)).isZero();
+        }
+    }
+
+    /**
+     * 消费者同时取出，生产者遇到队列满时重试：每个元素恰好取出一次，同一生产者的元素保持顺序
+     */
+    @Test
+    void multipleProducersWithoutLossOrDuplication() throws InterruptedException {
+        int perProducer = 200_000;
+        RingBuffer<Integer> buffer = new RingBuffer<>(1024);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Thread> producers = new ArrayList<>();
+        for (int p = 0; p < PRODUCERS; p++) {
+            int producer = p;
+            Thread thread = new Thread(() -> {
+                await(start);
+                for (int i = 0; i < perProducer; i++) {
+                    Integer value = producer * perProducer + i;
+                    while (!buffer.offer(value)) {
+                        Thread.yield();
+                    }
+                }
+            });
+            thread.start();
+            producers.add(thread);
+        }
+
+        int total = PRODUCERS * perProducer;
+        int[] lastSeen = new int[PRODUCERS];
+        Arrays.fill(lastSeen, -1);
+        boolean[] seen = new boolean[total];
+        List<Integer> batch = new ArrayList<>(256);
+        int received = 0;
+        start.countDown();
+        long deadline = System.nanoTime() + 60_000_000_000L;
+        while (received < total && System.nanoTime() < deadline) {
+            batch.clear();
+            if (buffer.drainTo(batch, 256) == 0) {
+                Thread.yield();
+                continue;
+            }
+            for (Integer value : batch) {
+                assertThat(seen[value]).as("duplicate %s", value).isFalse();
+                seen[value] = true;
+                int producer = value / perProducer;
+                assertThat(value % perProducer).as("order of producer %s", producer).isGreaterThan(lastSeen[producer]);
+                lastSeen[producer] = value % perProducer;
+                received++;
+            }
+        }
+        for (Thread thread : producers) {
+            thread.join();
+        }
+
+        assertThat(received).isEqualTo(total);
+        assertThat(buffer.isEmpty()).isTrue();
+    }
+
+    /**
+     * 没有消费者时并发写满：成功的恰好为容量个数，取出的正是成功写入的元素
+     */
+    @Test
+    void concurrentOverflowAcceptsExactlyCapacity() throws InterruptedException {
+        int perProducer = 1000;
+        RingBuffer<Integer> buffer = new RingBuffer<>(1024);
+        CountDownLatch start = new CountDownLatch(1);
+        AtomicInteger accepted = new AtomicInteger();
+        AtomicInteger rejected = new AtomicInteger();
+        Set<Integer> acceptedValues = Collections.synchronizedSet(new HashSet<>());
+        List<Thread> producers = new ArrayList<>();
+        for (int p = 0; p < PRODUCERS; p++) {
+            int producer = p;
+            Thread thread = new Thread(() -> {
+                await(start);
+                for (int i = 0; i < perProducer; i++) {
+                    Integer value = producer * perProducer + i;
+                    if (buffer.offer(value)) {
+                        accepted.incrementAndGet();
+                        acceptedValues.add(value);
+                    } else {
+                        rejected.incrementAndGet();
+                    }
+                }
+            });
+            thread.start();
+            producers.add(thread);
+        }
+        start.countDown();
+        for (Thread thread : producers) {
+            thread.join();
+        }
+
+        assertThat(accepted.get()).isEqualTo(buffer.capacity());
+        assertThat(rejected.get()).isEqualTo(PRODUCERS * perProducer - buffer.capacity());
+        List<Integer> drained = new ArrayList<>();
+        assertThat(buffer.drainTo(drained, Integer.MAX_VALUE)).isEqualTo(buffer.capacity());
+        assertThat(drained).containsExactlyInAnyOrderElementsOf(acceptedValues);
+    }
+
+    static void await(CountDownLatch latch) {
+        try {
+            latch.await();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
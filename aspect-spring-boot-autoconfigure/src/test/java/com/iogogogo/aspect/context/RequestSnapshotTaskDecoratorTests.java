@@ -0,0 +1,86 @@
+package com.iogogogo.aspect.context;
+
+import com.iogogogo.aspect.net.ClientAddressResolver;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import java.util.Collections;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class RequestSnapshotTaskDecoratorTests {
+
+    private final ClientAddressResolver resolver = new ClientAddressResolver(Collections.emptyList(), () -> "127.0.0.1");
+
+    private final ExecutorService executor = Executors.newSingleThreadExecutor();
+
+    private final RequestSnapshotTaskDecorator decorator = new RequestSnapshotTaskDecorator();
+
+    @AfterEach
+    void shutdown() {
+        RequestSnapshot.restore(null);
+        executor.shutdownNow();
+    }
+
+    @Test
+    void withoutSnapshotReturnsTheSameRunnable() {
+        Runnable runnable = () -> {
+        };
+        assertThat(decorator.decorate(runnable)).isSameAs(runnable);
+    }
+
+    @Test
+    void bindsTheSnapshotOnTheExecutingThreadAndRestores() throws Exception {
+        RequestSnapshot snapshot = new RequestSnapshot(request(), new MockHttpServletResponse(), resolver, true);
+        RequestSnapshot.bind(snapshot);
+
+        AtomicReference<RequestSnapshot> seen = new AtomicReference<>();
+        executor.submit(decorator.decorate(() -> seen.set(RequestSnapshot.current()))).get(10, TimeUnit.SECONDS);
+        assertThat(seen.get()).isSameAs(snapshot);
+        // 执行线程恢复原来的状态
+        assertThat(executor.submit(RequestSnapshot::current).get(10, TimeUnit.SECONDS)).isNull();
+    }
+
+    @Test
+    void detachedSnapshotOutlivesTheRequest() throws Exception {
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        RequestSnapshot snapshot = new RequestSnapshot(request(), response, resolver, true);
+        RequestSnapshot.bind(snapshot);
+        Runnable task = decorator.decorate(() -> {
+        });
+
+        // 请求结束后url、clientIp与最终状态码被固定，不再访问request/response
+        response.setStatus(201);
+        snapshot.complete();
+        response.setStatus(500);
+        task.run();
+
+        assertThat(snapshot.getUrl()).isEqualTo("http://localhost/orders");
+        assertThat(snapshot.getClientIp()).isEqualTo("10.0.0.9");
+        assertThat(snapshot.getStatus()).isEqualTo(201);
+    }
+
+    @Test
+    void wrappedExecutorForCompletableFuture() throws Exception {
+        RequestSnapshot snapshot = new RequestSnapshot(request(), new MockHttpServletResponse(), resolver);
+        RequestSnapshot.bind(snapshot);
+
+        RequestSnapshot seen = CompletableFuture.supplyAsync(RequestSnapshot::current, RequestSnapshotTaskDecorator.wrap(executor))
+                .get(10, TimeUnit.SECONDS);
+        assertThat(seen).isSameAs(snapshot);
+        assertThat(seen.getUrl()).isEqualTo("http://localhost/orders");
+    }
+
+    private static MockHttpServletRequest request() {
+        MockHttpServletRequest request = new MockHttpServletRequest("POST", "/orders");
+        request.setRemoteAddr("10.0.0.9");
+        return request;
+    }
+}
@@ -0,0 +1,123 @@
+package com.iogogogo.aspect.context;
+
+import com.iogogogo.aspect.net.ClientAddressResolver;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.CsvSource;
+import org.junit.jupiter.params.provider.ValueSource;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class TraceIdsTests {
+
+    private static final String TRACE_ID = "4bf92f3577b34da6a3ce929d0e0e4736";
+
+    @ParameterizedTest
+    @ValueSource(strings = {
+            "00-4bf92f3577b34da6a3ce929d0e0e4736-00f067aa0ba902b7-01",
+            "00-4bf92f3577b34da6a3ce929d0e0e4736-00f067aa0ba902b7-00",
+            "  00-4bf92f3577b34da6a3ce929d0e0e4736-00f067aa0ba902b7-01",
+            // 未知版本在 flags 之后追加的字段
+            "01-4bf92f3577b34da6a3ce929d0e0e4736-00f067aa0ba902b7-01-extra",
+    })
+    void readsTraceIdFromTraceparent(String traceparent) {
+        assertThat(TraceIds.fromHeaders(traceparent, null)).isEqualTo(TRACE_ID);
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = {
+            "",
+            "00-4bf92f3577b34da6a3ce929d0e0e4736-00f067aa0ba902b7",
+            // 版本ff无效
+            "ff-4bf92f3577b34da6a3ce929d0e0e4736-00f067aa0ba902b7-01",
+            // 全0的 trace-id / parent-id
+            "00-00000000000000000000000000000000-00f067aa0ba902b7-01",
+            "00-4bf92f3577b34da6a3ce929d0e0e4736-0000000000000000-01",
+            // 大写、非十六进制、分隔符错位
+            "00-4BF92F3577B34DA6A3CE929D0E0E4736-00f067aa0ba902b7-01",
+            "00-4bf92f3577b34da6a3ce929d0e0e473g-00f067aa0ba902b7-01",
+            "00_4bf92f3577b34da6a3ce929d0e0e4736-00f067aa0ba902b7-01",
+            "00-4bf92f3577b34da6a3ce929d0e0e47360-0f067aa0ba902b7-01",
+    })
+    void rejectsInvalidTraceparent(String traceparent) {
+        assertThat(TraceIds.fromHeaders(traceparent, null)).isNull();
+    }
+
+    /**
+     * 列依次为 traceparent | X-Request-Id | 结果
+     */
+    @ParameterizedTest
+    @CsvSource(delimiter = '|', value = {
+            "00-4bf92f3577b34da6a3ce929d0e0e4736-00f067aa0ba902b7-01 | req-1 | 4bf92f3577b34da6a3ce929d0e0e4736",
+            // traceparent 无效时取 X-Request-Id
+            "00-invalid                                              | req-1 | req-1",
+            "                                                        | req-1 | req-1",
+            "                                                        |       | ",
+    })
+    void traceparentTakesPrecedence(String traceparent, String requestId, String expected) {
+        assertThat(TraceIds.fromHeaders(traceparent, requestId)).isEqualTo(expected);
+    }
+
+    @Test
+    void rejectsUnsafeRequestIds() {
+        assertThat(TraceIds.fromHeaders(null, "")).isNull();
+        assertThat(TraceIds.fromHeaders(null, "a b")).isNull();
+        assertThat(TraceIds.fromHeaders(null, "a\nb")).isNull();
+        assertThat(TraceIds.fromHeaders(null, "a\"b")).isNull();
+        assertThat(TraceIds.fromHeaders(null, "中")).isNull();
+        assertThat(TraceIds.fromHeaders(null, repeat('a', TraceIds.MAX_REQUEST_ID_LENGTH))).hasSize(TraceIds.MAX_REQUEST_ID_LENGTH);
+        assertThat(TraceIds.fromHeaders(null, repeat('a', TraceIds.MAX_REQUEST_ID_LENGTH + 1))).isNull();
+    }
+
+    @Test
+    void generatesLowercaseHexTraceIds() {
+        Set<String> ids = new HashSet<>();
+        long[] parsed = new long[2];
+        for (int i = 0; i < 1000; i++) {
+            String id = TraceIds.generate();
+            assertThat(id).matches("[0-9a-f]{32}").isNotEqualTo(repeat('0', 32));
+            assertThat(TraceIds.parseHex(id, parsed)).isTrue();
+            ids.add(id);
+        }
+        assertThat(ids).hasSize(1000);
+    }
+
+    @Test
+    void hexRoundTrip() {
+        char[] buffer = new char[32];
+        TraceIds.hex(0x4bf92f3577b34da6L, buffer, 0);
+        TraceIds.hex(0xa3ce929d0e0e4736L, buffer, 16);
+        assertThat(new String(buffer)).isEqualTo(TRACE_ID);
+
+        long[] parsed = new long[2];
+        assertThat(TraceIds.parseHex(TRACE_ID, parsed)).isTrue();
+        assertThat(parsed).containsExactly(0x4bf92f3577b34da6L, 0xa3ce929d0e0e4736L);
+        assertThat(TraceIds.parseHex(TRACE_ID.toUpperCase(), parsed)).isFalse();
+        assertThat(TraceIds.parseHex(TRACE_ID.substring(1), parsed)).isFalse();
+    }
+
+    @Test
+    void requestSnapshotUsesHeadersOrGeneratesOnce() {
+        ClientAddressResolver resolver = new ClientAddressResolver(Collections.emptyList(), () -> "127.0.0.1");
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/");
+        request.addHeader(TraceIds.TRACEPARENT, "00-" + TRACE_ID + "-00f067aa0ba902b7-01");
+        assertThat(new RequestSnapshot(request, new MockHttpServletResponse(), resolver).getTraceId()).isEqualTo(TRACE_ID);
+
+        RequestSnapshot generated = new RequestSnapshot(new MockHttpServletRequest("GET", "/"), new MockHttpServletResponse(), resolver);
+        assertThat(generated.getTraceId()).matches("[0-9a-f]{32}").isEqualTo(generated.getTraceId());
+    }
+
+    private static String repeat(char c, int n) {
+        StringBuilder sb = new StringBuilder(n);
+        for (int i = 0; i < n; i++) {
+            sb.append(c);
+        }
+        return sb.toString();
+    }
+}
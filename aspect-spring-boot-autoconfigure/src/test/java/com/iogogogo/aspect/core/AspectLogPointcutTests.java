@@ -0,0 +1,198 @@
+package com.iogogogo.aspect.core;
+
+import com.iogogogo.aspect.annotation.AspectLog;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.CsvSource;
+import org.springframework.aop.framework.ProxyFactory;
+
+import java.lang.reflect.Method;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class AspectLogPointcutTests {
+
+    private final AspectLogPointcut pointcut = new AspectLogPointcut(Collections.emptyList(), Collections.emptyList());
+
+    /**
+     * 列依次为 类 | 方法 | 是否匹配
+     */
+    @ParameterizedTest
+    @CsvSource(delimiter = '|', value = {
+            // 类上的注解：全部public方法
+            "AnnotatedType    | work         | true",
+            "AnnotatedType    | other        | true",
+            "AnnotatedType    | internal     | false",
+            // 重写的 Object 方法与 Object 自身的方法不匹配
+            "AnnotatedType    | toString     | false",
+            "AnnotatedType    | equals       | false",
+            "AnnotatedType    | hashCode     | false",
+            "AnnotatedType    | getClass     | false",
+            // 子类继承父类上的注解
+            "AnnotatedSubType | work         | true",
+            "AnnotatedSubType | extra        | true",
+            "AnnotatedSubType | toString     | false",
+            // 只有方法上的注解
+            "AnnotatedMethod  | work         | true",
+            "AnnotatedMethod  | other        | false",
+            "AnnotatedMethod  | internal     | true",
+            "AnnotatedMethod  | toString     | true",
+            // 接口方法上的注解
+            "ServiceImpl      | work         | true",
+            "ServiceImpl      | other        | false",
+    })
+    void matchesMethods(String className, String methodName, boolean expected) throws Exception {
+        Class<?> type = Class.forName(AspectLogPointcutTests.class.getName() + "$" + className);
+        assertThat(pointcut.getClassFilter().matches(type)).isTrue();
+        assertThat(pointcut.getMethodMatcher().matches(method(type, methodName), type)).isEqualTo(expected);
+    }
+
+    @Test
+    void classFilterSkipsTypesWithoutAnnotation() {
+        assertThat(pointcut.getClassFilter().matches(Plain.class)).isFalse();
+        assertThat(pointcut.getClassFilter().matches(String.class)).isFalse();
+        assertThat(pointcut.getClassFilter().matches(Object.class)).isFalse();
+    }
+
+    @Test
+    void classFilterLooksThroughCglibProxies() {
+        ProxyFactory factory = new ProxyFactory(new AnnotatedType());
+        factory.setProxyTargetClass(true);
+        Class<?> proxyClass = factory.getProxy().getClass();
+        assertThat(proxyClass).isNotEqualTo(AnnotatedType.class);
+        assertThat(pointcut.getClassFilter().matches(proxyClass)).isTrue();
+        assertThat(pointcut.getMethodMatcher().matches(method(AnnotatedType.class, "work"), proxyClass)).isTrue();
+    }
+
+    @ParameterizedTest
+    @CsvSource(delimiter = '|', value = {
+            // 排除优先于包含
+            "**.AspectLogPointcutTests$Annotated* |                                        | AnnotatedType   | false",
+            "**.AspectLogPointcutTests$Annotated* |                                        | AnnotatedMethod | false",
+            "**.AspectLogPointcutTests$Annotated* |                                        | ServiceImpl     | true",
+            "                                     | com.iogogogo.**                        | AnnotatedType   | true",
+            "                                     | org.example.**                         | AnnotatedType   | false",
+            "**.*Impl                             | com.iogogogo.**                        | ServiceImpl     | false",
+            "                                     | '**.*Impl, **.*$AnnotatedMethod'       | AnnotatedMethod | true",
+            "                                     | '**.*Impl, **.*$AnnotatedMethod'       | AnnotatedType   | false",
+    })
+    void filtersClassNames(String excludes, String includes, String className, boolean expected) throws Exception {
+        AspectLogPointcut filtered = new AspectLogPointcut(split(includes), split(excludes));
+        Class<?> type = Class.forName(AspectLogPointcutTests.class.getName() + "$" + className);
+        assertThat(filtered.getClassFilter().matches(type)).isEqualTo(expected);
+    }
+
+    @Test
+    void methodAnnotationOverridesClassAnnotation() {
+        MethodLogDescriptorCache cache = new MethodLogDescriptorCache();
+        MethodLogDescriptor work = cache.get(method(AnnotatedType.class, "work"), AnnotatedType.class);
+        MethodLogDescriptor other = cache.get(method(AnnotatedType.class, "other"), AnnotatedType.class);
+
+        assertThat(work.isLogArgs()).isTrue();
+        assertThat(work.getSampleRate()).isEqualTo(0.5);
+        assertThat(other.isLogArgs()).isFalse();
+        assertThat(other.getSampleRate()).isEqualTo(-1);
+    }
+
+    private static Method method(Class<?> type, String name) {
+        return Arrays.stream(type.getMethods())
+                .filter(method -> method.getName().equals(name))
+                .findFirst()
+                .orElseGet(() -> Arrays.stream(type.getDeclaredMethods())
+                        .filter(method -> method.getName().equals(name))
+                        .findFirst()
+                        .orElseThrow(() -> new IllegalArgumentException(name)));
+    }
+
+    private static List<String> split(String patterns) {
+        return patterns == null ? Collections.emptyList() : Arrays.asList(patterns.split("\\s*,\\s*"));
+    }
+
+    @AspectLog(logArgs = false)
+    public static class AnnotatedType {
+
+        @AspectLog(sampleRate = 0.5)
+        public void work() {
+        }
+
+        public void other() {
+        }
+
+        void internal() {
+        }
+
+        @Override
+        public String toString() {
+            return "AnnotatedType";
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            return o instanceof AnnotatedType;
+        }
+
+        @Override
+        public int hashCode() {
+            return 1;
+        }
+    }
+
+    public static class AnnotatedSubType extends AnnotatedType {
+
+        public void extra() {
+        }
+
+        @Override
+        public String toString() {
+            return "AnnotatedSubType";
+        }
+    }
+
+    public static class AnnotatedMethod {
+
+        @AspectLog
+        public void work() {
+        }
+
+        public void other() {
+        }
+
+        @AspectLog
+        void internal() {
+        }
+
+        @AspectLog
+        @Override
+        public String toString() {
+            return "AnnotatedMethod";
+        }
+    }
+
+    public interface Service {
+
+        @AspectLog
+        void work();
+
+        void other();
+    }
+
+    public static class ServiceImpl implements Service {
+
+        @Override
+        public void work() {
+        }
+
+        @Override
+        public void other() {
+        }
+    }
+
+    public static class Plain {
+
+        public void work() {
+        }
+    }
+}
@@ -0,0 +1,158 @@
+package com.iogogogo.aspect.core;
+
+import com.iogogogo.aspect.annotation.AspectLog;
+import com.iogogogo.aspect.properties.AspectLogProperties;
+import org.junit.jupiter.api.Test;
+import org.springframework.util.ReflectionUtils;
+
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class AspectLogSettingsProviderTests {
+
+    private static final String SERVICE = Service.class.getName();
+
+    private final MethodLogDescriptorCache descriptors = new MethodLogDescriptorCache();
+
+    private final AspectLogProperties properties = new AspectLogProperties();
+
+    @Test
+    void globalOverrideTakesPrecedenceOverProperties() {
+        AspectLogSettingsProvider provider = new AspectLogSettingsProvider(properties);
+        AspectLogSettings before = provider.get();
+        assertThat(before.getLevel()).isEqualTo(CaptureLevel.LOGGER);
+
+        AspectLogSettings after = provider.override(null, rule(null, CaptureLevel.DETAIL, 0.5, null));
+        assertThat(after).isNotSameAs(before).isSameAs(provider.get());
+        assertThat(after.getLevel()).isEqualTo(CaptureLevel.DETAIL);
+        assertThat(after.getSampleRate()).isEqualTo(0.5);
+        assertThat(after.isEnabled()).isTrue();
+    }
+
+    @Test
+    void overridesOfTheSameTargetAreMerged() {
+        AspectLogSettingsProvider provider = new AspectLogSettingsProvider(properties);
+        provider.override(SERVICE + ".plain", rule(null, CaptureLevel.SUMMARY, null, null));
+        provider.override(SERVICE + ".plain", rule(null, null, 0.2, null));
+
+        AspectLogSettings.MethodSettings plain = settings(provider, "plain");
+        assertThat(plain.getLevel()).isEqualTo(CaptureLevel.SUMMARY);
+        assertThat(plain.getSampleRate()).isEqualTo(0.2);
+        assertThat(provider.getMethodOverrides()).containsOnlyKeys(SERVICE + ".plain");
+    }
+
+    @Test
+    void methodRuleBeatsClassRuleBeatsAnnotationBeatsGlobal() {
+        properties.getSampling().setRate(0.9);
+        AspectLogSettingsProvider provider = new AspectLogSettingsProvider(properties);
+        // 注解优先于全局配置
+        assertThat(settings(provider, "annotated").getSampleRate()).isEqualTo(0.3);
+        assertThat(settings(provider, "plain").getSampleRate()).isEqualTo(0.9);
+
+        provider.override(SERVICE, rule(null, CaptureLevel.SUMMARY, 0.4, null));
+        assertThat(settings(provider, "annotated").getSampleRate()).isEqualTo(0.4);
+        assertThat(settings(provider, "plain").getLevel()).isEqualTo(CaptureLevel.SUMMARY);
+
+        provider.override(SERVICE + ".annotated", rule(false, null, 0.6, null));
+        AspectLogSettings.MethodSettings annotated = settings(provider, "annotated");
+        assertThat(annotated.isEnabled()).isFalse();
+        assertThat(annotated.getSampleRate()).isEqualTo(0.6);
+        // 方法规则中没有的字段沿用类规则
+        assertThat(annotated.getLevel()).isEqualTo(CaptureLevel.SUMMARY);
+        assertThat(settings(provider, "plain").isEnabled()).isTrue();
+    }
+
+    @Test
+    void slowThresholdOverrideOfZeroDisablesSlowMode() {
+        properties.setSlowThreshold(Duration.ofMillis(500));
+        AspectLogSettingsProvider provider = new AspectLogSettingsProvider(properties);
+        assertThat(settings(provider, "plain").getSlowThresholdNanos()).isEqualTo(TimeUnit.MILLISECONDS.toNanos(500));
+
+        provider.override(SERVICE + ".plain", rule(null, null, null, Duration.ZERO));
+        assertThat(settings(provider, "plain").getSlowThresholdNanos()).isZero();
+    }
+
+    @Test
+    void overridesSurviveRefresh() {
+        AspectLogSettingsProvider provider = new AspectLogSettingsProvider(properties);
+        provider.override(null, rule(null, CaptureLevel.DETAIL, null, null));
+
+        AspectLogProperties changed = new AspectLogProperties();
+        changed.setLevel(CaptureLevel.SUMMARY);
+        changed.getSampling().setRate(0.7);
+        AspectLogSettings refreshed = provider.refresh(changed);
+        assertThat(refreshed.getLevel()).isEqualTo(CaptureLevel.DETAIL);
+        assertThat(refreshed.getSampleRate()).isEqualTo(0.7);
+    }
+
+    @Test
+    void propertyRulesAreCombinedWithRuntimeOverrides() {
+        AspectLogProperties.MethodOverride override = new AspectLogProperties.MethodOverride();
+        override.setLevel(CaptureLevel.SUMMARY);
+        override.setSampleRate(0.1);
+        properties.getMethods().put(SERVICE + ".plain", override);
+        AspectLogSettingsProvider provider = new AspectLogSettingsProvider(properties);
+        assertThat(settings(provider, "plain").getLevel()).isEqualTo(CaptureLevel.SUMMARY);
+
+        provider.override(SERVICE + ".plain", rule(null, CaptureLevel.DETAIL, null, null));
+        AspectLogSettings.MethodSettings plain = settings(provider, "plain");
+        assertThat(plain.getLevel()).isEqualTo(CaptureLevel.DETAIL);
+        assertThat(plain.getSampleRate()).isEqualTo(0.1);
+    }
+
+    @Test
+    void clearRemovesOneTargetOrAll() {
+        AspectLogSettingsProvider provider = new AspectLogSettingsProvider(properties);
+        provider.override(null, rule(null, CaptureLevel.SUMMARY, null, null));
+        provider.override(SERVICE + ".plain", rule(false, null, null, null));
+        provider.override(SERVICE + ".annotated", rule(false, null, null, null));
+
+        provider.clear(SERVICE + ".plain");
+        assertThat(settings(provider, "plain").isEnabled()).isTrue();
+        assertThat(settings(provider, "annotated").isEnabled()).isFalse();
+        assertThat(provider.get().getLevel()).isEqualTo(CaptureLevel.SUMMARY);
+
+        provider.clear(null);
+        assertThat(provider.getGlobalOverride().isEmpty()).isTrue();
+        assertThat(provider.getMethodOverrides()).isEmpty();
+        assertThat(provider.get().getLevel()).isEqualTo(CaptureLevel.LOGGER);
+        assertThat(settings(provider, "annotated").isEnabled()).isTrue();
+    }
+
+    @Test
+    void methodSettingsAreCachedPerSnapshot() {
+        AspectLogSettingsProvider provider = new AspectLogSettingsProvider(properties);
+        MethodLogDescriptor plain = descriptor("plain");
+        AspectLogSettings.MethodSettings first = plain.settings(provider.get());
+        assertThat(plain.settings(provider.get())).isSameAs(first);
+
+        provider.override(null, rule(null, CaptureLevel.DETAIL, null, null));
+        AspectLogSettings.MethodSettings second = plain.settings(provider.get());
+        assertThat(second).isNotSameAs(first);
+        assertThat(second.getLevel()).isEqualTo(CaptureLevel.DETAIL);
+    }
+
+    private AspectLogSettings.MethodSettings settings(AspectLogSettingsProvider provider, String method) {
+        return descriptor(method).settings(provider.get());
+    }
+
+    private MethodLogDescriptor descriptor(String name) {
+        return descriptors.get(ReflectionUtils.findMethod(Service.class, name), Service.class);
+    }
+
+    private static AspectLogSettings.Rule rule(Boolean enabled, CaptureLevel level, Double sampleRate, Duration slowThreshold) {
+        return new AspectLogSettings.Rule(enabled, level, sampleRate, slowThreshold);
+    }
+
+    public static class Service {
+
+        public void plain() {
+        }
+
+        @AspectLog(sampleRate = 0.3)
+        public void annotated() {
+        }
+    }
+}
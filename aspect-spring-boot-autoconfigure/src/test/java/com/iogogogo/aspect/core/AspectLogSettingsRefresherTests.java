@@ -0,0 +1,63 @@
+package com.iogogogo.aspect.core;
+
+import com.iogogogo.aspect.AspectLogAutoConfiguration;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.autoconfigure.AutoConfigurations;
+import org.springframework.boot.test.context.runner.ApplicationContextRunner;
+import org.springframework.cloud.context.environment.EnvironmentChangeEvent;
+import org.springframework.context.ApplicationEvent;
+import org.springframework.context.event.ContextRefreshedEvent;
+import org.springframework.core.ResolvableType;
+import org.springframework.core.env.MapPropertySource;
+import org.springframework.core.env.StandardEnvironment;
+
+import java.util.Collections;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class AspectLogSettingsRefresherTests {
+
+    private final ApplicationContextRunner contextRunner = new ApplicationContextRunner()
+            .withConfiguration(AutoConfigurations.of(AspectLogAutoConfiguration.class))
+            .withPropertyValues("aspect.level=summary");
+
+    @Test
+    void supportsOnlyEnvironmentChangeEvent() {
+        AspectLogSettingsRefresher refresher = new AspectLogSettingsRefresher(null, new StandardEnvironment());
+        assertThat(refresher.supportsEventType(ResolvableType.forClass(EnvironmentChangeEvent.class))).isTrue();
+        assertThat(refresher.supportsEventType(ResolvableType.forClass(ContextRefreshedEvent.class))).isFalse();
+        assertThat(refresher.supportsEventType(ResolvableType.forClass(ApplicationEvent.class))).isFalse();
+    }
+
+    @Test
+    void rebindsOnEnvironmentChange() {
+        contextRunner.run(context -> {
+            AspectLogSettingsProvider provider = context.getBean(AspectLogSettingsProvider.class);
+            AspectLogSettings before = provider.get();
+            assertThat(before.getLevel()).isEqualTo(CaptureLevel.SUMMARY);
+
+            context.getEnvironment().getPropertySources().addFirst(new MapPropertySource("changed",
+                    Collections.singletonMap("aspect.level", "detail")));
+            // 其他事件不触发重新绑定
+            context.publishEvent(new ContextRefreshedEvent(context.getSourceApplicationContext()));
+            assertThat(provider.get()).isSameAs(before);
+
+            context.publishEvent(new EnvironmentChangeEvent(context));
+            assertThat(provider.get().getLevel()).isEqualTo(CaptureLevel.DETAIL);
+        });
+    }
+
+    @Test
+    void invalidPropertiesKeepCurrentSettings() {
+        contextRunner.run(context -> {
+            AspectLogSettingsProvider provider = context.getBean(AspectLogSettingsProvider.class);
+            AspectLogSettings before = provider.get();
+
+            context.getEnvironment().getPropertySources().addFirst(new MapPropertySource("changed",
+                    Collections.singletonMap("aspect.level", "verbose")));
+            context.publishEvent(new EnvironmentChangeEvent(context));
+
+            assertThat(provider.get()).isSameAs(before);
+        });
+    }
+}
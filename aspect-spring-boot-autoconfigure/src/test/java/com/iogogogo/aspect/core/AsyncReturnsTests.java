@@ -0,0 +1,90 @@
+package com.iogogogo.aspect.core;
+
+import org.junit.jupiter.api.Test;
+import reactor.core.Disposable;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class AsyncReturnsTests {
+
+    /**
+     * 每次回调的 [value, error]
+     */
+    private final List<List<Object>> completions = new CopyOnWriteArrayList<>();
+
+    private final AsyncReturns.Completion completion = (value, error) -> completions.add(Arrays.asList(value, error));
+
+    @Test
+    void detectsAsyncReturnTypes() {
+        assertThat(AsyncReturns.isAsync(new CompletableFuture<>())).isTrue();
+        assertThat(AsyncReturns.isAsync(Mono.just(1))).isTrue();
+        assertThat(AsyncReturns.isAsync(Flux.just(1))).isTrue();
+        assertThat(AsyncReturns.isAsync("value")).isFalse();
+        assertThat(AsyncReturns.isAsync(null)).isFalse();
+    }
+
+    @Test
+    void completionStageSuccess() {
+        CompletableFuture<String> future = new CompletableFuture<>();
+        assertThat(AsyncReturns.onCompletion(future, completion)).isSameAs(future);
+        assertThat(completions).isEmpty();
+
+        future.complete("done");
+        assertThat(completions).containsExactly(Arrays.asList("done", null));
+    }
+
+    @Test
+    void completionStageFailureIsUnwrapped() {
+        CompletableFuture<String> future = new CompletableFuture<>();
+        // 下游阶段收到的异常被包装为 CompletionException
+        AsyncReturns.onCompletion(future.thenApply(value -> value), completion);
+        IllegalStateException failure = new IllegalStateException("failed");
+        future.completeExceptionally(failure);
+
+        assertThat(completions).containsExactly(Arrays.asList(null, failure));
+    }
+
+    @Test
+    void monoSuccessAndError() {
+        Mono<?> success = (Mono<?>) AsyncReturns.onCompletion(Mono.just("done"), completion);
+        assertThat(completions).isEmpty();
+        assertThat(success.block()).isEqualTo("done");
+
+        IllegalStateException failure = new IllegalStateException("failed");
+        Mono<?> error = (Mono<?>) AsyncReturns.onCompletion(Mono.error(failure), completion);
+        assertThatThrownBy(error::block).isSameAs(failure);
+
+        assertThat(completions).containsExactly(Arrays.asList("done", null), Arrays.asList(null, failure));
+    }
+
+    @Test
+    void fluxCompletesWithoutValue() {
+        Flux<?> flux = (Flux<?>) AsyncReturns.onCompletion(Flux.just(1, 2, 3), completion);
+        assertThat(flux.collectList().block()).containsExactly(1, 2, 3);
+        assertThat(completions).containsExactly(Arrays.asList(null, null));
+    }
+
+    @Test
+    void cancellationCountsAsCompletion() {
+        Disposable subscription = ((Flux<?>) AsyncReturns.onCompletion(Flux.never(), completion)).subscribe();
+        assertThat(completions).isEmpty();
+        subscription.dispose();
+        assertThat(completions).containsExactly(Arrays.asList(null, null));
+    }
+
+    @Test
+    void resubscriptionCompletesOnce() {
+        Mono<?> mono = (Mono<?>) AsyncReturns.onCompletion(Mono.just("done"), completion);
+        mono.block();
+        mono.block();
+        assertThat(completions).containsExactly(Arrays.asList("done", null));
+    }
+}
@@ -0,0 +1,199 @@
+package com.iogogogo.aspect.core;
+
+import com.iogogogo.aspect.AspectLogAutoConfiguration;
+import com.iogogogo.aspect.annotation.AspectLog;
+import com.iogogogo.aspect.event.AspectLogEvent;
+import com.iogogogo.aspect.sink.AspectLogSink;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.autoconfigure.AutoConfigurations;
+import org.springframework.boot.test.context.runner.ApplicationContextRunner;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.util.ReflectionUtils;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class CallTreeTests {
+
+    private static final String SERVICE = "CallTreeTests.Service.";
+
+    private final MethodLogDescriptorCache descriptors = new MethodLogDescriptorCache();
+
+    private final CallTree calls = CallTree.current();
+
+    private final ApplicationContextRunner contextRunner = new ApplicationContextRunner()
+            .withConfiguration(AutoConfigurations.of(AspectLogAutoConfiguration.class))
+            .withUserConfiguration(NestedConfiguration.class)
+            .withPropertyValues("aspect.sink.logger.enabled=false");
+
+    @AfterEach
+    void exit() {
+        calls.exitRoot();
+    }
+
+    @Test
+    void collapsesRepeatedCallsAndRendersTotalAndSelfTime() {
+        CallTree.Node root = calls.enterRoot(descriptor("a"), 64);
+        assertThat(calls.isActive()).isTrue();
+
+        CallTree.Node b = calls.enter(descriptor("b"));
+        for (int i = 0; i < 3; i++) {
+            CallTree.Node c = calls.enter(descriptor("c"));
+            assertThat(c.depth()).isEqualTo(2);
+            calls.exit(c, 100_000, false, false);
+        }
+        calls.exit(b, 1_000_000, false, false);
+        CallTree.Node d = calls.enter(descriptor("d"));
+        calls.exit(d, 200_000, true, true);
+        calls.exitRoot();
+
+        assertThat(calls.isActive()).isFalse();
+        assertThat(root.depth()).isZero();
+        assertThat(root.hasChildren()).isTrue();
+        // 名称[*次数][!][~] 总耗时/自身耗时(us)
+        assertThat(root.render(2_000_000)).isEqualTo(SERVICE + "a 2000/800["
+                + SERVICE + "b 1000/700[" + SERVICE + "c*3 300/300], "
+                + SERVICE + "d!~ 200/200]");
+    }
+
+    @Test
+    void sameMethodUnderDifferentParentsIsSeparate() {
+        CallTree.Node root = calls.enterRoot(descriptor("a"), 64);
+        CallTree.Node b = calls.enter(descriptor("b"));
+        calls.exit(calls.enter(descriptor("c")), 1_000, false, false);
+        calls.exit(b, 2_000, false, false);
+        calls.exit(calls.enter(descriptor("c")), 1_000, false, false);
+        calls.exitRoot();
+
+        assertThat(root.render(5_000)).isEqualTo(SERVICE + "a 5/2[" + SERVICE + "b 2/1[" + SERVICE + "c 1/1], " + SERVICE + "c 1/1]");
+    }
+
+    @Test
+    void methodsBeyondMaxNodesAreMerged() {
+        CallTree.Node root = calls.enterRoot(descriptor("a"), 2);
+        calls.exit(calls.enter(descriptor("b")), 1_000, false, false);
+        calls.exit(calls.enter(descriptor("c")), 1_000, false, false);
+        calls.exit(calls.enter(descriptor("d")), 1_000, true, false);
+        // 已有的节点照常计数
+        calls.exit(calls.enter(descriptor("b")), 1_000, false, false);
+        calls.exitRoot();
+
+        assertThat(root.render(10_000)).isEqualTo(SERVICE + "a 10/6[" + SERVICE + "b*2 2/2, ...*2! 2/2]");
+    }
+
+    @Test
+    void rootWithoutNestedCallsHasNoChildren() {
+        CallTree.Node root = calls.enterRoot(descriptor("a"), 64);
+        calls.exitRoot();
+        assertThat(root.hasChildren()).isFalse();
+        assertThat(root.render(1_500)).isEqualTo(SERVICE + "a 1/1");
+    }
+
+    @Test
+    void nestedAdvisedCallsAreCollapsedIntoOneRecord() {
+        contextRunner.run(context -> {
+            context.getBean(Outer.class).run();
+
+            List<AspectLogEvent> events = context.getBean(CapturingSink.class).events;
+            assertThat(events).hasSize(1);
+            assertThat(events.get(0).getMethodName()).isEqualTo("run");
+            assertThat(events.get(0).getCallTree()).matches("CallTreeTests\\.Outer\\.run \\d+/\\d+\\["
+                    + "CallTreeTests\\.Inner\\.work\\*3 \\d+/\\d+, CallTreeTests\\.Inner\\.fail! \\d+/\\d+]");
+        });
+    }
+
+    @Test
+    void nestedCallsAreLoggedSeparatelyWhenCollapseIsDisabled() {
+        contextRunner.withPropertyValues("aspect.nested.collapse=false").run(context -> {
+            context.getBean(Outer.class).run();
+
+            List<AspectLogEvent> events = context.getBean(CapturingSink.class).events;
+            assertThat(events).extracting(AspectLogEvent::getMethodName).containsExactly("work", "work", "work", "fail", "run");
+            assertThat(events).extracting(AspectLogEvent::getCallTree).containsOnlyNulls();
+        });
+    }
+
+    private MethodLogDescriptor descriptor(String name) {
+        return descriptors.get(ReflectionUtils.findMethod(Service.class, name), Service.class);
+    }
+
+    public static class Service {
+
+        public void a() {
+        }
+
+        public void b() {
+        }
+
+        public void c() {
+        }
+
+        public void d() {
+        }
+    }
+
+    @Configuration(proxyBeanMethods = false)
+    static class NestedConfiguration {
+
+        @Bean
+        Inner inner() {
+            return new Inner();
+        }
+
+        @Bean
+        Outer outer(Inner inner) {
+            return new Outer(inner);
+        }
+
+        @Bean
+        CapturingSink capturingSink() {
+            return new CapturingSink();
+        }
+    }
+
+    @AspectLog
+    public static class Outer {
+
+        private final Inner inner;
+
+        public Outer(Inner inner) {
+            this.inner = inner;
+        }
+
+        public void run() {
+            for (int i = 0; i < 3; i++) {
+                inner.work();
+            }
+            try {
+                inner.fail();
+            } catch (IllegalStateException e) {
+                // 内层失败不影响外层
+            }
+        }
+    }
+
+    @AspectLog
+    public static class Inner {
+
+        public void work() {
+        }
+
+        public void fail() {
+            throw new IllegalStateException("inner");
+        }
+    }
+
+    static class CapturingSink implements AspectLogSink {
+
+        final List<AspectLogEvent> events = new CopyOnWriteArrayList<>();
+
+        @Override
+        public void accept(AspectLogEvent event) {
+            events.add(event);
+        }
+    }
+}
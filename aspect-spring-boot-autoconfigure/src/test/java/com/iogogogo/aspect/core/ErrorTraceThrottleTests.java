@@ -0,0 +1,69 @@
+package com.iogogogo.aspect.core;
+
+import com.iogogogo.aspect.properties.AspectLogProperties;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ErrorTraceThrottleTests {
+
+    private final AspectLogProperties.Error properties = new AspectLogProperties.Error();
+
+    @Test
+    void fingerprintUsesTypeAndTopFrames() {
+        properties.setFingerprintFrames(2);
+        ErrorTraceThrottle throttle = new ErrorTraceThrottle(properties);
+
+        long base = throttle.fingerprint(exception(new IllegalStateException(), "a", 1, "b", 2, "c", 3));
+        // 消息与超出帧数的部分不影响指纹
+        assertThat(throttle.fingerprint(exception(new IllegalStateException("other"), "a", 1, "b", 2, "x", 9))).isEqualTo(base);
+        assertThat(throttle.fingerprint(exception(new IllegalArgumentException(), "a", 1, "b", 2, "c", 3))).isNotEqualTo(base);
+        assertThat(throttle.fingerprint(exception(new IllegalStateException(), "a", 1, "b", 7, "c", 3))).isNotEqualTo(base);
+        assertThat(throttle.fingerprint(exception(new IllegalStateException(), "a", 1, "z", 2, "c", 3))).isNotEqualTo(base);
+    }
+
+    @Test
+    void sameFingerprintOncePerInterval() throws InterruptedException {
+        properties.setTraceInterval(Duration.ofMillis(200));
+        ErrorTraceThrottle throttle = new ErrorTraceThrottle(properties);
+
+        assertThat(throttle.tryAcquire(1)).isTrue();
+        assertThat(throttle.tryAcquire(1)).isFalse();
+        assertThat(throttle.tryAcquire(2)).isTrue();
+        assertThat(throttle.tryAcquire(2)).isFalse();
+
+        Thread.sleep(300);
+        assertThat(throttle.tryAcquire(1)).isTrue();
+        assertThat(throttle.tryAcquire(1)).isFalse();
+    }
+
+    @Test
+    void capsTracesPerInterval() throws InterruptedException {
+        properties.setTraceInterval(Duration.ofMillis(200));
+        properties.setMaxTracesPerInterval(3);
+        ErrorTraceThrottle throttle = new ErrorTraceThrottle(properties);
+
+        int acquired = 0;
+        for (long fingerprint = 0; fingerprint < 10; fingerprint++) {
+            if (throttle.tryAcquire(fingerprint)) {
+                acquired++;
+            }
+        }
+        assertThat(acquired).isEqualTo(3);
+
+        // 下一个周期重新计数，被上限挡住的指纹仍可输出
+        Thread.sleep(300);
+        assertThat(throttle.tryAcquire(9)).isTrue();
+    }
+
+    private static Throwable exception(Throwable throwable, Object... frames) {
+        StackTraceElement[] trace = new StackTraceElement[frames.length / 2];
+        for (int i = 0; i < trace.length; i++) {
+            trace[i] = new StackTraceElement("com.example.Service", (String) frames[i * 2], "Service.java", (Integer) frames[i * 2 + 1]);
+        }
+        throwable.setStackTrace(trace);
+        return throwable;
+    }
+}
@@ -0,0 +1,138 @@
+package com.iogogogo.aspect.core;
+
+import com.iogogogo.aspect.properties.AspectLogProperties;
+import com.iogogogo.aspect.properties.InetUtilsProperties;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.net.InetAddress;
+import java.net.UnknownHostException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class HostInfoProviderTests {
+
+    private static final String ADDRESS = "192.0.2.7";
+
+    private final InetUtilsProperties inetUtilsProperties = new InetUtilsProperties();
+
+    private final AspectLogProperties.Host properties = new AspectLogProperties.Host();
+
+    private final StubInetUtils inetUtils = new StubInetUtils(inetUtilsProperties);
+
+    private HostInfoProvider provider;
+
+    @AfterEach
+    void close() {
+        inetUtils.release.countDown();
+        if (provider != null) {
+            provider.close();
+        }
+    }
+
+    @Test
+    void returnsDefaultWithoutEnumeratingBeforeStart() {
+        provider = new HostInfoProvider(inetUtils, inetUtilsProperties, properties);
+
+        InetUtils.HostInfo info = provider.get();
+
+        assertThat(info.getHostname()).isEqualTo(inetUtilsProperties.getDefaultHostname());
+        assertThat(info.getIpAddress()).isEqualTo(inetUtilsProperties.getDefaultIpAddress());
+        assertThat(inetUtils.enumerations.get()).isZero();
+    }
+
+    @Test
+    void firstCallDoesNotWaitForNetworkEnumeration() throws InterruptedException {
+        provider = new HostInfoProvider(inetUtils, inetUtilsProperties, properties);
+        provider.start();
+        assertThat(inetUtils.enumerations.get()).isZero();
+
+        // 网卡枚举阻塞时请求线程立即拿到默认值
+        assertThat(provider.get().getIpAddress()).isEqualTo(inetUtilsProperties.getDefaultIpAddress());
+        assertThat(inetUtils.entered.await(10, TimeUnit.SECONDS)).isTrue();
+        assertThat(provider.get().getIpAddress()).isEqualTo(inetUtilsProperties.getDefaultIpAddress());
+
+        inetUtils.release.countDown();
+        awaitAddress(ADDRESS);
+        assertThat(inetUtils.enumerations.get()).isEqualTo(1);
+    }
+
+    @Test
+    void callBeforeStartInitializesOnStart() throws InterruptedException {
+        provider = new HostInfoProvider(inetUtils, inetUtilsProperties, properties);
+        provider.get();
+        inetUtils.release.countDown();
+        assertThat(inetUtils.enumerations.get()).isZero();
+
+        provider.start();
+        awaitAddress(ADDRESS);
+    }
+
+    @Test
+    void resolveOnStartupWaitsForHostname() {
+        properties.setResolveHostnameOnStartup(true);
+        inetUtils.release.countDown();
+        inetUtils.resolved.complete(new InetUtils.HostInfo("host-a", ADDRESS));
+        provider = new HostInfoProvider(inetUtils, inetUtilsProperties, properties);
+
+        provider.start();
+
+        assertThat(provider.get().getHostname()).isEqualTo("host-a");
+        assertThat(provider.get().getIpAddress()).isEqualTo(ADDRESS);
+    }
+
+    private void awaitAddress(String expected) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+        while (!expected.equals(provider.get().getIpAddress()) && System.nanoTime() < deadline) {
+            Thread.sleep(10);
+        }
+        assertThat(provider.get().getIpAddress()).isEqualTo(expected);
+    }
+
+    /**
+     * 网卡枚举阻塞到 release，主机名解析结果由测试决定
+     */
+    static class StubInetUtils extends InetUtils {
+
+        final AtomicInteger enumerations = new AtomicInteger();
+
+        final CountDownLatch entered = new CountDownLatch(1);
+
+        final CountDownLatch release = new CountDownLatch(1);
+
+        final CompletableFuture<HostInfo> resolved = new CompletableFuture<>();
+
+        StubInetUtils(InetUtilsProperties properties) {
+            super(properties);
+        }
+
+        @Override
+        public InetAddress findFirstNonLoopbackInterfaceAddress() {
+            entered.countDown();
+            try {
+                release.await();
+                enumerations.incrementAndGet();
+                return InetAddress.getByAddress(new byte[]{(byte) 192, 0, 2, 7});
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return null;
+            } catch (UnknownHostException e) {
+                throw new IllegalStateException(e);
+            }
+        }
+
+        @Override
+        public CompletableFuture<HostInfo> convertAddressAsync(InetAddress address) {
+            return resolved;
+        }
+
+        @Override
+        public CompletableFuture<HostInfo> findFirstNonLoopbackHostInfoAsync() {
+            return resolved;
+        }
+    }
+}
@@ -0,0 +1,83 @@
+package com.iogogogo.aspect.core;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.CsvSource;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import java.net.InetAddress;
+import java.nio.ByteBuffer;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatIllegalArgumentException;
+
+class HostInfoTests {
+
+    @ParameterizedTest
+    @ValueSource(strings = {"10.0.0.1", "192.168.255.254", "0.0.0.0", "255.255.255.255", "2001:db8::1", "fe80::1", "::1", "ffff::"})
+    void ipAddressAsIntMatchesAddressBytes(String literal) throws Exception {
+        int expected = ByteBuffer.wrap(InetAddress.getByName(literal).getAddress()).getInt();
+        assertThat(new InetUtils.HostInfo("host", literal).getIpAddressAsInt()).isEqualTo(expected);
+        assertThat(InetUtils.HostInfo.of("host", InetAddress.getByName(literal)).getIpAddressAsInt()).isEqualTo(expected);
+    }
+
+    @Test
+    void hostnameIsUsedWhenIpAddressIsMissing() {
+        InetUtils.HostInfo info = new InetUtils.HostInfo("10.1.2.3");
+        assertThat(info.isIpv4()).isTrue();
+        assertThat(info.getIpAddressAsInt()).isEqualTo(0x0A010203);
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = {"localhost", "example.com", "10.0.0", "10.0.0.256", "fe80::1::2"})
+    void nonLiteralsAreRejectedWithoutDnsLookup(String value) {
+        InetUtils.HostInfo info = new InetUtils.HostInfo(value, null);
+        assertThat(info.isIpv4()).isFalse();
+        assertThat(info.isIpv6()).isFalse();
+        assertThatIllegalArgumentException().isThrownBy(info::getIpAddressAsInt).withMessageContaining(value);
+    }
+
+    @Test
+    void missingAddressAndHostnameIsRejected() {
+        assertThatIllegalArgumentException().isThrownBy(new InetUtils.HostInfo(null)::getIpAddressAsInt);
+    }
+
+    /**
+     * 列依次为 两个IP字面量 | 是否相等；主机名不参与比较
+     */
+    @ParameterizedTest
+    @CsvSource(delimiter = '|', value = {
+            "10.0.0.1         | 10.0.0.1                    | true",
+            "10.0.0.1         | 10.0.0.2                    | false",
+            "::1              | 0:0:0:0:0:0:0:1             | true",
+            "2001:db8::1      | 2001:DB8:0:0:0:0:0:1        | true",
+            "2001:db8::1      | 2001:db8::2                 | false",
+            "2001:db8::1      | 2001:db9::1                 | false",
+            "0.0.0.1          | ::1                         | false",
+    })
+    void equalityUsesThePackedAddress(String left, String right, boolean expected) {
+        InetUtils.HostInfo a = new InetUtils.HostInfo("a", left);
+        InetUtils.HostInfo b = new InetUtils.HostInfo("b", right);
+        assertThat(a.equals(b)).isEqualTo(expected);
+        if (expected) {
+            assertThat(a.hashCode()).isEqualTo(b.hashCode());
+        }
+    }
+
+    @Test
+    void packedFromBytesEqualsParsedLiteral() throws Exception {
+        InetUtils.HostInfo parsed = new InetUtils.HostInfo("host", "2001:db8::ff");
+        InetUtils.HostInfo fromAddress = InetUtils.HostInfo.of("other", InetAddress.getByName("2001:db8::ff"));
+        assertThat(fromAddress).isEqualTo(parsed);
+        assertThat(fromAddress.getIpv6High()).isEqualTo(0x20010db800000000L);
+        assertThat(fromAddress.getIpv6Low()).isEqualTo(0xffL);
+    }
+
+    @Test
+    void nonLiteralsCompareByStrings() {
+        assertThat(new InetUtils.HostInfo("web-1", "unknown")).isEqualTo(new InetUtils.HostInfo("web-1", "unknown"))
+                .hasSameHashCodeAs(new InetUtils.HostInfo("web-1", "unknown"));
+        assertThat(new InetUtils.HostInfo("web-1", "unknown")).isNotEqualTo(new InetUtils.HostInfo("web-2", "unknown"));
+        assertThat(new InetUtils.HostInfo("web-1", "unknown")).isNotEqualTo(new InetUtils.HostInfo("web-1", "10.0.0.1"));
+    }
+}
@@ -0,0 +1,110 @@
+package com.iogogogo.aspect.core;
+
+import com.iogogogo.aspect.AspectLogAutoConfiguration;
+import com.iogogogo.aspect.annotation.AspectLog;
+import com.iogogogo.aspect.event.AspectLogEvent;
+import com.iogogogo.aspect.sink.AspectLogSink;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.autoconfigure.AutoConfigurations;
+import org.springframework.boot.test.context.runner.ReactiveWebApplicationContextRunner;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ReactiveAspectLogTests {
+
+    private static final long WAIT_MILLIS = 300;
+
+    private final ReactiveWebApplicationContextRunner contextRunner = new ReactiveWebApplicationContextRunner()
+            .withConfiguration(AutoConfigurations.of(AspectLogAutoConfiguration.class))
+            .withUserConfiguration(ReactiveConfiguration.class)
+            .withPropertyValues("aspect.sink.logger.enabled=false");
+
+    @Test
+    void monoIsTimedFromSubscription() {
+        contextRunner.run(context -> {
+            Mono<String> mono = context.getBean(ReactiveGreeter.class).greet("world");
+            // 组装之后、订阅之前的等待不计入
+            Thread.sleep(WAIT_MILLIS);
+            assertThat(mono.block()).isEqualTo("hello world");
+
+            List<AspectLogEvent> events = context.getBean(CapturingSink.class).events;
+            assertThat(events).hasSize(1);
+            assertThat(events.get(0).getDurationNanos()).isLessThan(TimeUnit.MILLISECONDS.toNanos(WAIT_MILLIS));
+        });
+    }
+
+    @Test
+    void resubscriptionIsTimedIndependently() {
+        contextRunner.run(context -> {
+            Flux<Integer> flux = context.getBean(ReactiveGreeter.class).count(3);
+            assertThat(flux.collectList().block()).containsExactly(1, 2, 3);
+            Thread.sleep(WAIT_MILLIS);
+            assertThat(flux.collectList().block()).containsExactly(1, 2, 3);
+
+            List<AspectLogEvent> events = context.getBean(CapturingSink.class).events;
+            assertThat(events).hasSize(2);
+            assertThat(events).allSatisfy(event ->
+                    assertThat(event.getDurationNanos()).isLessThan(TimeUnit.MILLISECONDS.toNanos(WAIT_MILLIS)));
+        });
+    }
+
+    @Test
+    void durationCoversTheSubscription() {
+        contextRunner.run(context -> {
+            assertThat(context.getBean(ReactiveGreeter.class).slow(Duration.ofMillis(100)).block()).isEqualTo("slow");
+
+            List<AspectLogEvent> events = context.getBean(CapturingSink.class).events;
+            assertThat(events).hasSize(1);
+            assertThat(events.get(0).getDurationNanos()).isGreaterThanOrEqualTo(TimeUnit.MILLISECONDS.toNanos(100));
+        });
+    }
+
+    @Configuration(proxyBeanMethods = false)
+    static class ReactiveConfiguration {
+
+        @Bean
+        ReactiveGreeter reactiveGreeter() {
+            return new ReactiveGreeter();
+        }
+
+        @Bean
+        CapturingSink capturingSink() {
+            return new CapturingSink();
+        }
+    }
+
+    @AspectLog
+    public static class ReactiveGreeter {
+
+        public Mono<String> greet(String name) {
+            return Mono.fromCallable(() -> "hello " + name);
+        }
+
+        public Flux<Integer> count(int n) {
+            return Flux.range(1, n);
+        }
+
+        public Mono<String> slow(Duration delay) {
+            return Mono.delay(delay).map(tick -> "slow");
+        }
+    }
+
+    static class CapturingSink implements AspectLogSink {
+
+        final List<AspectLogEvent> events = new CopyOnWriteArrayList<>();
+
+        @Override
+        public void accept(AspectLogEvent event) {
+            events.add(event);
+        }
+    }
+}
@@ -0,0 +1,146 @@
+package com.iogogogo.aspect.core;
+
+import com.iogogogo.aspect.AspectLogAutoConfiguration;
+import com.iogogogo.aspect.annotation.AspectLog;
+import com.iogogogo.aspect.event.AspectLogEvent;
+import com.iogogogo.aspect.metrics.MethodStats;
+import com.iogogogo.aspect.sampling.Sampler;
+import com.iogogogo.aspect.sink.AspectLogSink;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.autoconfigure.AutoConfigurations;
+import org.springframework.boot.test.context.assertj.AssertableApplicationContext;
+import org.springframework.boot.test.context.runner.ApplicationContextRunner;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.lang.reflect.Method;
+import java.util.Arrays;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class WebAspectLogTests {
+
+    private final ApplicationContextRunner contextRunner = new ApplicationContextRunner()
+            .withConfiguration(AutoConfigurations.of(AspectLogAutoConfiguration.class))
+            .withUserConfiguration(FailingSinkConfiguration.class)
+            // 只剩一个输出端
+            .withPropertyValues("aspect.sink.logger.enabled=false", "aspect.level=detail");
+
+    @Test
+    void failingSinkDoesNotFailSuccessfulCall() {
+        contextRunner.run(context -> {
+            Greeter greeter = context.getBean(Greeter.class);
+            assertThat(greeter.greet("world")).isEqualTo("hello world");
+            assertThat(context.getBean(FailingSink.class).calls.get()).isEqualTo(1);
+        });
+    }
+
+    @Test
+    void failingSinkDoesNotReplaceBusinessException() {
+        contextRunner.run(context -> {
+            Greeter greeter = context.getBean(Greeter.class);
+            assertThatThrownBy(() -> greeter.fail("boom"))
+                    .isExactlyInstanceOf(IllegalStateException.class)
+                    .hasMessage("boom");
+            assertThat(context.getBean(FailingSink.class).calls.get()).isEqualTo(1);
+        });
+    }
+
+    @Test
+    void failingSamplerDoesNotFailCallOrLeakInFlight() {
+        contextRunner.withUserConfiguration(FailingSamplerConfiguration.class).run(context -> {
+            Greeter greeter = context.getBean(Greeter.class);
+            assertThat(greeter.greet("world")).isEqualTo("hello world");
+            assertThatThrownBy(() -> greeter.fail("boom"))
+                    .isExactlyInstanceOf(IllegalStateException.class)
+                    .hasMessage("boom");
+            // 准备记录失败的调用不记录
+            assertThat(context.getBean(FailingSink.class).calls.get()).isZero();
+            assertThat(stats(context, "greet").getInFlight()).isZero();
+            assertThat(stats(context, "fail").getInFlight()).isZero();
+        });
+    }
+
+    @Test
+    void asyncCallStaysInFlightUntilCompleted() {
+        contextRunner.run(context -> {
+            Greeter greeter = context.getBean(Greeter.class);
+            CompletableFuture<String> future = new CompletableFuture<>();
+            assertThat(greeter.later(future)).isSameAs(future);
+            // 永远不完成的结果会一直计入执行中
+            assertThat(stats(context, "later").getInFlight()).isEqualTo(1);
+
+            future.complete("done");
+            MethodStats.Snapshot stats = stats(context, "later");
+            assertThat(stats.getInFlight()).isZero();
+            assertThat(stats.getInvocations()).isEqualTo(1);
+            assertThat(context.getBean(FailingSink.class).calls.get()).isEqualTo(1);
+        });
+    }
+
+    private static MethodStats.Snapshot stats(AssertableApplicationContext context, String methodName) {
+        Method method = Arrays.stream(Greeter.class.getMethods())
+                .filter(m -> m.getName().equals(methodName))
+                .findFirst()
+                .orElseThrow(IllegalArgumentException::new);
+        return context.getBean(MethodLogDescriptorCache.class).get(method, Greeter.class).getStats().snapshot(false);
+    }
+
+    @Configuration(proxyBeanMethods = false)
+    static class FailingSamplerConfiguration {
+
+        @Bean
+        Sampler sampler(AspectLogSettingsProvider settings) {
+            return new Sampler(settings) {
+                @Override
+                public boolean sample(MethodLogDescriptor descriptor, AspectLogSettings.MethodSettings method) {
+                    throw new IllegalArgumentException("sampler failed");
+                }
+            };
+        }
+    }
+
+    @Configuration(proxyBeanMethods = false)
+    static class FailingSinkConfiguration {
+
+        @Bean
+        Greeter greeter() {
+            return new Greeter();
+        }
+
+        @Bean
+        FailingSink failingSink() {
+            return new FailingSink();
+        }
+    }
+
+    @AspectLog
+    public static class Greeter {
+
+        public String greet(String name) {
+            return "hello " + name;
+        }
+
+        public String fail(String message) {
+            throw new IllegalStateException(message);
+        }
+
+        public CompletableFuture<String> later(CompletableFuture<String> future) {
+            return future;
+        }
+    }
+
+    static class FailingSink implements AspectLogSink {
+
+        final AtomicInteger calls = new AtomicInteger();
+
+        @Override
+        public void accept(AspectLogEvent event) {
+            calls.incrementAndGet();
+            throw new IllegalArgumentException("sink failed");
+        }
+    }
+}
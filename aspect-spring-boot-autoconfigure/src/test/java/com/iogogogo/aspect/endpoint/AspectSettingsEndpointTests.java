@@ -0,0 +1,95 @@
+package com.iogogogo.aspect.endpoint;
+
+import com.iogogogo.aspect.core.AspectLogSettingsProvider;
+import com.iogogogo.aspect.core.CaptureLevel;
+import com.iogogogo.aspect.properties.AspectLogProperties;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.actuate.endpoint.InvalidEndpointRequestException;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatExceptionOfType;
+import static org.assertj.core.api.Assertions.entry;
+
+class AspectSettingsEndpointTests {
+
+    private static final String TARGET = "com.example.GreetingController.hello";
+
+    private final AspectLogSettingsProvider provider = new AspectLogSettingsProvider(new AspectLogProperties());
+
+    private final AspectSettingsEndpoint endpoint = new AspectSettingsEndpoint(provider);
+
+    @Test
+    void readsEffectiveSettings() {
+        Map<String, Object> settings = endpoint.settings();
+        assertThat(settings).contains(entry("enabled", true), entry("level", CaptureLevel.LOGGER),
+                entry("sampleRate", 1.0), entry("slowThresholdMs", null));
+        assertThat(settings.get("overrides")).isEqualTo(overrides(null, map()));
+    }
+
+    @Test
+    void updatesGlobalAndMethodSettings() {
+        endpoint.update(null, null, CaptureLevel.SUMMARY, null, 200L);
+        assertThat(provider.get().getLevel()).isEqualTo(CaptureLevel.SUMMARY);
+        assertThat(endpoint.settings()).contains(entry("slowThresholdMs", 200L));
+
+        Map<String, Object> settings = endpoint.update(TARGET, false, null, 0.5, null);
+        Map<String, Object> rule = rule(false, null, 0.5, null);
+        assertThat(settings.get("rules")).isEqualTo(map(TARGET, rule));
+        assertThat(settings.get("overrides"))
+                .isEqualTo(overrides(rule(null, CaptureLevel.SUMMARY, null, 200L), map(TARGET, rule)));
+    }
+
+    @Test
+    void emptyTargetMeansGlobal() {
+        endpoint.update("", null, CaptureLevel.DETAIL, null, null);
+        assertThat(provider.get().getLevel()).isEqualTo(CaptureLevel.DETAIL);
+        assertThat(provider.getMethodOverrides()).isEmpty();
+    }
+
+    @Test
+    void rejectsInvalidUpdates() {
+        assertThatExceptionOfType(InvalidEndpointRequestException.class)
+                .isThrownBy(() -> endpoint.update(TARGET, null, null, 1.5, null));
+        assertThatExceptionOfType(InvalidEndpointRequestException.class)
+                .isThrownBy(() -> endpoint.update(TARGET, null, null, -0.1, null));
+        assertThatExceptionOfType(InvalidEndpointRequestException.class)
+                .isThrownBy(() -> endpoint.update(TARGET, null, null, null, -1L));
+        assertThatExceptionOfType(InvalidEndpointRequestException.class)
+                .isThrownBy(() -> endpoint.update(TARGET, null, null, null, null));
+        assertThat(provider.getMethodOverrides()).isEmpty();
+    }
+
+    @Test
+    void clearsOneTargetOrAll() {
+        endpoint.update(null, null, CaptureLevel.SUMMARY, null, null);
+        endpoint.update(TARGET, false, null, null, null);
+        endpoint.update(TARGET + "2", false, null, null, null);
+
+        endpoint.clear(TARGET);
+        assertThat(provider.getMethodOverrides()).containsOnlyKeys(TARGET + "2");
+        assertThat(provider.get().getLevel()).isEqualTo(CaptureLevel.SUMMARY);
+
+        Map<String, Object> settings = endpoint.clear(null);
+        assertThat(settings.get("overrides")).isEqualTo(overrides(null, map()));
+        assertThat(provider.get().getLevel()).isEqualTo(CaptureLevel.LOGGER);
+    }
+
+    private static Map<String, Object> overrides(Map<String, Object> global, Map<String, Object> methods) {
+        return map("global", global, "methods", methods);
+    }
+
+    private static Map<String, Object> rule(Boolean enabled, CaptureLevel level, Double sampleRate, Long slowThresholdMs) {
+        return map("enabled", enabled, "level", level, "sampleRate", sampleRate, "slowThresholdMs", slowThresholdMs);
+    }
+
+    private static Map<String, Object> map(Object... keyValues) {
+        Map<String, Object> map = new LinkedHashMap<>();
+        for (int i = 0; i < keyValues.length; i += 2) {
+            map.put((String) keyValues[i], keyValues[i + 1]);
+        }
+        return map;
+    }
+}
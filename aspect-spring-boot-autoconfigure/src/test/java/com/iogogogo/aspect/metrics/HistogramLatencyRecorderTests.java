@@ -0,0 +1,55 @@
+package com.iogogogo.aspect.metrics;
+
+import com.iogogogo.aspect.core.MethodLogDescriptor;
+import com.iogogogo.aspect.core.MethodLogDescriptorCache;
+import com.iogogogo.aspect.event.AspectLogEvent;
+import org.junit.jupiter.api.Test;
+import org.springframework.util.ReflectionUtils;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.tuple;
+
+class HistogramLatencyRecorderTests {
+
+    private final MethodLogDescriptor descriptor = new MethodLogDescriptorCache()
+            .get(ReflectionUtils.findMethod(Service.class, "work"), Service.class);
+
+    @Test
+    void separatesHttpMethodAndOutcome() {
+        HistogramLatencyRecorder recorder = new HistogramLatencyRecorder();
+        recorder.record(descriptor, "GET", AspectLogEvent.Outcome.SUCCESS, 100);
+        recorder.record(descriptor, "GET", AspectLogEvent.Outcome.SUCCESS, 200);
+        recorder.record(descriptor, "GET", AspectLogEvent.Outcome.ERROR, 300);
+        recorder.record(descriptor, "POST", AspectLogEvent.Outcome.SUCCESS, 400);
+        // 非web调用与无法识别的HTTP方法归为一类
+        recorder.record(descriptor, null, AspectLogEvent.Outcome.SUCCESS, 500);
+        recorder.record(descriptor, "BREW", AspectLogEvent.Outcome.SUCCESS, 600);
+
+        List<HistogramLatencyRecorder.Entry> entries = recorder.snapshot();
+        assertThat(entries)
+                .extracting(HistogramLatencyRecorder.Entry::getHttpMethod, HistogramLatencyRecorder.Entry::getOutcome,
+                        entry -> entry.getSnapshot().getCount(), entry -> entry.getSnapshot().getMaxNanos())
+                .containsExactlyInAnyOrder(
+                        tuple("GET", AspectLogEvent.Outcome.SUCCESS, 2L, 200L),
+                        tuple("GET", AspectLogEvent.Outcome.ERROR, 1L, 300L),
+                        tuple("POST", AspectLogEvent.Outcome.SUCCESS, 1L, 400L),
+                        tuple(null, AspectLogEvent.Outcome.SUCCESS, 2L, 600L));
+        assertThat(entries).allSatisfy(entry -> {
+            assertThat(entry.getClassName()).isEqualTo(Service.class.getName());
+            assertThat(entry.getMethodName()).isEqualTo("work");
+        });
+    }
+
+    @Test
+    void emptyWithoutRecords() {
+        assertThat(new HistogramLatencyRecorder().snapshot()).isEmpty();
+    }
+
+    public static class Service {
+
+        public void work() {
+        }
+    }
+}
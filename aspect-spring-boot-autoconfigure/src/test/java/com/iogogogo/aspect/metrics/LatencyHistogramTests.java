@@ -0,0 +1,89 @@
+package com.iogogogo.aspect.metrics;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.within;
+
+class LatencyHistogramTests {
+
+    /**
+     * 32个子桶的相对误差上限
+     */
+    private static final double ERROR = 1.0 / 32;
+
+    @Test
+    void smallValuesHaveExactBuckets() {
+        for (long nanos = 0; nanos < 64; nanos++) {
+            assertThat(LatencyHistogram.index(nanos)).isEqualTo((int) nanos);
+            assertThat(LatencyHistogram.highestEquivalentValue((int) nanos)).isEqualTo(nanos);
+        }
+    }
+
+    @ParameterizedTest
+    @ValueSource(longs = {64, 65, 100, 1_000, 12_345, 1_000_000, 123_456_789, 10_000_000_000L, 1L << 41})
+    void bucketsBoundTheRelativeError(long nanos) {
+        long highest = LatencyHistogram.highestEquivalentValue(LatencyHistogram.index(nanos));
+        assertThat(highest).isGreaterThanOrEqualTo(nanos);
+        assertThat((double) (highest - nanos) / nanos).isLessThanOrEqualTo(ERROR);
+    }
+
+    @Test
+    void bucketsAreContiguousAndOrdered() {
+        int previous = LatencyHistogram.index(0);
+        for (long nanos = 1; nanos < 1_000_000; nanos++) {
+            int index = LatencyHistogram.index(nanos);
+            assertThat(index - previous).isBetween(0, 1);
+            if (index != previous) {
+                // 新桶从上一个桶的最大值之后开始
+                assertThat(LatencyHistogram.highestEquivalentValue(previous)).isEqualTo(nanos - 1);
+            }
+            previous = index;
+        }
+    }
+
+    @Test
+    void valuesBeyondTheRangeGoToTheLastBucket() {
+        assertThat(LatencyHistogram.index(Long.MAX_VALUE)).isEqualTo(LatencyHistogram.index(TimeUnit.DAYS.toNanos(1)));
+    }
+
+    @Test
+    void percentilesOfUniformValues() {
+        LatencyHistogram histogram = new LatencyHistogram();
+        for (int i = 1; i <= 1000; i++) {
+            histogram.record(TimeUnit.MICROSECONDS.toNanos(i));
+        }
+        LatencyHistogram.Snapshot snapshot = histogram.snapshot();
+
+        assertThat(snapshot.getCount()).isEqualTo(1000);
+        assertThat(snapshot.getMeanNanos()).isEqualTo(500_500);
+        assertThat(snapshot.getMaxNanos()).isEqualTo(1_000_000);
+        assertThat((double) snapshot.getP50Nanos()).isCloseTo(500_000, within(500_000 * ERROR));
+        assertThat((double) snapshot.getP90Nanos()).isCloseTo(900_000, within(900_000 * ERROR));
+        assertThat((double) snapshot.getP99Nanos()).isCloseTo(990_000, within(990_000 * ERROR));
+        assertThat(snapshot.getP50Nanos()).isLessThanOrEqualTo(snapshot.getP90Nanos());
+        assertThat(snapshot.getP99Nanos()).isLessThanOrEqualTo(snapshot.getMaxNanos());
+    }
+
+    @Test
+    void percentilesDoNotExceedTheMaximum() {
+        LatencyHistogram histogram = new LatencyHistogram();
+        histogram.record(1_000_001);
+        LatencyHistogram.Snapshot snapshot = histogram.snapshot();
+        assertThat(snapshot.getP50Nanos()).isEqualTo(1_000_001);
+        assertThat(snapshot.getP99Nanos()).isEqualTo(1_000_001);
+    }
+
+    @Test
+    void emptyAndNegativeValues() {
+        LatencyHistogram histogram = new LatencyHistogram();
+        assertThat(histogram.snapshot()).isEqualTo(new LatencyHistogram.Snapshot(0, 0, 0, 0, 0, 0));
+
+        histogram.record(-5);
+        assertThat(histogram.snapshot()).isEqualTo(new LatencyHistogram.Snapshot(1, 0, 0, 0, 0, 0));
+    }
+}
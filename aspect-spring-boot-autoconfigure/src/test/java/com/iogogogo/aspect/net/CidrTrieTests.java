@@ -0,0 +1,96 @@
+package com.iogogogo.aspect.net;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.CsvSource;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import java.util.Arrays;
+import java.util.Collections;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatIllegalArgumentException;
+
+class CidrTrieTests {
+
+    @ParameterizedTest
+    @CsvSource(delimiter = '|', value = {
+            // /0 匹配同一族的全部地址
+            "0.0.0.0/0         | 0.0.0.0                                 | true",
+            "0.0.0.0/0         | 255.255.255.255                         | true",
+            "0.0.0.0/0         | ::1                                     | false",
+            "::/0              | ::                                      | true",
+            "::/0              | ffff:ffff:ffff:ffff:ffff:ffff:ffff:ffff | true",
+            "::/0              | 10.0.0.1                                | false",
+            // 边界
+            "10.0.0.0/8        | 10.0.0.0                                | true",
+            "10.0.0.0/8        | 10.255.255.255                          | true",
+            "10.0.0.0/8        | 9.255.255.255                           | false",
+            "10.0.0.0/8        | 11.0.0.0                                | false",
+            "172.16.0.0/12     | 172.31.255.255                          | true",
+            "172.16.0.0/12     | 172.32.0.0                              | false",
+            "192.168.1.1/31    | 192.168.1.0                             | true",
+            "192.168.1.1/31    | 192.168.1.2                             | false",
+            "192.168.1.1/32    | 192.168.1.1                             | true",
+            "192.168.1.1/32    | 192.168.1.0                             | false",
+            "192.168.1.1/32    | 192.168.1.2                             | false",
+            // 不带前缀为单个地址
+            "192.168.1.1       | 192.168.1.1                             | true",
+            "192.168.1.1       | 192.168.1.3                             | false",
+            // IPv4映射的IPv6写法按IPv4匹配
+            "10.0.0.0/8        | ::ffff:10.1.2.3                         | true",
+            "fc00::/7          | fc00::                                  | true",
+            "fc00::/7          | fdff:ffff:ffff:ffff:ffff:ffff:ffff:ffff | true",
+            "fc00::/7          | fe00::                                  | false",
+            "fc00::/7          | fbff:ffff:ffff:ffff:ffff:ffff:ffff:ffff | false",
+            "2001:db8::/64     | 2001:db8::ffff:ffff:ffff:ffff           | true",
+            "2001:db8::/64     | 2001:db8:0:1::                          | false",
+            "2001:db8::/65     | 2001:db8::7fff:ffff:ffff:ffff           | true",
+            "2001:db8::/65     | 2001:db8::8000:0:0:0                    | false",
+            "2001:db8::1/128   | 2001:db8::1                             | true",
+            "2001:db8::1/128   | 2001:db8::                              | false",
+            "2001:db8::1/128   | 2001:db8::2                             | false",
+            "::1               | ::1                                     | true",
+            "::1               | ::                                      | false",
+    })
+    void matchesPrefix(String cidr, String address, boolean expected) {
+        CidrTrie trie = new CidrTrie(Collections.singletonList(cidr));
+        long[] out = new long[2];
+        int kind = InetAddressParser.parse(address, out);
+        assertThat(trie.contains(kind, out)).isEqualTo(expected);
+    }
+
+    @Test
+    void shorterPrefixCoversLongerOneInEitherOrder() {
+        long[] out = new long[2];
+        int kind = InetAddressParser.parse("10.200.0.1", out);
+        assertThat(new CidrTrie(Arrays.asList("10.1.0.0/16", "10.0.0.0/8")).contains(kind, out)).isTrue();
+        assertThat(new CidrTrie(Arrays.asList("10.0.0.0/8", "10.1.0.0/16")).contains(kind, out)).isTrue();
+    }
+
+    @Test
+    void emptyTrieMatchesNothing() {
+        CidrTrie trie = new CidrTrie(Collections.emptyList());
+        long[] out = new long[2];
+        assertThat(trie.isEmpty()).isTrue();
+        assertThat(trie.contains(InetAddressParser.parse("10.0.0.1", out), out)).isFalse();
+        assertThat(trie.contains(InetAddressParser.INVALID, out)).isFalse();
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = {
+            "10.0.0.0/33",
+            "::/129",
+            "10.0.0.0/-1",
+            "10.0.0.0/",
+            "10.0.0.0/abc",
+            "10.0.0/8",
+            "256.0.0.0/8",
+            "::1::/64",
+            "",
+            "/8",
+    })
+    void rejectsInvalidCidr(String cidr) {
+        assertThatIllegalArgumentException().isThrownBy(() -> new CidrTrie(Collections.singletonList(cidr)));
+    }
+}
@@ -0,0 +1,93 @@
+package com.iogogogo.aspect.net;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.CsvSource;
+
+import java.util.Arrays;
+import java.util.Collections;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ClientAddressResolverTests {
+
+    private static final String LOCAL = "192.0.2.100";
+
+    private final ClientAddressResolver resolver = new ClientAddressResolver(
+            Arrays.asList("10.0.0.0/8", "fd00::/8"), () -> LOCAL);
+
+    /**
+     * 列依次为 直连地址 | Forwarded | X-Forwarded-For | 期望结果，空列为null
+     */
+    @ParameterizedTest
+    @CsvSource(delimiter = '|', value = {
+            // 没有转发头
+            "198.51.100.7 |  |  | 198.51.100.7",
+            // 直连地址不可信时忽略转发头
+            "203.0.113.5  |  | 198.51.100.7 | 203.0.113.5",
+            "203.0.113.5  | for=198.51.100.7 |  | 203.0.113.5",
+            // 客户端自己伪造的最左一跳被跳过，取最右边的不可信地址
+            "10.0.0.1     |  | '6.6.6.6, 198.51.100.7, 10.0.0.2' | 198.51.100.7",
+            "10.0.0.1     |  | '6.6.6.6,198.51.100.7' | 198.51.100.7",
+            // 全部是可信代理时取最左边的
+            "10.0.0.1     |  | '10.0.0.3, 10.0.0.2' | 10.0.0.3",
+            "10.0.0.1     |  | 10.0.0.3 | 10.0.0.3",
+            "10.0.0.1     | 'for=10.0.0.3, for=10.0.0.2' |  | 10.0.0.3",
+            // 空白、空元素、端口
+            "10.0.0.1     |  | ' 198.51.100.7 ,, 10.0.0.2 ' | 198.51.100.7",
+            "10.0.0.1     |  | '198.51.100.7:51234, 10.0.0.2:80' | 198.51.100.7",
+            "10.0.0.1     |  | '[2001:db8::17]:4711, 10.0.0.2' | 2001:db8::17",
+            "10.0.0.1     |  | '2001:db8::17, 10.0.0.2' | 2001:db8::17",
+            // 头部为空时取直连地址
+            "10.0.0.1     |  | '' | 10.0.0.1",
+            "10.0.0.1     |  | ' , ' | 10.0.0.1",
+            // Forwarded 优先于 X-Forwarded-For
+            "10.0.0.1     | for=198.51.100.7 | 6.6.6.6 | 198.51.100.7",
+            // Forwarded 的其他参数、大小写、引号、方括号与端口
+            "10.0.0.1     | 'for=192.0.2.60;proto=http;by=203.0.113.43' |  | 192.0.2.60",
+            "10.0.0.1     | 'proto=https; For=198.51.100.7 , for=10.0.0.2' |  | 198.51.100.7",
+            "10.0.0.1     | 'for=\"198.51.100.7:8080\"' |  | 198.51.100.7",
+            "10.0.0.1     | 'for=\"[2001:db8:cafe::17]:4711\"' |  | 2001:db8:cafe::17",
+            "10.0.0.1     | 'for=\"[2001:db8:cafe::17]\", for=\"[fd00::2]:443\"' |  | 2001:db8:cafe::17",
+            "10.0.0.1     | 'for=6.6.6.6, for=\"198.51.100.7\";proto=https, for=10.0.0.2' |  | 198.51.100.7",
+            // 没有 for 参数的元素跳过
+            "10.0.0.1     | 'proto=https, for=198.51.100.7, by=10.0.0.2' |  | 198.51.100.7",
+            "10.0.0.1     | proto=https |  | 10.0.0.1",
+            // 缺少右方括号
+            "10.0.0.1     | 'for=\"[2001:db8::17\"' |  | 10.0.0.1",
+            // unknown 取其右侧最近的一跳，没有时为直连地址
+            "10.0.0.1     | 'for=unknown, for=10.0.0.2' |  | 10.0.0.2",
+            "10.0.0.1     | for=unknown |  | 10.0.0.1",
+            "10.0.0.1     |  | 'unknown, 10.0.0.2' | 10.0.0.2",
+            // 混淆标识原样返回
+            "10.0.0.1     | 'for=_hidden, for=10.0.0.2' |  | _hidden",
+            // IPv6 与IPv4映射的直连地址
+            "fd00::1      |  | 198.51.100.7 | 198.51.100.7",
+            "::ffff:10.0.0.1 |  | 198.51.100.7 | 198.51.100.7",
+            "fe80::1      |  | 198.51.100.7 | fe80::1",
+            // 回环地址换成本机地址
+            "127.0.0.1    |  |  | " + LOCAL,
+            "::1          |  | 198.51.100.7 | " + LOCAL,
+            "10.0.0.1     |  | '127.0.0.1, 10.0.0.2' | " + LOCAL,
+    })
+    void resolves(String remoteAddr, String forwarded, String xForwardedFor, String expected) {
+        assertThat(resolver.resolve(remoteAddr, forwarded, xForwardedFor)).isEqualTo(expected);
+    }
+
+    @Test
+    void missingRemoteAddress() {
+        assertThat(resolver.resolve(null, "for=198.51.100.7", "198.51.100.7")).isEmpty();
+    }
+
+    @Test
+    void noTrustedProxiesIgnoresHeaders() {
+        ClientAddressResolver direct = new ClientAddressResolver(Collections.emptyList(), () -> LOCAL);
+        assertThat(direct.resolve("10.0.0.1", "for=198.51.100.7", "198.51.100.7")).isEqualTo("10.0.0.1");
+    }
+
+    @Test
+    void trustEverythingTakesLeftmost() {
+        ClientAddressResolver all = new ClientAddressResolver(Arrays.asList("0.0.0.0/0", "::/0"), () -> LOCAL);
+        assertThat(all.resolve("203.0.113.5", null, "6.6.6.6, 198.51.100.7")).isEqualTo("6.6.6.6");
+    }
+}
@@ -0,0 +1,118 @@
+package com.iogogogo.aspect.net;
+
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.CsvSource;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class InetAddressParserTests {
+
+    @ParameterizedTest
+    @CsvSource(delimiter = '|', value = {
+            "1.2.3.4         | 0000000001020304",
+            "0.0.0.0         | 0000000000000000",
+            "255.255.255.255 | 00000000ffffffff",
+            "010.0.0.1       | 000000000a000001",
+            // IPv4映射的IPv6地址按IPv4返回
+            "::ffff:10.0.0.1 | 000000000a000001",
+            "::FFFF:a00:1    | 000000000a000001",
+    })
+    void parsesV4(String literal, String expected) {
+        long[] out = new long[2];
+        assertThat(InetAddressParser.parse(literal, out)).isEqualTo(InetAddressParser.V4);
+        assertThat(out[0]).isEqualTo(Long.parseUnsignedLong(expected, 16));
+    }
+
+    @ParameterizedTest
+    @CsvSource(delimiter = '|', value = {
+            "::                                      | 0000000000000000 | 0000000000000000",
+            "::1                                     | 0000000000000000 | 0000000000000001",
+            "1::                                     | 0001000000000000 | 0000000000000000",
+            "2001:db8::1                             | 20010db800000000 | 0000000000000001",
+            "1:2:3:4:5:6:7:8                         | 0001000200030004 | 0005000600070008",
+            "2001:DB8:0:0:8:800:200C:417A            | 20010db800000000 | 00080800200c417a",
+            "1::8                                    | 0001000000000000 | 0000000000000008",
+            "1:2:3:4:5:6:7::                         | 0001000200030004 | 0005000600070000",
+            "::2:3:4:5:6:7:8                         | 0000000200030004 | 0005000600070008",
+            "ffff:ffff:ffff:ffff:ffff:ffff:ffff:ffff | ffffffffffffffff | ffffffffffffffff",
+            // 内嵌IPv4
+            "::1.2.3.4                               | 0000000000000000 | 0000000001020304",
+            "64:ff9b::192.0.2.33                     | 0064ff9b00000000 | 00000000c0000221",
+            "1:2:3:4:5:6:1.2.3.4                     | 0001000200030004 | 0005000601020304",
+            // zone id 不参与解析
+            "fe80::1%eth0                            | fe80000000000000 | 0000000000000001",
+            "fe80::1%25                              | fe80000000000000 | 0000000000000001",
+    })
+    void parsesV6(String literal, String hi, String lo) {
+        long[] out = new long[2];
+        assertThat(InetAddressParser.parse(literal, out)).isEqualTo(InetAddressParser.V6);
+        assertThat(out[0]).isEqualTo(Long.parseUnsignedLong(hi, 16));
+        assertThat(out[1]).isEqualTo(Long.parseUnsignedLong(lo, 16));
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = {
+            "",
+            "1.2.3",
+            "1.2.3.4.5",
+            "256.0.0.1",
+            "1.2.3.256",
+            "1..2.3",
+            ".1.2.3",
+            "1.2.3.",
+            "1.2.3.-4",
+            " 1.2.3.4",
+            "1.2.3.4 ",
+            "1.2.3.4:80",
+            "a.b.c.d",
+            "unknown",
+            "%eth0",
+            ":",
+            ":::",
+            "::1::",
+            "1::2::3",
+            ":1::",
+            "1:",
+            "1::2:",
+            "1:2:3:4:5:6:7",
+            "1:2:3:4:5:6:7:8:9",
+            "1:2:3:4:5:6:7:8::",
+            "::1:2:3:4:5:6:7:8",
+            "12345::",
+            "g::1",
+            "::1.2.3",
+            "::256.0.0.1",
+            "1.2.3.4::",
+            "1:2:3:4:5:6:7:1.2.3.4",
+            // 每段超过3位
+            "0001.2.3.4",
+            "1.2.3.0004",
+            "::ffff:1.2.3.0255",
+            // 非ASCII数字
+            "\uFF11.2.3.4",
+            "1.2.3.\u0664",
+            "::\uFF11",
+            "\uFF46e80::1",
+            "2001:db8::\u0661",
+    })
+    void rejectsMalformed(String literal) {
+        assertThat(InetAddressParser.parse(literal, new long[2])).isEqualTo(InetAddressParser.INVALID);
+    }
+
+    @ParameterizedTest
+    @CsvSource({
+            "127.0.0.1, true",
+            "127.255.0.1, true",
+            "::1, true",
+            "::ffff:127.0.0.1, true",
+            "128.0.0.1, false",
+            "::2, false",
+            "::, false",
+    })
+    void detectsLoopback(String literal, boolean loopback) {
+        long[] out = new long[2];
+        int kind = InetAddressParser.parse(literal, out);
+        assertThat(InetAddressParser.isLoopback(kind, out)).isEqualTo(loopback);
+    }
+}
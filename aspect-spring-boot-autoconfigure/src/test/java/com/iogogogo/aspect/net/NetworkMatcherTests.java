@@ -0,0 +1,50 @@
+package com.iogogogo.aspect.net;
+
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.CsvSource;
+
+import java.net.InetAddress;
+import java.net.UnknownHostException;
+import java.util.Arrays;
+import java.util.Collections;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class NetworkMatcherTests {
+
+    /**
+     * 列依次为 preferredNetworks(逗号分隔) | 地址 | 是否匹配
+     */
+    @ParameterizedTest
+    @CsvSource(delimiter = '|', value = {
+            // CIDR按地址字节匹配
+            "10.0.0.0/8                | 10.1.2.3      | true",
+            "10.0.0.0/8                | 11.1.2.3      | false",
+            "172.16.0.0/12             | 172.20.0.1    | true",
+            "fd00::/8                  | fd12::1       | true",
+            "fd00::/8                  | fe80::1       | false",
+            // 其余按地址字符串的前缀或正则匹配
+            "192.168                   | 192.168.3.4   | true",
+            "192.168                   | 10.192.168.4  | false",
+            "10\\.0\\.[0-9]+\\.1       | 10.0.77.1     | true",
+            "10\\.0\\.[0-9]+\\.1       | 10.0.77.2     | false",
+            // 前缀长度不合法的条目不按CIDR处理
+            "10.0.0.0/33               | 10.0.0.0      | false",
+            "'10.0.0.0/8, 192.168'     | 192.168.0.1   | true",
+            "'10.0.0.0/8, 192.168'     | 10.9.9.9      | true",
+            "'10.0.0.0/8, 192.168'     | 172.16.0.1    | false",
+    })
+    void matches(String networks, String address, boolean expected) throws UnknownHostException {
+        NetworkMatcher matcher = new NetworkMatcher(Arrays.asList(networks.split("\\s*,\\s*")));
+        assertThat(matcher.isEmpty()).isFalse();
+        assertThat(matcher.matches(InetAddress.getByName(address))).isEqualTo(expected);
+    }
+
+    @ParameterizedTest
+    @CsvSource({"10.0.0.1", "::1"})
+    void emptyMatchesNothing(String address) throws UnknownHostException {
+        NetworkMatcher matcher = new NetworkMatcher(Collections.emptyList());
+        assertThat(matcher.isEmpty()).isTrue();
+        assertThat(matcher.matches(InetAddress.getByName(address))).isFalse();
+    }
+}
@@ -0,0 +1,92 @@
+package com.iogogogo.aspect.net;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.CsvSource;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.regex.PatternSyntaxException;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatExceptionOfType;
+
+class PatternListTests {
+
+    /**
+     * 列依次为 正则 | 值，结果须与 {@link String#matches(String)} 一致
+     */
+    @ParameterizedTest
+    @CsvSource(delimiter = '|', value = {
+            // 字面量
+            "eth0          | eth0",
+            "eth0          | eth01",
+            "eth0          | xeth0",
+            "^eth0$        | eth0",
+            "^eth0$        | eth0x",
+            "a\\.b         | a.b",
+            "a\\.b         | axb",
+            // 字面量 + .*
+            "veth.*        | veth",
+            "veth.*        | veth1a2b",
+            "veth.*        | eth0",
+            "^docker.*$    | docker0",
+            "a\\.b.*       | a.bc",
+            "a\\.b.*       | axbc",
+            ".*            | anything",
+            "a\\.*         | a...",
+            "a\\.*         | ab",
+            // 只能按正则处理
+            "docker\\d+    | docker12",
+            "docker\\d+    | docker",
+            "eth[0-9]      | eth3",
+            "eth[0-9]      | eth33",
+            "e(n)?th0      | enth0",
+            "e(n)?th0      | wlan0",
+            ".*br.*        | virbr0",
+            "eth.          | eth0",
+            "eth.          | eth",
+            "a.*b          | axxb",
+            "a.*b          | axxc",
+    })
+    void matchesLikeStringMatches(String expression, String value) {
+        assertThat(PatternList.regex(Collections.singletonList(expression)).matches(value)).isEqualTo(value.matches(expression));
+    }
+
+    @Test
+    void matchesAnyExpression() {
+        PatternList list = PatternList.regex(Arrays.asList("eth0", "veth.*", "docker\\d+"));
+        assertThat(list.matches("eth0")).isTrue();
+        assertThat(list.matches("veth7")).isTrue();
+        assertThat(list.matches("docker3")).isTrue();
+        assertThat(list.matches("wlan0")).isFalse();
+    }
+
+    @ParameterizedTest
+    @CsvSource(delimiter = '|', value = {
+            // 原样作为前缀
+            "192.168     | 192.168.1.1 | true",
+            "192.168     | 10.192.168.1 | false",
+            "10.0.0.1    | 10.0.0.1    | true",
+            // 同时按正则
+            "10\\.1.*    | 10.1.2.3    | true",
+            "10\\.1.*    | 1011.2.3   | false",
+            "10\\.[0-9]\\..* | 10.5.0.1 | true",
+            "10\\.[0-9]\\..* | 10.55.0.1 | false",
+    })
+    void regexOrPrefix(String expression, String value, boolean expected) {
+        assertThat(PatternList.regexOrPrefix(Collections.singletonList(expression)).matches(value)).isEqualTo(expected);
+    }
+
+    @Test
+    void empty() {
+        assertThat(PatternList.regex(Collections.emptyList()).isEmpty()).isTrue();
+        assertThat(PatternList.regex(Collections.emptyList()).matches("eth0")).isFalse();
+        assertThat(PatternList.regex(Collections.singletonList("eth0")).isEmpty()).isFalse();
+    }
+
+    @Test
+    void rejectsInvalidRegex() {
+        assertThatExceptionOfType(PatternSyntaxException.class).isThrownBy(() -> PatternList.regex(Collections.singletonList("eth[")));
+    }
+}
@@ -0,0 +1,259 @@
+package com.iogogogo.aspect.render;
+
+import com.iogogogo.aspect.annotation.AspectLog;
+import com.iogogogo.aspect.core.MethodLogDescriptor;
+import com.iogogogo.aspect.core.MethodLogDescriptorCache;
+import com.iogogogo.aspect.properties.AspectLogProperties;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.CsvSource;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+import java.lang.reflect.Method;
+import java.net.URI;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class RedactorTests {
+
+    private static final String MASK = Redactor.DEFAULT_MASK;
+
+    /**
+     * 默认配置的字段名
+     */
+    private final Redactor redactor = new Redactor(new AspectLogProperties.Render.Redaction().getFieldNames(),
+            Arrays.asList("\\b\\d{16}\\b", "(?i)bearer\\s+[\\w.-]+"), MASK);
+
+    private final ValueRenderer renderer = new ValueRenderer(4096, 100, 5, SafeRenderers.defaults(), redactor);
+
+    @ParameterizedTest
+    @CsvSource({
+            "password, true",
+            "PASSWORD, true",
+            "newPassword, true",
+            "new_password, true",
+            "id_token, true",
+            "accessToken, true",
+            "apiKey, true",
+            "X-API-KEY, true",
+            "api_key, true",
+            "pwd, true",
+            "clientSecret, true",
+            "Authorization, true",
+            "passwordHint, false",
+            "tokens, false",
+            "username, false",
+            "key, false",
+            "'', false",
+    })
+    void matchesNameSuffix(String name, boolean sensitive) {
+        assertThat(redactor.isSensitiveName(name)).isEqualTo(sensitive);
+    }
+
+    @Test
+    void masksFieldsByName() {
+        assertThat(renderer.render(new Login("alice", "secret123")))
+                .isEqualTo("Login(username=alice, password=" + MASK + ")");
+    }
+
+    @Test
+    void doesNotCallLeakingToString() {
+        // toString() 会输出密码，按字段输出
+        String rendered = renderer.render(new Login("alice", "secret123"));
+        assertThat(rendered).doesNotContain("secret123").doesNotContain("LEAK");
+    }
+
+    @Test
+    void masksAnnotatedFields() {
+        assertThat(renderer.render(new Card("Alice", "4111-1111", "123")))
+                .isEqualTo("Card(holder=Alice, number=" + MASK + ", cvv=" + MASK + ")");
+    }
+
+    @Test
+    void masksNestedSensitiveTypes() {
+        String rendered = renderer.render(new Account(7, new Login("alice", "secret123")));
+        assertThat(rendered).isEqualTo("Account(id=7, login=Login(username=alice, password=" + MASK + "))");
+    }
+
+    @Test
+    void selfReferenceDoesNotRecurse() {
+        Node node = new Node("n1");
+        node.next = node;
+        assertThat(renderer.render(node)).isEqualTo("Node(name=n1, token=" + MASK + ", next=(this))");
+    }
+
+    @Test
+    void typesWithoutSensitiveFieldsAreRenderedByField() {
+        assertThat(renderer.render(new Plain("a"))).isEqualTo("Plain(value=a)");
+    }
+
+    @Test
+    void masksMapKeys() {
+        Map<String, Object> map = new LinkedHashMap<>();
+        map.put("user", "alice");
+        map.put("password", "p1");
+        map.put("refresh_token", "t1");
+        map.put("nested", Collections.singletonMap("apiKey", "k1"));
+        assertThat(renderer.render(map))
+                .isEqualTo("{user=alice, password=" + MASK + ", refresh_token=" + MASK + ", nested={apiKey=" + MASK + "}}");
+    }
+
+    @ParameterizedTest
+    @CsvSource(delimiter = '|', value = {
+            "user=alice&password=secret&x=1                | user=alice&password=" + MASK + "&x=1",
+            "password = secret, next=1                     | password = " + MASK + ", next=1",
+            "'{\"user\":\"alice\",\"password\":\"se,cret\"}' | '{\"user\":\"alice\",\"password\":\"" + MASK + "\"}'",
+            "'{\"token\": \"abc\", \"n\": 1}'              | '{\"token\": \"" + MASK + "\", \"n\": 1}'",
+            "Authorization: Bearer abc.def                 | Authorization: " + MASK,
+            "(newPassword=abc)                             | (newPassword=" + MASK + ")",
+            "passwordHint=abc                              | passwordHint=abc",
+            "no secrets here                               | no secrets here",
+    })
+    void masksInlineText(String text, String expected) {
+        assertThat(renderer.render(text)).isEqualTo(expected);
+    }
+
+    @Test
+    void masksTextFromJdkToString() {
+        assertThat(renderer.render(URI.create("http://example.com/login?user=bob&token=abc")))
+                .isEqualTo("http://example.com/login?user=bob&token=" + MASK);
+    }
+
+    @Test
+    void doesNotCallToStringOfApplicationTypes() {
+        assertThat(renderer.render(new Leaky())).isEqualTo("Leaky()");
+    }
+
+    @ParameterizedTest
+    @CsvSource(delimiter = '|', value = {
+            "card 4111111111111111 ok     | card " + MASK + " ok",
+            "call with bearer eyJ.abc-1 x | call with " + MASK + " x",
+            "41111111111111112            | 41111111111111112",
+    })
+    void masksValuePatterns(String text, String expected) {
+        assertThat(renderer.render(text)).isEqualTo(expected);
+    }
+
+    @Test
+    void masksAnnotatedParameters() throws NoSuchMethodException {
+        Method method = LoginService.class.getMethod("login", String.class, String.class, String.class, String.class);
+        MethodLogDescriptor descriptor = new MethodLogDescriptorCache().get(method, LoginService.class);
+        String rendered = renderer.renderArgs(new Object[]{"alice", "secret123", "1234", "note"}, descriptor.getArgModes());
+        assertThat(rendered).isEqualTo("[alice, " + MASK + ", " + MASK + ", (ignored)]");
+    }
+
+    @Test
+    void disabledRedactionStillHonoursAnnotations() {
+        ValueRenderer plain = new ValueRenderer(4096, 100, 5, SafeRenderers.defaults(), Redactor.none());
+        assertThat(plain.render("password=secret")).isEqualTo("password=secret");
+        assertThat(plain.render(new Card("Alice", "4111-1111", "123")))
+                .isEqualTo("Card(holder=Alice, number=" + MASK + ", cvv=" + MASK + ")");
+    }
+
+    /**
+     * 与 {@link AspectLog.Mask} 效果相同，按简单类名识别
+     */
+    @Target({ElementType.FIELD, ElementType.PARAMETER})
+    @Retention(RetentionPolicy.RUNTIME)
+    @interface Sensitive {
+    }
+
+    static class Login {
+
+        private final String username;
+
+        private final String password;
+
+        Login(String username, String password) {
+            this.username = username;
+            this.password = password;
+        }
+
+        @Override
+        public String toString() {
+            return "LEAK " + username + "/" + password;
+        }
+    }
+
+    static class Card {
+
+        private final String holder;
+
+        @AspectLog.Mask
+        private final String number;
+
+        @Sensitive
+        private final String cvv;
+
+        Card(String holder, String number, String cvv) {
+            this.holder = holder;
+            this.number = number;
+            this.cvv = cvv;
+        }
+    }
+
+    static class Account {
+
+        private final long id;
+
+        private final Login login;
+
+        Account(long id, Login login) {
+            this.id = id;
+            this.login = login;
+        }
+
+        @Override
+        public String toString() {
+            return "Account " + id + " " + login;
+        }
+    }
+
+    static class Node {
+
+        private final String name;
+
+        private final String token = "t";
+
+        private Node next;
+
+        Node(String name) {
+            this.name = name;
+        }
+    }
+
+    static class Plain {
+
+        private final String value;
+
+        Plain(String value) {
+            this.value = value;
+        }
+
+        @Override
+        public String toString() {
+            return "Plain<" + value + ">";
+        }
+    }
+
+    static class Leaky {
+
+        @Override
+        public String toString() {
+            return "Leaky{user=bob, token=abc}";
+        }
+    }
+
+    public static class LoginService {
+
+        public void login(String user, @AspectLog.Mask String password, @Sensitive String pin, @AspectLog.Ignore String note) {
+        }
+    }
+}
@@ -0,0 +1,122 @@
+package com.iogogogo.aspect.render;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ValueRendererTests {
+
+    private final ValueRenderer renderer = new ValueRenderer(64, 3, 2, SafeRenderers.defaults());
+
+    @Test
+    void boundsNestingDepth() {
+        Chain chain = new Chain("a", new Chain("b", new Chain("c", null)));
+        assertThat(renderer.render(chain)).isEqualTo("Chain(name=a, next=Chain(name=b, next=Chain(...)))");
+        assertThat(renderer.render(Collections.singletonList(Collections.singletonList(Collections.singletonList(1)))))
+                .isEqualTo("[[[...]]]");
+    }
+
+    @Test
+    void boundsElements() {
+        assertThat(renderer.render(range(10))).isEqualTo("[0, 1, 2, ...(+7)]");
+        assertThat(renderer.render(new int[]{1, 2, 3, 4})).isEqualTo("[1, 2, 3, ...(+1)]");
+    }
+
+    @Test
+    void boundsChars() {
+        String text = String.join("", Collections.nCopies(100, "x"));
+        assertThat(renderer.render(text)).isEqualTo(text.substring(0, 64) + "...(100 chars)");
+    }
+
+    @Test
+    void rendersApplicationTypesByFieldWithoutToString() {
+        // toString() 会抛异常且输出全部元素，按字段输出时仍受元素数上限约束
+        assertThat(renderer.render(new Holder(range(10))))
+                .isEqualTo("Holder(values=[0, 1, 2, ...(+7)])");
+    }
+
+    @Test
+    void fieldsOfSuperclassesAreIncluded() {
+        assertThat(renderer.render(new SubHolder(range(1), 7))).isEqualTo("SubHolder(extra=7, values=[0])");
+    }
+
+    @Test
+    void jdkTypesUseToString() {
+        assertThat(renderer.render(LocalDate.of(2021, 6, 21))).isEqualTo("2021-06-21");
+    }
+
+    @Test
+    void boundsTypeRendererOutput() {
+        TypeRenderer verbose = new TypeRenderer() {
+            @Override
+            public boolean supports(Object value) {
+                return value instanceof Chain;
+            }
+
+            @Override
+            public void render(Object value, StringBuilder out) {
+                for (int i = 0; i < 100; i++) {
+                    out.append('y');
+                }
+            }
+        };
+        ValueRenderer bounded = new ValueRenderer(10, 3, 2, Collections.singletonList(verbose));
+        assertThat(bounded.render(new Chain("a", null))).isEqualTo("yyyyyyyyyy...(100 chars)");
+        assertThat(bounded.renderArgs(new Object[]{"abc", new Chain("a", null)}))
+                .isEqualTo("[abc, yyyy...(100 chars)]");
+    }
+
+    @Test
+    void ignoresAndMasksArgs() {
+        byte[] modes = {ValueRenderer.ARG_LOG, ValueRenderer.ARG_IGNORE, ValueRenderer.ARG_MASK};
+        assertThat(renderer.renderArgs(new Object[]{"a", "b", "c"}, modes))
+                .isEqualTo("[a, " + ValueRenderer.IGNORED + ", " + Redactor.DEFAULT_MASK + "]");
+    }
+
+    private static List<Integer> range(int n) {
+        return IntStream.range(0, n).boxed().collect(Collectors.toList());
+    }
+
+    static class Chain {
+
+        private final String name;
+
+        private final Chain next;
+
+        Chain(String name, Chain next) {
+            this.name = name;
+            this.next = next;
+        }
+    }
+
+    static class Holder {
+
+        private final List<Integer> values;
+
+        Holder(List<Integer> values) {
+            this.values = values;
+        }
+
+        @Override
+        public String toString() {
+            throw new IllegalStateException(Arrays.toString(values.toArray()));
+        }
+    }
+
+    static class SubHolder extends Holder {
+
+        private final int extra;
+
+        SubHolder(List<Integer> values, int extra) {
+            super(values);
+            this.extra = extra;
+        }
+    }
+}
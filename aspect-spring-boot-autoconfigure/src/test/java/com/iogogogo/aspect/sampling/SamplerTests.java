@@ -0,0 +1,173 @@
+package com.iogogogo.aspect.sampling;
+
+import com.iogogogo.aspect.annotation.AspectLog;
+import com.iogogogo.aspect.core.AspectLogSettingsProvider;
+import com.iogogogo.aspect.core.MethodLogDescriptor;
+import com.iogogogo.aspect.core.MethodLogDescriptorCache;
+import com.iogogogo.aspect.event.AspectLogEvent;
+import com.iogogogo.aspect.properties.AspectLogProperties;
+import org.junit.jupiter.api.Test;
+import org.springframework.util.ReflectionUtils;
+
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class SamplerTests {
+
+    private static final long MILLIS_100 = TimeUnit.MILLISECONDS.toNanos(100);
+
+    private static final long SECOND = TimeUnit.SECONDS.toNanos(1);
+
+    private final MethodLogDescriptorCache descriptors = new MethodLogDescriptorCache();
+
+    private final AspectLogProperties properties = new AspectLogProperties();
+
+    @Test
+    void globalRateOfOneSamplesEverything() {
+        Sampler sampler = sampler();
+        assertThat(sample(sampler, descriptor("plain"), 1000)).isEqualTo(1000);
+    }
+
+    @Test
+    void globalRateOfZeroSamplesNothing() {
+        properties.getSampling().setRate(0);
+        Sampler sampler = sampler();
+        assertThat(sample(sampler, descriptor("plain"), 1000)).isZero();
+    }
+
+    @Test
+    void fractionalRateSamplesProportionally() {
+        properties.getSampling().setRate(0.25);
+        Sampler sampler = sampler();
+        assertThat(sample(sampler, descriptor("plain"), 10_000)).isBetween(2000, 3000);
+    }
+
+    @Test
+    void annotationRateOverridesGlobalRate() {
+        Sampler sampler = sampler();
+        assertThat(sample(sampler, descriptor("never"), 1000)).isZero();
+    }
+
+    @Test
+    void rateLimitCapsSampledCallsPerSecond() {
+        Sampler sampler = sampler();
+        MethodLogDescriptor limited = descriptor("limited");
+        assertThat(sample(sampler, limited, 100)).isEqualTo(5);
+        assertThat(limited.getRateLimiter().getPermitsPerSecond()).isEqualTo(5);
+    }
+
+    @Test
+    void globalRateLimitAppliesPerMethod() {
+        properties.getSampling().setRateLimit(3);
+        Sampler sampler = sampler();
+        assertThat(sample(sampler, descriptor("plain"), 100)).isEqualTo(3);
+        assertThat(sample(sampler, descriptor("other"), 100)).isEqualTo(3);
+    }
+
+    @Test
+    void changedRateLimitReplacesTheBucket() {
+        properties.getSampling().setRateLimit(2);
+        AspectLogSettingsProvider settings = new AspectLogSettingsProvider(properties);
+        Sampler sampler = new Sampler(settings);
+        MethodLogDescriptor plain = descriptor("plain");
+        assertThat(sample(sampler, plain, 100)).isEqualTo(2);
+
+        AspectLogProperties changed = new AspectLogProperties();
+        changed.getSampling().setRateLimit(4);
+        settings.refresh(changed);
+        assertThat(sample(sampler, plain, 100)).isEqualTo(4);
+    }
+
+    @Test
+    void capturesUnsampledErrorsByDefault() {
+        properties.getSampling().setRate(0);
+        Sampler sampler = sampler();
+        MethodLogDescriptor plain = descriptor("plain");
+        assertThat(sampler.capture(plain, AspectLogEvent.Outcome.ERROR, 0)).isTrue();
+        assertThat(sampler.capture(plain, AspectLogEvent.Outcome.SUCCESS, SECOND)).isFalse();
+    }
+
+    @Test
+    void errorsAreNotCapturedWhenDisabled() {
+        properties.getSampling().setAlwaysLogErrors(false);
+        assertThat(sampler().capture(descriptor("plain"), AspectLogEvent.Outcome.ERROR, 0)).isFalse();
+    }
+
+    @Test
+    void capturesUnsampledSlowCalls() {
+        properties.getSampling().setAlwaysLogSlowerThan(Duration.ofMillis(100));
+        Sampler sampler = sampler();
+        MethodLogDescriptor plain = descriptor("plain");
+        assertThat(sampler.capture(plain, AspectLogEvent.Outcome.SUCCESS, MILLIS_100 - 1)).isFalse();
+        assertThat(sampler.capture(plain, AspectLogEvent.Outcome.SUCCESS, MILLIS_100)).isTrue();
+    }
+
+    @Test
+    void slowThresholdModeSkipsSamplingAndCapturesByDuration() {
+        Sampler sampler = sampler();
+        MethodLogDescriptor slow = descriptor("slow");
+        assertThat(sampler.slowThresholdNanos(slow)).isEqualTo(MILLIS_100);
+        assertThat(sample(sampler, slow, 100)).isZero();
+        assertThat(sampler.capture(slow, AspectLogEvent.Outcome.SUCCESS, MILLIS_100 - 1)).isFalse();
+        assertThat(sampler.capture(slow, AspectLogEvent.Outcome.SUCCESS, MILLIS_100)).isTrue();
+        // 失败调用仍按 always-log-errors
+        assertThat(sampler.capture(slow, AspectLogEvent.Outcome.ERROR, 0)).isTrue();
+    }
+
+    @Test
+    void annotationThresholdOverridesGlobalThreshold() {
+        properties.setSlowThreshold(Duration.ofSeconds(1));
+        Sampler sampler = sampler();
+        assertThat(sampler.slowThresholdNanos(descriptor("plain"))).isEqualTo(SECOND);
+        assertThat(sampler.slowThresholdNanos(descriptor("slow"))).isEqualTo(MILLIS_100);
+        // slowThresholdMs = 0 关闭慢调用模式，照常采样
+        assertThat(sampler.slowThresholdNanos(descriptor("sampled"))).isZero();
+        assertThat(sample(sampler, descriptor("sampled"), 100)).isEqualTo(100);
+        assertThat(sample(sampler, descriptor("plain"), 100)).isZero();
+    }
+
+    private Sampler sampler() {
+        return new Sampler(new AspectLogSettingsProvider(properties));
+    }
+
+    private MethodLogDescriptor descriptor(String name) {
+        return descriptors.get(ReflectionUtils.findMethod(Service.class, name), Service.class);
+    }
+
+    private static int sample(Sampler sampler, MethodLogDescriptor descriptor, int calls) {
+        int sampled = 0;
+        for (int i = 0; i < calls; i++) {
+            if (sampler.sample(descriptor)) {
+                sampled++;
+            }
+        }
+        return sampled;
+    }
+
+    public static class Service {
+
+        public void plain() {
+        }
+
+        public void other() {
+        }
+
+        @AspectLog(sampleRate = 0)
+        public void never() {
+        }
+
+        @AspectLog(rateLimit = 5)
+        public void limited() {
+        }
+
+        @AspectLog(slowThresholdMs = 100)
+        public void slow() {
+        }
+
+        @AspectLog(slowThresholdMs = 0)
+        public void sampled() {
+        }
+    }
+}
@@ -0,0 +1,41 @@
+package com.iogogogo.aspect.sampling;
+
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatIllegalArgumentException;
+
+class TokenBucketTests {
+
+    @Test
+    void allowsOneSecondOfPermitsAsBurst() {
+        TokenBucket bucket = new TokenBucket(10);
+        assertThat(acquire(bucket, 100)).isEqualTo(10);
+        assertThat(bucket.tryAcquire()).isFalse();
+    }
+
+    @Test
+    void refillsAtTheConfiguredRate() throws InterruptedException {
+        TokenBucket bucket = new TokenBucket(10);
+        acquire(bucket, 100);
+        // 每100ms补充一个
+        Thread.sleep(250);
+        assertThat(acquire(bucket, 100)).isBetween(2, 3);
+    }
+
+    @Test
+    void rejectsNonPositiveRates() {
+        assertThatIllegalArgumentException().isThrownBy(() -> new TokenBucket(0));
+        assertThatIllegalArgumentException().isThrownBy(() -> new TokenBucket(-1));
+    }
+
+    private static int acquire(TokenBucket bucket, int attempts) {
+        int acquired = 0;
+        for (int i = 0; i < attempts; i++) {
+            if (bucket.tryAcquire()) {
+                acquired++;
+            }
+        }
+        return acquired;
+    }
+}
@@ -0,0 +1,166 @@
+package com.iogogogo.aspect.sink;
+
+import com.iogogogo.aspect.event.AspectLogEvent;
+import com.iogogogo.aspect.event.JsonAspectLogEncoder;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * 二进制编码写入段文件后由 SegmentReader 还原，应与原记录的JSON一致
+ */
+class MappedFileSinkTests {
+
+    private static final JsonAspectLogEncoder JSON = new JsonAspectLogEncoder();
+
+    private static final long NOW = System.currentTimeMillis();
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void roundTripAcrossSegmentRolls() throws IOException {
+        List<AspectLogEvent> events = new ArrayList<>();
+        for (int i = 0; i < 60; i++) {
+            events.add(event("com.example.Service" + (i % 3), "method" + (i % 5))
+                    // 早于段创建时间的记录，时间差为负数
+                    .timestamp(i % 7 == 0 ? NOW - 10_000 : NOW + i)
+                    .url("http://localhost:8080/api/" + (i % 4))
+                    .httpMethod(i % 2 == 0 ? "GET" : "POST")
+                    .clientIp("10.0." + i + ".1")
+                    .status(200)
+                    .traceId(String.format("%032x", i + 1L))
+                    .depth(i % 3)
+                    .args("[" + i + "]")
+                    .response("ok")
+                    .build());
+        }
+
+        MappedFileSink sink = sink(512, 1024);
+        events.forEach(sink::accept);
+        sink.close();
+
+        assertThat(sink.getWritten()).isEqualTo(events.size());
+        assertThat(segments()).hasSizeGreaterThan(2);
+        assertThat(read()).containsExactlyElementsOf(json(events));
+    }
+
+    @Test
+    void resetAfterDroppedRecordRedefinesDictionary() throws IOException {
+        AspectLogEvent first = event("com.example.A", "a").build();
+        // 编码时定义了字典项，但放不进段，没有写入
+        AspectLogEvent tooLarge = event("com.example.B", "b").args(repeat('x', 1000)).build();
+        AspectLogEvent second = event("com.example.B", "b").build();
+        AspectLogEvent third = event("com.example.A", "a").build();
+
+        MappedFileSink sink = sink(512, 100_000);
+        sink.accept(first);
+        sink.accept(tooLarge);
+        sink.accept(second);
+        sink.accept(third);
+        sink.close();
+
+        assertThat(sink.getWritten()).isEqualTo(3);
+        assertThat(sink.getDropped()).isEqualTo(1);
+        assertThat(segments()).hasSize(1);
+        assertThat(read()).containsExactlyElementsOf(json(first, second, third));
+    }
+
+    @Test
+    void truncationKeepsSurrogatePairs() throws IOException {
+        // 第8个字符是代理对的前半部分，截断到7个字符
+        String split = "abcdefg😀xyz";
+        // 代理对完整落在截断位置之前
+        String whole = "ab😀cdefgh";
+
+        MappedFileSink sink = sink(1024, 8);
+        sink.accept(event("com.example.A", "a").args(split).response(whole).errorMessage("short").build());
+        sink.close();
+
+        AspectLogEvent expected = event("com.example.A", "a")
+                .args("abcdefg...").response("ab😀cdef...").errorMessage("short").build();
+        assertThat(read()).containsExactlyElementsOf(json(expected));
+    }
+
+    @Test
+    void unpackedTraceIdAndClientIp() throws IOException {
+        List<AspectLogEvent> events = new ArrayList<>();
+        // X-Request-Id 取到的非十六进制ID
+        events.add(event("com.example.A", "a").traceId("req-42").clientIp("::ffff:10.0.0.1").build());
+        // 大写或长度不对的十六进制也不压缩
+        events.add(event("com.example.A", "a").traceId("4BF92F3577B34DA6A3CE929D0E0E4736").clientIp("2001:db8::1").build());
+        events.add(event("com.example.A", "a").traceId("4bf92f3577b34da6a3ce929d0e0e47").clientIp("10.0.0.1").build());
+        events.add(event("com.example.A", "a").traceId("4bf92f3577b34da6a3ce929d0e0e4736").clientIp("255.255.255.255").build());
+
+        MappedFileSink sink = sink(1024, 1024);
+        events.forEach(sink::accept);
+        sink.close();
+
+        assertThat(read()).containsExactlyElementsOf(json(events));
+    }
+
+    private MappedFileSink sink(int segmentSize, int maxSummaryChars) {
+        return new MappedFileSink(directory, segmentSize, 1000, Duration.ofSeconds(10), new BinaryRecordEncoder(maxSummaryChars));
+    }
+
+    private static AspectLogEvent.AspectLogEventBuilder event(String className, String methodName) {
+        return AspectLogEvent.builder()
+                .timestamp(NOW)
+                .className(className)
+                .methodName(methodName)
+                .hostIp("192.168.0.10")
+                // 二进制编码以微秒存储
+                .durationNanos(1_234_000)
+                .outcome(AspectLogEvent.Outcome.SUCCESS);
+    }
+
+    private List<Path> segments() throws IOException {
+        List<Path> files = new ArrayList<>();
+        try (DirectoryStream<Path> stream = Files.newDirectoryStream(directory, "*" + Segments.SUFFIX)) {
+            stream.forEach(files::add);
+        }
+        Collections.sort(files);
+        return files;
+    }
+
+    private List<String> read() throws IOException {
+        List<String> lines = new ArrayList<>();
+        for (Path file : segments()) {
+            SegmentReader.read(file, lines::add);
+        }
+        return lines;
+    }
+
+    private static List<String> json(AspectLogEvent... events) {
+        List<AspectLogEvent> list = new ArrayList<>();
+        Collections.addAll(list, events);
+        return json(list);
+    }
+
+    private static List<String> json(List<AspectLogEvent> events) {
+        List<String> lines = new ArrayList<>();
+        for (AspectLogEvent event : events) {
+            StringBuilder out = new StringBuilder();
+            JSON.encode(event, out);
+            lines.add(out.toString());
+        }
+        return lines;
+    }
+
+    private static String repeat(char c, int count) {
+        char[] chars = new char[count];
+        Arrays.fill(chars, c);
+        return new String(chars);
+    }
+}
@@ -0,0 +1,13 @@
+package org.springframework.cloud.context.environment;
+
+import org.springframework.context.ApplicationEvent;
+
+/**
+ * 与 spring-cloud-context 同名的测试替身，AspectLogSettingsRefresher 只按类名识别
+ */
+public class EnvironmentChangeEvent extends ApplicationEvent {
+
+    public EnvironmentChangeEvent(Object source) {
+        super(source);
+    }
+}
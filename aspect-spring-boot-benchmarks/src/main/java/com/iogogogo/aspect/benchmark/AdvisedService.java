@@ -0,0 +1,14 @@
+package com.iogogogo.aspect.benchmark;
+
+import com.iogogogo.aspect.annotation.AspectLog;
+
+/**
+ * 被测方法，本身几乎不做事，测到的就是切面开销
+ */
+public class AdvisedService {
+
+    @AspectLog
+    public String call(String name, int id) {
+        return name;
+    }
+}
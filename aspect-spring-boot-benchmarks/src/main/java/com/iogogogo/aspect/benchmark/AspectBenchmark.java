@@ -0,0 +1,94 @@
+package com.iogogogo.aspect.benchmark;
+
+import com.iogogogo.aspect.event.LogFormat;
+import com.iogogogo.aspect.properties.AspectLogProperties;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 裸方法 vs 切面方法，有无请求上下文，各输出模式
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class AspectBenchmark {
+
+    /**
+     * JSON / KEY_VALUE 同步输出，ASYNC 为异步JSON，SAMPLED_OUT 为采样未命中
+     */
+    @Param({"JSON", "KEY_VALUE", "ASYNC", "SAMPLED_OUT"})
+    public String mode;
+
+    @Param({"false", "true"})
+    public boolean requestContext;
+
+    private AspectFixture fixture;
+
+    private AdvisedService bare;
+
+    private AdvisedService advised;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        AspectLogProperties properties = new AspectLogProperties();
+        switch (mode) {
+            case "KEY_VALUE":
+                properties.setFormat(LogFormat.KEY_VALUE);
+                break;
+            case "ASYNC":
+                properties.getAsync().setEnabled(true);
+                break;
+            case "SAMPLED_OUT":
+                properties.getSampling().setRate(0);
+                break;
+            default:
+                properties.setFormat(LogFormat.JSON);
+        }
+        fixture = new AspectFixture(properties);
+        bare = new AdvisedService();
+        advised = fixture.proxy(new AdvisedService());
+
+        if (requestContext) {
+            MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/index");
+            request.setRemoteAddr("10.0.0.1");
+            request.addHeader("X-Forwarded-For", "192.168.1.10, 10.0.0.1");
+            RequestContextHolder.setRequestAttributes(new ServletRequestAttributes(request, new MockHttpServletResponse()));
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        RequestContextHolder.resetRequestAttributes();
+        fixture.close();
+    }
+
+    @Benchmark
+    public String bare() {
+        return bare.call("name", 1);
+    }
+
+    @Benchmark
+    public String advised() {
+        return advised.call("name", 1);
+    }
+}
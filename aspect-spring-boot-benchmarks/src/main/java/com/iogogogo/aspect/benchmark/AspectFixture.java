@@ -0,0 +1,99 @@
+package com.iogogogo.aspect.benchmark;
+
+import com.iogogogo.aspect.async.AsyncLogDispatcher;
+import com.iogogogo.aspect.core.AspectLogAdvisor;
+import com.iogogogo.aspect.core.AspectLogEventWriter;
+import com.iogogogo.aspect.core.AspectLogPointcut;
+import com.iogogogo.aspect.core.AspectLogSettingsProvider;
+import com.iogogogo.aspect.core.ErrorTraceThrottle;
+import com.iogogogo.aspect.core.HostInfoProvider;
+import com.iogogogo.aspect.core.InetUtils;
+import com.iogogogo.aspect.core.MethodLogDescriptorCache;
+import com.iogogogo.aspect.core.WebAspectLog;
+import com.iogogogo.aspect.metrics.HistogramLatencyRecorder;
+import com.iogogogo.aspect.metrics.LatencyRecorder;
+import com.iogogogo.aspect.net.ClientAddressResolver;
+import com.iogogogo.aspect.properties.AspectLogProperties;
+import com.iogogogo.aspect.properties.InetUtilsProperties;
+import com.iogogogo.aspect.render.SafeRenderers;
+import com.iogogogo.aspect.render.ValueRenderer;
+import com.iogogogo.aspect.sampling.Sampler;
+import com.iogogogo.aspect.sink.AspectLogSink;
+import org.springframework.aop.framework.ProxyFactory;
+import org.springframework.beans.factory.support.DefaultListableBeanFactory;
+import org.springframework.beans.factory.support.StaticListableBeanFactory;
+
+import java.io.Closeable;
+
+/**
+ * 不启动Spring容器，手工装配 {@link WebAspectLog} 并生成代理
+ */
+public class AspectFixture implements Closeable {
+
+    private final HostInfoProvider hostInfoProvider;
+
+    private final AsyncLogDispatcher dispatcher;
+
+    private final ClientAddressResolver clientAddressResolver;
+
+    private final AspectLogAdvisor advisor;
+
+    public AspectFixture(AspectLogProperties properties) {
+        InetUtilsProperties inetUtilsProperties = new InetUtilsProperties();
+        this.hostInfoProvider = new HostInfoProvider(new InetUtils(inetUtilsProperties), inetUtilsProperties, properties.getHost());
+        this.hostInfoProvider.start();
+        this.clientAddressResolver = new ClientAddressResolver(properties.getClientIp().getTrustedProxies(),
+                () -> hostInfoProvider.get().getIpAddress());
+        AspectLogEventWriter writer = new AspectLogEventWriter(properties.getFormat().encoder());
+        AspectLogProperties.Render render = properties.getRender();
+        ValueRenderer renderer = new ValueRenderer(render.getMaxChars(), render.getMaxElements(), render.getMaxDepth(), SafeRenderers.defaults());
+
+        StaticListableBeanFactory beanFactory = new StaticListableBeanFactory();
+        beanFactory.addBean("aspectLogEventWriter", writer);
+        if (properties.getMetrics().isEnabled()) {
+            beanFactory.addBean("histogramLatencyRecorder", new HistogramLatencyRecorder());
+        }
+        if (properties.getAsync().isEnabled()) {
+            AspectLogProperties.Async async = properties.getAsync();
+            this.dispatcher = new AsyncLogDispatcher(writer, async.getBufferSize(), async.getBatchSize(),
+                    async.getOverflowPolicy(), async.getSampleRate());
+            beanFactory.addBean("asyncLogDispatcher", dispatcher);
+        } else {
+            this.dispatcher = null;
+        }
+
+        AspectLogSettingsProvider settings = new AspectLogSettingsProvider(properties);
+        WebAspectLog aspect = new WebAspectLog(hostInfoProvider, clientAddressResolver, beanFactory.getBeanProvider(AspectLogSink.class), renderer, new MethodLogDescriptorCache(),
+                beanFactory.getBeanProvider(LatencyRecorder.class), new Sampler(settings), settings,
+                new ErrorTraceThrottle(properties.getError()), beanFactory.getBeanProvider(AsyncLogDispatcher.class), properties.getNested());
+        // StaticListableBeanFactory 的 ObjectProvider#getObject 不可用
+        DefaultListableBeanFactory aspects = new DefaultListableBeanFactory();
+        aspects.registerSingleton("webAspectLog", aspect);
+        this.advisor = new AspectLogAdvisor(new AspectLogPointcut(properties.getPointcut().getIncludes(),
+                properties.getPointcut().getExcludes()), aspects.getBeanProvider(WebAspectLog.class));
+    }
+
+    @SuppressWarnings("unchecked")
+    public <T> T proxy(T target) {
+        ProxyFactory factory = new ProxyFactory(target);
+        factory.setProxyTargetClass(true);
+        factory.addAdvisor(advisor);
+        return (T) factory.getProxy();
+    }
+
+    public HostInfoProvider getHostInfoProvider() {
+        return hostInfoProvider;
+    }
+
+    public ClientAddressResolver getClientAddressResolver() {
+        return clientAddressResolver;
+    }
+
+    @Override
+    public void close() {
+        if (dispatcher != null) {
+            dispatcher.close();
+        }
+        hostInfoProvider.close();
+    }
+}
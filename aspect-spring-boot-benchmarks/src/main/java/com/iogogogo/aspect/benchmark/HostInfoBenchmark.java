@@ -0,0 +1,113 @@
+package com.iogogogo.aspect.benchmark;
+
+import com.iogogogo.aspect.core.InetUtils;
+import com.iogogogo.aspect.net.ClientAddressResolver;
+import com.iogogogo.aspect.properties.AspectLogProperties;
+import com.iogogogo.aspect.properties.InetUtilsProperties;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.mock.web.MockHttpServletRequest;
+
+import java.net.InetAddress;
+import java.net.UnknownHostException;
+import java.nio.ByteBuffer;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 本机信息与客户端IP的各条解析路径
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class HostInfoBenchmark {
+
+    private InetUtils inetUtils;
+
+    private AspectFixture fixture;
+
+    private MockHttpServletRequest forwarded;
+
+    private MockHttpServletRequest loopback;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        inetUtils = new InetUtils(new InetUtilsProperties());
+        fixture = new AspectFixture(new AspectLogProperties());
+
+        forwarded = new MockHttpServletRequest("GET", "/api/index");
+        forwarded.setRemoteAddr("10.0.0.1");
+        forwarded.addHeader("X-Forwarded-For", "192.168.1.10, 10.0.0.1");
+
+        loopback = new MockHttpServletRequest("GET", "/api/index");
+        loopback.setRemoteAddr("127.0.0.1");
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        inetUtils.close();
+        fixture.close();
+    }
+
+    @Benchmark
+    public InetUtils.HostInfo enumerateAndResolve() {
+        return inetUtils.findFirstNonLoopbackHostInfo();
+    }
+
+    @Benchmark
+    public InetUtils.HostInfo cachedHostInfo() {
+        return fixture.getHostInfoProvider().get();
+    }
+
+    /**
+     * 原 getIpAddressAsInt 的实现：每次 InetAddress.getByName
+     */
+    @Benchmark
+    public int legacyIpAddressAsInt() throws UnknownHostException {
+        return ByteBuffer.wrap(InetAddress.getByName(fixture.getHostInfoProvider().get().getIpAddress()).getAddress()).getInt();
+    }
+
+    @Benchmark
+    public int ipAddressAsInt() {
+        return fixture.getHostInfoProvider().get().getIpAddressAsInt();
+    }
+
+    @Benchmark
+    @SuppressWarnings("deprecation")
+    public String legacyClientIpForwarded() {
+        return InetUtils.XInetAddress.findFirstNonLoopbackHostInfo(forwarded);
+    }
+
+    @Benchmark
+    @SuppressWarnings("deprecation")
+    public String legacyClientIpLoopback() {
+        return InetUtils.XInetAddress.findFirstNonLoopbackHostInfo(loopback);
+    }
+
+    @Benchmark
+    public String clientIpForwarded() {
+        return resolve(forwarded);
+    }
+
+    @Benchmark
+    public String clientIpLoopback() {
+        return resolve(loopback);
+    }
+
+    private String resolve(MockHttpServletRequest request) {
+        return fixture.getClientAddressResolver().resolve(request.getRemoteAddr(),
+                request.getHeader(ClientAddressResolver.FORWARDED), request.getHeader(ClientAddressResolver.X_FORWARDED_FOR));
+    }
+}
@@ -0,0 +1,123 @@
+package com.iogogogo.aspect.benchmark;
+
+import com.iogogogo.aspect.net.NetworkMatcher;
+import com.iogogogo.aspect.net.PatternList;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.net.InetAddress;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 一次网卡枚举中的名称、地址过滤：逐个 String.matches 与预编译匹配器对比
+ * <p>
+ * 模拟容器宿主机上几十个 veth 网卡的场景
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class InterfaceFilterBenchmark {
+
+    private static final List<String> IGNORED_INTERFACES = Arrays.asList("docker0", "veth.*", "cni\\d+", "flannel\\.1", "virbr.*");
+
+    private static final List<String> PREFERRED_NETWORKS = Arrays.asList("192.168", "10\\.12\\..*");
+
+    private String[] interfaceNames;
+
+    private InetAddress[] addresses;
+
+    private PatternList ignoredInterfaces;
+
+    private NetworkMatcher preferredNetworks;
+
+    private NetworkMatcher preferredCidrs;
+
+    @Setup(Level.Trial)
+    public void setup() throws Exception {
+        interfaceNames = new String[64];
+        addresses = new InetAddress[interfaceNames.length];
+        for (int i = 0; i < interfaceNames.length; i++) {
+            interfaceNames[i] = i % 8 == 0 ? "eth" + i : "veth" + Integer.toHexString(0x5a3c00 + i);
+            addresses[i] = InetAddress.getByAddress(new byte[]{10, 12, (byte) (i >> 8), (byte) i});
+        }
+        ignoredInterfaces = PatternList.regex(IGNORED_INTERFACES);
+        preferredNetworks = new NetworkMatcher(PREFERRED_NETWORKS);
+        preferredCidrs = new NetworkMatcher(Arrays.asList("192.168.0.0/16", "10.12.0.0/16"));
+    }
+
+    @Benchmark
+    public int legacyIgnoreInterface() {
+        int ignored = 0;
+        for (String name : interfaceNames) {
+            for (String regex : IGNORED_INTERFACES) {
+                if (name.matches(regex)) {
+                    ignored++;
+                    break;
+                }
+            }
+        }
+        return ignored;
+    }
+
+    @Benchmark
+    public int compiledIgnoreInterface() {
+        int ignored = 0;
+        for (String name : interfaceNames) {
+            if (ignoredInterfaces.matches(name)) {
+                ignored++;
+            }
+        }
+        return ignored;
+    }
+
+    @Benchmark
+    public int legacyPreferredAddress() {
+        int preferred = 0;
+        for (InetAddress address : addresses) {
+            String hostAddress = address.getHostAddress();
+            for (String regex : PREFERRED_NETWORKS) {
+                if (hostAddress.matches(regex) || hostAddress.startsWith(regex)) {
+                    preferred++;
+                    break;
+                }
+            }
+        }
+        return preferred;
+    }
+
+    @Benchmark
+    public int compiledPreferredAddress() {
+        int preferred = 0;
+        for (InetAddress address : addresses) {
+            if (preferredNetworks.matches(address)) {
+                preferred++;
+            }
+        }
+        return preferred;
+    }
+
+    @Benchmark
+    public int cidrPreferredAddress() {
+        int preferred = 0;
+        for (InetAddress address : addresses) {
+            if (preferredCidrs.matches(address)) {
+                preferred++;
+            }
+        }
+        return preferred;
+    }
+}
@@ -0,0 +1,58 @@
+package com.iogogogo.aspect.benchmark;
+
+import com.iogogogo.aspect.properties.AspectLogProperties;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 一次外层调用包含若干内层被切面调用：合并为调用树 vs 每层各输出一条记录
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class NestedCallBenchmark {
+
+    @Param({"true", "false"})
+    public boolean collapse;
+
+    @Param({"1", "10"})
+    public int calls;
+
+    private AspectFixture fixture;
+
+    private NestedService service;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        AspectLogProperties properties = new AspectLogProperties();
+        properties.getNested().setCollapse(collapse);
+        fixture = new AspectFixture(properties);
+        service = fixture.proxy(new NestedService(fixture.proxy(new AdvisedService())));
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        fixture.close();
+    }
+
+    @Benchmark
+    public String nested() {
+        return service.call("name", calls);
+    }
+}
@@ -0,0 +1,24 @@
+package com.iogogogo.aspect.benchmark;
+
+import com.iogogogo.aspect.annotation.AspectLog;
+
+/**
+ * 外层被测方法，逐个调用内层被切面方法
+ */
+public class NestedService {
+
+    private final AdvisedService inner;
+
+    public NestedService(AdvisedService inner) {
+        this.inner = inner;
+    }
+
+    @AspectLog
+    public String call(String name, int calls) {
+        String result = name;
+        for (int i = 0; i < calls; i++) {
+            result = inner.call(name, i);
+        }
+        return result;
+    }
+}
@@ -0,0 +1,110 @@
+package com.iogogogo.aspect.benchmark;
+
+import com.iogogogo.aspect.core.AspectLogPointcut;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.aop.aspectj.AspectJExpressionPointcut;
+import org.springframework.aop.support.AopUtils;
+import org.springframework.context.ApplicationContext;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Enumeration;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.jar.JarEntry;
+import java.util.jar.JarFile;
+
+/**
+ * 创建代理时的切点匹配开销：AspectJ 表达式 @annotation(...) 与 {@link AspectLogPointcut} 对比
+ * <p>
+ * 用 spring-context、spring-web(打包后为整个benchmarks.jar)中的类模拟容器中的bean，每次都新建切点，测的是启动时一次性的匹配成本
+ */
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 10)
+@Fork(1)
+@State(Scope.Benchmark)
+public class PointcutBenchmark {
+
+    private static final String EXPRESSION = "@annotation(com.iogogogo.aspect.annotation.AspectLog)";
+
+    private final List<Class<?>> classes = new ArrayList<>();
+
+    @Setup(Level.Trial)
+    public void setup() throws Exception {
+        // 打成benchmarks.jar后两者位于同一个jar
+        Set<File> jars = new LinkedHashSet<>();
+        jars.add(location(ApplicationContext.class));
+        jars.add(location(RestController.class));
+        for (File jar : jars) {
+            load(jar, getClass().getClassLoader());
+        }
+        // 带注解的目标类
+        classes.add(AdvisedService.class);
+    }
+
+    @Benchmark
+    public int aspectjExpression() {
+        AspectJExpressionPointcut pointcut = new AspectJExpressionPointcut();
+        pointcut.setExpression(EXPRESSION);
+        return count(pointcut);
+    }
+
+    @Benchmark
+    public int classFilter() {
+        return count(new AspectLogPointcut(Collections.emptyList(), Collections.emptyList()));
+    }
+
+    private int count(org.springframework.aop.Pointcut pointcut) {
+        int matched = 0;
+        for (Class<?> clazz : classes) {
+            try {
+                if (AopUtils.canApply(pointcut, clazz)) {
+                    matched++;
+                }
+            } catch (Throwable ignored) {
+                // 可选依赖缺失的类
+            }
+        }
+        return matched;
+    }
+
+    private static File location(Class<?> anchor) throws Exception {
+        return new File(anchor.getProtectionDomain().getCodeSource().getLocation().toURI());
+    }
+
+    private void load(File jar, ClassLoader loader) throws Exception {
+        try (JarFile file = new JarFile(jar)) {
+            Enumeration<JarEntry> entries = file.entries();
+            while (entries.hasMoreElements()) {
+                String name = entries.nextElement().getName();
+                if (!name.endsWith(".class") || name.contains("-")) {
+                    continue;
+                }
+                try {
+                    Class<?> clazz = Class.forName(name.substring(0, name.length() - 6).replace('/', '.'), false, loader);
+                    // 与容器一样先做一次反射，排除掉缺少依赖的类
+                    clazz.getDeclaredMethods();
+                    classes.add(clazz);
+                } catch (Throwable ignored) {
+                    // 可选依赖缺失
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,101 @@
+package com.iogogogo.aspect.benchmark;
+
+import com.iogogogo.aspect.properties.AspectLogProperties;
+import com.iogogogo.aspect.render.Redactor;
+import com.iogogogo.aspect.render.SafeRenderers;
+import com.iogogogo.aspect.render.ValueRenderer;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 参数渲染：Arrays.toString vs {@link ValueRenderer}，以及开启默认脱敏规则后的开销
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class RenderBenchmark {
+
+    /**
+     * SMALL 为常见的几个简单参数，LARGE 含1MB字节数组和万级集合，BEAN 为含密码字段的请求对象与表单字符串
+     */
+    @Param({"SMALL", "LARGE", "BEAN"})
+    public String payload;
+
+    private Object[] args;
+
+    private ValueRenderer renderer;
+
+    private ValueRenderer redacting;
+
+    @Setup
+    public void setup() {
+        if ("LARGE".equals(payload)) {
+            List<String> list = new ArrayList<>();
+            for (int i = 0; i < 10_000; i++) {
+                list.add("item-" + i);
+            }
+            args = new Object[]{new byte[1024 * 1024], list, Collections.singletonMap("key", list)};
+        } else if ("BEAN".equals(payload)) {
+            args = new Object[]{new LoginRequest("alice", "s3cret", true), "grant_type=password&username=alice&password=s3cret"};
+        } else {
+            args = new Object[]{"name", 1, Collections.singletonMap("key", "value")};
+        }
+        renderer = new ValueRenderer(1024, 20, 3, SafeRenderers.defaults());
+        AspectLogProperties.Render.Redaction redaction = new AspectLogProperties.Render.Redaction();
+        redacting = new ValueRenderer(1024, 20, 3, SafeRenderers.defaults(),
+                new Redactor(redaction.getFieldNames(), redaction.getValuePatterns(), redaction.getMask()));
+    }
+
+    @Benchmark
+    public String arraysToString() {
+        return Arrays.toString(args);
+    }
+
+    @Benchmark
+    public String bounded() {
+        return renderer.renderArgs(args);
+    }
+
+    @Benchmark
+    public String redacted() {
+        return redacting.renderArgs(args);
+    }
+
+    public static class LoginRequest {
+
+        private final String username;
+
+        private final String password;
+
+        private final boolean rememberMe;
+
+        LoginRequest(String username, String password, boolean rememberMe) {
+            this.username = username;
+            this.password = password;
+            this.rememberMe = rememberMe;
+        }
+
+        @Override
+        public String toString() {
+            return "LoginRequest(username=" + username + ", password=" + password + ", rememberMe=" + rememberMe + ")";
+        }
+    }
+}
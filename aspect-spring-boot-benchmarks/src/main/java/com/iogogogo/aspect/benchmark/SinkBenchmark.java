@@ -0,0 +1,110 @@
+package com.iogogogo.aspect.benchmark;
+
+import ch.qos.logback.classic.Logger;
+import ch.qos.logback.classic.LoggerContext;
+import ch.qos.logback.classic.encoder.PatternLayoutEncoder;
+import ch.qos.logback.classic.spi.ILoggingEvent;
+import ch.qos.logback.core.FileAppender;
+import com.iogogogo.aspect.core.AspectLogEventWriter;
+import com.iogogogo.aspect.event.AspectLogEvent;
+import com.iogogogo.aspect.event.JsonAspectLogEncoder;
+import com.iogogogo.aspect.sink.AspectLogSink;
+import com.iogogogo.aspect.sink.BinaryRecordEncoder;
+import com.iogogogo.aspect.sink.MappedFileSink;
+import com.iogogogo.aspect.sink.TextRecordEncoder;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.slf4j.LoggerFactory;
+import org.springframework.util.FileSystemUtils;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 输出端吞吐：经 logback FileAppender 输出 vs {@link MappedFileSink}(JSON文本 / 二进制编码)，均写本地磁盘
+ * <p>
+ * java -jar benchmarks.jar SinkBenchmark -t 4 可测多线程写入
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class SinkBenchmark {
+
+    @Param({"LOGBACK", "MAPPED_FILE", "MAPPED_FILE_BINARY"})
+    public String sink;
+
+    private Path directory;
+
+    private AspectLogSink target;
+
+    private FileAppender<ILoggingEvent> appender;
+
+    private final AspectLogEvent event = AspectLogEvent.builder()
+            .timestamp(System.currentTimeMillis())
+            .className("com.example.ExampleAspectApplication")
+            .methodName("index")
+            .hostIp("192.168.0.102")
+            .url("http://127.0.0.1:8080/api/index")
+            .httpMethod("GET")
+            .clientIp("127.0.0.1")
+            .status(200)
+            .durationNanos(214_000)
+            .outcome(AspectLogEvent.Outcome.SUCCESS)
+            .build();
+
+    @Setup(Level.Trial)
+    public void setup() throws Exception {
+        directory = Files.createTempDirectory("aspect-sink");
+        if ("MAPPED_FILE".equals(sink)) {
+            target = new MappedFileSink(directory, 64 * 1024 * 1024, 4, Duration.ofSeconds(1),
+                    new TextRecordEncoder(new JsonAspectLogEncoder()));
+        } else if ("MAPPED_FILE_BINARY".equals(sink)) {
+            target = new MappedFileSink(directory, 64 * 1024 * 1024, 4, Duration.ofSeconds(1), new BinaryRecordEncoder(256));
+        } else {
+            LoggerContext context = (LoggerContext) LoggerFactory.getILoggerFactory();
+            PatternLayoutEncoder encoder = new PatternLayoutEncoder();
+            encoder.setContext(context);
+            encoder.setPattern("%d %-5level [%thread] %logger : %msg%n");
+            encoder.start();
+            appender = new FileAppender<>();
+            appender.setContext(context);
+            appender.setFile(directory.resolve("aspect.log").toString());
+            appender.setEncoder(encoder);
+            appender.start();
+            Logger logger = context.getLogger("com.iogogogo.aspect.core.WebAspectLog");
+            logger.setAdditive(false);
+            logger.addAppender(appender);
+            target = new AspectLogEventWriter(new JsonAspectLogEncoder());
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        target.close();
+        if (appender != null) {
+            appender.stop();
+        }
+        FileSystemUtils.deleteRecursively(directory.toFile());
+    }
+
+    @Benchmark
+    public void accept() {
+        target.accept(event);
+    }
+}
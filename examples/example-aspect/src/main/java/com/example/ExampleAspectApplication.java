@@ -3,12 +3,18 @@ package com.example;
 import com.iogogogo.aspect.annotation.AspectLog;
 import com.iogogogo.aspect.annotation.EnableAspectLog;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.core.task.AsyncTaskExecutor;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RestController;
 
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
 
 @EnableAspectLog
 @Slf4j
@@ -17,6 +23,12 @@ import org.springframework.web.bind.annotation.RestController;
 @SpringBootApplication
 public class ExampleAspectApplication {
 
+    private final AsyncTaskExecutor taskExecutor;
+
+    public ExampleAspectApplication(@Qualifier("applicationTaskExecutor") AsyncTaskExecutor taskExecutor) {
+        this.taskExecutor = taskExecutor;
+    }
+
     public static void main(String[] args) {
         SpringApplication.run(ExampleAspectApplication.class, args);
     }
@@ -27,4 +39,20 @@ public class ExampleAspectApplication {
         log.info("/api/index");
         return "ok";
     }
+
+    @AspectLog
+    @GetMapping("/async")
+    public CompletableFuture<String> async() {
+        // 计时到 future 完成，url、clientIp 由 TaskDecorator 带到执行线程
+        return CompletableFuture.supplyAsync(() -> {
+            LockSupport.parkNanos(TimeUnit.MILLISECONDS.toNanos(50));
+            return "async";
+        }, taskExecutor);
+    }
+
+    @AspectLog
+    @GetMapping("/fail")
+    public String fail() {
+        throw new IllegalStateException("/api/fail");
+    }
 }
@@ -0,0 +1,33 @@
+package com.example;
+
+import com.iogogogo.aspect.annotation.AspectLog;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+/**
+ * 类上标注 @AspectLog，全部public方法都会记录；方法上的注解可覆盖类上的配置
+ */
+@AspectLog(logResponse = false)
+@RestController
+@RequestMapping("/api/greeting")
+public class GreetingController {
+
+    private final GreetingService greetingService;
+
+    public GreetingController(GreetingService greetingService) {
+        this.greetingService = greetingService;
+    }
+
+    @GetMapping
+    public String hello(@RequestParam(defaultValue = "world") String name) {
+        return greetingService.greet("hello", name);
+    }
+
+    @AspectLog(logArgs = false)
+    @GetMapping("/bye")
+    public String bye(@RequestParam(defaultValue = "world") String name) {
+        return greetingService.greet("bye", name);
+    }
+}
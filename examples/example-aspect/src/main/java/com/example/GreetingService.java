@@ -0,0 +1,16 @@
+package com.example;
+
+import com.iogogogo.aspect.annotation.AspectLog;
+import org.springframework.stereotype.Service;
+
+/**
+ * 被 controller 调用的服务方法不单独输出，合并为 controller 记录中的 callTree
+ */
+@AspectLog
+@Service
+public class GreetingService {
+
+    public String greet(String prefix, String name) {
+        return prefix + " " + name;
+    }
+}